@@ -0,0 +1,34 @@
+package org.gbif.kvs.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so the results include the bytes allocated per operation
+ * (gc.alloc.rate.norm). Results are also written as JSON into jmh-result.json.
+ *
+ * Usage: java -jar benchmarks.jar [benchmark name regular expression]
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Private constructor of main class.
+   */
+  private BenchmarkRunner() {
+    //DO NOTHING
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(args.length > 0 ? args[0] : "org.gbif.kvs.*")
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.JSON)
+        .result("jmh-result.json")
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,93 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.kvs.geocode.GeocodeKVStoreFactory;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the functions that convert geocode responses from and into HBase cells.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeocodeMappersBenchmark {
+
+  private static final byte[] COLUMN_FAMILY = Bytes.toBytes("v");
+
+  private static final byte[] COLUMN_QUALIFIER = Bytes.toBytes("j");
+
+  private static final byte[] ROW_KEY = Bytes.toBytes("152.3702157|4.8951679");
+
+  @Param({"JSON", "SMILE"})
+  private ValueFormat valueFormat;
+
+  private Function<Result, GeocodeResponse> resultMapper;
+
+  private BiFunction<byte[], GeocodeResponse, Put> valueMutator;
+
+  private GeocodeResponse geocodeResponse;
+
+  private Result result;
+
+  @Setup
+  public void setup() {
+    resultMapper = GeocodeKVStoreFactory.resultMapper(COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                      valueFormat.codec(GeocodeResponse.class));
+    valueMutator = GeocodeKVStoreFactory.valueMutator(COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                      valueFormat.codec(GeocodeResponse.class));
+    geocodeResponse = new GeocodeResponse(Arrays.asList(location("NLD", "Political", "http://www.naturalearthdata.com",
+                                                                 "Netherlands", "NL"),
+                                                        location("5670", "EEZ", "http://vliz.be/vmdcdata/marbound/",
+                                                                 "Netherlands", "NL")));
+    Put put = valueMutator.apply(ROW_KEY, geocodeResponse);
+    result = Result.create(Collections.singletonList(new KeyValue(ROW_KEY, COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                                  CellUtil.cloneValue(put.get(COLUMN_FAMILY, COLUMN_QUALIFIER).get(0)))));
+  }
+
+  private static Location location(String id, String type, String source, String countryName, String isoCountryCode) {
+    Location location = new Location();
+    location.setId(id);
+    location.setType(type);
+    location.setSource(source);
+    location.setCountryName(countryName);
+    location.setIsoCountryCode2Digit(isoCountryCode);
+    return location;
+  }
+
+  @Benchmark
+  public GeocodeResponse resultMapper() {
+    return resultMapper.apply(result);
+  }
+
+  @Benchmark
+  public Put valueMutator() {
+    return valueMutator.apply(ROW_KEY, geocodeResponse);
+  }
+}
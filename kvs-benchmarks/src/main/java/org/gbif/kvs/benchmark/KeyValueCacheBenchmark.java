@@ -0,0 +1,89 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.cache.KeyValueCache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link KeyValueCache#get(Object)} under contention.
+ * The wrapped store is an in-memory map, so the benchmark measures the cache overhead and not the store latency.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class KeyValueCacheBenchmark {
+
+  // Number of distinct keys requested
+  private static final int NUM_OF_KEYS = 100_000;
+
+  // Cache capacity, a capacity smaller than the number of keys produces misses and evictions
+  @Param({"10000", "100000"})
+  private int capacity;
+
+  private KeyValueStore<Integer, String> cache;
+
+  @Setup
+  public void setup() {
+    Map<Integer, String> values = new ConcurrentHashMap<>();
+    IntStream.range(0, NUM_OF_KEYS).forEach(key -> values.put(key, "V" + key));
+    cache = KeyValueCache.cache(new MapStore(values), capacity, Integer.class, String.class,
+                                new SimpleMeterRegistry(), "benchmark");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    cache.close();
+  }
+
+  @Benchmark
+  public String get() {
+    return cache.get(ThreadLocalRandom.current().nextInt(NUM_OF_KEYS));
+  }
+
+  /**
+   * Store backed by a map.
+   */
+  private static class MapStore implements KeyValueStore<Integer, String> {
+
+    private final Map<Integer, String> values;
+
+    private MapStore(Map<Integer, String> values) {
+      this.values = values;
+    }
+
+    @Override
+    public String get(Integer key) {
+      return values.get(key);
+    }
+
+    @Override
+    public void close() {
+      //NOTHING
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the logical keys of the GBIF KV stores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogicalKeyBenchmark {
+
+  private LatLng latLng;
+
+  private SpeciesMatchRequest speciesMatchRequest;
+
+  @Setup
+  public void setup() {
+    latLng = LatLng.create(52.3702157, 4.8951679);
+    speciesMatchRequest = SpeciesMatchRequest.builder()
+                            .withKingdom("Animalia")
+                            .withPhylum("Chordata")
+                            .withClazz("Aves")
+                            .withOrder("Passeriformes")
+                            .withFamily("Paridae")
+                            .withGenus("Parus")
+                            .withSpecificEpithet("major")
+                            .withRank("SPECIES")
+                            .withScientificName("Parus major")
+                            .withScientificNameAuthorship("Linnaeus, 1758")
+                            .build();
+  }
+
+  @Benchmark
+  public String latLngLogicalKey() {
+    return latLng.getLogicalKey();
+  }
+
+  @Benchmark
+  public String speciesMatchRequestLogicalKey() {
+    return speciesMatchRequest.getLogicalKey();
+  }
+}
@@ -0,0 +1,100 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.api.v2.RankedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.kvs.species.NameUsageMatchKVStoreFactory;
+import org.gbif.rest.client.species.NameUsageMatch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the functions that convert name usage matches from and into HBase cells.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameUsageMatchMappersBenchmark {
+
+  private static final byte[] COLUMN_FAMILY = Bytes.toBytes("v");
+
+  private static final byte[] COLUMN_QUALIFIER = Bytes.toBytes("j");
+
+  private static final byte[] ROW_KEY = Bytes.toBytes("1AnimaliaChordataAvesPasseriformesParidaeParusmajorParus major");
+
+  @Param({"JSON", "SMILE"})
+  private ValueFormat valueFormat;
+
+  private Function<Result, NameUsageMatch> resultMapper;
+
+  private BiFunction<byte[], NameUsageMatch, Put> valueMutator;
+
+  private NameUsageMatch nameUsageMatch;
+
+  private Result result;
+
+  @Setup
+  public void setup() {
+    resultMapper = NameUsageMatchKVStoreFactory.resultMapper(COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                             valueFormat.codec(NameUsageMatch.class));
+    valueMutator = NameUsageMatchKVStoreFactory.valueMutator(COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                             valueFormat.codec(NameUsageMatch.class));
+    nameUsageMatch = new NameUsageMatch();
+    nameUsageMatch.setUsage(rankedName(2492462, "Parus major Linnaeus, 1758", Rank.SPECIES));
+    nameUsageMatch.setClassification(Arrays.asList(rankedName(1, "Animalia", Rank.KINGDOM),
+                                                   rankedName(44, "Chordata", Rank.PHYLUM),
+                                                   rankedName(212, "Aves", Rank.CLASS),
+                                                   rankedName(729, "Passeriformes", Rank.ORDER),
+                                                   rankedName(9327, "Paridae", Rank.FAMILY),
+                                                   rankedName(9705453, "Parus", Rank.GENUS),
+                                                   rankedName(2492462, "Parus major", Rank.SPECIES)));
+    NameUsageMatch.Diagnostics diagnostics = new NameUsageMatch.Diagnostics();
+    diagnostics.setConfidence(99);
+    nameUsageMatch.setDiagnostics(diagnostics);
+    Put put = valueMutator.apply(ROW_KEY, nameUsageMatch);
+    result = Result.create(Collections.singletonList(new KeyValue(ROW_KEY, COLUMN_FAMILY, COLUMN_QUALIFIER,
+                                                                  CellUtil.cloneValue(put.get(COLUMN_FAMILY, COLUMN_QUALIFIER).get(0)))));
+  }
+
+  private static RankedName rankedName(int key, String name, Rank rank) {
+    RankedName rankedName = new RankedName();
+    rankedName.setKey(key);
+    rankedName.setName(name);
+    rankedName.setRank(rank);
+    return rankedName;
+  }
+
+  @Benchmark
+  public NameUsageMatch resultMapper() {
+    return resultMapper.apply(result);
+  }
+
+  @Benchmark
+  public Put valueMutator() {
+    return valueMutator.apply(ROW_KEY, nameUsageMatch);
+  }
+}
@@ -0,0 +1,78 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.kvs.SaltedKeyGenerator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the salted key computation performed on every lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaltedKeyGeneratorBenchmark {
+
+  @Param({"10", "100"})
+  private int numOfBuckets;
+
+  @Param({"STRING_HASH_CODE", "MURMUR3"})
+  private SaltedKeyGenerator.BucketHash bucketHash;
+
+  private SaltedKeyGenerator saltedKeyGenerator;
+
+  private String logicalKey;
+
+  private byte[] logicalKeyBytes;
+
+  private byte[] saltedKey;
+
+  private ByteBuffer buffer;
+
+  @Setup
+  public void setup() {
+    saltedKeyGenerator = new SaltedKeyGenerator(numOfBuckets, StandardCharsets.UTF_8, bucketHash);
+    logicalKey = "52.3702157|4.8951679";
+    logicalKeyBytes = logicalKey.getBytes(StandardCharsets.UTF_8);
+    saltedKey = saltedKeyGenerator.computeKey(logicalKey);
+    buffer = ByteBuffer.allocate(saltedKey.length);
+  }
+
+  @Benchmark
+  public byte[] computeKeyFromString() {
+    return saltedKeyGenerator.computeKey(logicalKey);
+  }
+
+  @Benchmark
+  public byte[] computeKeyFromBytes() {
+    return saltedKeyGenerator.computeKey(logicalKeyBytes);
+  }
+
+  @Benchmark
+  public ByteBuffer computeKeyIntoBuffer() {
+    buffer.clear();
+    saltedKeyGenerator.computeKey(logicalKeyBytes, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public byte[] bucketOf() {
+    return saltedKeyGenerator.bucketOf(saltedKey);
+  }
+}
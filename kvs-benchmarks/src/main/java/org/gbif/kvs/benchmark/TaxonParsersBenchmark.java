@@ -0,0 +1,111 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.api.model.checklistbank.ParsedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.common.parsers.RankParser;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+import org.gbif.kvs.species.TaxonParsers;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the rank and scientific name interpretations of {@link TaxonParsers} on repeated requests, compared
+ * with the interpretations without memoization.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaxonParsersBenchmark {
+
+  // Distinct names of the workload
+  private static final int DISTINCT_NAMES = 500;
+
+  // Requests of the workload, each name comes with several rank spellings
+  private static final int REQUESTS = 4096;
+
+  private static final String[] RANKS = {"species", "SPECIES", "sp.", "Species", "subspecies", "var.", "genus"};
+
+  private static final RankParser RANK_PARSER = RankParser.getInstance();
+
+  private SpeciesMatchRequest[] requests;
+
+  private int next;
+
+  @Setup
+  public void setup() {
+    requests = new SpeciesMatchRequest[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      int name = i % DISTINCT_NAMES;
+      SpeciesMatchRequest.Builder builder = SpeciesMatchRequest.builder()
+          .withKingdom("Animalia")
+          .withGenus("Genus" + name)
+          .withVerbatimRank(RANKS[i % RANKS.length])
+          .withScientificNameAuthorship("Linnaeus, 1758");
+      requests[i] = i % 2 == 0 ?
+          builder.withSpecificEpithet("epithet" + name).build() :
+          builder.withScientificName("Genus" + name + " epithet" + name).build();
+    }
+  }
+
+  private SpeciesMatchRequest nextRequest() {
+    SpeciesMatchRequest request = requests[next];
+    next = (next + 1) % REQUESTS;
+    return request;
+  }
+
+  @Benchmark
+  public Rank interpretRank() {
+    return TaxonParsers.interpretRank(nextRequest());
+  }
+
+  @Benchmark
+  public String interpretScientificName() {
+    return TaxonParsers.interpretScientificName(nextRequest());
+  }
+
+  @Benchmark
+  public Rank interpretRankNotMemoized() {
+    SpeciesMatchRequest request = nextRequest();
+    Rank rank = null;
+    if (!Strings.isNullOrEmpty(request.getRank())) {
+      rank = RANK_PARSER.parse(request.getRank()).getPayload();
+    }
+    if (rank == null && !Strings.isNullOrEmpty(request.getVerbatimTaxonRank())) {
+      rank = RANK_PARSER.parse(request.getVerbatimTaxonRank()).getPayload();
+    }
+    return rank;
+  }
+
+  @Benchmark
+  public String interpretScientificNameNotMemoized() {
+    SpeciesMatchRequest request = nextRequest();
+    String authorship = request.getScientificNameAuthorship();
+    String scientificName = request.getScientificName();
+    if (scientificName != null) {
+      boolean containsAuthorship = !Strings.isNullOrEmpty(authorship)
+                                   && !scientificName.toLowerCase().contains(authorship.toLowerCase());
+      return containsAuthorship ? scientificName + " " + authorship : scientificName;
+    }
+    ParsedName pn = new ParsedName();
+    pn.setGenusOrAbove(Strings.isNullOrEmpty(request.getGenericName()) ? request.getGenus() : request.getGenericName());
+    pn.setSpecificEpithet(request.getSpecificEpithet());
+    pn.setInfraSpecificEpithet(request.getInfraspecificEpithet());
+    pn.setAuthorship(authorship);
+    return pn.canonicalNameComplete();
+  }
+}
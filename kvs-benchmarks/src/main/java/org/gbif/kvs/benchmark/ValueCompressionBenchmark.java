@@ -0,0 +1,140 @@
+package org.gbif.kvs.benchmark;
+
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.kvs.codec.CompressionConfig;
+import org.gbif.kvs.codec.ValueCodec;
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.kvs.codec.ZstdValueCodec;
+import org.gbif.rest.client.species.NameUsageMatch;
+import org.gbif.rest.client.species.RankedName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the encode and decode cost of compressed name usage matches.
+ * The size of the encoded value is reported by the encodedBytes counter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueCompressionBenchmark {
+
+  @Param({"JSON", "SMILE"})
+  private ValueFormat valueFormat;
+
+  @Param({"NONE", "ZSTD", "ZSTD_DICT"})
+  private String compression;
+
+  private ValueCodec<NameUsageMatch> codec;
+
+  private NameUsageMatch nameUsageMatch;
+
+  private byte[] encoded;
+
+  /**
+   * Size of the encoded value, reported once per iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+
+    public long encodedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      encodedBytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    ValueCodec<NameUsageMatch> formatCodec = valueFormat.codec(NameUsageMatch.class);
+    if ("ZSTD".equals(compression)) {
+      codec = new ZstdValueCodec<>(formatCodec, CompressionConfig.DEFAULT);
+    } else if ("ZSTD_DICT".equals(compression)) {
+      List<byte[]> samples = IntStream.range(0, 1000).mapToObj(i -> {
+        try {
+          return formatCodec.encode(nameUsageMatch(i));
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }).collect(Collectors.toList());
+      codec = new ZstdValueCodec<>(formatCodec, new CompressionConfig(3, 64,
+                                                                      ZstdValueCodec.trainDictionary(samples, 16 * 1024)));
+    } else {
+      codec = formatCodec;
+    }
+    nameUsageMatch = nameUsageMatch(2492462);
+    encoded = codec.encode(nameUsageMatch);
+  }
+
+  private static NameUsageMatch nameUsageMatch(int key) {
+    NameUsageMatch nameUsageMatch = new NameUsageMatch();
+    nameUsageMatch.setUsage(rankedName(key, "Parus major Linnaeus, 1758", Rank.SPECIES));
+    nameUsageMatch.setClassification(classification(key));
+    NameUsageMatch.Diagnostics diagnostics = new NameUsageMatch.Diagnostics();
+    diagnostics.setConfidence(99);
+    diagnostics.setLineage(Arrays.asList("Animalia", "Chordata", "Aves", "Passeriformes", "Paridae", "Parus"));
+    diagnostics.setAlternatives(IntStream.range(0, 5).mapToObj(i -> {
+      NameUsageMatch alternative = new NameUsageMatch();
+      alternative.setUsage(rankedName(key + i + 1, "Parus major subsp. " + i, Rank.SUBSPECIES));
+      alternative.setClassification(classification(key + i + 1));
+      return alternative;
+    }).collect(Collectors.toList()));
+    nameUsageMatch.setDiagnostics(diagnostics);
+    return nameUsageMatch;
+  }
+
+  private static List<RankedName> classification(int key) {
+    return Arrays.asList(rankedName(1, "Animalia", Rank.KINGDOM),
+                         rankedName(44, "Chordata", Rank.PHYLUM),
+                         rankedName(212, "Aves", Rank.CLASS),
+                         rankedName(729, "Passeriformes", Rank.ORDER),
+                         rankedName(9327, "Paridae", Rank.FAMILY),
+                         rankedName(9705453, "Parus", Rank.GENUS),
+                         rankedName(key, "Parus major", Rank.SPECIES));
+  }
+
+  private static RankedName rankedName(int key, String name, Rank rank) {
+    RankedName rankedName = new RankedName();
+    rankedName.setKey(key);
+    rankedName.setName(name);
+    rankedName.setRank(rank);
+    return rankedName;
+  }
+
+  @Benchmark
+  public byte[] encode(EncodedSize encodedSize) throws IOException {
+    byte[] value = codec.encode(nameUsageMatch);
+    encodedSize.encodedBytes = value.length;
+    return value;
+  }
+
+  @Benchmark
+  public NameUsageMatch decode() throws IOException {
+    return codec.decode(encoded);
+  }
+}
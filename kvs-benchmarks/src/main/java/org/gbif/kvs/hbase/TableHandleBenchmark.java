@@ -0,0 +1,82 @@
+package org.gbif.kvs.hbase;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a Get performed using a new {@link Table} per call, as stores did before, with a Get performed using a
+ * reused {@link TableHandle}. It runs against an HBase mini-cluster started in the benchmark JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TableHandleBenchmark {
+
+  private static final TableName TABLE_NAME = TableName.valueOf("benchmark_kv");
+
+  private static final byte[] COLUMN_FAMILY = Bytes.toBytes("v");
+
+  private static final byte[] ROW_KEY = Bytes.toBytes("152.3702157|4.8951679");
+
+  private HBaseTestingUtility hBaseTestingUtility;
+
+  private Connection connection;
+
+  private TableHandle tableHandle;
+
+  @Setup
+  public void setup() throws Exception {
+    hBaseTestingUtility = new HBaseTestingUtility();
+    hBaseTestingUtility.startMiniCluster(1);
+    try (Table table = hBaseTestingUtility.createTable(TABLE_NAME, COLUMN_FAMILY)) {
+      table.put(new Put(ROW_KEY).addColumn(COLUMN_FAMILY, Bytes.toBytes("j"), Bytes.toBytes("{}")));
+    }
+    connection = ConnectionFactory.createConnection(hBaseTestingUtility.getConfiguration());
+    tableHandle = new TableHandle(connection, TABLE_NAME);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    tableHandle.close();
+    connection.close();
+    hBaseTestingUtility.shutdownMiniCluster();
+  }
+
+  @Benchmark
+  public Result getTablePerCall() throws IOException {
+    try (Table table = connection.getTable(TABLE_NAME)) {
+      return table.get(new Get(ROW_KEY));
+    }
+  }
+
+  @Benchmark
+  public Result tableHandle() throws IOException {
+    return tableHandle.apply(table -> table.get(new Get(ROW_KEY)));
+  }
+}
@@ -1,6 +1,10 @@
 package org.gbif.kvs;
 
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Store of V data indexed by a key (byte[]).
@@ -18,4 +22,40 @@ public interface KeyValueStore<K, V> extends Closeable {
    */
   V get(K key);
 
+  /**
+   * Obtains the associated data/payload of a collection of keys.
+   * Keys without an associated value are mapped to null.
+   * Implementations backed by batch operations report a key that failed by leaving it out of the returned map,
+   * instead of failing the entire batch.
+   * The default implementation performs a {@link #get(Object)} per key.
+   *
+   * @param keys identifiers of the elements to be retrieved
+   * @return a map of the retrieved keys and their associated elements
+   */
+  default Map<K, V> getAll(Collection<K> keys) {
+    Map<K, V> values = new HashMap<>();
+    for (K key : keys) {
+      values.put(key, get(key));
+    }
+    return values;
+  }
+
+  /**
+   * Asynchronously obtains the associated data/payload to the key parameter.
+   * The default implementation performs a blocking {@link #get(Object)} and completes the future in the calling thread,
+   * stores with non-blocking clients should override it.
+   *
+   * @param key identifier of element to be retrieved
+   * @return a future of the element associated with key, it completes with null if there is none
+   */
+  default CompletableFuture<V> getAsync(K key) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    try {
+      future.complete(get(key));
+    } catch (Exception ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
 }
@@ -1,25 +1,53 @@
 package org.gbif.kvs;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * Utility class to generate salted keys based on a number of buckets/splits. Computed keys are
  * padded with an integer value.
+ *
+ * Keys are written directly as bytes: the zero-padded decimal bucket prefix followed by the encoded logical key.
+ * By default the bucket is computed from {@link String#hashCode()}, which produces the same keys as previous versions
+ * of this class, the {@link BucketHash#MURMUR3} hash can be used for new tables to obtain a better distribution.
  */
 public class SaltedKeyGenerator implements Serializable {
 
+  /**
+   * Hash function used to assign logical keys to buckets.
+   */
+  public enum BucketHash {
+    /** Hash code of the logical key as String, compatible with the keys of existing tables. */
+    STRING_HASH_CODE,
+    /** 32-bit Murmur3 hash of the encoded logical key. */
+    MURMUR3
+  }
+
+  // Seed of the Murmur3 hash function
+  private static final int MURMUR3_SEED = 0;
+
   // Number of buckets/splits of the
   private final int numOfBuckets;
 
-  // Cached variable that holds the left-padding format calculated from the number of bucket
-  private final String paddingFormat;
-  
+  // Cached variable that holds the length of bucket prefix calculated from the number of bucket
+  private final int prefixLength;
+
+  // Hash function of the buckets
+  private final BucketHash bucketHash;
+
   //Charset encoding, only the name is store because th Charset class is not serializable
   private final String charset;
 
+  // Resolved charset, it is not serialized
+  private transient Charset charsetInstance;
+
+  // Does the charset encode ASCII characters as single bytes with the same value
+  private final boolean asciiCompatible;
+
   /**
    * Creates a new instance using UTF_8 as default Charset.
    * @param numOfBuckets salted key buckets
@@ -34,10 +62,24 @@ public class SaltedKeyGenerator implements Serializable {
    * @param charset encoding charset
    */
   public SaltedKeyGenerator(int numOfBuckets, Charset charset) {
+    this(numOfBuckets, charset, BucketHash.STRING_HASH_CODE);
+  }
+
+  /**
+   * Creates a new instance using a defined number of buckets, a charset and bucket hash function.
+   * @param numOfBuckets salted key buckets
+   * @param charset encoding charset
+   * @param bucketHash hash function to assign keys to buckets
+   */
+  public SaltedKeyGenerator(int numOfBuckets, Charset charset, BucketHash bucketHash) {
     this.numOfBuckets = numOfBuckets;
     this.charset = charset.name();
-    // Calculated format is stored to avoid subsequent calculations of it
-    paddingFormat = "%0" + Integer.toString(numOfBuckets - 1).length() + 'd';
+    this.charsetInstance = charset;
+    this.bucketHash = bucketHash;
+    asciiCompatible = StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                      || StandardCharsets.ISO_8859_1.equals(charset);
+    // Calculated length is stored to avoid subsequent calculations of it
+    prefixLength = Integer.toString(numOfBuckets - 1).length();
   }
 
   /**
@@ -45,7 +87,26 @@ public class SaltedKeyGenerator implements Serializable {
    * @return the charset used by this key generator
    */
   public Charset getCharset() {
-    return Charset.forName(charset);
+    if (charsetInstance == null) {
+      charsetInstance = Charset.forName(charset);
+    }
+    return charsetInstance;
+  }
+
+  /**
+   *
+   * @return number of bytes of the bucket prefix of the keys
+   */
+  public int getPrefixLength() {
+    return prefixLength;
+  }
+
+  /**
+   *
+   * @return hash function used to assign keys to buckets
+   */
+  public BucketHash getBucketHash() {
+    return bucketHash;
   }
 
   /**
@@ -56,8 +117,18 @@ public class SaltedKeyGenerator implements Serializable {
    * @return a zeros left-padded string {0*}+bucketNumber+logicalKey
    */
   public byte[] computeKey(String logicalKey) {
-    return (String.format(paddingFormat, Math.abs(logicalKey.hashCode() % numOfBuckets)) + logicalKey)
-            .getBytes(getCharset());
+    if (bucketHash == BucketHash.STRING_HASH_CODE && asciiCompatible && isAscii(logicalKey)) {
+      // Encodes ASCII characters directly into the key
+      byte[] saltedKey = new byte[prefixLength + logicalKey.length()];
+      writePrefix(legacyBucket(logicalKey.hashCode()), saltedKey, 0);
+      for (int i = 0; i < logicalKey.length(); i++) {
+        saltedKey[prefixLength + i] = (byte) logicalKey.charAt(i);
+      }
+      return saltedKey;
+    }
+    byte[] encodedKey = logicalKey.getBytes(getCharset());
+    return saltedKey(bucketHash == BucketHash.MURMUR3 ? murmur3Bucket(encodedKey, 0, encodedKey.length) :
+                         legacyBucket(logicalKey.hashCode()), encodedKey, 0, encodedKey.length);
   }
 
   /**
@@ -68,7 +139,159 @@ public class SaltedKeyGenerator implements Serializable {
    * @return a zeros left-padded string {0*}+bucketNumber+logicalKey
    */
   public byte[] computeKey(byte[] logicalKey) {
-    return computeKey(new String(logicalKey, getCharset()));
+    return computeKey(logicalKey, 0, logicalKey.length);
+  }
+
+  /**
+   * Computes a salted key from a range of bytes of an encoded logical key.
+   *
+   * @param logicalKey buffer that contains the encoded logical identifier
+   * @param offset start of the logical identifier in the buffer
+   * @param length length of the logical identifier
+   * @return a zeros left-padded string {0*}+bucketNumber+logicalKey
+   */
+  public byte[] computeKey(byte[] logicalKey, int offset, int length) {
+    return saltedKey(bucketOf(logicalKey, offset, length), logicalKey, offset, length);
+  }
+
+  /**
+   * Writes the salted key of an encoded logical key into a buffer, so callers can reuse the same buffer.
+   *
+   * @param logicalKey encoded logical identifier
+   * @param target buffer where the salted key is written, at its current position
+   */
+  public void computeKey(byte[] logicalKey, ByteBuffer target) {
+    int bucket = bucketOf(logicalKey, 0, logicalKey.length);
+    for (int i = prefixLength - 1, value = bucket; i >= 0; i--, value /= 10) {
+      target.put(target.position() + i, (byte) ('0' + value % 10));
+    }
+    target.position(target.position() + prefixLength);
+    target.put(logicalKey);
+  }
+
+  /**
+   * Computes a salted key of a logical key written directly after the bucket prefix, this avoids the creation of
+   * intermediate arrays for keys encoded in binary formats.
+   *
+   * @param logicalKeyLength number of bytes of the logical key
+   * @param logicalKeyWriter writes exactly logicalKeyLength bytes of the logical key into a buffer
+   * @return a zeros left-padded string {0*}+bucketNumber+logicalKey
+   */
+  public byte[] computeKey(int logicalKeyLength, Consumer<ByteBuffer> logicalKeyWriter) {
+    byte[] saltedKey = new byte[prefixLength + logicalKeyLength];
+    logicalKeyWriter.accept(ByteBuffer.wrap(saltedKey, prefixLength, logicalKeyLength));
+    writePrefix(bucketOf(saltedKey, prefixLength, logicalKeyLength), saltedKey, 0);
+    return saltedKey;
+  }
+
+  /**
+   * Computes the bucket of an encoded logical key.
+   */
+  private int bucketOf(byte[] logicalKey, int offset, int length) {
+    if (bucketHash == BucketHash.MURMUR3) {
+      return murmur3Bucket(logicalKey, offset, length);
+    }
+    if (asciiCompatible) {
+      // For ASCII keys the String hash code can be computed without decoding the bytes
+      int hash = 0;
+      for (int i = offset; i < offset + length; i++) {
+        if (logicalKey[i] < 0) { // non-ASCII byte
+          return legacyBucket(new String(logicalKey, offset, length, getCharset()).hashCode());
+        }
+        hash = 31 * hash + logicalKey[i];
+      }
+      return legacyBucket(hash);
+    }
+    return legacyBucket(new String(logicalKey, offset, length, getCharset()).hashCode());
+  }
+
+  /**
+   * Creates a salted key from a bucket and an encoded logical key.
+   */
+  private byte[] saltedKey(int bucket, byte[] logicalKey, int offset, int length) {
+    byte[] saltedKey = new byte[prefixLength + length];
+    writePrefix(bucket, saltedKey, 0);
+    System.arraycopy(logicalKey, offset, saltedKey, prefixLength, length);
+    return saltedKey;
+  }
+
+  /**
+   * Writes the zero-padded decimal representation of a bucket.
+   */
+  private void writePrefix(int bucket, byte[] target, int offset) {
+    for (int i = offset + prefixLength - 1, value = bucket; i >= offset; i--, value /= 10) {
+      target[i] = (byte) ('0' + value % 10);
+    }
+  }
+
+  /**
+   * Bucket of a String hash code, as computed by previous versions of this class.
+   */
+  private int legacyBucket(int hashCode) {
+    return Math.abs(hashCode % numOfBuckets);
+  }
+
+  /**
+   * Bucket of the Murmur3 hash of a range of bytes.
+   */
+  private int murmur3Bucket(byte[] data, int offset, int length) {
+    return (murmur3(data, offset, length) & Integer.MAX_VALUE) % numOfBuckets;
+  }
+
+  /**
+   * Is the String composed only by ASCII characters.
+   */
+  private static boolean isAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 32-bit Murmur3 (x86 variant) hash of a range of bytes.
+   */
+  static int murmur3(byte[] data, int offset, int length) {
+    final int c1 = 0xcc9e2d51;
+    final int c2 = 0x1b873593;
+    int h1 = MURMUR3_SEED;
+    int roundedEnd = offset + (length & 0xfffffffc);
+    for (int i = offset; i < roundedEnd; i += 4) {
+      int k1 = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
+      k1 *= c1;
+      k1 = Integer.rotateLeft(k1, 15);
+      k1 *= c2;
+      h1 ^= k1;
+      h1 = Integer.rotateLeft(h1, 13);
+      h1 = h1 * 5 + 0xe6546b64;
+    }
+    int k1 = 0;
+    switch (length & 0x03) {
+      case 3:
+        k1 = (data[roundedEnd + 2] & 0xff) << 16;
+        // fall through
+      case 2:
+        k1 |= (data[roundedEnd + 1] & 0xff) << 8;
+        // fall through
+      case 1:
+        k1 |= data[roundedEnd] & 0xff;
+        k1 *= c1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= c2;
+        h1 ^= k1;
+        break;
+      default:
+        break;
+    }
+    h1 ^= length;
+    h1 ^= h1 >>> 16;
+    h1 *= 0x85ebca6b;
+    h1 ^= h1 >>> 13;
+    h1 *= 0xc2b2ae35;
+    h1 ^= h1 >>> 16;
+    return h1;
   }
 
   /**
@@ -78,7 +301,7 @@ public class SaltedKeyGenerator implements Serializable {
    * @return the bucket prefix
    */
   public byte[] bucketOf(String saltedKey) {
-    return saltedKey.substring(0, Integer.toString(numOfBuckets - 1).length()).getBytes(getCharset());
+    return saltedKey.substring(0, prefixLength).getBytes(getCharset());
   }
 
   /**
@@ -88,6 +311,6 @@ public class SaltedKeyGenerator implements Serializable {
    * @return the bucket prefix
    */
   public byte[] bucketOf(byte[] saltedKey) {
-    return Arrays.copyOfRange(saltedKey, 0, Integer.toString(numOfBuckets - 1).length());
+    return Arrays.copyOfRange(saltedKey, 0, prefixLength);
   }
 }
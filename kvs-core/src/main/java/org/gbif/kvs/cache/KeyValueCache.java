@@ -1,46 +1,104 @@
 package org.gbif.kvs.cache;
 
 import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.metrics.CacheMetrics;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.CacheEntry;
+import org.cache2k.event.CacheEntryEvictedListener;
 
 /**
  * In-memory cache2 for {@link KeyValueStore}.
  * Wraps an instance of a KeyValueStore in a in-memory cache.
+ * The cache statistics are published as {@link CacheMetrics} of the {@link CacheMetrics#MEMORY_TIER} tier, plus the
+ * 'size' gauge of cached entries and the 'evictions' counter.
  * @param <K> type of key elements
  * @param <V> type of value elements
  */
 public class KeyValueCache<K,V> implements KeyValueStore<K,V> {
 
+  //Sequence that makes unique the metric names of the caches created without a name
+  private static final AtomicInteger UNNAMED_CACHES = new AtomicInteger();
+
   //Wrapped KeyValueStore
   private final KeyValueStore<K,V> keyValueStore;
 
   //Cache2k instance
   private final Cache<K,V> cache;
 
+  //Cache usage metrics
+  private final CacheMetrics metrics;
+
+  //Number of entries evicted from the cache
+  private final LongAdder evictions = new LongAdder();
+
   /**
    * Creates a Cache for the KV store.
    * @param keyValueStore wrapped kv store
    * @param capacity maximum capacity of the cache
    * @param keyClass type descriptor for the key elements
    * @param valueClass type descriptor for the value elements
+   * @param meterRegistry registry where the cache metrics are published
+   * @param name name of the store tag of the cache metrics
    */
-  private KeyValueCache(KeyValueStore<K,V> keyValueStore, long capacity, Class<K> keyClass, Class<V> valueClass) {
+  private KeyValueCache(KeyValueStore<K,V> keyValueStore, long capacity, Class<K> keyClass, Class<V> valueClass,
+                        MeterRegistry meterRegistry, String name) {
     this.keyValueStore = keyValueStore;
+    this.metrics = CacheMetrics.create(meterRegistry, name, CacheMetrics.MEMORY_TIER);
     this.cache = Cache2kBuilder.of(keyClass, valueClass)
         .eternal(true)    //never expire entries
         .entryCapacity(capacity) //maximum capacity
         .suppressExceptions(false) //communicate errors
-        .loader(keyValueStore::get) //auto populating function
+        .loader(this::load) //auto populating function
         .permitNullValues(true) //allow nulls
+        .addListener((CacheEntryEvictedListener<K,V>) (c, entry) -> evictions.increment()) //count evictions
         .build();
+    List<Tag> tags = CacheMetrics.tags(name, CacheMetrics.MEMORY_TIER);
+    meterRegistry.gauge("size", tags, cache, c -> c.asMap().size());
+    FunctionCounter.builder("evictions", evictions, LongAdder::sum)
+        .tags(tags)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Loads a value from the wrapped store recording its latency and failures.
+   * @param key identifier of element to be loaded
+   * @return the loaded value
+   */
+  private V load(K key) {
+    long start = System.nanoTime();
+    try {
+      V value = keyValueStore.get(key);
+      metrics.incInserts();
+      return value;
+    } catch (RuntimeException ex) {
+      metrics.incLoaderFailures();
+      throw ex;
+    } finally {
+      metrics.recordLoad(start);
+    }
   }
 
 
   /**
    * Factory method to create instances of KeyValueStore caches.
+   * The metrics are published to the global registry, named after the value class and a sequence number.
    * @param keyValueStore store to be cached/wrapped
    * @param capacity maximum capacity of the in-memory cache
    * @param keyClass type descriptor for the key elements
@@ -50,15 +108,99 @@ public class KeyValueCache<K,V> implements KeyValueStore<K,V> {
    * @return a new instance of KeyValueStore cache
    */
   public static <K1,V1> KeyValueStore<K1,V1> cache(KeyValueStore<K1,V1> keyValueStore, long capacity, Class<K1> keyClass, Class<V1> valueClass) {
-    return new KeyValueCache<>(keyValueStore, capacity, keyClass, valueClass);
+    return cache(keyValueStore, capacity, keyClass, valueClass, Metrics.globalRegistry,
+                 valueClass.getSimpleName() + '-' + UNNAMED_CACHES.incrementAndGet());
+  }
+
+  /**
+   * Factory method to create instances of KeyValueStore caches that publish their metrics.
+   * @param keyValueStore store to be cached/wrapped
+   * @param capacity maximum capacity of the in-memory cache
+   * @param keyClass type descriptor for the key elements
+   * @param valueClass type descriptor for the value elements
+   * @param meterRegistry registry where the cache metrics are published
+   * @param name store tag of the metrics, unique in the registry, the same used by the wrapped store allows comparing
+   *             both tiers
+   * @param <K1> type of key elements
+   * @param <V1> type of value elements
+   * @return a new instance of KeyValueStore cache
+   */
+  public static <K1,V1> KeyValueStore<K1,V1> cache(KeyValueStore<K1,V1> keyValueStore, long capacity, Class<K1> keyClass,
+                                                   Class<V1> valueClass, MeterRegistry meterRegistry, String name) {
+    return new KeyValueCache<>(keyValueStore, capacity, keyClass, valueClass, meterRegistry, name);
   }
 
 
   @Override
   public V get(K key) {
+    CacheEntry<K, V> entry = cache.peekEntry(key);
+    if (Objects.nonNull(entry)) {
+      metrics.incHits();
+      return entry.getValue();
+    }
+    metrics.incMisses();
     return cache.get(key);
   }
 
+  /**
+   * Gets the value from the cache if it is present, otherwise the value is asynchronously retrieved from the wrapped
+   * store and added to the cache.
+   *
+   * @param key identifier of element to be retrieved
+   * @return a future of the element associated with key
+   */
+  @Override
+  public CompletableFuture<V> getAsync(K key) {
+    CacheEntry<K, V> entry = cache.peekEntry(key);
+    if (Objects.nonNull(entry)) {
+      metrics.incHits();
+      return CompletableFuture.completedFuture(entry.getValue());
+    }
+    metrics.incMisses();
+    long start = System.nanoTime();
+    return keyValueStore.getAsync(key).whenComplete((value, error) -> {
+      metrics.recordLoad(start);
+      if (Objects.nonNull(error)) {
+        metrics.incLoaderFailures();
+      }
+    }).thenApply(value -> {
+      cache.put(key, value);
+      metrics.incInserts();
+      return value;
+    });
+  }
+
+  /**
+   * Gets the values of the keys present in the cache and retrieves the missing ones in a single call to the wrapped
+   * store.
+   *
+   * @param keys identifiers of the elements to be retrieved
+   * @return the retrieved elements
+   */
+  @Override
+  public Map<K, V> getAll(Collection<K> keys) {
+    Map<K, V> values = new HashMap<>(cache.peekAll(keys));
+    List<K> misses = keys.stream().filter(key -> !values.containsKey(key)).distinct().collect(Collectors.toList());
+    values.keySet().forEach(key -> metrics.incHits());
+    if (!misses.isEmpty()) {
+      misses.forEach(key -> metrics.incMisses());
+      long start = System.nanoTime();
+      Map<K, V> loadedValues;
+      try {
+        loadedValues = keyValueStore.getAll(misses);
+      } catch (RuntimeException ex) {
+        metrics.incLoaderFailures();
+        throw ex;
+      } finally {
+        metrics.recordLoad(start);
+      }
+      cache.putAll(loadedValues);
+      loadedValues.keySet().forEach(key -> metrics.incInserts());
+      values.putAll(loadedValues);
+    }
+    return values;
+  }
+
   @Override
   public void close() throws IOException {
     cache.close();
@@ -0,0 +1,135 @@
+package org.gbif.kvs.cache;
+
+import org.gbif.kvs.metrics.CacheMetrics;
+import org.gbif.kvs.metrics.LocalCounter;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.cache2k.CacheEntry;
+
+/**
+ * Bounded, thread-safe memoization of a function in an in-memory cache2k cache.
+ * The function must be pure, null results are memoized and null arguments are not, they are passed to the function.
+ * Hits, misses and inserts are counted as {@link LocalCounter}s, they are published to the registries the function is
+ * bound to, tagged with the {@link CacheMetrics#MEMORY_TIER} tier.
+ *
+ * @param <K> type of arguments
+ * @param <V> type of results
+ */
+public class MemoizedFunction<K, V> implements Function<K, V>, MeterBinder {
+
+  //Memoized function
+  private final Function<K, V> function;
+
+  //Cache2k instance
+  private final Cache<K, V> cache;
+
+  //Name of the store tag of the cache metrics
+  private final String name;
+
+  //Counter of lookups answered from the cache
+  private final LocalCounter hits = new LocalCounter();
+
+  //Counter of lookups computed by the function
+  private final LocalCounter misses = new LocalCounter();
+
+  //Counter of results stored in the cache
+  private final LocalCounter inserts = new LocalCounter();
+
+  /**
+   * Creates a memoized function.
+   *
+   * @param function function to memoize
+   * @param capacity maximum number of memoized results
+   * @param keyClass type descriptor of the arguments
+   * @param valueClass type descriptor of the results
+   * @param meterRegistry registry where the cache metrics are published
+   * @param name name of the store tag of the cache metrics
+   */
+  public MemoizedFunction(Function<K, V> function, long capacity, Class<K> keyClass, Class<V> valueClass,
+                          MeterRegistry meterRegistry, String name) {
+    this(function, capacity, keyClass, valueClass, name);
+    bindTo(meterRegistry);
+  }
+
+  /**
+   * Creates a memoized function whose cache metrics are not published until it is bound to a registry.
+   *
+   * @param function function to memoize
+   * @param capacity maximum number of memoized results
+   * @param keyClass type descriptor of the arguments
+   * @param valueClass type descriptor of the results
+   * @param name name of the store tag of the cache metrics
+   */
+  public MemoizedFunction(Function<K, V> function, long capacity, Class<K> keyClass, Class<V> valueClass,
+                          String name) {
+    this.function = function;
+    this.name = name;
+    this.cache = Cache2kBuilder.of(keyClass, valueClass)
+        .eternal(true)    //never expire entries
+        .entryCapacity(capacity) //maximum capacity
+        .suppressExceptions(false) //communicate errors
+        .loader(this::load) //auto populating function
+        .permitNullValues(true) //allow nulls
+        .build();
+  }
+
+  /**
+   * Publishes the cache metrics to a registry.
+   *
+   * @param registry registry where the cache metrics are published
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    List<Tag> tags = CacheMetrics.tags(name, CacheMetrics.MEMORY_TIER);
+    hits.bindTo(registry, "hits", tags);
+    misses.bindTo(registry, "misses", tags);
+    inserts.bindTo(registry, "inserts", tags);
+  }
+
+  /**
+   * Computes a result on a miss.
+   */
+  private V load(K key) {
+    V value = function.apply(key);
+    inserts.increment();
+    return value;
+  }
+
+  @Override
+  public V apply(K key) {
+    if (Objects.isNull(key)) {
+      return function.apply(null);
+    }
+    CacheEntry<K, V> entry = cache.peekEntry(key);
+    if (Objects.nonNull(entry)) {
+      hits.increment();
+      return entry.getValue();
+    }
+    misses.increment();
+    return cache.get(key);
+  }
+
+  /**
+   * Share of the lookups answered from the cache.
+   *
+   * @return a value between 0 and 1, 0 if there were no lookups
+   */
+  public double hitRate() {
+    return LocalCounter.share(hits, misses);
+  }
+
+  /**
+   * Removes all the memoized results.
+   */
+  public void clear() {
+    cache.clear();
+  }
+}
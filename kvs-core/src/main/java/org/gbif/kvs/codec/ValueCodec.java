@@ -0,0 +1,31 @@
+package org.gbif.kvs.codec;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Converts values into the bytes stored in KV store cells and back.
+ * Implementations must be thread-safe, the same instance is used by concurrent lookups.
+ *
+ * @param <T> type of values
+ */
+public interface ValueCodec<T> extends Serializable {
+
+  /**
+   * Converts a value into bytes.
+   *
+   * @param value to encode
+   * @return encoded value
+   * @throws IOException if the value can't be encoded
+   */
+  byte[] encode(T value) throws IOException;
+
+  /**
+   * Converts bytes into a value.
+   *
+   * @param bytes encoded value
+   * @return decoded value
+   * @throws IOException if the bytes are not a valid encoded value
+   */
+  T decode(byte[] bytes) throws IOException;
+}
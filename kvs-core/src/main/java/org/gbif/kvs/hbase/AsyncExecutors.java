@@ -0,0 +1,39 @@
+package org.gbif.kvs.hbase;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class to create the executors used by asynchronous HBase lookups.
+ * The HBase 1.x client has no asynchronous table API, so blocking calls are offloaded to these executors.
+ */
+final class AsyncExecutors {
+
+  // Default number of threads used to perform HBase calls
+  static final int DEFAULT_THREADS = 16;
+
+  /**
+   * Private constructor of utility class.
+   */
+  private AsyncExecutors() {
+    //DO NOTHING
+  }
+
+  /**
+   * Creates a pool of daemon threads, threads are started on demand.
+   *
+   * @param name prefix of the thread names
+   * @return a new ScheduledExecutorService
+   */
+  static ScheduledExecutorService create(String name) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, name + "-async-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return Executors.newScheduledThreadPool(DEFAULT_THREADS, threadFactory);
+  }
+}
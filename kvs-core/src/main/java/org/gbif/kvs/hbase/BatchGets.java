@@ -0,0 +1,50 @@
+package org.gbif.kvs.hbase;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility class to perform multi-Get operations that report failures per Get.
+ */
+final class BatchGets {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchGets.class);
+
+  /**
+   * Private constructor of utility class.
+   */
+  private BatchGets() {
+    //DO NOTHING
+  }
+
+  /**
+   * Executes a list of Gets in a single batch.
+   * Each position of the response holds the {@link org.apache.hadoop.hbase.client.Result} of the Get in the same
+   * position, or the {@link Throwable} that made it fail.
+   *
+   * @param table HBase table to query
+   * @param gets list of Gets to execute
+   * @return an array of results or errors, one per Get
+   * @throws IOException if the batch can't be executed at all
+   */
+  static Object[] get(Table table, List<Get> gets) throws IOException {
+    Object[] results = new Object[gets.size()];
+    try {
+      table.batch(gets, results);
+    } catch (RetriesExhaustedWithDetailsException ex) {
+      // failed Gets are reported in the results array
+      LOG.warn("{} of {} Gets failed", ex.getNumExceptions(), gets.size());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Batch Get interrupted");
+    }
+    return results;
+  }
+}
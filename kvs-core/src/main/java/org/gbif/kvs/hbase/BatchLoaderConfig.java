@@ -0,0 +1,47 @@
+package org.gbif.kvs.hbase;
+
+import java.io.Serializable;
+
+/**
+ * Settings of the batches sent to the bulk loader.
+ * Single-key loads wait up to the linger time to be sent together with other keys, a batch is sent as soon as it
+ * reaches the batch size. Multi-key lookups split the keys to load into batches of the batch size.
+ */
+public class BatchLoaderConfig implements Serializable {
+
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final long DEFAULT_LINGER = 20;
+
+  public static BatchLoaderConfig DEFAULT = new BatchLoaderConfig();
+
+
+  private final Integer batchSize;
+
+  private final Long lingerMillis;
+
+  public BatchLoaderConfig(Integer batchSize, Long lingerMillis) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be positive");
+    }
+    this.batchSize = batchSize;
+    this.lingerMillis = lingerMillis;
+  }
+
+  private BatchLoaderConfig() {
+    this(DEFAULT_BATCH_SIZE, DEFAULT_LINGER);
+  }
+
+  /**
+   * Maximum number of keys per call of the bulk loader.
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Maximum time a single-key load waits for other keys before its batch is sent.
+   */
+  public Long getLingerMillis() {
+    return lingerMillis;
+  }
+}
@@ -0,0 +1,128 @@
+package org.gbif.kvs.hbase;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Groups single-key loads into calls of a bulk loader.
+ * Keys are accumulated until the batch size is reached or the first key of the batch has waited the linger time,
+ * then the whole batch is loaded in the executor. Concurrent loads of the same key share the same batch entry.
+ */
+final class BatchingLoader<K, L> {
+
+  // Loader of many keys in a single call
+  private final Function<Collection<K>, Map<K, L>> bulkLoader;
+
+  private final int batchSize;
+
+  private final long lingerMillis;
+
+  // Executor of the bulk loads and the linger timer
+  private final ScheduledExecutorService executor;
+
+  // Keys waiting for the next batch and the futures of their values, guarded by this
+  private Map<K, CompletableFuture<L>> pending = new LinkedHashMap<>();
+
+  // Sends the pending batch when the linger time expires, guarded by this
+  private ScheduledFuture<?> lingerTask;
+
+  /**
+   * Creates a loader of batches.
+   *
+   * @param bulkLoader loader of many keys in a single call
+   * @param config batch size and linger time
+   * @param executor executor of the bulk loads and the linger timer
+   */
+  BatchingLoader(Function<Collection<K>, Map<K, L>> bulkLoader, BatchLoaderConfig config,
+                 ScheduledExecutorService executor) {
+    this.bulkLoader = bulkLoader;
+    this.batchSize = config.getBatchSize();
+    this.lingerMillis = config.getLingerMillis();
+    this.executor = executor;
+  }
+
+  /**
+   * Adds a key to the next batch.
+   *
+   * @param key element to load
+   * @return a future of the loaded value, it fails if the batch fails or the bulk loader doesn't return the key
+   */
+  CompletableFuture<L> load(K key) {
+    CompletableFuture<L> value;
+    Map<K, CompletableFuture<L>> batch = null;
+    synchronized (this) {
+      value = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+      if (pending.size() >= batchSize) {
+        batch = takePending();
+      } else if (Objects.isNull(lingerTask)) {
+        try {
+          lingerTask = executor.schedule(this::flush, lingerMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+          // the executor is shutting down, the batch is sent now
+          batch = takePending();
+        }
+      }
+    }
+    if (Objects.nonNull(batch)) {
+      Map<K, CompletableFuture<L>> fullBatch = batch;
+      try {
+        executor.execute(() -> loadBatch(fullBatch));
+      } catch (RejectedExecutionException ex) {
+        loadBatch(fullBatch);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Loads the pending keys in the calling thread.
+   */
+  void flush() {
+    Map<K, CompletableFuture<L>> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      loadBatch(batch);
+    }
+  }
+
+  /**
+   * Takes the pending keys and cancels the linger timer, it must be called holding the lock.
+   */
+  private Map<K, CompletableFuture<L>> takePending() {
+    Map<K, CompletableFuture<L>> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (Objects.nonNull(lingerTask)) {
+      lingerTask.cancel(false);
+      lingerTask = null;
+    }
+    return batch;
+  }
+
+  /**
+   * Calls the bulk loader and completes the futures of the batch.
+   */
+  private void loadBatch(Map<K, CompletableFuture<L>> batch) {
+    try {
+      Map<K, L> values = bulkLoader.apply(batch.keySet());
+      batch.forEach((key, value) -> {
+        if (values.containsKey(key)) {
+          value.complete(values.get(key));
+        } else {
+          value.completeExceptionally(new IllegalStateException("Key not loaded by the bulk loader " + key));
+        }
+      });
+    } catch (Exception ex) {
+      batch.values().forEach(value -> value.completeExceptionally(ex));
+    }
+  }
+}
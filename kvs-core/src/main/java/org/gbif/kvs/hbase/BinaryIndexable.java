@@ -0,0 +1,23 @@
+package org.gbif.kvs.hbase;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Objects that can be indexed in a HBase KV store using a binary logical key.
+ * The binary key is used by tables that use the {@link KeyFormat#BINARY} format, the String logical key is still
+ * required to read tables stored using the {@link KeyFormat#STRING} format.
+ */
+public interface BinaryIndexable extends Indexable {
+
+  /**
+   * Size of the binary logical key.
+   * @return number of bytes written by {@link #writeLogicalKey(ByteBuffer)}
+   */
+  int getLogicalKeyLength();
+
+  /**
+   * Writes the binary logical key into a buffer, starting at its current position.
+   * @param buffer target buffer
+   */
+  void writeLogicalKey(ByteBuffer buffer);
+}
@@ -0,0 +1,95 @@
+package org.gbif.kvs.hbase;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+
+/**
+ * Registry of HBase connections shared by the stores of a JVM.
+ * HBase connections are heavy-weight and thread-safe: each one holds a ZooKeeper session, a meta cache and thread
+ * pools, therefore stores that use the same ZooKeeper quorum share a single connection.
+ * Connections are reference-counted and closed when the last store that uses them is closed.
+ */
+final class HBaseConnections {
+
+  // Connections by ZooKeeper quorum
+  private static final Map<String, SharedConnection> CONNECTIONS = new HashMap<>();
+
+  /**
+   * Private constructor of utility class.
+   */
+  private HBaseConnections() {
+    //DO NOTHING
+  }
+
+  /**
+   * Gets the connection of the HBase quorum of the configuration, a new one is created if none is open.
+   * Every call must be followed by a {@link #release(Connection)} when the connection is not needed anymore.
+   *
+   * @param config HBase KV store configuration
+   * @return a shared connection
+   * @throws IOException if the connection can't be created
+   */
+  static synchronized Connection acquire(HBaseKVStoreConfiguration config) throws IOException {
+    SharedConnection sharedConnection = CONNECTIONS.get(config.getHBaseZk());
+    if (sharedConnection == null || sharedConnection.connection.isClosed()) {
+      sharedConnection = new SharedConnection(ConnectionFactory.createConnection(config.hbaseConfig()));
+      CONNECTIONS.put(config.getHBaseZk(), sharedConnection);
+    }
+    sharedConnection.references++;
+    return sharedConnection.connection;
+  }
+
+  /**
+   * Releases a connection obtained using {@link #acquire(HBaseKVStoreConfiguration)}, it is closed if it has no more
+   * references.
+   *
+   * @param connection connection to release
+   * @throws IOException if the connection fails to close
+   */
+  static synchronized void release(Connection connection) throws IOException {
+    Iterator<SharedConnection> sharedConnections = CONNECTIONS.values().iterator();
+    while (sharedConnections.hasNext()) {
+      SharedConnection sharedConnection = sharedConnections.next();
+      if (sharedConnection.connection == connection) {
+        if (--sharedConnection.references > 0) {
+          return;
+        }
+        sharedConnections.remove();
+        break;
+      }
+    }
+    if (!connection.isClosed()) {
+      connection.close();
+    }
+  }
+
+  /**
+   * Number of references to the connection of the HBase quorum of a configuration.
+   *
+   * @param config HBase KV store configuration
+   * @return number of references, 0 if there is no open connection
+   */
+  static synchronized int references(HBaseKVStoreConfiguration config) {
+    SharedConnection sharedConnection = CONNECTIONS.get(config.getHBaseZk());
+    return sharedConnection == null ? 0 : sharedConnection.references;
+  }
+
+  /**
+   * Connection and its number of references.
+   */
+  private static class SharedConnection {
+
+    private final Connection connection;
+
+    private int references;
+
+    private SharedConnection(Connection connection) {
+      this.connection = connection;
+    }
+  }
+}
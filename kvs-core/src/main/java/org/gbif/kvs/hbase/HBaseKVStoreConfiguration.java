@@ -14,12 +14,21 @@ public class HBaseKVStoreConfiguration implements Serializable {
   private final String tableName;
   private final String columnFamily;
   private final int numOfKeyBuckets;
+  private final KeyFormat keyFormat;
+  private final boolean legacyKeyFallback;
 
   public HBaseKVStoreConfiguration(String hbaseZk, String tableName, String columnFamily, int numOfKeyBuckets) {
+    this(hbaseZk, tableName, columnFamily, numOfKeyBuckets, KeyFormat.STRING, false);
+  }
+
+  public HBaseKVStoreConfiguration(String hbaseZk, String tableName, String columnFamily, int numOfKeyBuckets,
+                                   KeyFormat keyFormat, boolean legacyKeyFallback) {
     this.hbaseZk = hbaseZk;
     this.tableName = tableName;
     this.columnFamily = columnFamily;
     this.numOfKeyBuckets = numOfKeyBuckets;
+    this.keyFormat = Objects.isNull(keyFormat) ? KeyFormat.STRING : keyFormat;
+    this.legacyKeyFallback = legacyKeyFallback;
   }
 
   /**
@@ -58,6 +67,25 @@ public class HBaseKVStoreConfiguration implements Serializable {
     return numOfKeyBuckets;
   }
 
+  /**
+   * Format of the row keys, tables created by previous versions use the STRING format.
+   *
+   * @return row key format
+   */
+  public KeyFormat getKeyFormat() {
+    return keyFormat;
+  }
+
+  /**
+   * Are keys not found in a BINARY table looked up using the STRING format?.
+   * Used to migrate tables incrementally, values found with the STRING key are copied to their BINARY key.
+   *
+   * @return true if STRING keys are looked up on misses
+   */
+  public boolean isLegacyKeyFallback() {
+    return legacyKeyFallback;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -68,6 +96,8 @@ public class HBaseKVStoreConfiguration implements Serializable {
     }
     HBaseKVStoreConfiguration that = (HBaseKVStoreConfiguration) o;
     return numOfKeyBuckets == that.numOfKeyBuckets
+        && legacyKeyFallback == that.legacyKeyFallback
+        && keyFormat == that.keyFormat
         && Objects.equals(hbaseZk, that.hbaseZk)
         && Objects.equals(tableName, that.tableName)
         && Objects.equals(columnFamily, that.columnFamily);
@@ -75,7 +105,7 @@ public class HBaseKVStoreConfiguration implements Serializable {
 
   @Override
   public int hashCode() {
-    return Objects.hash(hbaseZk, tableName, columnFamily, numOfKeyBuckets);
+    return Objects.hash(hbaseZk, tableName, columnFamily, numOfKeyBuckets, keyFormat, legacyKeyFallback);
   }
 
   @Override
@@ -85,6 +115,8 @@ public class HBaseKVStoreConfiguration implements Serializable {
         .add("tableName='" + tableName + "'")
         .add("columnFamily='" + columnFamily + "'")
         .add("numOfKeyBuckets=" + numOfKeyBuckets)
+        .add("keyFormat=" + keyFormat)
+        .add("legacyKeyFallback=" + legacyKeyFallback)
         .toString();
   }
 
@@ -115,6 +147,8 @@ public class HBaseKVStoreConfiguration implements Serializable {
     private String tableName;
     private String columnFamily;
     private int numOfKeyBuckets;
+    private KeyFormat keyFormat = KeyFormat.STRING;
+    private boolean legacyKeyFallback;
 
     /**
      * Hidden constructor to force use the containing class builder() method.
@@ -144,8 +178,19 @@ public class HBaseKVStoreConfiguration implements Serializable {
       return this;
     }
 
+    public Builder withKeyFormat(KeyFormat keyFormat) {
+      this.keyFormat = keyFormat;
+      return this;
+    }
+
+    public Builder withLegacyKeyFallback(boolean legacyKeyFallback) {
+      this.legacyKeyFallback = legacyKeyFallback;
+      return this;
+    }
+
     public HBaseKVStoreConfiguration build() {
-      return new HBaseKVStoreConfiguration(hbaseZk, tableName, columnFamily, numOfKeyBuckets);
+      return new HBaseKVStoreConfiguration(hbaseZk, tableName, columnFamily, numOfKeyBuckets, keyFormat,
+                                           legacyKeyFallback);
     }
   }
 }
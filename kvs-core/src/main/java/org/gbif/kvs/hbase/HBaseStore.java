@@ -1,31 +1,49 @@
 package org.gbif.kvs.hbase;
 
 import org.gbif.kvs.KeyValueStore;
-import org.gbif.kvs.SaltedKeyGenerator;
 import org.gbif.kvs.metrics.CacheMetrics;
 import org.gbif.kvs.metrics.ElasticMetricsConfig;
+import org.gbif.kvs.metrics.LatencyMetricsConfig;
+import org.gbif.kvs.metrics.MeterRegistries;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import io.github.resilience4j.retry.IntervalFunction;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
-import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
-import io.micrometer.elastic.ElasticMeterRegistry;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
-import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,8 +55,16 @@ import org.slf4j.LoggerFactory;
  *   - A valueMutator is used to convert values of L data into HBase Put mutation.
  *   - A resultMapper function converts HBase {@link Result} into value V.
  *
+ * If negative caching is enabled (see {@link NegativeCachingConfig}), keys for which the valueMutator produces no Put
+ * are stored as tombstones and later lookups of them return null without calling the loader.
  * The get method provides a getOrPut behaviour, if the key is not found in the store the loader function is used to
  * externally retrieve its value.
+ * Row keys are computed in the {@link KeyFormat} of the table. If the legacy key fallback is enabled, keys not found in
+ * a BINARY table are looked up using their STRING key and the values found are copied to the BINARY key.
+ * Concurrent misses of the same key, by single-key or multi-key lookups, are coalesced, only one of them calls the
+ * loader and stores the value.
+ * Optionally, loaded values can be written in background (see {@link WriteBehindConfig}), in that case a value is
+ * returned before it is persisted and misses of the same key can load it again until it is flushed.
  *
  * @param <K> type of key elements
  * @param <V> type of values
@@ -48,9 +74,21 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
 
   private static final Logger LOG = LoggerFactory.getLogger(HBaseStore.class);
 
+  // Maximum time closing a store waits for the asynchronous lookups in progress
+  private static final long CLOSE_TIMEOUT_MILLIS = 60_000;
+
+  // Number of stripes of the load generations, a power of 2
+  private static final int LOAD_STRIPES = 1_024;
+
   // HBase table name where KV pairs are stored
   private final TableName tableName;
 
+  // Column family where values and tombstones are stored
+  private final byte[] columnFamily;
+
+  // Columns read by Gets
+  private final Projection projection;
+
   // Function to convert a value V into byte[], as expected by HBase
   private final BiFunction<byte[], L, Put> valueMutator;
 
@@ -63,11 +101,56 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
   // Function that loads data from external sources when the value is not in the KV store.
   private final Function<K, L> loader;
 
-  // Active HBase connection
+  // Non-blocking version of the loader, optional
+  private final Function<K, CompletableFuture<L>> asyncLoader;
+
+  // Loader of many keys in a single call used by multi-key lookups, optional
+  private final Function<Collection<K>, Map<K, L>> bulkLoader;
+
+  // Batches of the bulk loader, null if keys are loaded in a single call
+  private final BatchLoaderConfig batchLoaderConfig;
+
+  // Groups single-key loads into bulk loader calls, null if there is no bulk loader or batch settings
+  private final BatchingLoader<K, L> batchingLoader;
+
+  // Retry policy of the loader functions
+  private final Retry retry;
+
+  // Executor of the HBase calls of asynchronous lookups, HBase 1.x only provides blocking calls
+  private final ScheduledExecutorService asyncExecutor;
+
+  // Is the asyncExecutor created and owned by this store
+  private final boolean ownsAsyncExecutor;
+
+  // HBase connection, shared with other stores of the same HBase cluster
   private final Connection connection;
 
-  // Salted key generator for the specified number of buckets
-  private final SaltedKeyGenerator saltedKeyGenerator;
+  // Tables used by this store
+  private final TableHandle tables;
+
+  // Row key generator for the specified number of buckets and key format
+  private final RowKeyGenerator rowKeyGenerator;
+
+  // Are keys not found looked up using the STRING key format
+  private final boolean legacyKeyFallback;
+
+  // Negative caching settings, null if keys without values are not stored
+  private final NegativeCachingConfig negativeCachingConfig;
+
+  // Background writer of loaded values, null if values are written synchronously
+  private final WriteBehindWriter writeBehindWriter;
+
+  // Loads in progress by row key, concurrent misses of the same key wait for the same load and write
+  private final ConcurrentMap<ByteBuffer, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+
+  // Loads finished by stripe of row keys, a miss re-reads its row only if a load of its stripe finished after its lookup
+  private final AtomicLongArray loadGenerations = new AtomicLongArray(LOAD_STRIPES);
+
+  // Asynchronous lookups in progress, they are awaited before closing the store
+  private final Set<CompletableFuture<V>> pendingLookups = ConcurrentHashMap.newKeySet();
+
+  // Has the store been closed, the shared connection is released only once
+  private final AtomicBoolean closed = new AtomicBoolean(false);
 
   private Command closeHandler;
 
@@ -77,16 +160,42 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
                      BiFunction<byte[], L, Put> valueMutator,
                      Function<Result, V> resultMapper, Function<L, V> valueMapper,
                      Function<K, L> loader,
+                     Function<K, CompletableFuture<L>> asyncLoader,
+                     Function<Collection<K>, Map<K, L>> bulkLoader,
+                     BatchLoaderConfig batchLoaderConfig,
+                     ScheduledExecutorService asyncExecutor,
+                     WriteBehindConfig writeBehindConfig,
+                     NegativeCachingConfig negativeCachingConfig,
                      MeterRegistry meterRegistry,
+                     LatencyMetricsConfig latencyMetricsConfig,
+                     List<String> projectedQualifiers,
+                     String storeName,
                      Command closeHandler) throws IOException {
-    connection = ConnectionFactory.createConnection(config.hbaseConfig());
-    saltedKeyGenerator = new SaltedKeyGenerator(config.getNumOfKeyBuckets());
+    connection = HBaseConnections.acquire(config);
+    rowKeyGenerator = RowKeyGenerator.of(config);
+    legacyKeyFallback = config.isLegacyKeyFallback() && config.getKeyFormat() == KeyFormat.BINARY;
     this.tableName = TableName.valueOf(config.getTableName());
+    this.tables = new TableHandle(connection, tableName);
+    this.columnFamily = Bytes.toBytes(config.getColumnFamily());
+    this.projection = new Projection(columnFamily, projectedQualifiers);
     this.valueMutator = valueMutator;
     this.resultMapper = resultMapper;
     this.valueMapper = valueMapper;
-    this.loader = Retry.decorateFunction(retry(Objects.isNull(loaderRetryConfig)? LoaderRetryConfig.DEFAULT : loaderRetryConfig), loader);
-    this.metrics = CacheMetrics.create(meterRegistry, config.getTableName());
+    String metricsName = Objects.isNull(storeName) ? config.getTableName() : storeName;
+    this.metrics = CacheMetrics.create(meterRegistry, metricsName, CacheMetrics.HBASE_TIER, latencyMetricsConfig);
+    this.retry = retry(Objects.isNull(loaderRetryConfig)? LoaderRetryConfig.DEFAULT : loaderRetryConfig);
+    retry.getEventPublisher().onRetry(event -> metrics.incLoaderRetries());
+    this.loader = timed(Retry.decorateFunction(retry, loader));
+    this.asyncLoader = asyncLoader;
+    this.bulkLoader = Objects.isNull(bulkLoader) ? null : timed(Retry.decorateFunction(retry, bulkLoader));
+    this.ownsAsyncExecutor = Objects.isNull(asyncExecutor);
+    this.asyncExecutor = ownsAsyncExecutor ? AsyncExecutors.create(config.getTableName()) : asyncExecutor;
+    this.batchLoaderConfig = batchLoaderConfig;
+    this.batchingLoader = Objects.isNull(this.bulkLoader) || Objects.isNull(batchLoaderConfig) ? null :
+        new BatchingLoader<>(this.bulkLoader, batchLoaderConfig, this.asyncExecutor);
+    this.writeBehindWriter = Objects.isNull(writeBehindConfig) ? null :
+        new WriteBehindWriter(connection, tableName, writeBehindConfig, meterRegistry, metricsName);
+    this.negativeCachingConfig = negativeCachingConfig;
     this.closeHandler = closeHandler;
   }
 
@@ -101,6 +210,26 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
     return Retry.of("wsCall", retryConfig);
   }
 
+  /**
+   * Decorates the loader to record its latency and failures.
+   *
+   * @param loader loader function
+   * @return a timed loader function
+   */
+  private <T, R> Function<T, R> timed(Function<T, R> loader) {
+    return key -> {
+      long start = System.nanoTime();
+      try {
+        return loader.apply(key);
+      } catch (RuntimeException ex) {
+        metrics.incLoaderFailures();
+        throw ex;
+      } finally {
+        metrics.recordLoad(start);
+      }
+    };
+  }
+
   /**
    * Wraps an exception into a {@link IllegalArgumentException}.
    * @param throwable to propagate
@@ -114,22 +243,85 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
 
   /**
    * Stores in HBase a value for using the key element.
+   * If the value can't be converted into a Put and negative caching is enabled, a tombstone is stored instead.
    *
    * @param key HBase row key
    * @param value value to transform
    */
   private V store(byte[] key, L value) {
-    try (Table table = connection.getTable(tableName)) {
-      Put put = valueMutator.apply(key, value);
-      if(Objects.nonNull(put)) {
-        table.put(valueMutator.apply(key, value));
-        metrics.incInserts();
-        return Optional.ofNullable(valueMapper.apply(value)).orElse(null);
+    Put put = valueMutator.apply(key, value);
+    if (Objects.isNull(put)) {
+      if (Objects.nonNull(negativeCachingConfig)) {
+        write(tombstone(key));
       }
       return null;
-    } catch (IOException ex) {
-      throw logAndThrow(ex, "Appending data to store failed");
     }
+    write(put);
+    metrics.incInserts();
+    metrics.recordWrittenBytes(ValueSizes.of(put));
+    return Optional.ofNullable(valueMapper.apply(value)).orElse(null);
+  }
+
+  /**
+   * Writes a Put into HBase, if write-behind is enabled the Put is queued and written in background.
+   *
+   * @param put mutation to write
+   */
+  private void write(Put put) {
+    if (Objects.isNull(writeBehindWriter) || !writeBehindWriter.offer(put)) {
+      long start = System.nanoTime();
+      try {
+        tables.apply(table -> {
+          table.put(put);
+          return null;
+        });
+      } catch (IOException ex) {
+        throw logAndThrow(ex, "Appending data to store failed");
+      } finally {
+        metrics.recordPut(start);
+      }
+    }
+  }
+
+  /**
+   * Creates the tombstone Put of a key.
+   *
+   * @param key HBase row key
+   * @return a new tombstone Put
+   */
+  private Put tombstone(byte[] key) {
+    return Tombstones.put(key, columnFamily, negativeCachingConfig.getTtlMillis());
+  }
+
+  /**
+   * Converts a non-empty result into a value, tombstones are converted into null.
+   *
+   * @param result HBase result
+   * @return the stored value, null for tombstones
+   */
+  private V toValue(Result result) {
+    if (Tombstones.isTombstone(result, columnFamily)) {
+      metrics.incNegativeHits();
+      return null;
+    }
+    metrics.incHits();
+    metrics.recordReadBytes(ValueSizes.of(result));
+    long start = System.nanoTime();
+    try {
+      return resultMapper.apply(result);
+    } finally {
+      metrics.recordMap(start);
+    }
+  }
+
+  /**
+   * Computes the salted row key of a key element.
+   *
+   * @param key key element
+   * @return HBase row key
+   */
+  private byte[] saltedKey(K key) {
+    return rowKeyGenerator.rowKey(key);
   }
 
   /**
@@ -141,34 +333,525 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
    */
   @Override
   public V get(K key) {
-    try (Table table = connection.getTable(tableName)) {
-      byte[] saltedKey = saltedKeyGenerator.computeKey(Bytes.toBytes(key.getLogicalKey()));
-      Get get = new Get(saltedKey);
-      Result result = table.get(get);
-      if (result.isEmpty()) { // the key does not exists, create a new entry
-        L newValue =  loader.apply(key);
-        return store(saltedKey, newValue);
-      }
-      metrics.incHits();
-      return resultMapper.apply(result);
+    byte[] saltedKey = saltedKey(key);
+    long generation = loadGeneration(saltedKey);
+    Result result = lookup(key, saltedKey);
+    if (result.isEmpty()) { // the key does not exists, create a new entry
+      metrics.incMisses();
+      return loadAndStore(key, saltedKey, generation);
+    }
+    return toValue(result);
+  }
+
+  /**
+   * Generation of the loads of the stripe of a row key, it must be read before looking up the row.
+   *
+   * @param saltedKey HBase row key
+   * @return the number of loads of the stripe finished so far
+   */
+  private long loadGeneration(byte[] saltedKey) {
+    return loadGenerations.get(Arrays.hashCode(saltedKey) & (LOAD_STRIPES - 1));
+  }
+
+  /**
+   * Releases a load claimed by a caller once its value is stored, the generation of its stripe is incremented first so
+   * callers that missed the row before the value was stored look it up again.
+   *
+   * @param saltedKey HBase row key
+   * @param load claimed load
+   */
+  private void releaseLoad(byte[] saltedKey, CompletableFuture<V> load) {
+    loadGenerations.incrementAndGet(Arrays.hashCode(saltedKey) & (LOAD_STRIPES - 1));
+    inFlightLoads.remove(ByteBuffer.wrap(saltedKey), load);
+  }
+
+  /**
+   * Loads and stores the value of a key, if the same key is being loaded by another caller its result is awaited instead.
+   * The row is looked up again once the load is claimed only if a load of its stripe finished after the first lookup,
+   * since that load may have stored the value.
+   *
+   * @param key element to load
+   * @param saltedKey HBase row key
+   * @param generation load generation read before the first lookup
+   * @return the stored value
+   */
+  private V loadAndStore(K key, byte[] saltedKey, long generation) {
+    ByteBuffer rowKey = ByteBuffer.wrap(saltedKey);
+    CompletableFuture<V> newLoad = new CompletableFuture<>();
+    CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(rowKey, newLoad);
+    if (Objects.nonNull(inFlightLoad)) {
+      metrics.incCoalesced();
+      return join(inFlightLoad);
+    }
+    try {
+      Result result = generation == loadGeneration(saltedKey) ? Result.EMPTY_RESULT : lookup(saltedKey);
+      V value = result.isEmpty() ? store(saltedKey, loader.apply(key)) : toValue(result);
+      newLoad.complete(value);
+      return value;
+    } catch (RuntimeException ex) {
+      newLoad.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      releaseLoad(saltedKey, newLoad);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #loadAndStore(Indexable, byte[], long)}, the row is also looked up again only if a
+   * load of its stripe finished after the first lookup.
+   *
+   * @param key element to load
+   * @param saltedKey HBase row key
+   * @param generation load generation read before the first lookup
+   * @return a future of the stored value
+   */
+  private CompletableFuture<V> loadAndStoreAsync(K key, byte[] saltedKey, long generation) {
+    ByteBuffer rowKey = ByteBuffer.wrap(saltedKey);
+    CompletableFuture<V> newLoad = new CompletableFuture<>();
+    CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(rowKey, newLoad);
+    if (Objects.nonNull(inFlightLoad)) {
+      metrics.incCoalesced();
+      return inFlightLoad;
+    }
+    CompletableFuture<Result> recheck = generation == loadGeneration(saltedKey) ?
+        CompletableFuture.completedFuture(Result.EMPTY_RESULT) :
+        CompletableFuture.supplyAsync(() -> lookup(saltedKey), asyncExecutor);
+    recheck
+        .thenCompose(result -> result.isEmpty() ?
+            loadAsync(key).thenApplyAsync(newValue -> store(saltedKey, newValue), asyncExecutor) :
+            CompletableFuture.completedFuture(toValue(result)))
+        .whenComplete((value, error) -> {
+          releaseLoad(saltedKey, newLoad);
+          if (Objects.isNull(error)) {
+            newLoad.complete(value);
+          } else {
+            newLoad.completeExceptionally(error);
+          }
+        });
+    return newLoad;
+  }
+
+  /**
+   * Waits for the result of a load started by another caller, its error is re-thrown unwrapped.
+   *
+   * @param load load in progress
+   * @return the loaded value
+   */
+  private static <T> T join(CompletableFuture<T> load) {
+    try {
+      return load.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Asynchronously gets a V value associated with the K key.
+   * The HBase calls are executed in the async executor, if the value is not found in the KV store it is retrieved using
+   * the asynchronous loader, or the loader function if the former was not provided.
+   *
+   * @param key identifier of element to be retrieved
+   * @return a future of the value found, it completes with null if there is no value
+   */
+  @Override
+  public CompletableFuture<V> getAsync(K key) {
+    byte[] saltedKey = saltedKey(key);
+    long generation = loadGeneration(saltedKey);
+    CompletableFuture<V> pendingLookup = CompletableFuture.supplyAsync(() -> lookup(key, saltedKey), asyncExecutor)
+        .thenCompose(result -> {
+          if (result.isEmpty()) { // the key does not exists, create a new entry
+            metrics.incMisses();
+            return loadAndStoreAsync(key, saltedKey, generation);
+          }
+          return CompletableFuture.completedFuture(toValue(result));
+        });
+    pendingLookups.add(pendingLookup);
+    pendingLookup.whenComplete((value, error) -> pendingLookups.remove(pendingLookup));
+    return pendingLookup;
+  }
+
+  /**
+   * Performs a Get of a row key.
+   *
+   * @param saltedKey HBase row key
+   * @return the HBase result
+   */
+  private Result lookup(byte[] saltedKey) {
+    long start = System.nanoTime();
+    try {
+      return tables.apply(table -> table.get(projection.get(saltedKey)));
     } catch (IOException ex) {
       throw logAndThrow(ex, "Error retrieving data");
+    } finally {
+      metrics.recordGet(start);
     }
   }
 
+  /**
+   * Performs a Get of the row key of an element, if it is not found and the legacy key fallback is enabled its STRING
+   * format row key is looked up.
+   *
+   * @param key element to look up
+   * @param saltedKey HBase row key
+   * @return the HBase result
+   */
+  private Result lookup(K key, byte[] saltedKey) {
+    Result result = lookup(saltedKey);
+    if (result.isEmpty() && legacyKeyFallback) {
+      return migrate(key, saltedKey);
+    }
+    return result;
+  }
+
+  /**
+   * Looks up the STRING format row key of an element and copies the value found to its row key.
+   * Tombstones are not copied, the key is loaded again once they expire.
+   *
+   * @param key element to look up
+   * @param saltedKey HBase row key
+   * @return the HBase result of the STRING format row key
+   */
+  private Result migrate(K key, byte[] saltedKey) {
+    Result legacyResult = lookup(rowKeyGenerator.legacyRowKey(key));
+    if (!legacyResult.isEmpty() && !Tombstones.isTombstone(legacyResult, columnFamily)) {
+      Put put = new Put(saltedKey);
+      for (Cell cell : legacyResult.rawCells()) {
+        if (Tombstones.isTombstone(cell)) {
+          continue;
+        }
+        put.addColumn(CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell), cell.getTimestamp(),
+                      CellUtil.cloneValue(cell));
+      }
+      write(put);
+    }
+    return legacyResult;
+  }
+
+  /**
+   * Retrieves the value of a key in the next batch of the bulk loader, if there are batch settings, using the
+   * asynchronous loader, if it was provided, or the loader function.
+   *
+   * @param key element to load
+   * @return a future of the loaded value
+   */
+  private CompletableFuture<L> loadAsync(K key) {
+    if (Objects.nonNull(batchingLoader)) {
+      // the bulk loader records the latency and failures of each batch
+      return batchingLoader.load(key);
+    }
+    if (Objects.nonNull(asyncLoader)) {
+      long start = System.nanoTime();
+      return Retry.decorateCompletionStage(retry, asyncExecutor, () -> asyncLoader.apply(key)).get()
+          .toCompletableFuture()
+          .whenComplete((value, error) -> {
+            metrics.recordLoad(start);
+            if (Objects.nonNull(error)) {
+              metrics.incLoaderFailures();
+            }
+          });
+    }
+    return CompletableFuture.supplyAsync(() -> loader.apply(key), asyncExecutor);
+  }
+
+  /**
+   * Gets the V values associated with a collection of keys using a single multi-Get.
+   * The Gets are sorted by their salted key, so they are grouped by region.
+   * Only the keys not found in the KV store are retrieved, in a single call of the bulk loader if it was provided or
+   * using the loader function otherwise, and all the new values are stored using a single multi-Put.
+   * Misses are coalesced with the loads in progress of other lookups: keys being loaded by other callers are awaited
+   * and the loads claimed by this call are awaited by other callers.
+   * Keys that fail in any of these steps are not included in the response.
+   *
+   * @param keys identifiers of the elements to be retrieved
+   * @return the values found, keys without values are mapped to null
+   */
+  @Override
+  public Map<K, V> getAll(Collection<K> keys) {
+    // keys sharing the same logical key are grouped under the same row key
+    TreeMap<byte[], List<K>> saltedKeys = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    keys.forEach(key -> saltedKeys.computeIfAbsent(saltedKey(key), saltedKey -> new ArrayList<>()).add(key));
+    long[] generations = saltedKeys.keySet().stream().mapToLong(this::loadGeneration).toArray();
+    Object[] results = multiGet(saltedKeys.keySet());
+    Map<K, V> values = new HashMap<>();
+    // keys not found in the store, by row key
+    Map<byte[], List<K>> misses = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    // load generations of the misses read before the lookup, by row key
+    Map<byte[], Long> missGenerations = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    int i = 0;
+    for (Map.Entry<byte[], List<K>> saltedKey : saltedKeys.entrySet()) {
+      long generation = generations[i];
+      Object result = results[i++];
+      List<K> sameKeys = saltedKey.getValue();
+      K key = sameKeys.get(0);
+      try {
+        if (!(result instanceof Result)) {
+          LOG.error("Error retrieving key {}", key, (Throwable) result);
+          continue;
+        }
+        Result found = (Result) result;
+        if (found.isEmpty() && legacyKeyFallback) {
+          found = migrate(key, saltedKey.getKey());
+        }
+        if (found.isEmpty()) { // the key does not exists, create a new entry
+          metrics.incMisses();
+          misses.put(saltedKey.getKey(), sameKeys);
+          missGenerations.put(saltedKey.getKey(), generation);
+        } else {
+          V value = toValue(found);
+          sameKeys.forEach(sameKey -> values.put(sameKey, value));
+        }
+      } catch (Exception ex) {
+        LOG.error("Error retrieving key {}", key, ex);
+      }
+    }
+    // misses being loaded by other callers and misses claimed by this call
+    Map<byte[], CompletableFuture<V>> inFlight = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    Map<byte[], CompletableFuture<V>> claimed = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    misses.keySet().forEach(saltedKey -> {
+      CompletableFuture<V> newLoad = new CompletableFuture<>();
+      CompletableFuture<V> inFlightLoad = inFlightLoads.putIfAbsent(ByteBuffer.wrap(saltedKey), newLoad);
+      if (Objects.nonNull(inFlightLoad)) {
+        metrics.incCoalesced();
+        inFlight.put(saltedKey, inFlightLoad);
+      } else {
+        claimed.put(saltedKey, newLoad);
+      }
+    });
+    try {
+      loadAndStoreAll(misses, missGenerations, claimed);
+    } finally {
+      // claimed loads are completed before awaiting other callers, so concurrent multi-key lookups can't block each other
+      claimed.forEach((saltedKey, load) -> {
+        if (!load.isDone()) {
+          load.completeExceptionally(new IllegalStateException("Key not loaded"));
+        }
+        releaseLoad(saltedKey, load);
+      });
+    }
+    claimed.putAll(inFlight);
+    claimed.forEach((saltedKey, load) -> {
+      List<K> sameKeys = misses.get(saltedKey);
+      try {
+        V value = join(load);
+        sameKeys.forEach(sameKey -> values.put(sameKey, value));
+      } catch (Exception ex) {
+        LOG.error("Error loading key {}", sameKeys.get(0), ex);
+      }
+    });
+    return values;
+  }
+
+  /**
+   * Performs a multi-Get of row keys.
+   *
+   * @param saltedKeys sorted HBase row keys
+   * @return the result of each Get, a Result or the Throwable of a failed Get
+   */
+  private Object[] multiGet(Collection<byte[]> saltedKeys) {
+    List<Get> gets = new ArrayList<>(saltedKeys.size());
+    saltedKeys.forEach(saltedKey -> gets.add(projection.get(saltedKey)));
+    long start = System.nanoTime();
+    try {
+      return tables.apply(table -> BatchGets.get(table, gets));
+    } catch (IOException ex) {
+      throw logAndThrow(ex, "Error retrieving data");
+    } finally {
+      metrics.recordGet(start);
+    }
+  }
+
+  /**
+   * Loads and stores the values of the misses claimed by a multi-key lookup and completes their loads.
+   * The claimed rows of stripes with loads finished after the first lookup are looked up again first, since those loads
+   * may have stored their values. Loads of keys that fail are left uncompleted.
+   *
+   * @param misses keys not found in the store, by row key
+   * @param missGenerations load generations read before the first lookup, by row key
+   * @param claimed loads claimed by the lookup, by row key
+   */
+  private void loadAndStoreAll(Map<byte[], List<K>> misses, Map<byte[], Long> missGenerations,
+                               Map<byte[], CompletableFuture<V>> claimed) {
+    if (claimed.isEmpty()) {
+      return;
+    }
+    // row keys still missing, claimed rows that may have been stored by another load are looked up again
+    List<byte[]> missingKeys = new ArrayList<>();
+    List<byte[]> recheckKeys = new ArrayList<>();
+    claimed.keySet().forEach(saltedKey -> {
+      if (missGenerations.get(saltedKey) == loadGeneration(saltedKey)) {
+        missingKeys.add(saltedKey);
+      } else {
+        recheckKeys.add(saltedKey);
+      }
+    });
+    if (!recheckKeys.isEmpty()) {
+      Object[] results = multiGet(recheckKeys);
+      for (int i = 0; i < results.length; i++) {
+        byte[] saltedKey = recheckKeys.get(i);
+        Object result = results[i];
+        try {
+          if (result instanceof Result && !((Result) result).isEmpty()) {
+            claimed.get(saltedKey).complete(toValue((Result) result));
+          } else {
+            missingKeys.add(saltedKey);
+          }
+        } catch (Exception ex) {
+          claimed.get(saltedKey).completeExceptionally(ex);
+        }
+      }
+    }
+    Map<K, L> loadedValues = loadAll(missingKeys.stream().map(saltedKey -> misses.get(saltedKey).get(0))
+                                         .collect(Collectors.toList()));
+    Map<byte[], V> newValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    List<Put> puts = new ArrayList<>();
+    for (byte[] saltedKey : missingKeys) {
+      K key = misses.get(saltedKey).get(0);
+      if (!loadedValues.containsKey(key)) {
+        continue;
+      }
+      try {
+        L newValue = loadedValues.get(key);
+        Put put = valueMutator.apply(saltedKey, newValue);
+        if (Objects.nonNull(put)) {
+          puts.add(put);
+          newValues.put(saltedKey, valueMapper.apply(newValue));
+        } else {
+          if (Objects.nonNull(negativeCachingConfig)) {
+            puts.add(tombstone(saltedKey));
+          }
+          claimed.get(saltedKey).complete(null);
+        }
+      } catch (Exception ex) {
+        LOG.error("Error loading key {}", key, ex);
+      }
+    }
+    if (!puts.isEmpty()) {
+      try {
+        List<Put> syncPuts = Objects.isNull(writeBehindWriter) ? puts :
+            puts.stream().filter(put -> !writeBehindWriter.offer(put)).collect(Collectors.toList());
+        if (!syncPuts.isEmpty()) {
+          long putStart = System.nanoTime();
+          try {
+            tables.apply(table -> {
+              table.put(syncPuts);
+              return null;
+            });
+          } finally {
+            metrics.recordPut(putStart);
+          }
+        }
+        puts.stream().filter(put -> !put.has(columnFamily, Tombstones.QUALIFIER)).forEach(put -> {
+          metrics.incInserts();
+          metrics.recordWrittenBytes(ValueSizes.of(put));
+        });
+      } catch (IOException ex) {
+        LOG.error("Appending data to store failed", ex);
+        return;
+      }
+      newValues.forEach((saltedKey, value) -> claimed.get(saltedKey).complete(value));
+    }
+  }
+
+  /**
+   * Loads the values of the keys not found in the store, in a single call if there is a bulk loader, or in calls of the
+   * batch size if there are also batch settings.
+   * Keys that fail to be loaded are not included in the response.
+   *
+   * @param keys keys to load
+   * @return the loaded values, null values included
+   */
+  private Map<K, L> loadAll(List<K> keys) {
+    Map<K, L> loadedValues = new HashMap<>();
+    if (keys.isEmpty()) {
+      return loadedValues;
+    }
+    if (Objects.nonNull(bulkLoader)) {
+      int batchSize = Objects.isNull(batchLoaderConfig) ? keys.size() : batchLoaderConfig.getBatchSize();
+      for (int from = 0; from < keys.size(); from += batchSize) {
+        List<K> batch = keys.subList(from, Math.min(keys.size(), from + batchSize));
+        try {
+          loadedValues.putAll(bulkLoader.apply(batch));
+        } catch (Exception ex) {
+          LOG.error("Error loading {} keys", batch.size(), ex);
+        }
+      }
+      return loadedValues;
+    }
+    for (K key : keys) {
+      try {
+        loadedValues.put(key, loader.apply(key));
+      } catch (Exception ex) {
+        LOG.error("Error loading key {}", key, ex);
+      }
+    }
+    return loadedValues;
+  }
+
   /**
    * Closes the underlying HBase resources.
+   * Asynchronous lookups in progress, including the keys waiting in a batch, are awaited and their values stored, then
+   * pending write-behind values are written before closing the connection. Closing a closed store has no effect.
    *
    * @throws IOException if HBase throws any error
    */
   @Override
   public void close() throws IOException {
-    if (!connection.isClosed()) {
-      connection.close();
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    awaitPendingLookups();
+    if (Objects.nonNull(writeBehindWriter)) {
+      writeBehindWriter.close();
     }
+    if (ownsAsyncExecutor) {
+      asyncExecutor.shutdown();
+      try {
+        if (!asyncExecutor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          LOG.warn("Asynchronous tasks of store {} did not finish before closing it", tableName);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        LOG.warn("Interrupted while waiting for the asynchronous tasks of store {}", tableName);
+      }
+    }
+    tables.close();
+    HBaseConnections.release(connection);
     Optional.ofNullable(closeHandler).ifPresent(Command::execute);
   }
 
+  /**
+   * Waits until the asynchronous lookups in progress complete, the keys waiting in a batch are loaded without waiting
+   * the linger time. Lookups still running after the close timeout are abandoned.
+   */
+  private void awaitPendingLookups() {
+    long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+    while (!pendingLookups.isEmpty()) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        LOG.warn("{} asynchronous lookups of store {} did not finish before closing it", pendingLookups.size(),
+                 tableName);
+        return;
+      }
+      if (Objects.nonNull(batchingLoader)) {
+        batchingLoader.flush();
+      }
+      try {
+        // waits for the lookups known now, lookups they trigger are awaited in the next iteration
+        CompletableFuture.allOf(pendingLookups.toArray(new CompletableFuture<?>[0]))
+            .get(Math.min(remaining, 100), TimeUnit.MILLISECONDS);
+      } catch (ExecutionException | TimeoutException ex) {
+        // failed lookups are reported to their callers, lookups not finished yet are awaited again
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        LOG.warn("Interrupted while waiting for the asynchronous lookups of store {}", tableName);
+        return;
+      }
+    }
+  }
+
   /**
    * Creates a new {@link HBaseStore.Builder}.
    *
@@ -193,7 +876,17 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
     private Function<Result, V> resultMapper;
     private Function<L, V> valueMapper;
     private Function<K, L> loader;
+    private Function<K, CompletableFuture<L>> asyncLoader;
+    private Function<Collection<K>, Map<K, L>> bulkLoader;
+    private BatchLoaderConfig batchLoaderConfig;
+    private ScheduledExecutorService asyncExecutor;
+    private WriteBehindConfig writeBehindConfig;
+    private NegativeCachingConfig negativeCachingConfig;
     private ElasticMetricsConfig metricsConfig;
+    private MeterRegistry meterRegistry;
+    private LatencyMetricsConfig latencyMetricsConfig;
+    private List<String> projectedQualifiers;
+    private String storeName;
     private Command closeHandler;
 
     public Builder<K, V, L> withHBaseStoreConfiguration(HBaseKVStoreConfiguration configuration) {
@@ -226,20 +919,93 @@ public class HBaseStore<K extends Indexable, V, L> implements KeyValueStore<K, V
       return this;
     }
 
+    public Builder<K, V, L> withAsyncLoader(Function<K, CompletableFuture<L>> asyncLoader) {
+      this.asyncLoader = asyncLoader;
+      return this;
+    }
+
+    /**
+     * Loader of the keys not found by a multi-key lookup in a single call, keys missing from its response are not
+     * included in the lookup response. If it is not set, the loader function is called per key.
+     */
+    public Builder<K, V, L> withBulkLoader(Function<Collection<K>, Map<K, L>> bulkLoader) {
+      this.bulkLoader = bulkLoader;
+      return this;
+    }
+
+    /**
+     * Batches of the bulk loader: multi-key lookups load the missing keys in calls of the batch size and single-key
+     * asynchronous lookups are grouped into calls of the bulk loader instead of using the asynchronous loader.
+     */
+    public Builder<K, V, L> withBatchLoaderConfig(BatchLoaderConfig batchLoaderConfig) {
+      this.batchLoaderConfig = batchLoaderConfig;
+      return this;
+    }
+
+    public Builder<K, V, L> withAsyncExecutor(ScheduledExecutorService asyncExecutor) {
+      this.asyncExecutor = asyncExecutor;
+      return this;
+    }
+
+    public Builder<K, V, L> withWriteBehindConfig(WriteBehindConfig writeBehindConfig) {
+      this.writeBehindConfig = writeBehindConfig;
+      return this;
+    }
+
+    public Builder<K, V, L> withNegativeCachingConfig(NegativeCachingConfig negativeCachingConfig) {
+      this.negativeCachingConfig = negativeCachingConfig;
+      return this;
+    }
+
+    /**
+     * Qualifiers read by the result mapper, Gets are restricted to them and the tombstone qualifier.
+     * If none is set, Gets read the whole column family of the store.
+     */
+    public Builder<K, V, L> withProjectedQualifiers(String... projectedQualifiers) {
+      this.projectedQualifiers = Arrays.asList(projectedQualifiers);
+      return this;
+    }
+
+    /**
+     * Name of the store tag of the metrics, the table name by default.
+     * Stores of the same table that publish metrics to the same registry must use different names.
+     */
+    public Builder<K, V, L> withStoreName(String storeName) {
+      this.storeName = storeName;
+      return this;
+    }
+
     public Builder<K, V, L> withCloseHandler(Command closeHandler) {
       this.closeHandler = closeHandler;
       return this;
     }
 
 
+    /**
+     * Registry where the store metrics are published, it takes precedence over the Elastic metrics configuration.
+     * If none of them is set, the Micrometer global registry is used.
+     */
+    public Builder<K, V, L> withMeterRegistry(MeterRegistry meterRegistry) {
+      this.meterRegistry = meterRegistry;
+      return this;
+    }
+
+    public Builder<K, V, L> withLatencyMetricsConfig(LatencyMetricsConfig latencyMetricsConfig) {
+      this.latencyMetricsConfig = latencyMetricsConfig;
+      return this;
+    }
+
     public Builder<K, V, L> withElasticMetricsConfig(ElasticMetricsConfig metricsConfig) {
       this.metricsConfig = metricsConfig;
       return this;
     }
 
     public HBaseStore<K, V, L> build() throws IOException {
-      MeterRegistry metricsRegistry = Objects.nonNull(this.metricsConfig)? new ElasticMeterRegistry(this.metricsConfig, Clock.SYSTEM) : new SimpleMeterRegistry();
-      return new HBaseStore<>(configuration, loaderRetryConfig, valueMutator, resultMapper, valueMapper, loader, metricsRegistry, closeHandler);
+      MeterRegistry metricsRegistry = MeterRegistries.resolve(meterRegistry, metricsConfig);
+      return new HBaseStore<>(configuration, loaderRetryConfig, valueMutator, resultMapper, valueMapper, loader,
+                              asyncLoader, bulkLoader, batchLoaderConfig, asyncExecutor, writeBehindConfig,
+                              negativeCachingConfig, metricsRegistry, latencyMetricsConfig, projectedQualifiers,
+                              storeName, closeHandler);
     }
   }
 }
@@ -0,0 +1,19 @@
+package org.gbif.kvs.hbase;
+
+/**
+ * Format of the row keys of a KV store table.
+ */
+public enum KeyFormat {
+
+  /**
+   * The String logical key encoded in UTF-8, with a bucket prefix computed from its hash code.
+   * This is the format of the tables created by previous versions.
+   */
+  STRING,
+
+  /**
+   * The binary logical key of {@link BinaryIndexable} elements, with a bucket prefix computed from its Murmur3 hash.
+   * Elements that are not {@link BinaryIndexable} use their String logical key encoded in UTF-8.
+   */
+  BINARY
+}
@@ -0,0 +1,31 @@
+package org.gbif.kvs.hbase;
+
+import java.io.Serializable;
+
+/**
+ * Settings of the negative caching of keys for which the loader produces no storable value.
+ * Such keys are stored as tombstones, so later lookups are answered from HBase without calling the loader.
+ */
+public class NegativeCachingConfig implements Serializable {
+
+  public static NegativeCachingConfig DEFAULT = new NegativeCachingConfig();
+
+
+  private final Long ttlMillis;
+
+  public NegativeCachingConfig(Long ttlMillis) {
+    this.ttlMillis = ttlMillis;
+  }
+
+  private NegativeCachingConfig() {
+    this(null);
+  }
+
+  /**
+   * Time to live of tombstones, null if they never expire.
+   * Expired tombstones are loaded again on the next lookup.
+   */
+  public Long getTtlMillis() {
+    return ttlMillis;
+  }
+}
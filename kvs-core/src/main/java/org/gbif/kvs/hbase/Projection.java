@@ -0,0 +1,53 @@
+package org.gbif.kvs.hbase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Columns read by the Gets of a KV store.
+ * Gets are restricted to the column family of the store and, if qualifiers are specified, to those qualifiers and
+ * the tombstone qualifier.
+ */
+final class Projection {
+
+  // Column family of the KV store
+  private final byte[] columnFamily;
+
+  // Qualifiers read, empty if the whole column family is read
+  private final List<byte[]> qualifiers;
+
+  /**
+   * Creates a projection of a column family.
+   *
+   * @param columnFamily column family of the KV store
+   * @param qualifiers qualifiers read by the result mapper, null or empty to read the whole column family
+   */
+  Projection(byte[] columnFamily, Collection<String> qualifiers) {
+    this.columnFamily = columnFamily;
+    this.qualifiers = new ArrayList<>();
+    if (qualifiers != null && !qualifiers.isEmpty()) {
+      qualifiers.forEach(qualifier -> this.qualifiers.add(Bytes.toBytes(qualifier)));
+      this.qualifiers.add(Tombstones.QUALIFIER);
+    }
+  }
+
+  /**
+   * Creates the Get of a row key.
+   *
+   * @param rowKey HBase row key
+   * @return a new Get restricted to the projected columns
+   */
+  Get get(byte[] rowKey) {
+    Get get = new Get(rowKey);
+    if (qualifiers.isEmpty()) {
+      get.addFamily(columnFamily);
+    } else {
+      qualifiers.forEach(qualifier -> get.addColumn(columnFamily, qualifier));
+    }
+    return get;
+  }
+}
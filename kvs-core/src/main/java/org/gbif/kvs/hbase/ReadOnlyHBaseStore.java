@@ -1,29 +1,44 @@
 package org.gbif.kvs.hbase;
 
-import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
-import io.micrometer.elastic.ElasticMeterRegistry;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.gbif.kvs.KeyValueStore;
-import org.gbif.kvs.SaltedKeyGenerator;
 import org.gbif.kvs.metrics.CacheMetrics;
 import org.gbif.kvs.metrics.ElasticMetricsConfig;
+import org.gbif.kvs.metrics.LatencyMetricsConfig;
+import org.gbif.kvs.metrics.MeterRegistries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
  * Implementation of a read-only key-value based on HBase.
  * This implementation base its implementation on loader function that no necessarily produces values as the one provided by the KV store.*
  *   - A resultMapper function converts HBase {@link Result} into value V.
+ *   - Tombstones stored by {@link HBaseStore} negative caching are returned as null.
+ *   - If the legacy key fallback is enabled, keys not found in a BINARY table are looked up using their STRING key.
  *
  * The get method provides a getOrPut behaviour, if the key is not found in the store the loader function is used to
  * externally retrieve its value.
@@ -35,31 +50,69 @@ public class ReadOnlyHBaseStore<K extends Indexable, V> implements KeyValueStore
 
   private static final Logger LOG = LoggerFactory.getLogger(ReadOnlyHBaseStore.class);
 
+  // Maximum time closing a store waits for the asynchronous lookups in progress
+  private static final long CLOSE_TIMEOUT_MILLIS = 60_000;
+
   // HBase table name where KV pairs are stored
   private final TableName tableName;
 
+  // Column family where values and tombstones are stored
+  private final byte[] columnFamily;
+
+  // Columns read by Gets
+  private final Projection projection;
+
   // Function to convert a byte[] into a V instance
   private final Function<Result, V> resultMapper;
 
-  // Active HBase connection
+  // HBase connection, shared with other stores of the same HBase cluster
   private final Connection connection;
 
-  // Salted key generator for the specified number of buckets
-  private final SaltedKeyGenerator saltedKeyGenerator;
+  // Tables used by this store
+  private final TableHandle tables;
+
+  // Row key generator for the specified number of buckets and key format
+  private final RowKeyGenerator rowKeyGenerator;
+
+  // Are keys not found looked up using the STRING key format
+  private final boolean legacyKeyFallback;
+
+  // Executor of the HBase calls of asynchronous lookups, HBase 1.x only provides blocking calls
+  private final ScheduledExecutorService asyncExecutor;
+
+  // Is the asyncExecutor created and owned by this store
+  private final boolean ownsAsyncExecutor;
 
   private final CacheMetrics metrics;
 
+  // Has the store been closed, the shared connection is released only once
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  // Asynchronous lookups in progress, they are awaited before closing the store
+  private final Set<CompletableFuture<V>> pendingLookups = ConcurrentHashMap.newKeySet();
+
   private Command closeHandler;
 
   private ReadOnlyHBaseStore(HBaseKVStoreConfiguration config,
                              Function<Result, V> resultMapper,
+                             ScheduledExecutorService asyncExecutor,
                              MeterRegistry meterRegistry,
+                             LatencyMetricsConfig latencyMetricsConfig,
+                             List<String> projectedQualifiers,
+                             String storeName,
                              Command closeHandler) throws IOException {
-    connection = ConnectionFactory.createConnection(config.hbaseConfig());
-    saltedKeyGenerator = new SaltedKeyGenerator(config.getNumOfKeyBuckets());
+    connection = HBaseConnections.acquire(config);
+    rowKeyGenerator = RowKeyGenerator.of(config);
+    legacyKeyFallback = config.isLegacyKeyFallback() && config.getKeyFormat() == KeyFormat.BINARY;
     this.tableName = TableName.valueOf(config.getTableName());
+    this.tables = new TableHandle(connection, tableName);
+    this.columnFamily = Bytes.toBytes(config.getColumnFamily());
+    this.projection = new Projection(columnFamily, projectedQualifiers);
     this.resultMapper = resultMapper;
-    this.metrics = CacheMetrics.create(meterRegistry, config.getTableName());
+    this.ownsAsyncExecutor = Objects.isNull(asyncExecutor);
+    this.asyncExecutor = ownsAsyncExecutor ? AsyncExecutors.create(config.getTableName()) : asyncExecutor;
+    this.metrics = CacheMetrics.create(meterRegistry, Objects.isNull(storeName) ? config.getTableName() : storeName,
+                                       CacheMetrics.HBASE_TIER, latencyMetricsConfig);
     this.closeHandler = closeHandler;
   }
 
@@ -75,6 +128,27 @@ public class ReadOnlyHBaseStore<K extends Indexable, V> implements KeyValueStore
   }
 
 
+  /**
+   * Converts a non-empty result into a value, tombstones are converted into null.
+   *
+   * @param result HBase result
+   * @return the stored value, null for tombstones
+   */
+  private V toValue(Result result) {
+    if (Tombstones.isTombstone(result, columnFamily)) {
+      metrics.incNegativeHits();
+      return null;
+    }
+    metrics.incHits();
+    metrics.recordReadBytes(ValueSizes.of(result));
+    long start = System.nanoTime();
+    try {
+      return resultMapper.apply(result);
+    } finally {
+      metrics.recordMap(start);
+    }
+  }
+
   /**
    * Gets a V value associated with the K key. If the value is not found in the KV store, the loader
    * function is used to retrieve the value from an external source.
@@ -84,30 +158,135 @@ public class ReadOnlyHBaseStore<K extends Indexable, V> implements KeyValueStore
    */
   @Override
   public V get(K key) {
-    try (Table table = connection.getTable(tableName)) {
-      byte[] saltedKey = saltedKeyGenerator.computeKey(Bytes.toBytes(key.getLogicalKey()));
-      Get get = new Get(saltedKey);
-      Result result = table.get(get);
-      if (result.isEmpty()) { // the key does not exists, create a new entry
-        return null;
+    Result result = lookup(saltedKey(key));
+    if (result.isEmpty() && legacyKeyFallback) {
+      result = lookup(rowKeyGenerator.legacyRowKey(key));
+    }
+    if (result.isEmpty()) { // the key does not exists
+      metrics.incMisses();
+      return null;
+    }
+    return toValue(result);
+  }
+
+  /**
+   * Performs a Get of a row key.
+   *
+   * @param saltedKey HBase row key
+   * @return the HBase result
+   */
+  private Result lookup(byte[] saltedKey) {
+    long start = System.nanoTime();
+    try {
+      return tables.apply(table -> table.get(projection.get(saltedKey)));
+    } catch (IOException ex) {
+      throw logAndThrow(ex, "Error retrieving data");
+    } finally {
+      metrics.recordGet(start);
+    }
+  }
+
+  /**
+   * Asynchronously gets a V value associated with the K key, the HBase call is executed in the async executor.
+   *
+   * @param key identifier of element to be retrieved
+   * @return a future of the value found, it completes with null if there is no value
+   */
+  @Override
+  public CompletableFuture<V> getAsync(K key) {
+    CompletableFuture<V> pendingLookup = CompletableFuture.supplyAsync(() -> get(key), asyncExecutor);
+    pendingLookups.add(pendingLookup);
+    pendingLookup.whenComplete((value, error) -> pendingLookups.remove(pendingLookup));
+    return pendingLookup;
+  }
+
+  /**
+   * Gets the V values associated with a collection of keys using a single multi-Get.
+   * The Gets are sorted by their salted key, so they are grouped by region.
+   * Keys that fail to be retrieved are not included in the response.
+   *
+   * @param keys identifiers of the elements to be retrieved
+   * @return the values found, keys without values are mapped to null
+   */
+  @Override
+  public Map<K, V> getAll(Collection<K> keys) {
+    // keys sharing the same logical key are grouped under the same row key
+    TreeMap<byte[], List<K>> saltedKeys = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    keys.forEach(key -> saltedKeys.computeIfAbsent(saltedKey(key), saltedKey -> new ArrayList<>()).add(key));
+    List<Get> gets = new ArrayList<>(saltedKeys.size());
+    saltedKeys.keySet().forEach(saltedKey -> gets.add(projection.get(saltedKey)));
+    long start = System.nanoTime();
+    try {
+      Object[] results = tables.apply(table -> BatchGets.get(table, gets));
+      metrics.recordGet(start);
+      Map<K, V> values = new HashMap<>();
+      int i = 0;
+      for (List<K> sameKeys : saltedKeys.values()) {
+        Object result = results[i++];
+        try {
+          if (!(result instanceof Result)) {
+            LOG.error("Error retrieving key {}", sameKeys.get(0), (Throwable) result);
+            continue;
+          }
+          Result found = (Result) result;
+          if (found.isEmpty() && legacyKeyFallback) {
+            found = lookup(rowKeyGenerator.legacyRowKey(sameKeys.get(0)));
+          }
+          if (found.isEmpty()) {
+            metrics.incMisses();
+            sameKeys.forEach(key -> values.put(key, null));
+          } else {
+            V value = toValue(found);
+            sameKeys.forEach(key -> values.put(key, value));
+          }
+        } catch (Exception ex) {
+          LOG.error("Error reading key {}", sameKeys.get(0), ex);
+        }
       }
-      metrics.incHits();
-      return resultMapper.apply(result);
+      return values;
     } catch (IOException ex) {
       throw logAndThrow(ex, "Error retrieving data");
     }
   }
 
   /**
-   * Closes the underlying HBase resources.
+   * Computes the salted row key of a key element.
+   *
+   * @param key key element
+   * @return HBase row key
+   */
+  private byte[] saltedKey(K key) {
+    return rowKeyGenerator.rowKey(key);
+  }
+
+  /**
+   * Closes the underlying HBase resources, closing a closed store has no effect.
+   * Asynchronous lookups in progress are awaited before closing the tables and releasing the connection.
    *
    * @throws IOException if HBase throws any error
    */
   @Override
   public void close() throws IOException {
-    if (!connection.isClosed()) {
-      connection.close();
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      CompletableFuture.allOf(pendingLookups.toArray(new CompletableFuture<?>[0]))
+          .get(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException ex) {
+      // failed lookups are reported to their callers
+    } catch (TimeoutException ex) {
+      LOG.warn("{} asynchronous lookups of store {} did not finish before closing it", pendingLookups.size(),
+               tableName);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Interrupted while waiting for the asynchronous lookups of store {}", tableName);
+    }
+    if (ownsAsyncExecutor) {
+      asyncExecutor.shutdown();
     }
+    tables.close();
+    HBaseConnections.release(connection);
     Optional.ofNullable(closeHandler).ifPresent(Command::execute);
   }
 
@@ -131,7 +310,12 @@ public class ReadOnlyHBaseStore<K extends Indexable, V> implements KeyValueStore
   public static class Builder<K extends Indexable, V> {
     private HBaseKVStoreConfiguration configuration;
     private Function<Result, V> resultMapper;
+    private ScheduledExecutorService asyncExecutor;
     private ElasticMetricsConfig metricsConfig;
+    private MeterRegistry meterRegistry;
+    private LatencyMetricsConfig latencyMetricsConfig;
+    private List<String> projectedQualifiers;
+    private String storeName;
     private Command closeHandler;
 
     public Builder<K, V> withHBaseStoreConfiguration(HBaseKVStoreConfiguration configuration) {
@@ -144,19 +328,57 @@ public class ReadOnlyHBaseStore<K extends Indexable, V> implements KeyValueStore
       return this;
     }
 
+    public Builder<K, V> withAsyncExecutor(ScheduledExecutorService asyncExecutor) {
+      this.asyncExecutor = asyncExecutor;
+      return this;
+    }
+
+    /**
+     * Registry where the store metrics are published, it takes precedence over the Elastic metrics configuration.
+     * If none of them is set, the Micrometer global registry is used.
+     */
+    public Builder<K, V> withMeterRegistry(MeterRegistry meterRegistry) {
+      this.meterRegistry = meterRegistry;
+      return this;
+    }
+
+    public Builder<K, V> withLatencyMetricsConfig(LatencyMetricsConfig latencyMetricsConfig) {
+      this.latencyMetricsConfig = latencyMetricsConfig;
+      return this;
+    }
+
     public Builder<K, V> withElasticMetricsConfig(ElasticMetricsConfig metricsConfig) {
       this.metricsConfig = metricsConfig;
       return this;
     }
 
+    /**
+     * Qualifiers read by the result mapper, Gets are restricted to them and the tombstone qualifier.
+     * If none is set, Gets read the whole column family of the store.
+     */
+    public Builder<K, V> withProjectedQualifiers(String... projectedQualifiers) {
+      this.projectedQualifiers = Arrays.asList(projectedQualifiers);
+      return this;
+    }
+
+    /**
+     * Name of the store tag of the metrics, the table name by default.
+     * Stores of the same table that publish metrics to the same registry must use different names.
+     */
+    public Builder<K, V> withStoreName(String storeName) {
+      this.storeName = storeName;
+      return this;
+    }
+
     public Builder<K, V> withCloseHandler(Command closeHandler) {
       this.closeHandler = closeHandler;
       return this;
     }
 
     public ReadOnlyHBaseStore<K, V> build() throws IOException {
-      MeterRegistry metricsRegistry = Objects.nonNull(this.metricsConfig)? new ElasticMeterRegistry(this.metricsConfig, Clock.SYSTEM) : new SimpleMeterRegistry();
-      return new ReadOnlyHBaseStore<>(configuration, resultMapper, metricsRegistry, closeHandler);
+      MeterRegistry metricsRegistry = MeterRegistries.resolve(meterRegistry, metricsConfig);
+      return new ReadOnlyHBaseStore<>(configuration, resultMapper, asyncExecutor, metricsRegistry, latencyMetricsConfig,
+                                      projectedQualifiers, storeName, closeHandler);
     }
   }
 }
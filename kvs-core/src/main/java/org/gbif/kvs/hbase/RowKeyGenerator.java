@@ -0,0 +1,81 @@
+package org.gbif.kvs.hbase;
+
+import org.gbif.kvs.SaltedKeyGenerator;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Computes the HBase row keys of {@link Indexable} elements in the {@link KeyFormat} of a table.
+ */
+public class RowKeyGenerator implements Serializable {
+
+  // Format of the row keys
+  private final KeyFormat keyFormat;
+
+  // Salted key generator of the key format
+  private final SaltedKeyGenerator saltedKeyGenerator;
+
+  // Salted key generator of the STRING format
+  private final SaltedKeyGenerator legacySaltedKeyGenerator;
+
+  /**
+   * Creates a new instance.
+   * @param numOfBuckets salted key buckets
+   * @param keyFormat format of the row keys
+   */
+  public RowKeyGenerator(int numOfBuckets, KeyFormat keyFormat) {
+    this.keyFormat = keyFormat;
+    legacySaltedKeyGenerator = new SaltedKeyGenerator(numOfBuckets);
+    saltedKeyGenerator = keyFormat == KeyFormat.BINARY ?
+        new SaltedKeyGenerator(numOfBuckets, StandardCharsets.UTF_8, SaltedKeyGenerator.BucketHash.MURMUR3) :
+        legacySaltedKeyGenerator;
+  }
+
+  /**
+   * Creates a new instance using the number of buckets and key format of a store configuration.
+   * @param config store configuration
+   * @return a new RowKeyGenerator
+   */
+  public static RowKeyGenerator of(HBaseKVStoreConfiguration config) {
+    return new RowKeyGenerator(config.getNumOfKeyBuckets(), config.getKeyFormat());
+  }
+
+  /**
+   *
+   * @return format of the row keys
+   */
+  public KeyFormat getKeyFormat() {
+    return keyFormat;
+  }
+
+  /**
+   *
+   * @return number of bytes of the bucket prefix of the row keys, the logical key follows it
+   */
+  public int getPrefixLength() {
+    return saltedKeyGenerator.getPrefixLength();
+  }
+
+  /**
+   * Computes the row key of an element.
+   * @param key element to index
+   * @return HBase row key
+   */
+  public byte[] rowKey(Indexable key) {
+    if (keyFormat == KeyFormat.BINARY && key instanceof BinaryIndexable) {
+      BinaryIndexable binaryKey = (BinaryIndexable) key;
+      return saltedKeyGenerator.computeKey(binaryKey.getLogicalKeyLength(), binaryKey::writeLogicalKey);
+    }
+    return saltedKeyGenerator.computeKey(key.getLogicalKey());
+  }
+
+  /**
+   * Computes the row key of an element in the {@link KeyFormat#STRING} format.
+   * @param key element to index
+   * @return HBase row key
+   */
+  public byte[] legacyRowKey(Indexable key) {
+    return legacySaltedKeyGenerator.computeKey(key.getLogicalKey());
+  }
+}
@@ -0,0 +1,91 @@
+package org.gbif.kvs.hbase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Table;
+
+/**
+ * Thread-safe access to an HBase table.
+ * HBase 1.x {@link Table} instances are not thread-safe, instead of creating and closing one per operation this class
+ * keeps the instances that are not in use and lends them to one thread at a time.
+ */
+final class TableHandle implements Closeable {
+
+  /**
+   * Operation over a table.
+   *
+   * @param <T> type of the result
+   */
+  @FunctionalInterface
+  interface TableFunction<T> {
+
+    T apply(Table table) throws IOException;
+  }
+
+  // Connection used to create tables
+  private final Connection connection;
+
+  private final TableName tableName;
+
+  // Tables not in use
+  private final Queue<Table> idleTables = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean closed;
+
+  TableHandle(Connection connection, TableName tableName) {
+    this.connection = connection;
+    this.tableName = tableName;
+  }
+
+  /**
+   * Executes an operation using a table that is not used by other threads.
+   *
+   * @param function operation to execute
+   * @param <T> type of the result
+   * @return the result of the operation
+   * @throws IOException if HBase throws any error
+   */
+  <T> T apply(TableFunction<T> function) throws IOException {
+    Table table = idleTables.poll();
+    if (Objects.isNull(table)) {
+      table = connection.getTable(tableName);
+    }
+    try {
+      return function.apply(table);
+    } finally {
+      idleTables.offer(table);
+      if (closed) {
+        closeIdleTables();
+      }
+    }
+  }
+
+  /**
+   * Closes the tables not in use.
+   *
+   * @throws IOException if a table fails to close
+   */
+  private void closeIdleTables() throws IOException {
+    Table table;
+    while ((table = idleTables.poll()) != null) {
+      table.close();
+    }
+  }
+
+  /**
+   * Closes the tables, tables in use are closed when they are released.
+   *
+   * @throws IOException if a table fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    closeIdleTables();
+  }
+}
@@ -0,0 +1,76 @@
+package org.gbif.kvs.hbase;
+
+import java.util.Objects;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Utility class to write and detect tombstones, markers of keys that have no value.
+ * A tombstone is an empty cell stored in the column family of the KV store using a reserved qualifier.
+ */
+final class Tombstones {
+
+  // Reserved qualifier of the tombstone cell
+  static final byte[] QUALIFIER = Bytes.toBytes("_t");
+
+  private static final byte[] EMPTY = new byte[0];
+
+  /**
+   * Private constructor of utility class.
+   */
+  private Tombstones() {
+    //DO NOTHING
+  }
+
+  /**
+   * Creates the Put of a tombstone.
+   *
+   * @param key HBase row key
+   * @param columnFamily column family of the KV store
+   * @param ttlMillis time to live of the tombstone, null if it never expires
+   * @return a new Put
+   */
+  static Put put(byte[] key, byte[] columnFamily, Long ttlMillis) {
+    Put put = new Put(key);
+    put.addColumn(columnFamily, QUALIFIER, EMPTY);
+    if (Objects.nonNull(ttlMillis)) {
+      put.setTTL(ttlMillis);
+    }
+    return put;
+  }
+
+  /**
+   * Is the result a tombstone.
+   * Tombstones are not deleted when a value is written later into the same row, for instance by an indexer, so a row
+   * is a tombstone only if the tombstone cell is its only cell in the column family.
+   *
+   * @param result HBase result
+   * @param columnFamily column family of the KV store
+   * @return true if the result contains the tombstone cell and no value cell
+   */
+  static boolean isTombstone(Result result, byte[] columnFamily) {
+    if (!result.containsColumn(columnFamily, QUALIFIER)) {
+      return false;
+    }
+    for (Cell cell : result.rawCells()) {
+      if (CellUtil.matchingFamily(cell, columnFamily) && !isTombstone(cell)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Is the cell a tombstone cell.
+   *
+   * @param cell HBase cell
+   * @return true if the cell has the tombstone qualifier
+   */
+  static boolean isTombstone(Cell cell) {
+    return CellUtil.matchingQualifier(cell, QUALIFIER);
+  }
+}
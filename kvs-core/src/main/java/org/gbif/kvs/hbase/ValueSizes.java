@@ -0,0 +1,50 @@
+package org.gbif.kvs.hbase;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+
+/**
+ * Utility class to compute the size of the values stored in HBase cells.
+ */
+final class ValueSizes {
+
+  /**
+   * Private constructor of utility class.
+   */
+  private ValueSizes() {
+    //DO NOTHING
+  }
+
+  /**
+   * Size of the cell values of a result.
+   *
+   * @param result HBase result
+   * @return number of bytes of all the cell values
+   */
+  static long of(Result result) {
+    long size = 0;
+    for (Cell cell : result.rawCells()) {
+      size += cell.getValueLength();
+    }
+    return size;
+  }
+
+  /**
+   * Size of the cell values of a Put.
+   *
+   * @param put HBase mutation
+   * @return number of bytes of all the cell values
+   */
+  static long of(Put put) {
+    long size = 0;
+    for (List<Cell> cells : put.getFamilyCellMap().values()) {
+      for (Cell cell : cells) {
+        size += cell.getValueLength();
+      }
+    }
+    return size;
+  }
+}
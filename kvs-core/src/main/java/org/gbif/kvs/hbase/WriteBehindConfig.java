@@ -0,0 +1,55 @@
+package org.gbif.kvs.hbase;
+
+import java.io.Serializable;
+
+/**
+ * Settings of the write-behind persistence of loaded values.
+ * Values are queued in a bounded queue and written to HBase by a background writer that flushes them when the
+ * flush size or the flush interval is reached.
+ */
+public class WriteBehindConfig implements Serializable {
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+  private static final int DEFAULT_FLUSH_SIZE = 500;
+  private static final long DEFAULT_FLUSH_INTERVAL = 1_000;
+
+  public static WriteBehindConfig DEFAULT = new WriteBehindConfig();
+
+
+  private final Integer queueCapacity;
+
+  private final Integer flushSize;
+
+  private final Long flushIntervalMillis;
+
+  public WriteBehindConfig(Integer queueCapacity, Integer flushSize, Long flushIntervalMillis) {
+    this.queueCapacity = queueCapacity;
+    this.flushSize = flushSize;
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  private WriteBehindConfig() {
+    this(DEFAULT_QUEUE_CAPACITY, DEFAULT_FLUSH_SIZE, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  /**
+   * Maximum number of values waiting to be written, values that do not fit in the queue are written synchronously.
+   */
+  public Integer getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * Number of pending values that triggers a flush.
+   */
+  public Integer getFlushSize() {
+    return flushSize;
+  }
+
+  /**
+   * Maximum time a value waits to be flushed.
+   */
+  public Long getFlushIntervalMillis() {
+    return flushIntervalMillis;
+  }
+}
@@ -0,0 +1,180 @@
+package org.gbif.kvs.hbase;
+
+import org.gbif.kvs.metrics.CacheMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes Puts to HBase in background using a {@link BufferedMutator}.
+ * Puts are accepted into a bounded queue, a single writer thread drains it and flushes the mutator every time the
+ * flush size or the flush interval is reached. Closing the writer flushes all the accepted Puts.
+ */
+final class WriteBehindWriter implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindWriter.class);
+
+  // Buffered mutator of the store table
+  private final BufferedMutator mutator;
+
+  // Puts waiting to be written
+  private final BlockingQueue<Put> queue;
+
+  private final int flushSize;
+
+  private final long flushIntervalNanos;
+
+  // Thread that drains the queue
+  private final Thread writerThread;
+
+  // Latency of flushing pending Puts into HBase
+  private final Timer flushTimer;
+
+  // Puts that could not be queued because the queue was full
+  private final Counter rejected;
+
+  // Puts offered after the writer was closed
+  private final Counter closedRejected;
+
+  private volatile boolean closed;
+
+  /**
+   * Creates and starts a writer.
+   *
+   * @param connection HBase connection
+   * @param tableName table where Puts are written
+   * @param config write-behind settings
+   * @param meterRegistry registry of the queue and flush metrics
+   * @param storeName name used to tag metrics and the writer thread
+   * @throws IOException if the mutator can't be created
+   */
+  WriteBehindWriter(Connection connection, TableName tableName, WriteBehindConfig config, MeterRegistry meterRegistry,
+                    String storeName) throws IOException {
+    this(connection.getBufferedMutator(tableName), config, meterRegistry, storeName);
+  }
+
+  /**
+   * Creates and starts a writer of a mutator, the mutator is closed when the writer is closed.
+   *
+   * @param mutator buffered mutator of the table where Puts are written
+   * @param config write-behind settings
+   * @param meterRegistry registry of the queue and flush metrics
+   * @param storeName name used to tag metrics and the writer thread
+   */
+  WriteBehindWriter(BufferedMutator mutator, WriteBehindConfig config, MeterRegistry meterRegistry, String storeName) {
+    this.mutator = mutator;
+    queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    flushSize = config.getFlushSize();
+    flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+    List<Tag> metricsTags = CacheMetrics.tags(storeName, CacheMetrics.HBASE_TIER);
+    meterRegistry.gaugeCollectionSize("writeBehindQueue", metricsTags, queue);
+    flushTimer = meterRegistry.timer("writeBehindFlush", metricsTags);
+    rejected = meterRegistry.counter("writeBehindRejected", metricsTags);
+    closedRejected = meterRegistry.counter("writeBehindClosed", metricsTags);
+    writerThread = new Thread(this::drain, storeName + "-write-behind");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Queues a Put to be written.
+   *
+   * @param put mutation to write
+   * @return true if the Put was queued, false if the queue is full or the writer is closed
+   */
+  boolean offer(Put put) {
+    if (closed) {
+      closedRejected.increment();
+      return false;
+    }
+    if (queue.offer(put)) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * Writer loop, runs until the writer is closed and the queue is empty or the thread is interrupted.
+   */
+  private void drain() {
+    List<Put> pending = new ArrayList<>(flushSize);
+    long lastFlush = System.nanoTime();
+    while (!closed || !queue.isEmpty()) {
+      try {
+        Put put = queue.poll(Math.max(flushIntervalNanos - (System.nanoTime() - lastFlush), 0), TimeUnit.NANOSECONDS);
+        if (Objects.nonNull(put)) {
+          pending.add(put);
+          queue.drainTo(pending, flushSize - pending.size());
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      if (pending.size() >= flushSize || System.nanoTime() - lastFlush >= flushIntervalNanos) {
+        flush(pending);
+        lastFlush = System.nanoTime();
+      }
+    }
+    flush(pending);
+  }
+
+  /**
+   * Writes and flushes the pending Puts, failed Puts are logged and discarded since they can be loaded again.
+   *
+   * @param pending Puts to write
+   */
+  private void flush(List<Put> pending) {
+    if (pending.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      mutator.mutate(pending);
+      mutator.flush();
+    } catch (IOException ex) {
+      LOG.error("Error writing {} values to store", pending.size(), ex);
+    } finally {
+      flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      pending.clear();
+    }
+  }
+
+  /**
+   * Stops accepting Puts, waits until all the queued Puts are written and closes the mutator.
+   *
+   * @throws IOException if the mutator fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      writerThread.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      LOG.warn("Interrupted while waiting for the write-behind writer");
+    }
+    // Puts queued after the writer finished
+    List<Put> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    flush(remaining);
+    mutator.close();
+  }
+}
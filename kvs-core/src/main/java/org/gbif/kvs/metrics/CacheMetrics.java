@@ -1,31 +1,131 @@
 package org.gbif.kvs.metrics;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
 
 /**
- * Collects metrics about cache usage: hits and inserts.
+ * Collects metrics about cache usage: hits, negative hits, misses, inserts, coalesced loads, loader failures and
+ * retries, the latency of each lookup stage and the size of the values read and written.
  */
 public class CacheMetrics {
 
+  // Tier of HBase stores
+  public static final String HBASE_TIER = "hbase";
+
+  // Tier of in-memory caches
+  public static final String MEMORY_TIER = "memory";
+
+  // Lookup stage: read from the store
+  public static final String GET_STAGE = "get";
+
+  // Lookup stage: load from the external source
+  public static final String LOAD_STAGE = "load";
+
+  // Lookup stage: conversion of stored data into values
+  public static final String MAP_STAGE = "map";
+
+  // Lookup stage: write into the store
+  public static final String PUT_STAGE = "put";
+
   //Counter of cache hits
   private final Counter hits;
 
+  //Counter of cache hits of keys stored without value
+  private final Counter negativeHits;
+
+  //Counter of keys not found in the cache
+  private final Counter misses;
+
   //Counter of cache inserts or misses
   private final Counter inserts;
 
+  //Counter of misses that waited for the load of a concurrent miss of the same key
+  private final Counter coalesced;
+
+  //Counter of loads that failed after all the retries
+  private final Counter loaderFailures;
+
+  //Counter of loader retries
+  private final Counter loaderRetries;
+
+  //Latency of reading from the store
+  private final Timer getTimer;
+
+  //Latency of loading from the external source
+  private final Timer loadTimer;
+
+  //Latency of converting stored data into values
+  private final Timer mapTimer;
+
+  //Latency of writing into the store
+  private final Timer putTimer;
+
+  //Size of the values read from the store
+  private final DistributionSummary readBytes;
+
+  //Size of the values written into the store
+  private final DistributionSummary writtenBytes;
+
   /**
-   * Creates a new instance using a hits and a inserts counter.
-   * @param hits counter for hits
-   * @param inserts counter for misses/inserts
+   * Creates a new instance registering all the meters in a registry.
+   * @param registry meter registry to which the stats are subscribed
+   * @param tags tags of all the meters
+   * @param latencyConfig distribution statistics of the timers
    */
-  private CacheMetrics(Counter hits, Counter inserts) {
-    this.hits = hits;
-    this.inserts = inserts;
+  private CacheMetrics(MeterRegistry registry, List<Tag> tags, LatencyMetricsConfig latencyConfig) {
+    hits = registry.counter("hits", tags);
+    negativeHits = registry.counter("negativeHits", tags);
+    misses = registry.counter("misses", tags);
+    inserts = registry.counter("inserts", tags);
+    coalesced = registry.counter("coalesced", tags);
+    loaderFailures = registry.counter("loaderFailures", tags);
+    loaderRetries = registry.counter("loaderRetries", tags);
+    getTimer = timer(registry, tags, GET_STAGE, latencyConfig);
+    loadTimer = timer(registry, tags, LOAD_STAGE, latencyConfig);
+    mapTimer = timer(registry, tags, MAP_STAGE, latencyConfig);
+    putTimer = timer(registry, tags, PUT_STAGE, latencyConfig);
+    readBytes = valueBytes(registry, tags, GET_STAGE);
+    writtenBytes = valueBytes(registry, tags, PUT_STAGE);
+  }
+
+  /**
+   * Creates the latency timer of a lookup stage.
+   */
+  private static Timer timer(MeterRegistry registry, List<Tag> tags, String stage, LatencyMetricsConfig latencyConfig) {
+    return Timer.builder("stageLatency")
+        .tags(stageTags(tags, stage))
+        .publishPercentiles(Objects.isNull(latencyConfig.getPercentiles()) ? new double[0] : latencyConfig.getPercentiles())
+        .publishPercentileHistogram(latencyConfig.isPercentileHistogram())
+        .sla(latencyConfig.slas())
+        .register(registry);
+  }
+
+  /**
+   * Creates the value size distribution of a lookup stage.
+   */
+  private static DistributionSummary valueBytes(MeterRegistry registry, List<Tag> tags, String stage) {
+    return DistributionSummary.builder("valueBytes")
+        .tags(stageTags(tags, stage))
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  /**
+   * Adds the stage tag to a list of tags.
+   */
+  private static List<Tag> stageTags(List<Tag> tags, String stage) {
+    List<Tag> stageTags = new ArrayList<>(tags);
+    stageTags.add(Tag.of("stage", stage));
+    return stageTags;
   }
 
   /**
@@ -44,6 +144,94 @@ public class CacheMetrics {
     return inserts;
   }
 
+  /**
+   *
+   * @return number of hits of keys stored without value
+   */
+  public Counter getNegativeHits() {
+    return negativeHits;
+  }
+
+  /**
+   *
+   * @return number of keys not found in the cache
+   */
+  public Counter getMisses() {
+    return misses;
+  }
+
+  /**
+   *
+   * @return number of misses that were served by the in-flight load of the same key
+   */
+  public Counter getCoalesced() {
+    return coalesced;
+  }
+
+  /**
+   *
+   * @return number of loads that failed after all the retries
+   */
+  public Counter getLoaderFailures() {
+    return loaderFailures;
+  }
+
+  /**
+   *
+   * @return number of loader retries
+   */
+  public Counter getLoaderRetries() {
+    return loaderRetries;
+  }
+
+  /**
+   *
+   * @return latency of reading from the store
+   */
+  public Timer getGetTimer() {
+    return getTimer;
+  }
+
+  /**
+   *
+   * @return latency of loading from the external source
+   */
+  public Timer getLoadTimer() {
+    return loadTimer;
+  }
+
+  /**
+   *
+   * @return latency of converting stored data into values
+   */
+  public Timer getMapTimer() {
+    return mapTimer;
+  }
+
+  /**
+   *
+   * @return latency of writing into the store
+   */
+  public Timer getPutTimer() {
+    return putTimer;
+  }
+
+  /**
+   *
+   * @return size of the values read from the store
+   */
+  public DistributionSummary getReadBytes() {
+    return readBytes;
+  }
+
+  /**
+   *
+   * @return size of the values written into the store
+   */
+  public DistributionSummary getWrittenBytes() {
+    return writtenBytes;
+  }
+
   /**
    * Increments the inserts counter.
    */
@@ -58,6 +246,111 @@ public class CacheMetrics {
     hits.increment();
   }
 
+  /**
+   * Increments the negative hits counter.
+   */
+  public void incNegativeHits() {
+    negativeHits.increment();
+  }
+
+  /**
+   * Increments the misses counter.
+   */
+  public void incMisses() {
+    misses.increment();
+  }
+
+  /**
+   * Increments the coalesced loads counter.
+   */
+  public void incCoalesced() {
+    coalesced.increment();
+  }
+
+  /**
+   * Increments the loader failures counter.
+   */
+  public void incLoaderFailures() {
+    loaderFailures.increment();
+  }
+
+  /**
+   * Increments the loader retries counter.
+   */
+  public void incLoaderRetries() {
+    loaderRetries.increment();
+  }
+
+  /**
+   * Records the latency of a read from the store.
+   * @param startNanos start time, as given by {@link System#nanoTime()}
+   */
+  public void recordGet(long startNanos) {
+    getTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the latency of a load from the external source.
+   * @param startNanos start time, as given by {@link System#nanoTime()}
+   */
+  public void recordLoad(long startNanos) {
+    loadTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the latency of converting stored data into a value.
+   * @param startNanos start time, as given by {@link System#nanoTime()}
+   */
+  public void recordMap(long startNanos) {
+    mapTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the latency of a write into the store.
+   * @param startNanos start time, as given by {@link System#nanoTime()}
+   */
+  public void recordPut(long startNanos) {
+    putTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the size of a value read from the store.
+   * @param bytes value size
+   */
+  public void recordReadBytes(long bytes) {
+    readBytes.record(bytes);
+  }
+
+  /**
+   * Records the size of a value written into the store.
+   * @param bytes value size
+   */
+  public void recordWrittenBytes(long bytes) {
+    writtenBytes.record(bytes);
+  }
+
+  /**
+   * Adds the result tag to a list of tags, used by the counters of lookups of a tier by their result.
+   * @param tags store and tier tags
+   * @param result result of the lookups, e.g.: answered by the tier or fallen through to the next one
+   * @return a new list with the result tag
+   */
+  public static List<Tag> resultTags(List<Tag> tags, String result) {
+    List<Tag> resultTags = new ArrayList<>(tags);
+    resultTags.add(Tag.of("result", result));
+    return resultTags;
+  }
+
+  /**
+   * Tags that identify the metrics of a store in a registry shared by several stores.
+   * @param cacheName name of the cache/store
+   * @param tier storage tier of the cache/store, e.g.: {@link #HBASE_TIER}
+   * @return store and tier tags
+   */
+  public static List<Tag> tags(String cacheName, String tier) {
+    return Arrays.asList(Tag.of("store", cacheName), Tag.of("tier", tier));
+  }
+
   /**
    * Factory method for CacheMetrics.
    * @param registry meter registry to which the stats are subscribed
@@ -65,9 +358,32 @@ public class CacheMetrics {
    * @return a new CacheMetrics instance
    */
   public static CacheMetrics create(MeterRegistry registry, String cacheName) {
-    List<Tag> metricsTags  = Collections.singletonList(Tag.of("store", cacheName));
-    return new CacheMetrics(registry.counter("hits", metricsTags),
-                            registry.counter("inserts", metricsTags));
+    return create(registry, cacheName, HBASE_TIER);
+  }
+
+  /**
+   * Factory method for CacheMetrics.
+   * @param registry meter registry to which the stats are subscribed
+   * @param cacheName name of the cache/store
+   * @param tier storage tier of the cache/store
+   * @return a new CacheMetrics instance
+   */
+  public static CacheMetrics create(MeterRegistry registry, String cacheName, String tier) {
+    return create(registry, cacheName, tier, LatencyMetricsConfig.DEFAULT);
+  }
+
+  /**
+   * Factory method for CacheMetrics.
+   * @param registry meter registry to which the stats are subscribed
+   * @param cacheName name of the cache/store
+   * @param tier storage tier of the cache/store
+   * @param latencyConfig distribution statistics of the latency timers, the default is used if it is null
+   * @return a new CacheMetrics instance
+   */
+  public static CacheMetrics create(MeterRegistry registry, String cacheName, String tier,
+                                    LatencyMetricsConfig latencyConfig) {
+    return new CacheMetrics(registry, tags(cacheName, tier),
+                            Objects.isNull(latencyConfig) ? LatencyMetricsConfig.DEFAULT : latencyConfig);
   }
 
 }
@@ -0,0 +1,59 @@
+package org.gbif.kvs.metrics;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Distribution statistics published by the latency timers of {@link CacheMetrics}.
+ */
+public class LatencyMetricsConfig implements Serializable {
+
+  public static LatencyMetricsConfig DEFAULT = new LatencyMetricsConfig();
+
+
+  private final double[] percentiles;
+
+  private final boolean percentileHistogram;
+
+  private final long[] slaMillis;
+
+  public LatencyMetricsConfig(double[] percentiles, boolean percentileHistogram, long[] slaMillis) {
+    this.percentiles = percentiles;
+    this.percentileHistogram = percentileHistogram;
+    this.slaMillis = slaMillis;
+  }
+
+  private LatencyMetricsConfig() {
+    this(new double[0], false, new long[0]);
+  }
+
+  /**
+   * Percentiles computed in the client, e.g.: 0.5, 0.95 and 0.99.
+   */
+  public double[] getPercentiles() {
+    return percentiles;
+  }
+
+  /**
+   * Publish a histogram that can be used to compute aggregable percentiles in the metrics backend.
+   */
+  public boolean isPercentileHistogram() {
+    return percentileHistogram;
+  }
+
+  /**
+   * Service level objectives, in milliseconds, published as histogram buckets.
+   */
+  public long[] getSlaMillis() {
+    return slaMillis;
+  }
+
+  /**
+   * @return service level objectives as durations
+   */
+  Duration[] slas() {
+    return Objects.isNull(slaMillis) ? new Duration[0] : Arrays.stream(slaMillis).mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+  }
+}
@@ -0,0 +1,84 @@
+package org.gbif.kvs.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+
+/**
+ * Counter that keeps its count in memory and publishes it to a registry as a {@link FunctionCounter}.
+ * Unlike registry counters, which are no-op if the registry has no backend, its count can always be read, e.g. to
+ * compute the share of lookups answered by a tier.
+ */
+public final class LocalCounter {
+
+  //Count of the counter
+  private final LongAdder count = new LongAdder();
+
+  /**
+   * Creates a counter that is not published, see {@link #bindTo(MeterRegistry, String, List)}.
+   */
+  public LocalCounter() {
+    //DO NOTHING
+  }
+
+  /**
+   * Creates a counter and publishes it to a registry.
+   * @param registry meter registry where the counter is published
+   * @param name name of the counter
+   * @param tags tags of the counter
+   * @return a new counter
+   */
+  public static LocalCounter register(MeterRegistry registry, String name, List<Tag> tags) {
+    LocalCounter counter = new LocalCounter();
+    counter.bindTo(registry, name, tags);
+    return counter;
+  }
+
+  /**
+   * Publishes the counter to a registry, a counter can be published to several registries.
+   * @param registry meter registry where the counter is published
+   * @param name name of the counter
+   * @param tags tags of the counter
+   */
+  public void bindTo(MeterRegistry registry, String name, List<Tag> tags) {
+    FunctionCounter.builder(name, count, LongAdder::sum).tags(tags).register(registry);
+  }
+
+  /**
+   * Increments the counter by one.
+   */
+  public void increment() {
+    count.increment();
+  }
+
+  /**
+   * Increments the counter.
+   * @param amount amount to add
+   */
+  public void increment(long amount) {
+    count.add(amount);
+  }
+
+  /**
+   *
+   * @return the current count
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Share of a counter in the total of two counters, e.g. lookups answered by a tier and lookups that fell through.
+   * @param counter counter of the share
+   * @param other counter of the rest
+   * @return a value between 0 and 1, 0 if both counts are 0
+   */
+  public static double share(LocalCounter counter, LocalCounter other) {
+    long part = counter.count();
+    long total = part + other.count();
+    return total == 0 ? 0d : (double) part / total;
+  }
+}
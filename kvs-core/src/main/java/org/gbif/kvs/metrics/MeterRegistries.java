@@ -0,0 +1,56 @@
+package org.gbif.kvs.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.elastic.ElasticMeterRegistry;
+
+/**
+ * Utility class to resolve the {@link MeterRegistry} used by stores.
+ * Registries are shared by all the stores of a JVM: each Elastic registry runs its own publishing thread, so a single
+ * one is created per {@link ElasticMetricsConfig}.
+ */
+public final class MeterRegistries {
+
+  // Elastic registries by configuration
+  private static final Map<ElasticMetricsConfig, MeterRegistry> ELASTIC_REGISTRIES = new HashMap<>();
+
+  /**
+   * Private constructor of utility class.
+   */
+  private MeterRegistries() {
+    //DO NOTHING
+  }
+
+  /**
+   * Gets the Elastic registry of a configuration, it is created if it doesn't exist.
+   *
+   * @param metricsConfig Elastic configuration
+   * @return a JVM-wide Elastic registry
+   */
+  public static synchronized MeterRegistry elastic(ElasticMetricsConfig metricsConfig) {
+    return ELASTIC_REGISTRIES.computeIfAbsent(metricsConfig, config -> new ElasticMeterRegistry(config, Clock.SYSTEM));
+  }
+
+  /**
+   * Resolves the registry of a store: the provided registry if it is not null, otherwise the shared Elastic registry
+   * of the metrics configuration if it is not null, otherwise the Micrometer global composite registry.
+   *
+   * @param meterRegistry registry provided by the user
+   * @param metricsConfig Elastic configuration
+   * @return the registry to use
+   */
+  public static MeterRegistry resolve(MeterRegistry meterRegistry, ElasticMetricsConfig metricsConfig) {
+    if (Objects.nonNull(meterRegistry)) {
+      return meterRegistry;
+    }
+    if (Objects.nonNull(metricsConfig)) {
+      return elastic(metricsConfig);
+    }
+    return Metrics.globalRegistry;
+  }
+}
@@ -2,12 +2,16 @@ package org.gbif.cache;
 
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.cache.KeyValueCache;
+import org.gbif.kvs.metrics.CacheMetrics;
 import org.gbif.test.KeyValueMapStore;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -30,4 +34,85 @@ public class KeyValueCacheTest {
     IntStream.rangeClosed(1, size).forEach( val -> Assert.assertEquals("V" + val, cache.get("K" + val)));
   }
 
+  /**
+   * Tests the GetAll operation on {@link KeyValueCache} for cached, not cached and non-existing keys.
+   */
+  @Test
+  public void getAllCacheTest() {
+    int size = 3;
+    Map<String, String> store = new HashMap<>();
+    IntStream.rangeClosed(1, size).forEach( val -> store.put("K" + val, "V" + val));
+    KeyValueStore<String,String> cache = KeyValueCache.cache(new KeyValueMapStore<>(store), size,
+                                                             String.class, String.class);
+    //Warms the cache with the first key
+    Assert.assertEquals("V1", cache.get("K1"));
+
+    Map<String, String> values = cache.getAll(IntStream.rangeClosed(1, size + 1).mapToObj(val -> "K" + val)
+                                                .collect(Collectors.toList()));
+    Assert.assertEquals(size + 1, values.size());
+    IntStream.rangeClosed(1, size).forEach( val -> Assert.assertEquals("V" + val, values.get("K" + val)));
+    Assert.assertTrue(values.containsKey("K" + (size + 1)));
+    Assert.assertNull(values.get("K" + (size + 1)));
+  }
+
+  /**
+   * Tests the asynchronous Get operation on {@link KeyValueCache} that wraps a simple KV store backed by a HashMap.
+   */
+  @Test
+  public void getAsyncCacheTest() {
+    int size = 3;
+    Map<String, String> store = new HashMap<>();
+    IntStream.rangeClosed(1, size).forEach( val -> store.put("K" + val, "V" + val));
+    KeyValueStore<String,String> cache = KeyValueCache.cache(new KeyValueMapStore<>(store), size,
+                                                             String.class, String.class);
+    //First call loads the values, the second one reads them from the cache
+    IntStream.rangeClosed(1, size).forEach( val -> Assert.assertEquals("V" + val, cache.getAsync("K" + val).join()));
+    IntStream.rangeClosed(1, size).forEach( val -> Assert.assertEquals("V" + val, cache.getAsync("K" + val).join()));
+  }
+
+  /**
+   * Tests that the usage statistics of {@link KeyValueCache} are published to the meter registry.
+   */
+  @Test
+  public void metricsCacheTest() {
+    int size = 3;
+    Map<String, String> store = new HashMap<>();
+    IntStream.rangeClosed(1, size).forEach( val -> store.put("K" + val, "V" + val));
+    MeterRegistry registry = new SimpleMeterRegistry();
+    KeyValueStore<String,String> cache = KeyValueCache.cache(new KeyValueMapStore<>(store), size,
+                                                             String.class, String.class, registry, "test");
+    double delta = 0.0001; //for comparisons
+    cache.get("K1");
+    cache.get("K2");
+    cache.get("K1");
+    Assert.assertEquals(1, registry.get("hits").tags("store", "test", "tier", CacheMetrics.MEMORY_TIER).counter().count(), delta);
+    Assert.assertEquals(2, registry.get("misses").tags("tier", CacheMetrics.MEMORY_TIER).counter().count(), delta);
+    Assert.assertEquals(2, registry.get("stageLatency").tags("stage", CacheMetrics.LOAD_STAGE).timer().count());
+    Assert.assertEquals(2, registry.get("size").tags("tier", CacheMetrics.MEMORY_TIER).gauge().value(), delta);
+    Assert.assertEquals(0, registry.get("evictions").tags("tier", CacheMetrics.MEMORY_TIER).functionCounter().count(), delta);
+  }
+
+  /**
+   * Tests that the evictions counter of {@link KeyValueCache} counts the entries evicted, once per evicted entry.
+   */
+  @Test
+  public void evictionsCacheTest() {
+    int size = 20;
+    int capacity = 5;
+    Map<String, String> store = new HashMap<>();
+    IntStream.rangeClosed(1, size).forEach( val -> store.put("K" + val, "V" + val));
+    MeterRegistry registry = new SimpleMeterRegistry();
+    KeyValueStore<String,String> cache = KeyValueCache.cache(new KeyValueMapStore<>(store), capacity,
+                                                             String.class, String.class, registry, "test");
+    double delta = 0.0001; //for comparisons
+    //Filling the cache evicts nothing
+    IntStream.rangeClosed(1, capacity).forEach( val -> cache.get("K" + val));
+    Assert.assertEquals(0, registry.get("evictions").functionCounter().count(), delta);
+
+    IntStream.rangeClosed(1, size).forEach( val -> cache.get("K" + val));
+    double cached = registry.get("size").gauge().value();
+    Assert.assertTrue(cached <= capacity);
+    Assert.assertEquals(size - cached, registry.get("evictions").functionCounter().count(), delta);
+  }
+
 }
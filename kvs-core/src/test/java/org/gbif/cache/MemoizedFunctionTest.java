@@ -0,0 +1,85 @@
+package org.gbif.cache;
+
+import org.gbif.kvs.cache.MemoizedFunction;
+import org.gbif.kvs.metrics.CacheMetrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class {@link MemoizedFunction}.
+ */
+public class MemoizedFunctionTest {
+
+  /**
+   * Repeated arguments are computed once, including the ones with null results.
+   */
+  @Test
+  public void memoizationTest() {
+    AtomicInteger calls = new AtomicInteger();
+    MeterRegistry registry = new SimpleMeterRegistry();
+    MemoizedFunction<String, String> function = new MemoizedFunction<>(value -> {
+      calls.incrementAndGet();
+      return value.isEmpty() ? null : value.toUpperCase();
+    }, 10, String.class, String.class, registry, "upper");
+
+    IntStream.range(0, 4).forEach(i -> {
+      Assert.assertEquals("A", function.apply("a"));
+      Assert.assertNull(function.apply(""));
+    });
+    Assert.assertEquals(2, calls.get());
+    Assert.assertEquals(0.75d, function.hitRate(), 0.0001d);
+
+    Assert.assertEquals(6d, registry.get("hits").tags("store", "upper", "tier", CacheMetrics.MEMORY_TIER)
+        .functionCounter().count(), 0d);
+    Assert.assertEquals(2d, registry.get("misses").tags("store", "upper", "tier", CacheMetrics.MEMORY_TIER)
+        .functionCounter().count(), 0d);
+  }
+
+  /**
+   * Null arguments are passed to the function and are not counted.
+   */
+  @Test
+  public void nullArgumentTest() {
+    MemoizedFunction<String, String> function =
+        new MemoizedFunction<>(String::valueOf, 10, String.class, String.class, new SimpleMeterRegistry(), "null");
+    Assert.assertEquals("null", function.apply(null));
+    Assert.assertEquals(0d, function.hitRate(), 0d);
+  }
+
+  /**
+   * The number of memoized results is bounded.
+   */
+  @Test
+  public void capacityTest() {
+    AtomicInteger calls = new AtomicInteger();
+    MemoizedFunction<Integer, Integer> function = new MemoizedFunction<>(value -> {
+      calls.incrementAndGet();
+      return value;
+    }, 10, Integer.class, Integer.class, new SimpleMeterRegistry(), "bounded");
+    IntStream.range(0, 1000).forEach(function::apply);
+    IntStream.range(0, 1000).forEach(function::apply);
+    Assert.assertTrue(calls.get() > 1000);
+  }
+
+  /**
+   * Metrics are counted before the function is bound to a registry and published once it is bound.
+   */
+  @Test
+  public void bindToTest() {
+    MemoizedFunction<String, String> function =
+        new MemoizedFunction<>(String::toUpperCase, 10, String.class, String.class, "unbound");
+    function.apply("a");
+    function.apply("a");
+    Assert.assertEquals(0.5d, function.hitRate(), 0d);
+
+    MeterRegistry registry = new SimpleMeterRegistry();
+    function.bindTo(registry);
+    Assert.assertEquals(1d, registry.get("hits").tags("store", "unbound").functionCounter().count(), 0d);
+  }
+}
@@ -1,5 +1,7 @@
 package org.gbif.kvs;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -67,4 +69,71 @@ public class SaltedKeyGeneratorTest {
                           saltedKeyGenerator.bucketOf(saltedKeyGenerator.computeKey(TEST_LOGICAL_KEY)).length);
     });
   }
+
+  /**
+   * Tests that the generated keys are the same produced by the String based format used by previous versions.
+   */
+  @Test
+  public void legacyFormatCompatibilityTest() {
+    Stream.of(1, 10, 100, 127, 1000).forEach(buckets -> {
+      SaltedKeyGenerator saltedKeyGenerator = new SaltedKeyGenerator(buckets);
+      String format = "%0" + Integer.toString(buckets - 1).length() + 'd';
+      Stream.of(TEST_LOGICAL_KEY, "", "polygenelubricants", "-10.5|20.1", "Abies alba Mill.", "Pinus sylvestris L. \u010d\u0161\u00f1")
+        .forEach(logicalKey -> {
+          byte[] expected = (String.format(format, Math.abs(logicalKey.hashCode() % buckets)) + logicalKey)
+                              .getBytes(StandardCharsets.UTF_8);
+          Assert.assertArrayEquals(expected, saltedKeyGenerator.computeKey(logicalKey));
+          Assert.assertArrayEquals(expected, saltedKeyGenerator.computeKey(logicalKey.getBytes(StandardCharsets.UTF_8)));
+        });
+    });
+  }
+
+  /**
+   * Tests that keys written into a reusable buffer are equal to the computed keys.
+   */
+  @Test
+  public void reusableBufferTest() {
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    Stream.of(TEST_LOGICAL_KEY, "1", "12345678").forEach(logicalKey -> {
+      buffer.clear();
+      SALT_KEY_GENERATOR.computeKey(logicalKey.getBytes(StandardCharsets.UTF_8), buffer);
+      buffer.flip();
+      byte[] saltedKey = new byte[buffer.remaining()];
+      buffer.get(saltedKey);
+      Assert.assertArrayEquals(SALT_KEY_GENERATOR.computeKey(logicalKey), saltedKey);
+    });
+  }
+
+  /**
+   * Tests that the Murmur3 hash keeps the decimal prefix format and allocates keys in all the buckets.
+   */
+  @Test
+  public void murmur3DistributionTest() {
+    SaltedKeyGenerator saltedKeyGenerator = new SaltedKeyGenerator(NUM_OF_BUCKETS, StandardCharsets.UTF_8,
+                                                                   SaltedKeyGenerator.BucketHash.MURMUR3);
+    //Known Murmur3 32-bit values with seed 0
+    Assert.assertEquals(0, SaltedKeyGenerator.murmur3(new byte[0], 0, 0));
+    Assert.assertEquals(0x248bfa47, SaltedKeyGenerator.murmur3("hello".getBytes(StandardCharsets.UTF_8), 0, 5));
+
+    int numOfRecords = 1000;
+    Map<String, Long> counts =
+        IntStream.rangeClosed(1, numOfRecords)
+            .mapToObj(key -> saltedKeyGenerator.computeKey(Integer.toString(key)))
+            .collect(Collectors.groupingBy(key -> new String(saltedKeyGenerator.bucketOf(key), StandardCharsets.UTF_8),
+                                           Collectors.counting()));
+    Assert.assertEquals("Wrong number of expected buckets", NUM_OF_BUCKETS, counts.size());
+    counts.values().forEach(count -> Assert.assertTrue("Unbalanced bucket", count > numOfRecords / NUM_OF_BUCKETS / 2));
+    Assert.assertArrayEquals(saltedKeyGenerator.computeKey(TEST_LOGICAL_KEY),
+                             saltedKeyGenerator.computeKey(TEST_LOGICAL_KEY.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Tests that keys written after the bucket prefix are equal to the keys computed from the encoded logical key.
+   */
+  @Test
+  public void logicalKeyWriterTest() {
+    byte[] logicalKey = ByteBuffer.allocate(16).putDouble(52.3702157).putDouble(4.8951679).array();
+    Assert.assertArrayEquals(SALT_KEY_GENERATOR.computeKey(logicalKey),
+                             SALT_KEY_GENERATOR.computeKey(logicalKey.length, buffer -> buffer.put(logicalKey)));
+  }
 }
@@ -0,0 +1,93 @@
+package org.gbif.kvs.hbase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for the class {@link BatchingLoader}.
+ */
+public class BatchingLoaderTest {
+
+  private ScheduledExecutorService executor;
+
+  // Keys of each call of the bulk loader
+  private final List<List<Integer>> batches = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    executor = Executors.newScheduledThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Bulk loader that records its batches and loads the square of odd keys only.
+   */
+  private synchronized Map<Integer, Integer> squares(Collection<Integer> keys) {
+    batches.add(new ArrayList<>(keys));
+    return keys.stream().filter(key -> key % 2 == 1).collect(Collectors.toMap(Function.identity(), key -> key * key));
+  }
+
+  /**
+   * A batch is sent as soon as it is full, without waiting the linger time.
+   */
+  @Test
+  public void batchSizeTest() {
+    BatchingLoader<Integer, Integer> loader =
+        new BatchingLoader<>(this::squares, new BatchLoaderConfig(3, 60_000L), executor);
+    List<CompletableFuture<Integer>> values =
+        IntStream.of(1, 3, 5, 1).mapToObj(loader::load).collect(Collectors.toList());
+    Assert.assertEquals(Integer.valueOf(1), values.get(0).join());
+    Assert.assertEquals(Integer.valueOf(25), values.get(2).join());
+    Assert.assertFalse(values.get(3).isDone());
+    loader.flush();
+    Assert.assertEquals(Integer.valueOf(1), values.get(3).join());
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(3, batches.get(0).size());
+  }
+
+  /**
+   * Partial batches are sent when the linger time expires, the same key is loaded once per batch.
+   */
+  @Test
+  public void lingerTest() {
+    BatchingLoader<Integer, Integer> loader =
+        new BatchingLoader<>(this::squares, new BatchLoaderConfig(100, 10L), executor);
+    CompletableFuture<Integer> first = loader.load(7);
+    CompletableFuture<Integer> second = loader.load(7);
+    Assert.assertEquals(Integer.valueOf(49), first.join());
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, batches.size());
+    Assert.assertEquals(1, batches.get(0).size());
+  }
+
+  /**
+   * Keys the bulk loader doesn't return fail.
+   */
+  @Test(expected = CompletionException.class)
+  public void missingKeyTest() {
+    BatchingLoader<Integer, Integer> loader =
+        new BatchingLoader<>(this::squares, new BatchLoaderConfig(2, 60_000L), executor);
+    CompletableFuture<Integer> odd = loader.load(1);
+    CompletableFuture<Integer> even = loader.load(2);
+    Assert.assertEquals(Integer.valueOf(1), odd.join());
+    even.join();
+  }
+}
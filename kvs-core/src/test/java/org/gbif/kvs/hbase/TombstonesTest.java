@@ -0,0 +1,49 @@
+package org.gbif.kvs.hbase;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the class {@link Tombstones}.
+ */
+public class TombstonesTest {
+
+  private static final byte[] ROW = Bytes.toBytes("row");
+
+  private static final byte[] FAMILY = Bytes.toBytes("v");
+
+  private static Result result(Cell... cells) {
+    Cell[] sortedCells = cells.clone();
+    Arrays.sort(sortedCells, KeyValue.COMPARATOR);
+    return Result.create(sortedCells);
+  }
+
+  private static Cell cell(String qualifier, String value) {
+    return new KeyValue(ROW, FAMILY, Bytes.toBytes(qualifier), Bytes.toBytes(value));
+  }
+
+  /**
+   * Rows that only have the tombstone cell are tombstones.
+   */
+  @Test
+  public void tombstoneTest() {
+    Assert.assertTrue(Tombstones.isTombstone(result(new KeyValue(ROW, FAMILY, Tombstones.QUALIFIER, new byte[0])),
+                                             FAMILY));
+    Assert.assertFalse(Tombstones.isTombstone(result(cell("j", "value")), FAMILY));
+  }
+
+  /**
+   * A value written into the row of a tombstone takes precedence over it.
+   */
+  @Test
+  public void valueOverTombstoneTest() {
+    Result result = result(new KeyValue(ROW, FAMILY, Tombstones.QUALIFIER, new byte[0]), cell("j", "value"));
+    Assert.assertFalse(Tombstones.isTombstone(result, FAMILY));
+  }
+}
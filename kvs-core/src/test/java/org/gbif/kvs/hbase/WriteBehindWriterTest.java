@@ -0,0 +1,210 @@
+package org.gbif.kvs.hbase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for the class {@link WriteBehindWriter}.
+ */
+public class WriteBehindWriterTest {
+
+  private MeterRegistry meterRegistry;
+
+  @Before
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  /**
+   * Mutator that records the flushed mutations, flushes can be blocked until they are released.
+   */
+  private static class RecordingMutator implements BufferedMutator {
+
+    private final List<Mutation> buffer = new ArrayList<>();
+
+    private final List<Mutation> flushed = new ArrayList<>();
+
+    private final CountDownLatch flushing = new CountDownLatch(1);
+
+    private final CountDownLatch released;
+
+    private volatile boolean closed;
+
+    RecordingMutator(boolean blocking) {
+      released = new CountDownLatch(blocking ? 1 : 0);
+    }
+
+    @Override
+    public TableName getName() {
+      return TableName.valueOf("test");
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+      return new Configuration();
+    }
+
+    @Override
+    public synchronized void mutate(Mutation mutation) {
+      buffer.add(mutation);
+    }
+
+    @Override
+    public synchronized void mutate(List<? extends Mutation> mutations) {
+      buffer.addAll(mutations);
+    }
+
+    @Override
+    public void flush() {
+      flushing.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (this) {
+        flushed.addAll(buffer);
+        buffer.clear();
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+      return 0;
+    }
+
+    synchronized int getFlushed() {
+      return flushed.size();
+    }
+
+    void awaitFlushing() throws InterruptedException {
+      Assert.assertTrue(flushing.await(10, TimeUnit.SECONDS));
+    }
+
+    void release() {
+      released.countDown();
+    }
+  }
+
+  private static Put put(int row) {
+    return new Put(Bytes.toBytes(row));
+  }
+
+  /**
+   * Waits up to 10 seconds for a condition.
+   */
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(condition.getAsBoolean());
+  }
+
+  private double count(String counterName) {
+    return meterRegistry.get(counterName).counter().count();
+  }
+
+  /**
+   * Pending Puts are flushed as soon as the flush size is reached, without waiting the flush interval.
+   */
+  @Test
+  public void flushSizeTest() throws Exception {
+    RecordingMutator mutator = new RecordingMutator(false);
+    WriteBehindWriter writer =
+        new WriteBehindWriter(mutator, new WriteBehindConfig(100, 2, 600_000L), meterRegistry, "test");
+    Assert.assertTrue(writer.offer(put(1)));
+    Assert.assertTrue(writer.offer(put(2)));
+    Assert.assertTrue(writer.offer(put(3)));
+    await(() -> mutator.getFlushed() == 2);
+    Thread.sleep(200);
+    Assert.assertEquals(2, mutator.getFlushed());
+    writer.close();
+    Assert.assertEquals(3, mutator.getFlushed());
+  }
+
+  /**
+   * Pending Puts are flushed when the flush interval is reached.
+   */
+  @Test
+  public void flushIntervalTest() throws Exception {
+    RecordingMutator mutator = new RecordingMutator(false);
+    WriteBehindWriter writer =
+        new WriteBehindWriter(mutator, new WriteBehindConfig(100, 1_000, 100L), meterRegistry, "test");
+    Assert.assertTrue(writer.offer(put(1)));
+    await(() -> mutator.getFlushed() == 1);
+    writer.close();
+  }
+
+  /**
+   * Closing the writer flushes all the queued Puts and closes the mutator.
+   */
+  @Test
+  public void closeDrainsQueueTest() throws Exception {
+    RecordingMutator mutator = new RecordingMutator(false);
+    WriteBehindWriter writer =
+        new WriteBehindWriter(mutator, new WriteBehindConfig(1_000, 1_000, 600_000L), meterRegistry, "test");
+    for (int i = 0; i < 50; i++) {
+      Assert.assertTrue(writer.offer(put(i)));
+    }
+    writer.close();
+    Assert.assertEquals(50, mutator.getFlushed());
+    Assert.assertTrue(mutator.closed);
+  }
+
+  /**
+   * Puts that do not fit in the queue are rejected, so the store writes them synchronously.
+   */
+  @Test
+  public void queueFullTest() throws Exception {
+    RecordingMutator mutator = new RecordingMutator(true);
+    WriteBehindWriter writer =
+        new WriteBehindWriter(mutator, new WriteBehindConfig(1, 1, 600_000L), meterRegistry, "test");
+    Assert.assertTrue(writer.offer(put(1)));
+    // the writer is blocked flushing the first Put, the second one fills the queue
+    mutator.awaitFlushing();
+    Assert.assertTrue(writer.offer(put(2)));
+    Assert.assertFalse(writer.offer(put(3)));
+    Assert.assertEquals(1, count("writeBehindRejected"), 0);
+    Assert.assertEquals(0, count("writeBehindClosed"), 0);
+
+    mutator.release();
+    writer.close();
+    Assert.assertEquals(2, mutator.getFlushed());
+  }
+
+  /**
+   * Puts offered after closing the writer are rejected and counted apart from the Puts rejected by a full queue.
+   */
+  @Test
+  public void closedWriterTest() throws Exception {
+    RecordingMutator mutator = new RecordingMutator(false);
+    WriteBehindWriter writer =
+        new WriteBehindWriter(mutator, new WriteBehindConfig(100, 10, 600_000L), meterRegistry, "test");
+    writer.close();
+    Assert.assertFalse(writer.offer(put(1)));
+    Assert.assertEquals(0, count("writeBehindRejected"), 0);
+    Assert.assertEquals(1, count("writeBehindClosed"), 0);
+    Assert.assertEquals(0, mutator.getFlushed());
+  }
+}
@@ -1,7 +1,9 @@
 package org.gbif.metrics;
 
 import org.gbif.kvs.metrics.CacheMetrics;
+import org.gbif.kvs.metrics.LatencyMetricsConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Test;
 
@@ -14,16 +16,67 @@ public class CacheMetricsTest {
 
 
   /**
-   * Validates that the increments for Hits and Insert work using a {@link SimpleMeterRegistry}.
+   * Validates that the increments for Hits, Negative Hits, Insert and Coalesced work using a {@link SimpleMeterRegistry}.
    */
   @Test
   public void incTest() {
     CacheMetrics cacheMetrics = CacheMetrics.create(new SimpleMeterRegistry(), "TestCache");
     double delta = 0.0001; //for comparisons
     cacheMetrics.incHits();
+    cacheMetrics.incNegativeHits();
     cacheMetrics.incInserts();
+    cacheMetrics.incCoalesced();
     assertEquals(1, cacheMetrics.getHits().count(), delta);
+    assertEquals(1, cacheMetrics.getNegativeHits().count(), delta);
     assertEquals(1, cacheMetrics.getInserts().count(), delta);
+    assertEquals(1, cacheMetrics.getCoalesced().count(), delta);
+  }
+
+  /**
+   * Validates that the metrics of several stores sharing a registry are kept apart by the store and tier tags.
+   */
+  @Test
+  public void sharedRegistryTest() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    CacheMetrics hbaseMetrics = CacheMetrics.create(registry, "TestCache", CacheMetrics.HBASE_TIER);
+    CacheMetrics memoryMetrics = CacheMetrics.create(registry, "TestCache", CacheMetrics.MEMORY_TIER);
+    CacheMetrics otherMetrics = CacheMetrics.create(registry, "OtherCache", CacheMetrics.HBASE_TIER);
+    double delta = 0.0001; //for comparisons
+    hbaseMetrics.incHits();
+    memoryMetrics.incHits();
+    memoryMetrics.incHits();
+    assertEquals(1, registry.get("hits").tags("store", "TestCache", "tier", CacheMetrics.HBASE_TIER).counter().count(), delta);
+    assertEquals(2, registry.get("hits").tags("store", "TestCache", "tier", CacheMetrics.MEMORY_TIER).counter().count(), delta);
+    assertEquals(0, otherMetrics.getHits().count(), delta);
+  }
+
+  /**
+   * Validates that stage latencies, value sizes and loader counters are recorded with the configured distribution.
+   */
+  @Test
+  public void stageMetricsTest() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    LatencyMetricsConfig latencyConfig = new LatencyMetricsConfig(new double[]{0.5, 0.99}, false, new long[]{10, 100});
+    CacheMetrics cacheMetrics = CacheMetrics.create(registry, "TestCache", CacheMetrics.HBASE_TIER, latencyConfig);
+    double delta = 0.0001; //for comparisons
+    cacheMetrics.recordGet(System.nanoTime());
+    cacheMetrics.recordLoad(System.nanoTime());
+    cacheMetrics.recordLoad(System.nanoTime());
+    cacheMetrics.recordReadBytes(100);
+    cacheMetrics.recordWrittenBytes(50);
+    cacheMetrics.incMisses();
+    cacheMetrics.incLoaderFailures();
+    cacheMetrics.incLoaderRetries();
+    assertEquals(1, cacheMetrics.getGetTimer().count());
+    assertEquals(2, cacheMetrics.getLoadTimer().count());
+    assertEquals(0, cacheMetrics.getPutTimer().count());
+    assertEquals(2, registry.get("stageLatency").tags("stage", CacheMetrics.LOAD_STAGE).timer().count());
+    assertEquals(2, cacheMetrics.getLoadTimer().takeSnapshot().percentileValues().length);
+    assertEquals(100, cacheMetrics.getReadBytes().totalAmount(), delta);
+    assertEquals(50, cacheMetrics.getWrittenBytes().totalAmount(), delta);
+    assertEquals(1, cacheMetrics.getMisses().count(), delta);
+    assertEquals(1, cacheMetrics.getLoaderFailures().count(), delta);
+    assertEquals(1, cacheMetrics.getLoaderRetries().count(), delta);
   }
 
 
@@ -0,0 +1,52 @@
+package org.gbif.kvs.codec;
+
+import java.io.Serializable;
+
+/**
+ * Settings of the Zstandard compression of stored values.
+ * Only values larger than the minimum size are compressed, a dictionary trained with representative values
+ * (see {@link ZstdValueCodec#trainDictionary(java.util.List, int)}) improves the compression of small values.
+ */
+public class CompressionConfig implements Serializable {
+
+  public static CompressionConfig DEFAULT = new CompressionConfig();
+
+
+  private final int level;
+
+  private final int minSizeBytes;
+
+  private final byte[] dictionary;
+
+  public CompressionConfig(int level, int minSizeBytes, byte[] dictionary) {
+    this.level = level;
+    this.minSizeBytes = minSizeBytes;
+    this.dictionary = dictionary;
+  }
+
+  private CompressionConfig() {
+    this(3, 256, null);
+  }
+
+  /**
+   * Zstandard compression level.
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Values smaller than this size are stored uncompressed.
+   */
+  public int getMinSizeBytes() {
+    return minSizeBytes;
+  }
+
+  /**
+   * Zstandard dictionary, null if values are compressed without dictionary.
+   * Values compressed with a dictionary can only be read using the same dictionary.
+   */
+  public byte[] getDictionary() {
+    return dictionary;
+  }
+}
@@ -0,0 +1,71 @@
+package org.gbif.kvs.codec;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+/**
+ * Jackson based {@link ValueCodec} that writes values in a {@link ValueFormat}.
+ * Smile values are prefixed by a version byte, which is never the first byte of a JSON document, so values stored as
+ * JSON by previous versions are still read.
+ *
+ * @param <T> type of values
+ */
+public class JacksonValueCodec<T> implements ValueCodec<T> {
+
+  // Version byte of Smile values, the Smile header is not written
+  static final byte SMILE_V1 = 0x01;
+
+  // Used to store and retrieve JSON values
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  // Used to store and retrieve Smile values
+  private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory()
+                                                                      .disable(SmileGenerator.Feature.WRITE_HEADER)
+                                                                      .disable(SmileParser.Feature.REQUIRE_HEADER));
+
+  static {
+    JSON_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    SMILE_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+  }
+
+  private final Class<T> valueClass;
+
+  private final ValueFormat valueFormat;
+
+  /**
+   * Creates a codec of values of a class.
+   *
+   * @param valueClass class of values
+   * @param valueFormat format in which values are written
+   */
+  public JacksonValueCodec(Class<T> valueClass, ValueFormat valueFormat) {
+    this.valueClass = valueClass;
+    this.valueFormat = Objects.isNull(valueFormat) ? ValueFormat.JSON : valueFormat;
+  }
+
+  @Override
+  public byte[] encode(T value) throws IOException {
+    if (valueFormat == ValueFormat.JSON) {
+      return JSON_MAPPER.writeValueAsBytes(value);
+    }
+    byte[] smile = SMILE_MAPPER.writeValueAsBytes(value);
+    byte[] encoded = new byte[smile.length + 1];
+    encoded[0] = SMILE_V1;
+    System.arraycopy(smile, 0, encoded, 1, smile.length);
+    return encoded;
+  }
+
+  @Override
+  public T decode(byte[] bytes) throws IOException {
+    if (bytes.length > 0 && bytes[0] == SMILE_V1) {
+      return SMILE_MAPPER.readValue(bytes, 1, bytes.length - 1, valueClass);
+    }
+    return JSON_MAPPER.readValue(bytes, valueClass);
+  }
+}
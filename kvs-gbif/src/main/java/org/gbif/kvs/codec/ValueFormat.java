@@ -0,0 +1,24 @@
+package org.gbif.kvs.codec;
+
+/**
+ * Formats used to store values in HBase cells.
+ */
+public enum ValueFormat {
+
+  /** Plain JSON, format of the values stored by previous versions. */
+  JSON,
+
+  /** Binary Smile (binary JSON) prefixed by a version byte. */
+  SMILE;
+
+  /**
+   * Creates a codec that writes values in this format, values in any of the formats can be read.
+   *
+   * @param valueClass class of values
+   * @param <T> type of values
+   * @return a new codec
+   */
+  public <T> ValueCodec<T> codec(Class<T> valueClass) {
+    return new JacksonValueCodec<>(valueClass, this);
+  }
+}
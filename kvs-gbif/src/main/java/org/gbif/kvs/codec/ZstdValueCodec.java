@@ -0,0 +1,127 @@
+package org.gbif.kvs.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+
+/**
+ * {@link ValueCodec} decorator that compresses the encoded values using Zstandard.
+ * Compressed values start with a header flag followed by the uncompressed size, values without the flag are passed
+ * as they are to the decorated codec, so compressed and uncompressed cells coexist in the same table.
+ *
+ * @param <T> type of values
+ */
+public class ZstdValueCodec<T> implements ValueCodec<T> {
+
+  // Header flag of values compressed without dictionary
+  static final byte ZSTD = 0x02;
+
+  // Header flag of values compressed with a dictionary
+  static final byte ZSTD_DICT = 0x03;
+
+  // Size of the header: flag + uncompressed size
+  private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+  // Maximum uncompressed size of a value, larger sizes in a header are corrupted values
+  static final int MAX_UNCOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+  private final ValueCodec<T> codec;
+
+  private final CompressionConfig compressionConfig;
+
+  // Digested dictionaries, they are not serializable and are created again when the codec is deserialized
+  private final transient ZstdDictCompress dictCompress;
+  private final transient ZstdDictDecompress dictDecompress;
+
+  /**
+   * Creates a codec that compresses the values encoded by another codec.
+   *
+   * @param codec decorated codec
+   * @param compressionConfig compression settings
+   */
+  public ZstdValueCodec(ValueCodec<T> codec, CompressionConfig compressionConfig) {
+    this.codec = codec;
+    this.compressionConfig = Objects.isNull(compressionConfig) ? CompressionConfig.DEFAULT : compressionConfig;
+    if (hasDictionary()) {
+      dictCompress = new ZstdDictCompress(this.compressionConfig.getDictionary(), this.compressionConfig.getLevel());
+      dictDecompress = new ZstdDictDecompress(this.compressionConfig.getDictionary());
+    } else {
+      dictCompress = null;
+      dictDecompress = null;
+    }
+  }
+
+  /**
+   * Creates a new instance on deserialization, so the dictionaries are digested again.
+   */
+  private Object readResolve() {
+    return new ZstdValueCodec<>(codec, compressionConfig);
+  }
+
+  /**
+   * Trains a dictionary from sample values.
+   *
+   * @param samples encoded sample values
+   * @param dictionarySize maximum size of the dictionary
+   * @return the trained dictionary
+   */
+  public static byte[] trainDictionary(List<byte[]> samples, int dictionarySize) {
+    int samplesSize = samples.stream().mapToInt(sample -> sample.length).sum();
+    ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, dictionarySize);
+    samples.forEach(trainer::addSample);
+    return trainer.trainSamples();
+  }
+
+  private boolean hasDictionary() {
+    return Objects.nonNull(compressionConfig.getDictionary());
+  }
+
+  @Override
+  public byte[] encode(T value) throws IOException {
+    byte[] encoded = codec.encode(value);
+    if (encoded.length < compressionConfig.getMinSizeBytes()) {
+      return encoded;
+    }
+    byte[] compressed = hasDictionary() ? Zstd.compress(encoded, dictCompress) :
+        Zstd.compress(encoded, compressionConfig.getLevel());
+    if (compressed.length + HEADER_LENGTH >= encoded.length) { // not worth it
+      return encoded;
+    }
+    return ByteBuffer.allocate(HEADER_LENGTH + compressed.length)
+        .put(hasDictionary() ? ZSTD_DICT : ZSTD)
+        .putInt(encoded.length)
+        .put(compressed)
+        .array();
+  }
+
+  @Override
+  public T decode(byte[] bytes) throws IOException {
+    if (bytes.length < HEADER_LENGTH || (bytes[0] != ZSTD && bytes[0] != ZSTD_DICT)) {
+      return codec.decode(bytes);
+    }
+    if (bytes[0] == ZSTD_DICT && !hasDictionary()) {
+      throw new IOException("Value compressed with a dictionary but no dictionary is configured");
+    }
+    int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+    if (length < 0 || length > MAX_UNCOMPRESSED_LENGTH) {
+      throw new IOException("Invalid uncompressed size of a compressed value: " + length);
+    }
+    byte[] decompressed = new byte[length];
+    long size = bytes[0] == ZSTD_DICT ?
+        Zstd.decompressFastDict(decompressed, 0, bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, dictDecompress) :
+        Zstd.decompressByteArray(decompressed, 0, length, bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+    if (Zstd.isError(size)) {
+      throw new IOException("Error decompressing value: " + Zstd.getErrorName(size));
+    }
+    if (size != length) {
+      throw new IOException("Decompressed " + size + " bytes of a value of " + length + " bytes");
+    }
+    return codec.decode(decompressed);
+  }
+}
@@ -1,9 +1,20 @@
 package org.gbif.kvs.conf;
 
+import org.gbif.kvs.codec.CompressionConfig;
+import org.gbif.kvs.codec.ValueCodec;
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.kvs.codec.ZstdValueCodec;
+import org.gbif.kvs.geocode.CoordinateQuantization;
+import org.gbif.kvs.geocode.CountryCellCacheConfig;
+import org.gbif.kvs.hbase.BatchLoaderConfig;
 import org.gbif.kvs.hbase.HBaseKVStoreConfiguration;
 import org.gbif.kvs.hbase.LoaderRetryConfig;
+import org.gbif.kvs.hbase.NegativeCachingConfig;
+import org.gbif.kvs.hbase.WriteBehindConfig;
+import org.gbif.kvs.species.NameMatchKeyMode;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /** Configuration settings to create a KV Store/Cache for the GBIF species name match. */
 public class CachedHBaseKVStoreConfiguration implements Serializable {
@@ -17,9 +28,41 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
   // Stores the entire JSON response of the Geocode service
   private final String valueColumnQualifier;
 
+  // Stores the preferred country code of the Geocode service response, optional
+  private final String countryCodeColumnQualifier;
+
+  // Quantization of the coordinates of geocode keys, coordinates are used as they are if it is null
+  private final CoordinateQuantization coordinateQuantization;
+
+  // Settings of the cells of country code lookups, cells are not used if it is null
+  private final CountryCellCacheConfig countryCellCacheConfig;
+
+  // Path to a country raster file in front of geocode lookups, it is not used if it is null
+  private final String countryRasterPath;
+
+  // Keys of name usage matches
+  private final NameMatchKeyMode nameMatchKeyMode;
+
+  // Path to an exact name match index file in front of name match lookups, it is not used if it is null
+  private final String nameMatchIndexPath;
+
+  // Format in which values are written
+  private final ValueFormat valueFormat;
+
+  // Compression settings, values are stored uncompressed if it is null
+  private final CompressionConfig compressionConfig;
+
 
   private final Long cacheCapacity;
 
+  // Write-behind settings, values are written synchronously if it is null
+  private final WriteBehindConfig writeBehindConfig;
+
+  // Negative caching settings, keys without values are not stored if it is null
+  private final NegativeCachingConfig negativeCachingConfig;
+
+  // Batches of the bulk loader, the keys to load are sent in a single call if it is null
+  private final BatchLoaderConfig batchLoaderConfig;
 
   /**
    * Creates an configuration instance using the HBase KV and Rest client configurations.
@@ -28,13 +71,46 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
    * @param loaderRetryConfig exponential backoff retry config
    * @param valueColumnQualifier column qualifier to store the entire json response
    * @param cacheCapacity maximum number of entries in the in-memory cache
+   * @param writeBehindConfig write-behind settings, null to write values synchronously
+   * @param negativeCachingConfig negative caching settings, null to disable it
+   * @param valueFormat format in which values are written, JSON if it is null
+   * @param compressionConfig compression settings, null to store values uncompressed
+   * @param countryCodeColumnQualifier column qualifier to store the preferred country code, null to not store it
+   * @param coordinateQuantization quantization of geocode keys, null to use the coordinates as they are
+   * @param countryCellCacheConfig settings of the cells of country code lookups, null to not use them
+   * @param countryRasterPath path to a country raster file in front of geocode lookups, null to not use it
+   * @param nameMatchKeyMode keys of name usage matches, RAW if it is null
+   * @param nameMatchIndexPath path to an exact name match index file in front of name match lookups, null to not use it
+   * @param batchLoaderConfig batches of the bulk loader, null to load the keys in a single call
    */
   public CachedHBaseKVStoreConfiguration(HBaseKVStoreConfiguration hBaseKVStoreConfiguration, LoaderRetryConfig loaderRetryConfig,
-                                         String valueColumnQualifier, Long cacheCapacity) {
+                                         String valueColumnQualifier, Long cacheCapacity,
+                                         WriteBehindConfig writeBehindConfig,
+                                         NegativeCachingConfig negativeCachingConfig,
+                                         ValueFormat valueFormat,
+                                         CompressionConfig compressionConfig,
+                                         String countryCodeColumnQualifier,
+                                         CoordinateQuantization coordinateQuantization,
+                                         CountryCellCacheConfig countryCellCacheConfig,
+                                         String countryRasterPath,
+                                         NameMatchKeyMode nameMatchKeyMode,
+                                         String nameMatchIndexPath,
+                                         BatchLoaderConfig batchLoaderConfig) {
     this.hBaseKVStoreConfiguration = hBaseKVStoreConfiguration;
     this.loaderRetryConfig = loaderRetryConfig;
     this.valueColumnQualifier = valueColumnQualifier;
+    this.valueFormat = Objects.isNull(valueFormat) ? ValueFormat.JSON : valueFormat;
+    this.compressionConfig = compressionConfig;
+    this.countryCodeColumnQualifier = countryCodeColumnQualifier;
+    this.coordinateQuantization = coordinateQuantization;
+    this.countryCellCacheConfig = countryCellCacheConfig;
+    this.countryRasterPath = countryRasterPath;
+    this.nameMatchKeyMode = Objects.isNull(nameMatchKeyMode) ? NameMatchKeyMode.RAW : nameMatchKeyMode;
+    this.nameMatchIndexPath = nameMatchIndexPath;
     this.cacheCapacity = cacheCapacity;
+    this.writeBehindConfig = writeBehindConfig;
+    this.negativeCachingConfig = negativeCachingConfig;
+    this.batchLoaderConfig = batchLoaderConfig;
   }
 
   /** @return HBase KV store configuration */
@@ -52,6 +128,58 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
     return valueColumnQualifier;
   }
 
+  /** @return preferred country code column qualifier, null if the country code is not stored */
+  public String getCountryCodeColumnQualifier() {
+    return countryCodeColumnQualifier;
+  }
+
+  /** @return quantization of geocode keys, null if coordinates are used as they are */
+  public CoordinateQuantization getCoordinateQuantization() {
+    return coordinateQuantization;
+  }
+
+  /** @return settings of the cells of country code lookups, null if cells are not used */
+  public CountryCellCacheConfig getCountryCellCacheConfig() {
+    return countryCellCacheConfig;
+  }
+
+  /** @return path to the country raster file in front of geocode lookups, null if it is not used */
+  public String getCountryRasterPath() {
+    return countryRasterPath;
+  }
+
+  /** @return keys of name usage matches */
+  public NameMatchKeyMode getNameMatchKeyMode() {
+    return nameMatchKeyMode;
+  }
+
+  /** @return path to the exact name match index file in front of name match lookups, null if it is not used */
+  public String getNameMatchIndexPath() {
+    return nameMatchIndexPath;
+  }
+
+  /** @return format in which values are written, values in any format are read */
+  public ValueFormat getValueFormat() {
+    return valueFormat;
+  }
+
+  /** @return compression settings, null if values are stored uncompressed */
+  public CompressionConfig getCompressionConfig() {
+    return compressionConfig;
+  }
+
+  /**
+   * Creates the codec of the stored values using the value format and compression settings.
+   *
+   * @param valueClass class of values
+   * @param <T> type of values
+   * @return a new codec
+   */
+  public <T> ValueCodec<T> valueCodec(Class<T> valueClass) {
+    ValueCodec<T> codec = valueFormat.codec(valueClass);
+    return Objects.isNull(compressionConfig) ? codec : new ZstdValueCodec<>(codec, compressionConfig);
+  }
+
 
   /**
    * Maximum number of entries in the in-memory cache.
@@ -60,6 +188,22 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
   public Long getCacheCapacity() {
     return cacheCapacity;
   }
+
+  /** @return write-behind settings, null if values are written synchronously */
+  public WriteBehindConfig getWriteBehindConfig() {
+    return writeBehindConfig;
+  }
+
+  /** @return negative caching settings, null if keys without values are not stored */
+  public NegativeCachingConfig getNegativeCachingConfig() {
+    return negativeCachingConfig;
+  }
+
+  /** @return batches of the bulk loader, null if the keys to load are sent in a single call */
+  public BatchLoaderConfig getBatchLoaderConfig() {
+    return batchLoaderConfig;
+  }
+
   /**
    * Creates a new {@link Builder} instance.
    * @return a new builder
@@ -78,8 +222,30 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
 
     private String valueColumnQualifier;
 
+    private String countryCodeColumnQualifier;
+
+    private CoordinateQuantization coordinateQuantization;
+
+    private CountryCellCacheConfig countryCellCacheConfig;
+
+    private String countryRasterPath;
+
+    private NameMatchKeyMode nameMatchKeyMode;
+
+    private String nameMatchIndexPath;
+
+    private ValueFormat valueFormat;
+
+    private CompressionConfig compressionConfig;
+
     private Long cacheCapacity;
 
+    private WriteBehindConfig writeBehindConfig;
+
+    private NegativeCachingConfig negativeCachingConfig;
+
+    private BatchLoaderConfig batchLoaderConfig;
+
 
     /**
      * Hidden constructor to force use the containing class builder() method.
@@ -103,13 +269,73 @@ public class CachedHBaseKVStoreConfiguration implements Serializable {
       return this;
     }
 
+    public Builder withCountryCodeColumnQualifier(String countryCodeColumnQualifier) {
+      this.countryCodeColumnQualifier = countryCodeColumnQualifier;
+      return this;
+    }
+
+    public Builder withCoordinateQuantization(CoordinateQuantization coordinateQuantization) {
+      this.coordinateQuantization = coordinateQuantization;
+      return this;
+    }
+
+    public Builder withCountryCellCacheConfig(CountryCellCacheConfig countryCellCacheConfig) {
+      this.countryCellCacheConfig = countryCellCacheConfig;
+      return this;
+    }
+
+    public Builder withCountryRasterPath(String countryRasterPath) {
+      this.countryRasterPath = countryRasterPath;
+      return this;
+    }
+
+    public Builder withNameMatchKeyMode(NameMatchKeyMode nameMatchKeyMode) {
+      this.nameMatchKeyMode = nameMatchKeyMode;
+      return this;
+    }
+
+    public Builder withNameMatchIndexPath(String nameMatchIndexPath) {
+      this.nameMatchIndexPath = nameMatchIndexPath;
+      return this;
+    }
+
+    public Builder withValueFormat(ValueFormat valueFormat) {
+      this.valueFormat = valueFormat;
+      return this;
+    }
+
+    public Builder withCompressionConfig(CompressionConfig compressionConfig) {
+      this.compressionConfig = compressionConfig;
+      return this;
+    }
+
     public Builder withCacheCapacity(Long cacheCapacity) {
       this.cacheCapacity = cacheCapacity;
       return this;
     }
 
+    public Builder withWriteBehindConfig(WriteBehindConfig writeBehindConfig) {
+      this.writeBehindConfig = writeBehindConfig;
+      return this;
+    }
+
+    public Builder withNegativeCachingConfig(NegativeCachingConfig negativeCachingConfig) {
+      this.negativeCachingConfig = negativeCachingConfig;
+      return this;
+    }
+
+    public Builder withBatchLoaderConfig(BatchLoaderConfig batchLoaderConfig) {
+      this.batchLoaderConfig = batchLoaderConfig;
+      return this;
+    }
+
     public CachedHBaseKVStoreConfiguration build() {
-      return new CachedHBaseKVStoreConfiguration(hBaseKVStoreConfiguration, loaderRetryConfig, valueColumnQualifier, cacheCapacity);
+      return new CachedHBaseKVStoreConfiguration(hBaseKVStoreConfiguration, loaderRetryConfig, valueColumnQualifier,
+                                                 cacheCapacity, writeBehindConfig, negativeCachingConfig,
+                                                 valueFormat, compressionConfig, countryCodeColumnQualifier,
+                                                 coordinateQuantization, countryCellCacheConfig,
+                                                 countryRasterPath, nameMatchKeyMode, nameMatchIndexPath,
+                                                 batchLoaderConfig);
     }
 
   }
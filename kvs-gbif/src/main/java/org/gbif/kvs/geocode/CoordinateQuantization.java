@@ -0,0 +1,131 @@
+package org.gbif.kvs.geocode;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Quantization of coordinates into grid cells used as keys of geocode lookups.
+ * Coordinates are rounded to a number of decimal places, so nearby coordinates share the same cached response.
+ * Rounded coordinates are normalized: -0.0 is stored as 0.0 and the longitude 180 as -180, both are the same meridian.
+ */
+public class CoordinateQuantization implements Serializable {
+
+  /**
+   * Coordinate sent to the geocode service when a key is not found.
+   */
+  public enum QueryPolicy {
+    /** The coordinate of the first lookup of the cell, the response is shared by the rest of the cell. */
+    ORIGINAL,
+    /** The rounded coordinate, responses are the same regardless of the coordinate that loaded them. */
+    CELL_CENTER
+  }
+
+  // Maximum decimal places, beyond it coordinates are more precise than the double representation of degrees
+  private static final int MAX_DECIMAL_PLACES = 10;
+
+  // Decimal places of the quantized coordinates
+  private final int decimalPlaces;
+
+  // Coordinate used by geocode service queries
+  private final QueryPolicy queryPolicy;
+
+  // Cached 10^decimalPlaces
+  private final double scale;
+
+  /**
+   * Creates a quantization of coordinates.
+   *
+   * @param decimalPlaces decimal places of the quantized coordinates, between 0 and 10
+   * @param queryPolicy coordinate used by geocode service queries, ORIGINAL if it is null
+   */
+  public CoordinateQuantization(int decimalPlaces, QueryPolicy queryPolicy) {
+    if (decimalPlaces < 0 || decimalPlaces > MAX_DECIMAL_PLACES) {
+      throw new IllegalArgumentException("Decimal places must be between 0 and " + MAX_DECIMAL_PLACES);
+    }
+    this.decimalPlaces = decimalPlaces;
+    this.queryPolicy = Objects.isNull(queryPolicy) ? QueryPolicy.ORIGINAL : queryPolicy;
+    scale = Math.pow(10, decimalPlaces);
+  }
+
+  /**
+   * Factory method.
+   * @param decimalPlaces decimal places of the quantized coordinates
+   * @param queryPolicy coordinate used by geocode service queries
+   * @return a new instance of CoordinateQuantization
+   */
+  public static CoordinateQuantization of(int decimalPlaces, QueryPolicy queryPolicy) {
+    return new CoordinateQuantization(decimalPlaces, queryPolicy);
+  }
+
+  /** @return decimal places of the quantized coordinates */
+  public int getDecimalPlaces() {
+    return decimalPlaces;
+  }
+
+  /** @return coordinate used by geocode service queries */
+  public QueryPolicy getQueryPolicy() {
+    return queryPolicy;
+  }
+
+  /**
+   * Quantizes a coordinate into the key of its cell. Invalid coordinates are returned unchanged.
+   *
+   * @param latLng coordinate
+   * @return a {@link QuantizedLatLng} that holds the coordinate of the cell and the coordinate to query
+   */
+  public LatLng quantize(LatLng latLng) {
+    if (!latLng.isValid()) {
+      return latLng;
+    }
+    double latitude = round(latLng.getLatitude());
+    double longitude = round(latLng.getLongitude());
+    if (longitude == 180d) {
+      longitude = -180d;
+    }
+    return queryPolicy == QueryPolicy.CELL_CENTER ?
+        new QuantizedLatLng(latitude, longitude, latitude, longitude) :
+        new QuantizedLatLng(latitude, longitude, latLng.getLatitude(), latLng.getLongitude());
+  }
+
+  /**
+   * Rounds a degree value to the nearest multiple of 10^-decimalPlaces, -0.0 is converted into 0.0.
+   */
+  private double round(double degrees) {
+    return Math.round(degrees * scale) / scale + 0.0d;
+  }
+
+  /**
+   * Maximum distance in degrees, along each axis, between a coordinate and its quantized coordinate.
+   *
+   * @return half the size of a cell
+   */
+  public double maxErrorDegrees() {
+    return 0.5d / scale;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CoordinateQuantization that = (CoordinateQuantization) o;
+    return decimalPlaces == that.decimalPlaces && queryPolicy == that.queryPolicy;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(decimalPlaces, queryPolicy);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", CoordinateQuantization.class.getSimpleName() + "[", "]")
+        .add("decimalPlaces=" + decimalPlaces)
+        .add("queryPolicy=" + queryPolicy)
+        .toString();
+  }
+}
@@ -0,0 +1,388 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.metrics.CacheMetrics;
+import org.gbif.kvs.metrics.LocalCounter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Grid of cells in front of a country code store that learns the cells that are entirely inside a single country.
+ *
+ * The grid has cells of multiple levels, see {@link CountryCellCacheConfig}. Each exact lookup is counted in the cells
+ * that contain it, once a cell has had a number of exact lookups of the same country, a grid of samples that includes its
+ * corners is looked up. If all of them resolve to the same country the cell is learned and later coordinates inside it
+ * are answered from memory, without touching the underlying store. Cells with lookups of different countries, or without
+ * country, are not learned and their coordinates fall through to the exact lookup.
+ * Samples are looked up by a single background thread, cells that reach the lookups to learn while it is busy are not
+ * sampled and their coordinates keep being answered by the exact lookup, so lookups never wait for a sampling.
+ * Samples are spaced as the samples of the finest level at all levels, so coarser cells have more samples. Sampling can
+ * miss enclaves smaller than the distance between samples, a finer maximum level and more samples reduce that risk.
+ */
+public class CountryCellCache implements KeyValueStore<LatLng, String> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CountryCellCache.class);
+
+  // Tier of the cell metrics
+  public static final String CELL_TIER = "cell";
+
+  // Cells waiting to be sampled, later cells are not sampled until there is room
+  private static final int SAMPLING_QUEUE_CAPACITY = 16;
+
+  // Maximum time to wait for the sampling in progress when the cache is closed
+  private static final long CLOSE_TIMEOUT_MILLIS = 10_000L;
+
+  // Bits of the cell index of each axis in the cell identifiers
+  private static final int INDEX_BITS = 29;
+
+  private final KeyValueStore<LatLng, String> keyValueStore;
+
+  private final CountryCellCacheConfig config;
+
+  // Country of learned cells, the least recently used are evicted
+  private final Cache<Long, String> learnedCells;
+
+  // Exact lookups of cells that are not learned yet, the least recently used are evicted
+  private final Cache<Long, CellLookups> trackedCells;
+
+  // Cells that cross a border or have no country, the least recently used are evicted
+  private final Cache<Long, Boolean> mixedCells;
+
+  //Counter of lookups answered by a learned cell
+  private final LocalCounter cellLookups;
+
+  //Counter of lookups answered by the underlying store
+  private final LocalCounter exactLookups;
+
+  //Counter of cells not sampled because the sampling executor was busy
+  private final LocalCounter droppedSamplings;
+
+  // Executor of the samplings of cells
+  private final Executor samplingExecutor;
+
+  // Is the samplingExecutor created and owned by this cache
+  private final boolean ownsSamplingExecutor;
+
+  // Samplings in progress stop when the cache is closed
+  private volatile boolean closed;
+
+  /**
+   * Lookups of a country in a cell, a cell with lookups of different countries is mixed.
+   */
+  private static class CellLookups {
+
+    private final String countryCode;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private CellLookups(String countryCode) {
+      this.countryCode = countryCode;
+    }
+  }
+
+  /**
+   * Creates a cell cache in front of a country code store.
+   *
+   * @param keyValueStore country code store used by exact lookups and samples
+   * @param config cell settings
+   * @param registry registry of the cell metrics
+   * @param storeName name used to tag the metrics
+   */
+  public CountryCellCache(KeyValueStore<LatLng, String> keyValueStore, CountryCellCacheConfig config,
+                          MeterRegistry registry, String storeName) {
+    this(keyValueStore, config, registry, storeName, createSamplingExecutor(), true);
+  }
+
+  /**
+   * Creates a cell cache that samples cells in the provided executor.
+   *
+   * @param keyValueStore country code store used by exact lookups and samples
+   * @param config cell settings
+   * @param registry registry of the cell metrics
+   * @param storeName name used to tag the metrics
+   * @param samplingExecutor executor of the samplings, it rejects samplings when it is busy
+   */
+  CountryCellCache(KeyValueStore<LatLng, String> keyValueStore, CountryCellCacheConfig config, MeterRegistry registry,
+                   String storeName, Executor samplingExecutor) {
+    this(keyValueStore, config, registry, storeName, samplingExecutor, false);
+  }
+
+  private CountryCellCache(KeyValueStore<LatLng, String> keyValueStore, CountryCellCacheConfig config,
+                           MeterRegistry registry, String storeName, Executor samplingExecutor,
+                           boolean ownsSamplingExecutor) {
+    this.keyValueStore = keyValueStore;
+    this.config = config;
+    this.samplingExecutor = samplingExecutor;
+    this.ownsSamplingExecutor = ownsSamplingExecutor;
+    learnedCells = Cache2kBuilder.of(Long.class, String.class)
+        .eternal(true)
+        .entryCapacity(config.getMaxTrackedCells())
+        .build();
+    trackedCells = Cache2kBuilder.of(Long.class, CellLookups.class)
+        .eternal(true)
+        .entryCapacity(config.getMaxTrackedCells())
+        .build();
+    mixedCells = Cache2kBuilder.of(Long.class, Boolean.class)
+        .eternal(true)
+        .entryCapacity(config.getMaxTrackedCells())
+        .build();
+    List<Tag> tags = CacheMetrics.tags(storeName, CELL_TIER);
+    cellLookups = LocalCounter.register(registry, "cellLookups", CacheMetrics.resultTags(tags, "cell"));
+    exactLookups = LocalCounter.register(registry, "cellLookups", CacheMetrics.resultTags(tags, "exact"));
+    droppedSamplings = LocalCounter.register(registry, "droppedCellSamplings", tags);
+    registry.gauge("learnedCells", tags, this, CountryCellCache::learnedCells);
+  }
+
+  /**
+   * Creates a single daemon thread executor with a bounded queue, samplings that don't fit in the queue are rejected.
+   */
+  private static ExecutorService createSamplingExecutor() {
+    return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(SAMPLING_QUEUE_CAPACITY),
+                                  runnable -> {
+                                    Thread thread = new Thread(runnable, "country-cell-sampling");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                  });
+  }
+
+  /**
+   * Country code of a coordinate, answered from a learned cell if there is one.
+   *
+   * @param key coordinate
+   * @return the country code, null if there is none
+   */
+  @Override
+  public String get(LatLng key) {
+    String countryCode = learnedCountry(key);
+    if (Objects.nonNull(countryCode)) {
+      return countryCode;
+    }
+    countryCode = keyValueStore.get(key);
+    exactLookups.increment();
+    learn(key, countryCode);
+    return countryCode;
+  }
+
+  /**
+   * Asynchronous lookup, learned cells complete immediately.
+   *
+   * @param key coordinate
+   * @return a future of the country code
+   */
+  @Override
+  public CompletableFuture<String> getAsync(LatLng key) {
+    String countryCode = learnedCountry(key);
+    if (Objects.nonNull(countryCode)) {
+      return CompletableFuture.completedFuture(countryCode);
+    }
+    return keyValueStore.getAsync(key).thenApply(exactCountryCode -> {
+      exactLookups.increment();
+      learn(key, exactCountryCode);
+      return exactCountryCode;
+    });
+  }
+
+  /**
+   * Answers the keys of learned cells from memory and looks up the rest in the underlying store.
+   *
+   * @param keys coordinates
+   * @return the country codes found
+   */
+  @Override
+  public Map<LatLng, String> getAll(Collection<LatLng> keys) {
+    Map<LatLng, String> values = new HashMap<>();
+    List<LatLng> exactKeys = new ArrayList<>();
+    for (LatLng key : keys) {
+      String countryCode = learnedCountry(key);
+      if (Objects.nonNull(countryCode)) {
+        values.put(key, countryCode);
+      } else {
+        exactKeys.add(key);
+      }
+    }
+    if (!exactKeys.isEmpty()) {
+      Map<LatLng, String> exactValues = keyValueStore.getAll(exactKeys);
+      exactLookups.increment(exactValues.size());
+      exactValues.forEach((key, countryCode) -> {
+        learn(key, countryCode);
+        values.put(key, countryCode);
+      });
+    }
+    return values;
+  }
+
+  /**
+   * Country of the coarsest learned cell that contains a coordinate.
+   *
+   * @param key coordinate
+   * @return the country code, null if no learned cell contains the coordinate
+   */
+  private String learnedCountry(LatLng key) {
+    if (!key.isValid()) {
+      return null;
+    }
+    for (int level = config.getMinLevel(); level <= config.getMaxLevel(); level++) {
+      String countryCode = learnedCells.peek(cellId(level, key.getLatitude(), key.getLongitude()));
+      if (Objects.nonNull(countryCode)) {
+        cellLookups.increment();
+        return countryCode;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Counts an exact lookup in the cells that contain it, the cells that reach the number of lookups to learn are handed
+   * to the sampling executor.
+   *
+   * @param key coordinate
+   * @param countryCode country code of the exact lookup
+   */
+  private void learn(LatLng key, String countryCode) {
+    if (!key.isValid()) {
+      return;
+    }
+    List<Long> cellsToSample = new ArrayList<>();
+    for (int level = config.getMinLevel(); level <= config.getMaxLevel(); level++) {
+      long cellId = cellId(level, key.getLatitude(), key.getLongitude());
+      if (mixedCells.containsKey(cellId)) {
+        continue;
+      }
+      if (Objects.isNull(countryCode)) {
+        mixedCells.put(cellId, Boolean.TRUE);
+        continue;
+      }
+      CellLookups lookups = trackedCells.computeIfAbsent(cellId, () -> new CellLookups(countryCode));
+      if (!lookups.countryCode.equals(countryCode)) {
+        trackedCells.remove(cellId);
+        mixedCells.put(cellId, Boolean.TRUE);
+      } else if (lookups.count.incrementAndGet() >= config.getLookupsToLearn()
+                 && trackedCells.removeIfEquals(cellId, lookups)) {
+        // only the thread that removes the tracked cell samples it
+        cellsToSample.add(cellId);
+      }
+    }
+    if (!cellsToSample.isEmpty()) {
+      try {
+        samplingExecutor.execute(() -> sample(cellsToSample, countryCode));
+      } catch (RejectedExecutionException ex) {
+        // the cells are tracked again by later lookups
+        droppedSamplings.increment();
+      }
+    }
+  }
+
+  /**
+   * Samples the cells of a coordinate from the coarsest, the first one whose samples all resolve to the country code is
+   * learned and the coarser ones are mixed.
+   *
+   * @param cellIds cells to sample, from the coarsest to the finest
+   * @param countryCode country code of the exact lookups of the cells
+   */
+  private void sample(List<Long> cellIds, String countryCode) {
+    try {
+      for (long cellId : cellIds) {
+        Boolean singleCountry = isSingleCountry(cellId, countryCode);
+        if (Objects.isNull(singleCountry)) {
+          return;
+        }
+        if (singleCountry) {
+          learnedCells.put(cellId, countryCode);
+          return;
+        }
+        mixedCells.put(cellId, Boolean.TRUE);
+      }
+    } catch (RuntimeException ex) {
+      LOG.warn("Error sampling the cells {}", cellIds, ex);
+    }
+  }
+
+  /**
+   * Looks up the samples of a cell.
+   *
+   * @return true if all the samples resolve to the country code, null if the cache was closed while sampling
+   */
+  private Boolean isSingleCountry(long cellId, String countryCode) {
+    int level = (int) (cellId >>> (2 * INDEX_BITS));
+    double latitudeSize = 180d / (1L << level);
+    double longitudeSize = 360d / (1L << level);
+    long mask = (1L << INDEX_BITS) - 1;
+    double south = -90d + ((cellId >>> INDEX_BITS) & mask) * latitudeSize;
+    double west = -180d + (cellId & mask) * longitudeSize;
+    int steps = config.sampleIntervals(level);
+    for (int i = 0; i <= steps; i++) {
+      for (int j = 0; j <= steps; j++) {
+        if (closed) {
+          return null;
+        }
+        LatLng sample = LatLng.create(south + latitudeSize * i / steps, west + longitudeSize * j / steps);
+        if (!countryCode.equals(keyValueStore.get(sample))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Identifier of the cell of a level that contains a coordinate: level, latitude index and longitude index.
+   */
+  static long cellId(int level, double latitude, double longitude) {
+    long cells = 1L << level;
+    long latitudeIndex = Math.min(cells - 1, (long) Math.floor((latitude + 90d) / 180d * cells));
+    long longitudeIndex = Math.min(cells - 1, (long) Math.floor((longitude + 180d) / 360d * cells));
+    return ((long) level << (2 * INDEX_BITS)) | (latitudeIndex << INDEX_BITS) | longitudeIndex;
+  }
+
+  /** @return number of learned cells */
+  public int learnedCells() {
+    return learnedCells.asMap().size();
+  }
+
+  /**
+   * Stops the sampling in progress and closes the underlying store.
+   *
+   * @throws IOException if the underlying store fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    if (ownsSamplingExecutor) {
+      ExecutorService executorService = (ExecutorService) samplingExecutor;
+      executorService.shutdownNow();
+      try {
+        if (!executorService.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          LOG.warn("Sampling of cells did not finish before closing the cell cache");
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        LOG.warn("Interrupted while waiting for the sampling of cells");
+      }
+    }
+    learnedCells.close();
+    trackedCells.close();
+    mixedCells.close();
+    keyValueStore.close();
+  }
+}
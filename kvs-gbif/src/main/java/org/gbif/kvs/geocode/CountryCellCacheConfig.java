@@ -0,0 +1,95 @@
+package org.gbif.kvs.geocode;
+
+import java.io.Serializable;
+
+/**
+ * Settings of the {@link CountryCellCache}.
+ * Cells of level L split the latitude and longitude ranges in 2^L parts, level 4 cells are 11.25 x 22.5 degrees,
+ * level 8 cells are about 0.7 x 1.4 degrees and level 12 cells are about 0.04 x 0.09 degrees.
+ * Cells of every level are sampled with the spacing of the samples of the finest level, a cell one level coarser has
+ * twice as many samples per side.
+ */
+public class CountryCellCacheConfig implements Serializable {
+
+  public static final CountryCellCacheConfig DEFAULT = new CountryCellCacheConfig(8, 12, 3, 4, 100_000);
+
+  // Cells of finer levels would exceed the bits of the cell identifiers
+  private static final int MAX_LEVEL = 28;
+
+  // Maximum intervals between the samples of a side of the coarsest cells
+  private static final int MAX_SAMPLE_INTERVALS = 64;
+
+  private final int minLevel;
+
+  private final int maxLevel;
+
+  private final int samplesPerSide;
+
+  private final int lookupsToLearn;
+
+  private final int maxTrackedCells;
+
+  /**
+   * Full constructor.
+   *
+   * @param minLevel coarsest level of learned cells
+   * @param maxLevel finest level of learned cells, up to 28
+   * @param samplesPerSide cells of the finest level are sampled in a grid of samplesPerSide x samplesPerSide points
+   *                       that includes its corners, at least 2, coarser cells keep the same spacing
+   * @param lookupsToLearn exact lookups of the same country in a cell before its samples are looked up
+   * @param maxTrackedCells maximum number of cells being tracked before they are learned, of mixed cells and of learned
+   *                        cells, the least recently used are evicted
+   */
+  public CountryCellCacheConfig(int minLevel, int maxLevel, int samplesPerSide, int lookupsToLearn,
+                                int maxTrackedCells) {
+    if (minLevel < 0 || maxLevel > MAX_LEVEL || minLevel > maxLevel) {
+      throw new IllegalArgumentException("Levels must be between 0 and " + MAX_LEVEL);
+    }
+    if (samplesPerSide < 2) {
+      throw new IllegalArgumentException("At least the corners of cells must be sampled");
+    }
+    if ((long) (samplesPerSide - 1) << (maxLevel - minLevel) > MAX_SAMPLE_INTERVALS) {
+      throw new IllegalArgumentException("Cells of level " + minLevel + " need too many samples, raise the minimum level");
+    }
+    this.minLevel = minLevel;
+    this.maxLevel = maxLevel;
+    this.samplesPerSide = samplesPerSide;
+    this.lookupsToLearn = lookupsToLearn;
+    this.maxTrackedCells = maxTrackedCells;
+  }
+
+  /** @return coarsest level of learned cells */
+  public int getMinLevel() {
+    return minLevel;
+  }
+
+  /** @return finest level of learned cells */
+  public int getMaxLevel() {
+    return maxLevel;
+  }
+
+  /** @return number of samples per side of a cell of the finest level, corners included */
+  public int getSamplesPerSide() {
+    return samplesPerSide;
+  }
+
+  /**
+   * Intervals between the samples of a side of a cell, the same spacing is used at all levels.
+   *
+   * @param level level of the cell
+   * @return number of intervals, the cell is sampled in a grid of (intervals + 1) x (intervals + 1) points
+   */
+  public int sampleIntervals(int level) {
+    return (samplesPerSide - 1) << (maxLevel - level);
+  }
+
+  /** @return exact lookups of the same country in a cell before its samples are looked up */
+  public int getLookupsToLearn() {
+    return lookupsToLearn;
+  }
+
+  /** @return maximum number of cells being tracked before they are learned, of mixed cells and of learned cells */
+  public int getMaxTrackedCells() {
+    return maxTrackedCells;
+  }
+}
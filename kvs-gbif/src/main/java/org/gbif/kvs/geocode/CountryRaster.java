@@ -0,0 +1,193 @@
+package org.gbif.kvs.geocode;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Memory-mapped raster of countries with a fixed number of cells per degree.
+ *
+ * The file has a header followed by one byte per cell, rows go from north to south and columns from west to east:
+ * <pre>
+ *   magic (4 bytes) | version (1 byte) | cells per degree (int) | number of countries (short)
+ *   | 2-letter ISO code of each country | cells
+ * </pre>
+ * A cell holds the index of its country plus 1, or {@link #AMBIGUOUS} if it crosses a border or has no country.
+ * Lookups read the mapped file directly, instances are thread-safe.
+ */
+public class CountryRaster implements Closeable {
+
+  // Marker of cells that cross a border or have no country
+  public static final byte AMBIGUOUS = 0;
+
+  // Maximum number of countries, the cell bytes are unsigned country indexes plus 1
+  public static final int MAX_COUNTRIES = 255;
+
+  // Identifies the file format
+  private static final byte[] MAGIC = "KVSR".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte VERSION = 1;
+
+  // Length of the ISO country codes
+  private static final int COUNTRY_CODE_LENGTH = 2;
+
+  private final int cellsPerDegree;
+
+  private final int rows;
+
+  private final int columns;
+
+  // Country codes by index
+  private final String[] countryCodes;
+
+  // Offset of the first cell in the file
+  private final int cellsOffset;
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  /**
+   * Memory-maps a raster file.
+   *
+   * @param path raster file
+   * @throws IOException if the file can't be read or it is not a raster
+   */
+  private CountryRaster(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      byte version = buffer.get();
+      if (!Arrays.equals(MAGIC, magic) || version != VERSION) {
+        throw new IOException("Not a country raster file: " + path);
+      }
+      cellsPerDegree = buffer.getInt();
+      rows = 180 * cellsPerDegree;
+      columns = 360 * cellsPerDegree;
+      countryCodes = new String[buffer.getShort()];
+      byte[] countryCode = new byte[COUNTRY_CODE_LENGTH];
+      for (int i = 0; i < countryCodes.length; i++) {
+        buffer.get(countryCode);
+        countryCodes[i] = new String(countryCode, StandardCharsets.US_ASCII);
+      }
+      cellsOffset = buffer.position();
+      if ((long) cellsOffset + (long) rows * columns != channel.size()) {
+        throw new IOException("Truncated country raster file: " + path);
+      }
+    } catch (BufferUnderflowException ex) {
+      channel.close();
+      throw new IOException("Truncated country raster file: " + path, ex);
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Memory-maps a raster file.
+   *
+   * @param path raster file
+   * @return a new instance of CountryRaster
+   * @throws IOException if the file can't be read or it is not a raster
+   */
+  public static CountryRaster open(Path path) throws IOException {
+    return new CountryRaster(path);
+  }
+
+  /**
+   * Writes a raster file.
+   *
+   * @param path target file
+   * @param cellsPerDegree cells per degree of latitude and longitude
+   * @param countryCodes 2-letter ISO codes of the countries, in the order of their indexes
+   * @param cells one byte per cell, rows from north to south and columns from west to east
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path path, int cellsPerDegree, List<String> countryCodes, byte[] cells) throws IOException {
+    if (countryCodes.size() > MAX_COUNTRIES) {
+      throw new IllegalArgumentException("A raster can't hold more than " + MAX_COUNTRIES + " countries");
+    }
+    if ((long) 180 * cellsPerDegree * 360 * cellsPerDegree != cells.length) {
+      throw new IllegalArgumentException("Number of cells doesn't match the cells per degree");
+    }
+    try (OutputStream out = Files.newOutputStream(path);
+         DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+      data.write(MAGIC);
+      data.writeByte(VERSION);
+      data.writeInt(cellsPerDegree);
+      data.writeShort(countryCodes.size());
+      for (String countryCode : countryCodes) {
+        byte[] code = countryCode.getBytes(StandardCharsets.US_ASCII);
+        if (code.length != COUNTRY_CODE_LENGTH) {
+          throw new IllegalArgumentException("Invalid country code " + countryCode);
+        }
+        data.write(code);
+      }
+      data.write(cells);
+    }
+  }
+
+  /**
+   * Index of the cell that contains a coordinate.
+   *
+   * @param cellsPerDegree cells per degree of latitude and longitude
+   * @param latitude decimal latitude, -90 to 90
+   * @param longitude decimal longitude, -180 to 180
+   * @return the position of the cell in the cells array
+   */
+  public static int cellIndex(int cellsPerDegree, double latitude, double longitude) {
+    int rows = 180 * cellsPerDegree;
+    int columns = 360 * cellsPerDegree;
+    int row = Math.min(rows - 1, Math.max(0, (int) Math.floor((90d - latitude) * cellsPerDegree)));
+    int column = Math.min(columns - 1, Math.max(0, (int) Math.floor((longitude + 180d) * cellsPerDegree)));
+    return row * columns + column;
+  }
+
+  /**
+   * Country code of the cell that contains a coordinate.
+   *
+   * @param latitude decimal latitude, -90 to 90
+   * @param longitude decimal longitude, -180 to 180
+   * @return the 2-letter ISO country code, null if the cell is ambiguous
+   */
+  public String countryCode(double latitude, double longitude) {
+    byte cell = buffer.get(cellsOffset + cellIndex(cellsPerDegree, latitude, longitude));
+    return cell == AMBIGUOUS ? null : countryCodes[(cell & 0xff) - 1];
+  }
+
+  /** @return cells per degree of latitude and longitude */
+  public int getCellsPerDegree() {
+    return cellsPerDegree;
+  }
+
+  /** @return number of rows, from north to south */
+  public int getRows() {
+    return rows;
+  }
+
+  /** @return number of columns, from west to east */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Closes the file channel, the mapped buffer is released when it is garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
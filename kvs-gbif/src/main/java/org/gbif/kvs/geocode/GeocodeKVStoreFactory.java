@@ -2,22 +2,32 @@ package org.gbif.kvs.geocode;
 
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.cache.KeyValueCache;
+import org.gbif.kvs.codec.ValueCodec;
+import org.gbif.kvs.codec.ValueFormat;
 import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
 import org.gbif.kvs.hbase.Command;
 import org.gbif.kvs.hbase.HBaseStore;
+import org.gbif.kvs.metrics.MeterRegistries;
 import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.geocode.GeocodeQuery;
 import org.gbif.rest.client.geocode.GeocodeResponse;
 import org.gbif.rest.client.geocode.Location;
 import org.gbif.rest.client.geocode.GeocodeService;
 import org.gbif.rest.client.geocode.retrofit.GeocodeServiceSyncClient;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -29,13 +39,6 @@ public class GeocodeKVStoreFactory {
 
   private static final Logger LOG = LoggerFactory.getLogger(GeocodeKVStoreFactory.class);
 
-  // Used to store and retrieve JSON values stored in HBase
-  private static final ObjectMapper MAPPER = new ObjectMapper();
-
-  static {
-    MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-  }
-
   /** Hidden constructor. */
   private GeocodeKVStoreFactory() {
     // DO NOTHING
@@ -61,11 +64,24 @@ public class GeocodeKVStoreFactory {
    * @return a Result to GeocodeResponse mapping function
    */
   public static Function<Result, GeocodeResponse> resultMapper(byte[] columnFamily, byte[] columnQualifier) {
+    return resultMapper(columnFamily, columnQualifier, ValueFormat.JSON.codec(GeocodeResponse.class));
+  }
+
+  /**
+   * Returns a function that maps HBase results into GeocodeResponse values using a codec.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param columnQualifier HBase column qualifier in which values are stored
+   * @param valueCodec codec of the stored values
+   * @return a Result to GeocodeResponse mapping function
+   */
+  public static Function<Result, GeocodeResponse> resultMapper(byte[] columnFamily, byte[] columnQualifier,
+                                                               ValueCodec<GeocodeResponse> valueCodec) {
     return result ->  {
       try {
         byte[] value = result.getValue(columnFamily, columnQualifier);
         if(Objects.nonNull(value)) {
-          return MAPPER.readValue(value, GeocodeResponse.class);
+          return valueCodec.decode(value);
         }
         return null;
       } catch (Exception ex) {
@@ -75,21 +91,87 @@ public class GeocodeKVStoreFactory {
   }
 
 
+  /**
+   * Returns a function that maps HBase results into the stored preferred country code.
+   * Rows stored without a country code produce null values.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param countryCodeColumnQualifier HBase column qualifier in which the country code is stored
+   * @return a Result to country code mapping function
+   */
+  public static Function<Result, String> countryCodeResultMapper(byte[] columnFamily, byte[] countryCodeColumnQualifier) {
+    return result -> {
+      byte[] value = result.getValue(columnFamily, countryCodeColumnQualifier);
+      return Objects.nonNull(value) && value.length > 0 ? Bytes.toString(value) : null;
+    };
+  }
+
+  /**
+   * Preferred country code of a geocode response, the ISO code of the first location that has one.
+   *
+   * @param geocodeResponse geocode lookup response
+   * @return the 2-digit ISO country code, null if no location has it
+   */
+  public static String countryCode(GeocodeResponse geocodeResponse) {
+    if (Objects.isNull(geocodeResponse) || Objects.isNull(geocodeResponse.getLocations())) {
+      return null;
+    }
+    return geocodeResponse.getLocations().stream()
+        .map(Location::getIsoCountryCode2Digit)
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+  }
+
   /**
    * Creates a mutator function that maps a key and a list of {@link Location} into a {@link
    * Put}.
    *
    * @param columnFamily HBase column in which values are stored
-   * @param countryCodeColumnQualifier HBase column qualifier in which the country code is stored
    * @param jsonColumnQualifier HBase column qualifier in which json responses are stored
    * @return a mapper from a key geocode responses into HBase Puts
    */
   public static BiFunction<byte[], GeocodeResponse, Put> valueMutator(byte[] columnFamily, byte[] jsonColumnQualifier) {
+    return valueMutator(columnFamily, jsonColumnQualifier, ValueFormat.JSON.codec(GeocodeResponse.class));
+  }
+
+  /**
+   * Creates a mutator function that encodes values using a codec.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param valueColumnQualifier HBase column qualifier in which values are stored
+   * @param valueCodec codec of the stored values
+   * @return a mapper from a key and GeocodeResponse into HBase Puts
+   */
+  public static BiFunction<byte[], GeocodeResponse, Put> valueMutator(byte[] columnFamily, byte[] valueColumnQualifier,
+                                                                      ValueCodec<GeocodeResponse> valueCodec) {
+    return valueMutator(columnFamily, valueColumnQualifier, null, valueCodec);
+  }
+
+  /**
+   * Creates a mutator function that encodes values using a codec and also stores the preferred country code.
+   * The country code column is always written, empty if the response has no country code, so lookups of
+   * country codes can tell apart responses without a country from rows stored without the column.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param valueColumnQualifier HBase column qualifier in which values are stored
+   * @param countryCodeColumnQualifier HBase column qualifier in which the country code is stored, null to not store it
+   * @param valueCodec codec of the stored values
+   * @return a mapper from a key and GeocodeResponse into HBase Puts
+   */
+  public static BiFunction<byte[], GeocodeResponse, Put> valueMutator(byte[] columnFamily, byte[] valueColumnQualifier,
+                                                                      byte[] countryCodeColumnQualifier,
+                                                                      ValueCodec<GeocodeResponse> valueCodec) {
     return (key, geocodeResponses) -> {
       try {
         if (Objects.nonNull(geocodeResponses) && Objects.nonNull(geocodeResponses.getLocations())) {
           Put put = new Put(key);
-          put.addColumn(columnFamily, jsonColumnQualifier, MAPPER.writeValueAsBytes(geocodeResponses));
+          put.addColumn(columnFamily, valueColumnQualifier, valueCodec.encode(geocodeResponses));
+          if (Objects.nonNull(countryCodeColumnQualifier)) {
+            String countryCode = countryCode(geocodeResponses);
+            put.addColumn(columnFamily, countryCodeColumnQualifier,
+                          Objects.nonNull(countryCode) ? Bytes.toBytes(countryCode) : new byte[0]);
+          }
           return put;
         }
         return null;
@@ -110,6 +192,22 @@ public class GeocodeKVStoreFactory {
    */
   public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(CachedHBaseKVStoreConfiguration configuration,
                                                                             ClientConfiguration geocodeClientConfiguration) throws IOException {
+    return simpleGeocodeKVStore(configuration, geocodeClientConfiguration, null);
+  }
+
+  /**
+   * Create a new instance of a Geocode KV store/cache backed by an HBase table, the store and all its caches publish
+   * their metrics to the same registry.
+   *
+   * @param configuration KV store configuration
+   * @param geocodeClientConfiguration Rest client configuration for the GeocodeService client
+   * @param meterRegistry registry of the metrics, the Micrometer global registry is used if it is null
+   * @return a new instance of Geocode KV store
+   * @throws IOException if the Rest client can't be created
+   */
+  public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                            ClientConfiguration geocodeClientConfiguration,
+                                                                            MeterRegistry meterRegistry) throws IOException {
     GeocodeServiceSyncClient geocodeService =  new GeocodeServiceSyncClient(geocodeClientConfiguration);
     return simpleGeocodeKVStore(configuration, geocodeService, () -> {
         try {
@@ -117,7 +215,7 @@ public class GeocodeKVStoreFactory {
         } catch (IOException ex) {
           throw logAndThrow(ex, "Error closing client");
         }
-    });
+    }, meterRegistry);
 
   }
 
@@ -125,14 +223,20 @@ public class GeocodeKVStoreFactory {
   public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(CachedHBaseKVStoreConfiguration configuration,
                                                                             GeocodeService geocodeService,
                                                                             Command closeHandler) throws IOException {
-    KeyValueStore<LatLng, GeocodeResponse> keyValueStore = Objects.nonNull(configuration.getHBaseKVStoreConfiguration())?
-        hbaseKVStore(configuration, geocodeService, closeHandler) : restKVStore(geocodeService, closeHandler);
-
-    if (Objects.nonNull(configuration.getCacheCapacity())) {
-      return KeyValueCache.cache(keyValueStore, configuration.getCacheCapacity(), LatLng.class, GeocodeResponse.class);
-    }
-    return keyValueStore;
+    return simpleGeocodeKVStore(configuration, geocodeService, closeHandler, null);
+  }
 
+  public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                            GeocodeService geocodeService,
+                                                                            Command closeHandler,
+                                                                            MeterRegistry meterRegistry) throws IOException {
+    MeterRegistry registry = MeterRegistries.resolve(meterRegistry, null);
+    KeyValueStore<LatLng, GeocodeResponse> keyValueStore = Objects.nonNull(configuration.getHBaseKVStoreConfiguration())?
+        hbaseKVStore(configuration, geocodeService, closeHandler, registry) : restKVStore(geocodeService, closeHandler);
+    return rasterized(quantized(cached(keyValueStore, configuration, GeocodeResponse.class,
+                                       storeName(configuration, configuration.getValueColumnQualifier()), registry),
+                                configuration),
+                      configuration, registry);
   }
 
   public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(ClientConfiguration clientConfiguration) {
@@ -152,47 +256,261 @@ public class GeocodeKVStoreFactory {
   }
 
   public static KeyValueStore<LatLng, GeocodeResponse> simpleGeocodeKVStore(CachedHBaseKVStoreConfiguration configuration) throws IOException {
+    MeterRegistry registry = MeterRegistries.resolve(null, null);
     KeyValueStore<LatLng, GeocodeResponse> keyValueStore = HBaseStore.<LatLng, GeocodeResponse, GeocodeResponse>builder()
         .withHBaseStoreConfiguration(configuration.getHBaseKVStoreConfiguration())
+        .withMeterRegistry(registry)
+        .withProjectedQualifiers(configuration.getValueColumnQualifier())
+        .withStoreName(storeName(configuration, configuration.getValueColumnQualifier()))
       .withLoaderRetryConfiguration(configuration.getLoaderRetryConfig())
         .withResultMapper(
             resultMapper(
                 Bytes.toBytes(configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                Bytes.toBytes(configuration.getValueColumnQualifier())))
+                Bytes.toBytes(configuration.getValueColumnQualifier()),
+                configuration.valueCodec(GeocodeResponse.class)))
         .build();
-    if (Objects.nonNull(configuration.getCacheCapacity())) {
-      return KeyValueCache.cache(keyValueStore, configuration.getCacheCapacity(), LatLng.class, GeocodeResponse.class);
-    }
-    return keyValueStore;
+    return rasterized(quantized(cached(keyValueStore, configuration, GeocodeResponse.class,
+                                       storeName(configuration, configuration.getValueColumnQualifier()), registry),
+                                configuration),
+                      configuration, registry);
   }
 
   /**
    * Builds a KVStore backed by Hbase.
    */
   private static KeyValueStore<LatLng, GeocodeResponse> hbaseKVStore(CachedHBaseKVStoreConfiguration configuration, GeocodeService geocodeService,
-                                                                     Command closeHandler) throws IOException {
+                                                                     Command closeHandler, MeterRegistry registry)
+      throws IOException {
     return HBaseStore.<LatLng, GeocodeResponse, GeocodeResponse>builder()
         .withHBaseStoreConfiguration(configuration.getHBaseKVStoreConfiguration())
+        .withMeterRegistry(registry)
+        .withProjectedQualifiers(configuration.getValueColumnQualifier())
+        .withStoreName(storeName(configuration, configuration.getValueColumnQualifier()))
         .withLoaderRetryConfiguration(configuration.getLoaderRetryConfig())
+        .withWriteBehindConfig(configuration.getWriteBehindConfig())
+        .withNegativeCachingConfig(configuration.getNegativeCachingConfig())
         .withResultMapper(
             resultMapper(
                 Bytes.toBytes(configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                Bytes.toBytes(configuration.getValueColumnQualifier())))
+                Bytes.toBytes(configuration.getValueColumnQualifier()),
+                configuration.valueCodec(GeocodeResponse.class)))
         .withValueMapper(Function.identity())
-        .withValueMutator(
-            valueMutator(
+        .withValueMutator(valueMutator(configuration))
+        .withLoader(loader(geocodeService))
+        .withAsyncLoader(asyncLoader(geocodeService))
+        .withBulkLoader(bulkLoader(geocodeService))
+        .withBatchLoaderConfig(configuration.getBatchLoaderConfig())
+        .withCloseHandler(closeHandler)
+        .build();
+  }
+
+  /**
+   * Creates a new instance of a KV store/cache that only returns the preferred country code of the geocode lookup.
+   * Lookups only read the country code column, responses not found are loaded from the geocode service and
+   * stored entirely, rows stored without the country code column are refreshed the same way.
+   * If the configuration has cell settings, coordinates of cells learned to be inside a single country are answered
+   * by a {@link CountryCellCache}.
+   *
+   * @param configuration KV store configuration, the country code column qualifier is required
+   * @param geocodeClientConfiguration Rest client configuration for the GeocodeService client
+   * @return a new instance of a country code KV store
+   * @throws IOException if the HBase store can't be created
+   */
+  public static KeyValueStore<LatLng, String> countryCodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                 ClientConfiguration geocodeClientConfiguration) throws IOException {
+    return countryCodeKVStore(configuration, geocodeClientConfiguration, null);
+  }
+
+  /**
+   * Creates a new instance of a KV store/cache that only returns the preferred country code of the geocode lookup,
+   * the store, its cache and its cells publish their metrics to the same registry.
+   *
+   * @param configuration KV store configuration, the country code column qualifier is required
+   * @param geocodeClientConfiguration Rest client configuration for the GeocodeService client
+   * @param meterRegistry registry of the metrics, the Micrometer global registry is used if it is null
+   * @return a new instance of a country code KV store
+   * @throws IOException if the HBase store can't be created
+   */
+  public static KeyValueStore<LatLng, String> countryCodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                 ClientConfiguration geocodeClientConfiguration,
+                                                                 MeterRegistry meterRegistry) throws IOException {
+    GeocodeServiceSyncClient geocodeService =  new GeocodeServiceSyncClient(geocodeClientConfiguration);
+    return countryCodeKVStore(configuration, geocodeService, () -> {
+      try {
+        geocodeService.close();
+      } catch (IOException ex) {
+        throw logAndThrow(ex, "Error closing client");
+      }
+    }, meterRegistry);
+  }
+
+  /**
+   * Creates a new instance of a KV store/cache that only returns the preferred country code of the geocode lookup.
+   *
+   * @param configuration KV store configuration, the country code column qualifier is required
+   * @param geocodeService service used to load responses not found in the store
+   * @param closeHandler executed when the store is closed
+   * @return a new instance of a country code KV store
+   * @throws IOException if the HBase store can't be created
+   */
+  public static KeyValueStore<LatLng, String> countryCodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                 GeocodeService geocodeService,
+                                                                 Command closeHandler) throws IOException {
+    return countryCodeKVStore(configuration, geocodeService, closeHandler, null);
+  }
+
+  /**
+   * Creates a new instance of a KV store/cache that only returns the preferred country code of the geocode lookup.
+   *
+   * @param configuration KV store configuration, the country code column qualifier is required
+   * @param geocodeService service used to load responses not found in the store
+   * @param closeHandler executed when the store is closed
+   * @param meterRegistry registry of the metrics, the Micrometer global registry is used if it is null
+   * @return a new instance of a country code KV store
+   * @throws IOException if the HBase store can't be created
+   */
+  public static KeyValueStore<LatLng, String> countryCodeKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                 GeocodeService geocodeService,
+                                                                 Command closeHandler,
+                                                                 MeterRegistry meterRegistry) throws IOException {
+    Objects.requireNonNull(configuration.getCountryCodeColumnQualifier(), "Country code column qualifier is required");
+    MeterRegistry registry = MeterRegistries.resolve(meterRegistry, null);
+    String storeName = storeName(configuration, configuration.getCountryCodeColumnQualifier());
+    KeyValueStore<LatLng, String> keyValueStore = HBaseStore.<LatLng, String, GeocodeResponse>builder()
+        .withHBaseStoreConfiguration(configuration.getHBaseKVStoreConfiguration())
+        .withMeterRegistry(registry)
+        .withProjectedQualifiers(configuration.getCountryCodeColumnQualifier())
+        .withStoreName(storeName)
+        .withLoaderRetryConfiguration(configuration.getLoaderRetryConfig())
+        .withWriteBehindConfig(configuration.getWriteBehindConfig())
+        .withNegativeCachingConfig(configuration.getNegativeCachingConfig())
+        .withResultMapper(
+            countryCodeResultMapper(
                 Bytes.toBytes(configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                Bytes.toBytes(configuration.getValueColumnQualifier())))
-        .withLoader(
-            latLng -> {
-              try {
-                return new GeocodeResponse(geocodeService.reverse(latLng.getLatitude(), latLng.getLongitude()));
-              } catch (Exception ex) {
-                throw logAndThrow(ex, "Error contacting geocode service");
-              }
-            })
+                Bytes.toBytes(configuration.getCountryCodeColumnQualifier())))
+        .withValueMapper(GeocodeKVStoreFactory::countryCode)
+        .withValueMutator(valueMutator(configuration))
+        .withLoader(loader(geocodeService))
+        .withAsyncLoader(asyncLoader(geocodeService))
+        .withBulkLoader(bulkLoader(geocodeService))
+        .withBatchLoaderConfig(configuration.getBatchLoaderConfig())
         .withCloseHandler(closeHandler)
         .build();
+    KeyValueStore<LatLng, String> countryCodeStore = quantized(cached(keyValueStore, configuration, String.class,
+                                                                      storeName, registry),
+                                                               configuration);
+    if (Objects.nonNull(configuration.getCountryCellCacheConfig())) {
+      return new CountryCellCache(countryCodeStore, configuration.getCountryCellCacheConfig(), registry,
+                                  storeName);
+    }
+    return countryCodeStore;
+  }
+
+  /**
+   * Wraps a store into an in-memory cache if the configuration has a cache capacity.
+   */
+  private static <V> KeyValueStore<LatLng, V> cached(KeyValueStore<LatLng, V> keyValueStore,
+                                                     CachedHBaseKVStoreConfiguration configuration,
+                                                     Class<V> valueClass, String storeName,
+                                                     MeterRegistry registry) {
+    if (Objects.nonNull(configuration.getCacheCapacity())) {
+      return KeyValueCache.cache(keyValueStore, configuration.getCacheCapacity(), LatLng.class, valueClass,
+                                 registry, storeName);
+    }
+    return keyValueStore;
+  }
+
+  /**
+   * Answers lookups from the country raster if the configuration has one, only coordinates of ambiguous cells are
+   * looked up in the store.
+   */
+  private static KeyValueStore<LatLng, GeocodeResponse> rasterized(KeyValueStore<LatLng, GeocodeResponse> keyValueStore,
+                                                                   CachedHBaseKVStoreConfiguration configuration,
+                                                                   MeterRegistry registry)
+      throws IOException {
+    if (Objects.nonNull(configuration.getCountryRasterPath())) {
+      return new RasterGeocodeKVStore(CountryRaster.open(Paths.get(configuration.getCountryRasterPath())),
+                                      keyValueStore, registry,
+                                      storeName(configuration, configuration.getValueColumnQualifier()));
+    }
+    return keyValueStore;
+  }
+
+  /**
+   * Quantizes the keys of a store if the configuration has a coordinate quantization,
+   * the in-memory cache and the HBase table are keyed by the quantized coordinates.
+   */
+  private static <V> KeyValueStore<LatLng, V> quantized(KeyValueStore<LatLng, V> keyValueStore,
+                                                        CachedHBaseKVStoreConfiguration configuration) {
+    if (Objects.nonNull(configuration.getCoordinateQuantization())) {
+      return new QuantizedKeyValueStore<>(keyValueStore, configuration.getCoordinateQuantization());
+    }
+    return keyValueStore;
+  }
+
+  /**
+   * Value mutator of a store configuration, it stores the country code if the configuration has its column.
+   */
+  private static BiFunction<byte[], GeocodeResponse, Put> valueMutator(CachedHBaseKVStoreConfiguration configuration) {
+    return valueMutator(Bytes.toBytes(configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
+                        Bytes.toBytes(configuration.getValueColumnQualifier()),
+                        Objects.nonNull(configuration.getCountryCodeColumnQualifier()) ?
+                            Bytes.toBytes(configuration.getCountryCodeColumnQualifier()) : null,
+                        configuration.valueCodec(GeocodeResponse.class));
+  }
+
+  /**
+   * Loads geocode responses from the geocode service.
+   *
+   * @param geocodeService geocode service client
+   * @return a function from keys to their geocode responses
+   */
+  public static Function<LatLng, GeocodeResponse> loader(GeocodeService geocodeService) {
+    return key -> {
+      try {
+        LatLng latLng = QuantizedLatLng.queryCoordinate(key);
+        return new GeocodeResponse(geocodeService.reverse(latLng.getLatitude(), latLng.getLongitude()));
+      } catch (Exception ex) {
+        throw logAndThrow(ex, "Error contacting geocode service");
+      }
+    };
+  }
+
+  /**
+   * Asynchronously loads geocode responses from the geocode service.
+   */
+  private static Function<LatLng, CompletableFuture<GeocodeResponse>> asyncLoader(GeocodeService geocodeService) {
+    return key -> {
+      LatLng latLng = QuantizedLatLng.queryCoordinate(key);
+      return geocodeService.reverseAsync(latLng.getLatitude(), latLng.getLongitude()).thenApply(GeocodeResponse::new);
+    };
+  }
+
+  /**
+   * Loads the geocode responses of many keys from the geocode service in a single batch operation.
+   *
+   * @param geocodeService geocode service client
+   * @return a function from keys to their geocode responses
+   */
+  public static Function<Collection<LatLng>, Map<LatLng, GeocodeResponse>> bulkLoader(GeocodeService geocodeService) {
+    return keys -> {
+      List<LatLng> latLngs = new ArrayList<>(keys);
+      List<GeocodeQuery> queries = new ArrayList<>(latLngs.size());
+      latLngs.forEach(key -> {
+        LatLng latLng = QuantizedLatLng.queryCoordinate(key);
+        queries.add(new GeocodeQuery(latLng.getLatitude(), latLng.getLongitude()));
+      });
+      try {
+        List<Collection<Location>> locations = geocodeService.reverseAll(queries);
+        Map<LatLng, GeocodeResponse> responses = new HashMap<>();
+        for (int i = 0; i < latLngs.size(); i++) {
+          responses.put(latLngs.get(i), new GeocodeResponse(locations.get(i)));
+        }
+        return responses;
+      } catch (Exception ex) {
+        throw logAndThrow(ex, "Error contacting geocode service");
+      }
+    };
   }
 
   /**
@@ -204,7 +522,14 @@ public class GeocodeKVStoreFactory {
 
       @Override
       public GeocodeResponse get(LatLng key) {
-        return new GeocodeResponse(geocodeService.reverse(key.getLatitude(), key.getLongitude()));
+        LatLng latLng = QuantizedLatLng.queryCoordinate(key);
+        return new GeocodeResponse(geocodeService.reverse(latLng.getLatitude(), latLng.getLongitude()));
+      }
+
+      @Override
+      public CompletableFuture<GeocodeResponse> getAsync(LatLng key) {
+        LatLng latLng = QuantizedLatLng.queryCoordinate(key);
+        return geocodeService.reverseAsync(latLng.getLatitude(), latLng.getLongitude()).thenApply(GeocodeResponse::new);
       }
 
       @Override
@@ -213,4 +538,14 @@ public class GeocodeKVStoreFactory {
       }
     };
   }
+
+  /**
+   * Name used to tag the metrics of a store and its caches: the table name and the column read by the store, so the
+   * full and the country code stores of the same table are told apart.
+   */
+  private static String storeName(CachedHBaseKVStoreConfiguration configuration, String columnQualifier) {
+    return Objects.nonNull(configuration.getHBaseKVStoreConfiguration()) ?
+        configuration.getHBaseKVStoreConfiguration().getTableName() + ':' + columnQualifier :
+        GeocodeResponse.class.getSimpleName();
+  }
 }
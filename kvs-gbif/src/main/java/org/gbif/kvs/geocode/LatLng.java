@@ -1,13 +1,17 @@
 package org.gbif.kvs.geocode;
 
-import org.gbif.kvs.hbase.Indexable;
+import org.gbif.kvs.hbase.BinaryIndexable;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.StringJoiner;
 
 /** Geographic Coordinate: latitude and longitude. */
-public class LatLng implements Serializable, Indexable {
+public class LatLng implements Serializable, BinaryIndexable {
+
+  // Size of the binary key: two doubles
+  private static final int BINARY_KEY_LENGTH = 2 * Double.BYTES;
 
   private final Double latitude;
   private final Double longitude;
@@ -68,6 +72,26 @@ public class LatLng implements Serializable, Indexable {
     return latitude.toString() + '|' + longitude.toString();
   }
 
+  /**
+   * Fixed size of the binary key.
+   *
+   * @return 16 bytes
+   */
+  @Override
+  public int getLogicalKeyLength() {
+    return BINARY_KEY_LENGTH;
+  }
+
+  /**
+   * Writes the latitude and longitude as two doubles.
+   *
+   * @param buffer target buffer
+   */
+  @Override
+  public void writeLogicalKey(ByteBuffer buffer) {
+    buffer.putDouble(latitude).putDouble(longitude);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -0,0 +1,243 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.rest.client.geocode.GeocodeService;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process {@link GeocodeService} that answers reverse lookups from polygons loaded into memory.
+ *
+ * Polygons are read from GeoJSON FeatureCollection files, one per {@link PolygonLayer}, and indexed in an STR-tree.
+ * A lookup returns the locations of all the polygons that cover the coordinate, in the order of their layers.
+ * Polygon and MultiPolygon geometries are supported, other geometries are skipped.
+ * Instances are thread-safe once created.
+ */
+public class PolygonGeocodeService implements GeocodeService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PolygonGeocodeService.class);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  // Spatial index of the polygons
+  private final STRtree index = new STRtree();
+
+  // Number of indexed polygons
+  private final int size;
+
+  /**
+   * Indexed polygon with the fields of the location it represents, locations are mutable so a new one is created
+   * per lookup.
+   */
+  private static class LocatedPolygon {
+
+    private final PreparedGeometry geometry;
+
+    private final String type;
+
+    private final String source;
+
+    private final String id;
+
+    private final String countryName;
+
+    private final String isoCountryCode2Digit;
+
+    // Position of the polygon layer
+    private final int layer;
+
+    /**
+     * Maps the properties of a feature into the fields of its location.
+     */
+    private LocatedPolygon(Geometry geometry, JsonNode properties, PolygonLayer layer, int layerPosition) {
+      this.geometry = PreparedGeometryFactory.prepare(geometry);
+      type = layer.getType();
+      source = layer.getSource();
+      id = text(properties, layer.getIdProperty());
+      countryName = text(properties, layer.getTitleProperty());
+      isoCountryCode2Digit = text(properties, layer.getIsoCountryCodeProperty());
+      this.layer = layerPosition;
+    }
+
+    /**
+     * @return a new location of the polygon
+     */
+    private Location toLocation() {
+      Location location = new Location();
+      location.setType(type);
+      location.setSource(source);
+      location.setId(id);
+      location.setCountryName(countryName);
+      location.setIsoCountryCode2Digit(isoCountryCode2Digit);
+      return location;
+    }
+  }
+
+  /**
+   * Loads the polygons of the layers and builds the spatial index.
+   *
+   * @param layers polygon layers, locations of the first layers are returned first
+   * @throws IOException if a GeoJSON file can't be read
+   */
+  public PolygonGeocodeService(List<PolygonLayer> layers) throws IOException {
+    int polygons = 0;
+    for (int i = 0; i < layers.size(); i++) {
+      PolygonLayer layer = layers.get(i);
+      try (InputStream in = Files.newInputStream(Paths.get(layer.getPath()))) {
+        polygons += load(MAPPER.readTree(in), layer, i);
+      }
+    }
+    index.build();
+    size = polygons;
+    LOG.info("Loaded {} polygons of {} layers", size, layers.size());
+  }
+
+  /**
+   * Factory method.
+   *
+   * @param layers polygon layers
+   * @return a new instance of PolygonGeocodeService
+   * @throws IOException if a GeoJSON file can't be read
+   */
+  public static PolygonGeocodeService create(PolygonLayer... layers) throws IOException {
+    return new PolygonGeocodeService(Arrays.asList(layers));
+  }
+
+  /**
+   * Indexes the features of a GeoJSON FeatureCollection.
+   *
+   * @return the number of indexed polygons
+   */
+  private int load(JsonNode featureCollection, PolygonLayer layer, int layerPosition) {
+    int polygons = 0;
+    for (JsonNode feature : featureCollection.path("features")) {
+      Geometry geometry = toGeometry(feature.path("geometry"));
+      if (Objects.isNull(geometry)) {
+        LOG.warn("Skipping feature without polygons of layer {}", layer.getPath());
+        continue;
+      }
+      LocatedPolygon polygon = new LocatedPolygon(geometry, feature.path("properties"), layer, layerPosition);
+      index.insert(geometry.getEnvelopeInternal(), polygon);
+      polygons++;
+    }
+    return polygons;
+  }
+
+  /**
+   * Text value of a property, null if it is not present.
+   */
+  private static String text(JsonNode properties, String property) {
+    if (Objects.isNull(property)) {
+      return null;
+    }
+    JsonNode value = properties.get(property);
+    return Objects.isNull(value) || value.isNull() ? null : value.asText();
+  }
+
+  /**
+   * Converts a GeoJSON Polygon or MultiPolygon into a geometry.
+   *
+   * @return the geometry, null if it is not a polygon
+   */
+  private static Geometry toGeometry(JsonNode geometry) {
+    String type = geometry.path("type").asText();
+    JsonNode coordinates = geometry.path("coordinates");
+    if ("Polygon".equals(type)) {
+      return toPolygon(coordinates);
+    }
+    if ("MultiPolygon".equals(type)) {
+      Polygon[] polygons = new Polygon[coordinates.size()];
+      for (int i = 0; i < polygons.length; i++) {
+        polygons[i] = toPolygon(coordinates.get(i));
+      }
+      return GEOMETRY_FACTORY.createMultiPolygon(polygons);
+    }
+    return null;
+  }
+
+  /**
+   * Converts the rings of a GeoJSON polygon, the first ring is the shell and the rest are holes.
+   */
+  private static Polygon toPolygon(JsonNode rings) {
+    LinearRing shell = toRing(rings.get(0));
+    LinearRing[] holes = new LinearRing[rings.size() - 1];
+    for (int i = 1; i < rings.size(); i++) {
+      holes[i - 1] = toRing(rings.get(i));
+    }
+    return GEOMETRY_FACTORY.createPolygon(shell, holes);
+  }
+
+  /**
+   * Converts a GeoJSON ring of [longitude, latitude] positions.
+   */
+  private static LinearRing toRing(JsonNode positions) {
+    Coordinate[] coordinates = new Coordinate[positions.size()];
+    for (int i = 0; i < coordinates.length; i++) {
+      JsonNode position = positions.get(i);
+      coordinates[i] = new Coordinate(position.get(0).asDouble(), position.get(1).asDouble());
+    }
+    return GEOMETRY_FACTORY.createLinearRing(coordinates);
+  }
+
+  /**
+   * Locations of the polygons that cover a coordinate.
+   *
+   * @param latitude decimal latitude
+   * @param longitude decimal longitude
+   * @return new locations in the order of their layers, an empty collection if no polygon covers the coordinate
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Collection<Location> reverse(Double latitude, Double longitude) {
+    if (Objects.isNull(latitude) || Objects.isNull(longitude)) {
+      return Collections.emptyList();
+    }
+    Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+    List<LocatedPolygon> candidates = index.query(point.getEnvelopeInternal());
+    return candidates.stream()
+        .filter(polygon -> polygon.geometry.covers(point))
+        .sorted(Comparator.comparingInt(polygon -> polygon.layer))
+        .map(LocatedPolygon::toLocation)
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  /** @return number of indexed polygons */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Nothing to release, polygons are held in memory.
+   */
+  @Override
+  public void close() {
+    //DO NOTHING
+  }
+}
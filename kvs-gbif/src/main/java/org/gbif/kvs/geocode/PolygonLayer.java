@@ -0,0 +1,144 @@
+package org.gbif.kvs.geocode;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * GeoJSON file of polygons of the same type, e.g. countries or exclusive economic zones, loaded by the
+ * {@link PolygonGeocodeService}. The properties of each feature are mapped into the fields of the locations.
+ */
+public class PolygonLayer implements Serializable {
+
+  // Location type of the polygons, e.g. Political or EEZ
+  private final String type;
+
+  // Location source of the polygons
+  private final String source;
+
+  // Path to the GeoJSON FeatureCollection file
+  private final String path;
+
+  // Feature property that holds the location id
+  private final String idProperty;
+
+  // Feature property that holds the location title
+  private final String titleProperty;
+
+  // Feature property that holds the 2-digit ISO country code
+  private final String isoCountryCodeProperty;
+
+  /**
+   * Full constructor.
+   *
+   * @param type location type of the polygons
+   * @param source location source of the polygons
+   * @param path path to the GeoJSON FeatureCollection file
+   * @param idProperty feature property that holds the location id
+   * @param titleProperty feature property that holds the location title
+   * @param isoCountryCodeProperty feature property that holds the 2-digit ISO country code
+   */
+  public PolygonLayer(String type, String source, String path, String idProperty, String titleProperty,
+                      String isoCountryCodeProperty) {
+    this.type = type;
+    this.source = source;
+    this.path = Objects.requireNonNull(path, "Path of the GeoJSON file is required");
+    this.idProperty = idProperty;
+    this.titleProperty = titleProperty;
+    this.isoCountryCodeProperty = isoCountryCodeProperty;
+  }
+
+  /** @return location type of the polygons */
+  public String getType() {
+    return type;
+  }
+
+  /** @return location source of the polygons */
+  public String getSource() {
+    return source;
+  }
+
+  /** @return path to the GeoJSON FeatureCollection file */
+  public String getPath() {
+    return path;
+  }
+
+  /** @return feature property that holds the location id */
+  public String getIdProperty() {
+    return idProperty;
+  }
+
+  /** @return feature property that holds the location title */
+  public String getTitleProperty() {
+    return titleProperty;
+  }
+
+  /** @return feature property that holds the 2-digit ISO country code */
+  public String getIsoCountryCodeProperty() {
+    return isoCountryCodeProperty;
+  }
+
+  /**
+   * Creates a new {@link Builder} instance.
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** Builder of {@link PolygonLayer} instances, properties default to id, title and isoCountryCode2Digit. */
+  public static class Builder {
+
+    private String type;
+
+    private String source;
+
+    private String path;
+
+    private String idProperty = "id";
+
+    private String titleProperty = "title";
+
+    private String isoCountryCodeProperty = "isoCountryCode2Digit";
+
+    /**
+     * Hidden constructor to force use the containing class builder() method.
+     */
+    private Builder() {
+      //DO NOTHING
+    }
+
+    public Builder withType(String type) {
+      this.type = type;
+      return this;
+    }
+
+    public Builder withSource(String source) {
+      this.source = source;
+      return this;
+    }
+
+    public Builder withPath(String path) {
+      this.path = path;
+      return this;
+    }
+
+    public Builder withIdProperty(String idProperty) {
+      this.idProperty = idProperty;
+      return this;
+    }
+
+    public Builder withTitleProperty(String titleProperty) {
+      this.titleProperty = titleProperty;
+      return this;
+    }
+
+    public Builder withIsoCountryCodeProperty(String isoCountryCodeProperty) {
+      this.isoCountryCodeProperty = isoCountryCodeProperty;
+      return this;
+    }
+
+    public PolygonLayer build() {
+      return new PolygonLayer(type, source, path, idProperty, titleProperty, isoCountryCodeProperty);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.KeyValueStore;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Store that quantizes the coordinates before they are looked up in the underlying store, keys of the same cell share
+ * their values.
+ *
+ * @param <V> type of values
+ */
+class QuantizedKeyValueStore<V> implements KeyValueStore<LatLng, V> {
+
+  private final KeyValueStore<LatLng, V> keyValueStore;
+
+  private final CoordinateQuantization quantization;
+
+  /**
+   * Creates a store that looks up quantized coordinates.
+   *
+   * @param keyValueStore underlying store
+   * @param quantization quantization of coordinates
+   */
+  QuantizedKeyValueStore(KeyValueStore<LatLng, V> keyValueStore, CoordinateQuantization quantization) {
+    this.keyValueStore = keyValueStore;
+    this.quantization = quantization;
+  }
+
+  @Override
+  public V get(LatLng key) {
+    return keyValueStore.get(quantization.quantize(key));
+  }
+
+  @Override
+  public CompletableFuture<V> getAsync(LatLng key) {
+    return keyValueStore.getAsync(quantization.quantize(key));
+  }
+
+  /**
+   * Looks up each cell once, keys of the same cell are mapped to the same value.
+   * Keys whose cell failed to be retrieved are not included in the response.
+   *
+   * @param keys coordinates to look up
+   * @return the values found, keys without values are mapped to null
+   */
+  @Override
+  public Map<LatLng, V> getAll(Collection<LatLng> keys) {
+    Map<LatLng, LatLng> cells = new HashMap<>();
+    Set<LatLng> distinctCells = new LinkedHashSet<>();
+    keys.forEach(key -> {
+      LatLng cell = quantization.quantize(key);
+      cells.put(key, cell);
+      distinctCells.add(cell);
+    });
+    Map<LatLng, V> cellValues = keyValueStore.getAll(distinctCells);
+    Map<LatLng, V> values = new HashMap<>();
+    cells.forEach((key, cell) -> {
+      if (cellValues.containsKey(cell)) {
+        values.put(key, cellValues.get(cell));
+      }
+    });
+    return values;
+  }
+
+  @Override
+  public void close() throws IOException {
+    keyValueStore.close();
+  }
+}
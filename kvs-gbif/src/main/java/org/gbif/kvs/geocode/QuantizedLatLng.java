@@ -0,0 +1,50 @@
+package org.gbif.kvs.geocode;
+
+/**
+ * Coordinate of a quantized cell, see {@link CoordinateQuantization}.
+ * Keys, equality and hash code are computed from the cell coordinate, it also holds the coordinate sent to the geocode
+ * service if the cell is not found.
+ */
+public class QuantizedLatLng extends LatLng {
+
+  private final Double queryLatitude;
+  private final Double queryLongitude;
+
+  /**
+   * Full constructor.
+   *
+   * @param latitude cell latitude
+   * @param longitude cell longitude
+   * @param queryLatitude latitude sent to the geocode service
+   * @param queryLongitude longitude sent to the geocode service
+   */
+  public QuantizedLatLng(Double latitude, Double longitude, Double queryLatitude, Double queryLongitude) {
+    super(latitude, longitude);
+    this.queryLatitude = queryLatitude;
+    this.queryLongitude = queryLongitude;
+  }
+
+  /** @return latitude sent to the geocode service */
+  public Double getQueryLatitude() {
+    return queryLatitude;
+  }
+
+  /** @return longitude sent to the geocode service */
+  public Double getQueryLongitude() {
+    return queryLongitude;
+  }
+
+  /**
+   * Coordinate to send to the geocode service to resolve a key.
+   *
+   * @param latLng quantized or plain coordinate
+   * @return the query coordinate of quantized coordinates, the coordinate itself otherwise
+   */
+  public static LatLng queryCoordinate(LatLng latLng) {
+    if (latLng instanceof QuantizedLatLng) {
+      QuantizedLatLng quantized = (QuantizedLatLng) latLng;
+      return LatLng.create(quantized.queryLatitude, quantized.queryLongitude);
+    }
+    return latLng;
+  }
+}
@@ -0,0 +1,151 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.metrics.CacheMetrics;
+import org.gbif.kvs.metrics.LocalCounter;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+
+/**
+ * Store that answers geocode lookups from a {@link CountryRaster}, only coordinates of ambiguous cells are looked up
+ * in the underlying store.
+ * Responses of the raster hold a single Political location with the country code of the cell, other locations such as
+ * EEZs are only returned by the underlying store.
+ */
+public class RasterGeocodeKVStore implements KeyValueStore<LatLng, GeocodeResponse> {
+
+  // Tier of the raster metrics
+  public static final String RASTER_TIER = "raster";
+
+  // Type of the locations of raster responses
+  public static final String POLITICAL_TYPE = "Political";
+
+  // Source of the locations of raster responses
+  public static final String RASTER_SOURCE = "raster";
+
+  private final CountryRaster raster;
+
+  private final KeyValueStore<LatLng, GeocodeResponse> keyValueStore;
+
+  //Counter of lookups answered by the raster
+  private final LocalCounter rasterLookups;
+
+  //Counter of lookups of ambiguous cells answered by the underlying store
+  private final LocalCounter fallThroughLookups;
+
+  /**
+   * Creates a store that uses a raster in front of another store.
+   *
+   * @param raster country raster
+   * @param keyValueStore store used by the coordinates of ambiguous cells
+   * @param registry registry of the raster metrics
+   * @param storeName name used to tag the metrics
+   */
+  public RasterGeocodeKVStore(CountryRaster raster, KeyValueStore<LatLng, GeocodeResponse> keyValueStore,
+                              MeterRegistry registry, String storeName) {
+    this.raster = raster;
+    this.keyValueStore = keyValueStore;
+    List<Tag> tags = CacheMetrics.tags(storeName, RASTER_TIER);
+    rasterLookups = LocalCounter.register(registry, "rasterLookups", CacheMetrics.resultTags(tags, "raster"));
+    fallThroughLookups =
+        LocalCounter.register(registry, "rasterLookups", CacheMetrics.resultTags(tags, "fallThrough"));
+  }
+
+  /**
+   * Response of the raster cell of a coordinate.
+   *
+   * @return the response, null if the cell is ambiguous or the coordinate is not valid
+   */
+  private GeocodeResponse rasterResponse(LatLng key) {
+    if (!key.isValid()) {
+      return null;
+    }
+    String countryCode = raster.countryCode(key.getLatitude(), key.getLongitude());
+    if (Objects.isNull(countryCode)) {
+      return null;
+    }
+    rasterLookups.increment();
+    Location location = new Location();
+    location.setId(countryCode);
+    location.setType(POLITICAL_TYPE);
+    location.setSource(RASTER_SOURCE);
+    location.setIsoCountryCode2Digit(countryCode);
+    return new GeocodeResponse(Collections.singletonList(location));
+  }
+
+  @Override
+  public GeocodeResponse get(LatLng key) {
+    GeocodeResponse response = rasterResponse(key);
+    if (Objects.nonNull(response)) {
+      return response;
+    }
+    fallThroughLookups.increment();
+    return keyValueStore.get(key);
+  }
+
+  @Override
+  public CompletableFuture<GeocodeResponse> getAsync(LatLng key) {
+    GeocodeResponse response = rasterResponse(key);
+    if (Objects.nonNull(response)) {
+      return CompletableFuture.completedFuture(response);
+    }
+    fallThroughLookups.increment();
+    return keyValueStore.getAsync(key);
+  }
+
+  /**
+   * Answers the keys of unambiguous cells from the raster and looks up the rest in the underlying store.
+   *
+   * @param keys coordinates
+   * @return the responses found
+   */
+  @Override
+  public Map<LatLng, GeocodeResponse> getAll(Collection<LatLng> keys) {
+    Map<LatLng, GeocodeResponse> values = new HashMap<>();
+    List<LatLng> ambiguousKeys = new ArrayList<>();
+    for (LatLng key : keys) {
+      GeocodeResponse response = rasterResponse(key);
+      if (Objects.nonNull(response)) {
+        values.put(key, response);
+      } else {
+        ambiguousKeys.add(key);
+      }
+    }
+    if (!ambiguousKeys.isEmpty()) {
+      fallThroughLookups.increment(ambiguousKeys.size());
+      values.putAll(keyValueStore.getAll(ambiguousKeys));
+    }
+    return values;
+  }
+
+  /**
+   * Share of the lookups answered by the raster.
+   *
+   * @return a value between 0 and 1, 0 if there were no lookups
+   */
+  public double rasterShare() {
+    return LocalCounter.share(rasterLookups, fallThroughLookups);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      keyValueStore.close();
+    } finally {
+      raster.close();
+    }
+  }
+}
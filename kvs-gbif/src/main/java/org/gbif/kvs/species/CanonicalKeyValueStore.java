@@ -0,0 +1,72 @@
+package org.gbif.kvs.species;
+
+import org.gbif.kvs.KeyValueStore;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Store that looks up the canonical request of each request in the underlying store, requests that produce the same
+ * name match call share their values.
+ *
+ * @param <V> type of values
+ */
+class CanonicalKeyValueStore<V> implements KeyValueStore<SpeciesMatchRequest, V> {
+
+  private final KeyValueStore<SpeciesMatchRequest, V> keyValueStore;
+
+  /**
+   * Creates a store that looks up canonical requests.
+   *
+   * @param keyValueStore underlying store
+   */
+  CanonicalKeyValueStore(KeyValueStore<SpeciesMatchRequest, V> keyValueStore) {
+    this.keyValueStore = keyValueStore;
+  }
+
+  @Override
+  public V get(SpeciesMatchRequest key) {
+    return keyValueStore.get(key.canonical());
+  }
+
+  @Override
+  public CompletableFuture<V> getAsync(SpeciesMatchRequest key) {
+    return keyValueStore.getAsync(key.canonical());
+  }
+
+  /**
+   * Looks up each canonical request once, requests with the same canonical request are mapped to the same value.
+   * Requests whose canonical request failed to be retrieved are not included in the response.
+   *
+   * @param keys requests to look up
+   * @return the values found, keys without values are mapped to null
+   */
+  @Override
+  public Map<SpeciesMatchRequest, V> getAll(Collection<SpeciesMatchRequest> keys) {
+    Map<SpeciesMatchRequest, SpeciesMatchRequest> canonicalKeys = new HashMap<>();
+    Set<SpeciesMatchRequest> distinctKeys = new LinkedHashSet<>();
+    keys.forEach(key -> {
+      SpeciesMatchRequest canonicalKey = key.canonical();
+      canonicalKeys.put(key, canonicalKey);
+      distinctKeys.add(canonicalKey);
+    });
+    Map<SpeciesMatchRequest, V> canonicalValues = keyValueStore.getAll(distinctKeys);
+    Map<SpeciesMatchRequest, V> values = new HashMap<>();
+    canonicalKeys.forEach((key, canonicalKey) -> {
+      if (canonicalValues.containsKey(canonicalKey)) {
+        values.put(key, canonicalValues.get(canonicalKey));
+      }
+    });
+    return values;
+  }
+
+  @Override
+  public void close() throws IOException {
+    keyValueStore.close();
+  }
+}
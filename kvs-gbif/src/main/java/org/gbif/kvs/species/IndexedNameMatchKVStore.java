@@ -0,0 +1,137 @@
+package org.gbif.kvs.species;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.metrics.CacheMetrics;
+import org.gbif.kvs.metrics.LocalCounter;
+import org.gbif.rest.client.species.NameUsageMatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Store that answers exact name matches from a {@link NameMatchIndex}, only requests not in the index, i.e. fuzzy,
+ * ambiguous or unseen names, are looked up in the underlying store.
+ */
+public class IndexedNameMatchKVStore implements KeyValueStore<SpeciesMatchRequest, NameUsageMatch> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexedNameMatchKVStore.class);
+
+  // Tier of the index metrics
+  public static final String INDEX_TIER = "index";
+
+  private final NameMatchIndex index;
+
+  private final KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyValueStore;
+
+  //Counter of lookups answered by the index
+  private final LocalCounter indexLookups;
+
+  //Counter of lookups answered by the underlying store
+  private final LocalCounter fallThroughLookups;
+
+  /**
+   * Creates a store that uses an index in front of another store.
+   *
+   * @param index exact name match index
+   * @param keyValueStore store used by the requests not in the index
+   * @param registry registry of the index metrics
+   * @param storeName name used to tag the metrics
+   */
+  public IndexedNameMatchKVStore(NameMatchIndex index, KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyValueStore,
+                                 MeterRegistry registry, String storeName) {
+    this.index = index;
+    this.keyValueStore = keyValueStore;
+    List<Tag> tags = CacheMetrics.tags(storeName, INDEX_TIER);
+    indexLookups = LocalCounter.register(registry, "indexLookups", CacheMetrics.resultTags(tags, "index"));
+    fallThroughLookups =
+        LocalCounter.register(registry, "indexLookups", CacheMetrics.resultTags(tags, "fallThrough"));
+  }
+
+  /**
+   * Match of the index for a request, values that can't be decoded fall through to the underlying store.
+   *
+   * @return the match, null if the request is not in the index
+   */
+  private NameUsageMatch indexMatch(SpeciesMatchRequest key) {
+    try {
+      NameUsageMatch match = index.get(key);
+      if (Objects.nonNull(match)) {
+        indexLookups.increment();
+      }
+      return match;
+    } catch (IOException ex) {
+      LOG.warn("Error decoding indexed match of {}", key, ex);
+      return null;
+    }
+  }
+
+  @Override
+  public NameUsageMatch get(SpeciesMatchRequest key) {
+    NameUsageMatch match = indexMatch(key);
+    if (Objects.nonNull(match)) {
+      return match;
+    }
+    fallThroughLookups.increment();
+    return keyValueStore.get(key);
+  }
+
+  @Override
+  public CompletableFuture<NameUsageMatch> getAsync(SpeciesMatchRequest key) {
+    NameUsageMatch match = indexMatch(key);
+    if (Objects.nonNull(match)) {
+      return CompletableFuture.completedFuture(match);
+    }
+    fallThroughLookups.increment();
+    return keyValueStore.getAsync(key);
+  }
+
+  /**
+   * Answers the requests in the index and looks up the rest in the underlying store.
+   *
+   * @param keys name match requests
+   * @return the matches found
+   */
+  @Override
+  public Map<SpeciesMatchRequest, NameUsageMatch> getAll(Collection<SpeciesMatchRequest> keys) {
+    Map<SpeciesMatchRequest, NameUsageMatch> values = new HashMap<>();
+    List<SpeciesMatchRequest> missingKeys = new ArrayList<>();
+    for (SpeciesMatchRequest key : keys) {
+      NameUsageMatch match = indexMatch(key);
+      if (Objects.nonNull(match)) {
+        values.put(key, match);
+      } else {
+        missingKeys.add(key);
+      }
+    }
+    if (!missingKeys.isEmpty()) {
+      fallThroughLookups.increment(missingKeys.size());
+      values.putAll(keyValueStore.getAll(missingKeys));
+    }
+    return values;
+  }
+
+  /**
+   * Share of the lookups answered by the index.
+   *
+   * @return a value between 0 and 1, 0 if there were no lookups
+   */
+  public double indexShare() {
+    return LocalCounter.share(indexLookups, fallThroughLookups);
+  }
+
+  @Override
+  public void close() throws IOException {
+    keyValueStore.close();
+  }
+}
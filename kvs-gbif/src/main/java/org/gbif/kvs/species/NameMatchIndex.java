@@ -0,0 +1,243 @@
+package org.gbif.kvs.species;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch.MatchType;
+import org.gbif.kvs.codec.ValueCodec;
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.rest.client.species.NameUsageMatch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-process dictionary of exact name matches: a sorted array of normalized (kingdom, rank, scientific name) keys and
+ * their encoded {@link NameUsageMatch}es, looked up by binary search.
+ *
+ * Only requests with a kingdom, a rank and a scientific name are answered, the rest must be sent to the name match
+ * service. Indexes are built with a {@link Writer} from matches already resolved by the service, e.g. an export of the
+ * name usage KV table. The file has a header followed by the entries in key order:
+ * <pre>
+ *   magic (4 bytes) | version (1 byte) | number of entries (int)
+ *   | key length (int) | key in UTF-8 | value length (int) | value in Smile
+ * </pre>
+ * Instances are immutable and thread-safe.
+ */
+public class NameMatchIndex {
+
+  // Identifies the file format
+  private static final byte[] MAGIC = "KVSN".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte VERSION = 1;
+
+  // Separator of the parts of the keys
+  private static final char SEPARATOR = '|';
+
+  // Codec of the values, reads JSON and Smile values
+  private static final ValueCodec<NameUsageMatch> CODEC = ValueFormat.SMILE.codec(NameUsageMatch.class);
+
+  // Sorted keys
+  private final String[] keys;
+
+  // Encoded values, in the order of their keys
+  private final byte[][] values;
+
+  private NameMatchIndex(String[] keys, byte[][] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Key of a request in the index.
+   *
+   * @param request name match request
+   * @return the normalized kingdom, rank and scientific name of the canonical request, null if any of them is missing
+   */
+  public static String key(SpeciesMatchRequest request) {
+    SpeciesMatchRequest canonical = request.canonical();
+    if (Objects.isNull(canonical.getKingdom()) || Objects.isNull(canonical.getRank())
+        || Objects.isNull(canonical.getScientificName())) {
+      return null;
+    }
+    return (canonical.getKingdom() + SEPARATOR + canonical.getRank() + SEPARATOR + canonical.getScientificName())
+        .toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Reads an index file into memory.
+   *
+   * @param path index file
+   * @return a new instance of NameMatchIndex
+   * @throws IOException if the file can't be read or it is not an index
+   */
+  public static NameMatchIndex read(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path);
+         DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+      byte[] magic = new byte[MAGIC.length];
+      data.readFully(magic);
+      if (!Arrays.equals(MAGIC, magic) || data.readByte() != VERSION) {
+        throw new IOException("Not a name match index file: " + path);
+      }
+      int size = data.readInt();
+      String[] keys = new String[size];
+      byte[][] values = new byte[size][];
+      for (int i = 0; i < size; i++) {
+        keys[i] = new String(readBytes(data), StandardCharsets.UTF_8);
+        values[i] = readBytes(data);
+        if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+          throw new IOException("Keys are not sorted in name match index file: " + path);
+        }
+      }
+      return new NameMatchIndex(keys, values);
+    } catch (EOFException ex) {
+      throw new IOException("Truncated name match index file: " + path, ex);
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream data) throws IOException {
+    int length = data.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid length in name match index file");
+    }
+    byte[] bytes = new byte[length];
+    data.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Exact match of a request.
+   *
+   * @param request name match request
+   * @return the indexed match, null if the request is not in the index
+   * @throws IOException if the indexed value can't be decoded
+   */
+  public NameUsageMatch get(SpeciesMatchRequest request) throws IOException {
+    String key = key(request);
+    if (Objects.isNull(key)) {
+      return null;
+    }
+    int index = Arrays.binarySearch(keys, key);
+    return index < 0 ? null : CODEC.decode(values[index]);
+  }
+
+  /** @return number of indexed matches */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Creates a new {@link Writer} instance.
+   * @return a new writer
+   */
+  public static Writer writer() {
+    return new Writer();
+  }
+
+  /**
+   * Collects exact matches and writes them into an index file.
+   * Matches are kept encoded until they are written, so the writer holds a few compact bytes per key.
+   * Keys matched to different usages are ambiguous and are not written, their requests are sent to the service.
+   */
+  public static class Writer {
+
+    // Encoded exact matches by key
+    private final Map<String, IndexedMatch> matches = new TreeMap<>();
+
+    // Keys matched to different usages
+    private final Set<String> ambiguousKeys = new HashSet<>();
+
+    /**
+     * Hidden constructor to force use the containing class writer() method.
+     */
+    private Writer() {
+      //DO NOTHING
+    }
+
+    /**
+     * Adds the match of a request, only exact matches of requests with a key are added.
+     *
+     * @param request name match request
+     * @param match response of the name match service
+     * @return this writer
+     * @throws IOException if the match can't be encoded
+     */
+    public Writer add(SpeciesMatchRequest request, NameUsageMatch match) throws IOException {
+      if (Objects.isNull(match) || Objects.isNull(match.getUsage()) || Objects.isNull(match.getDiagnostics())
+          || MatchType.EXACT != match.getDiagnostics().getMatchType()) {
+        return this;
+      }
+      String key = key(request);
+      if (Objects.isNull(key) || ambiguousKeys.contains(key)) {
+        return this;
+      }
+      IndexedMatch previous = matches.get(key);
+      if (Objects.isNull(previous)) {
+        matches.put(key, new IndexedMatch(match.getUsage().getKey(), CODEC.encode(match)));
+      } else if (!Objects.equals(previous.usageKey, match.getUsage().getKey())) {
+        matches.remove(key);
+        ambiguousKeys.add(key);
+      }
+      return this;
+    }
+
+    /** @return number of keys matched to different usages */
+    public int ambiguousKeys() {
+      return ambiguousKeys.size();
+    }
+
+    /**
+     * Writes the index file.
+     *
+     * @param path target file
+     * @return number of written matches
+     * @throws IOException if the file can't be written
+     */
+    public int write(Path path) throws IOException {
+      try (OutputStream out = Files.newOutputStream(path);
+           DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(matches.size());
+        for (Map.Entry<String, IndexedMatch> entry : matches.entrySet()) {
+          writeBytes(data, entry.getKey().getBytes(StandardCharsets.UTF_8));
+          writeBytes(data, entry.getValue().value);
+        }
+      }
+      return matches.size();
+    }
+
+    private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+
+    /**
+     * Usage key of a match, to detect ambiguous keys, and the match encoded in Smile.
+     */
+    private static class IndexedMatch {
+
+      private final Integer usageKey;
+
+      private final byte[] value;
+
+      private IndexedMatch(Integer usageKey, byte[] value) {
+        this.usageKey = usageKey;
+        this.value = value;
+      }
+    }
+  }
+}
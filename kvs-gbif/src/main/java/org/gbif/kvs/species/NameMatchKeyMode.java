@@ -0,0 +1,23 @@
+package org.gbif.kvs.species;
+
+/**
+ * Keys used to store and cache name usage matches.
+ */
+public enum NameMatchKeyMode {
+
+  /** All the fields of the requests, key of the rows stored by previous versions. */
+  RAW,
+
+  /** Only the normalized parameters sent to the name match service, see {@link SpeciesMatchRequest#canonical()}. */
+  CANONICAL;
+
+  /**
+   * Key of a request in this mode.
+   *
+   * @param request name match request
+   * @return the request to use as key
+   */
+  public SpeciesMatchRequest key(SpeciesMatchRequest request) {
+    return this == CANONICAL ? request.canonical() : request;
+  }
+}
@@ -3,23 +3,33 @@ package org.gbif.kvs.species;
 import org.gbif.api.vocabulary.Rank;
 import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.cache.KeyValueCache;
+import org.gbif.kvs.codec.ValueCodec;
+import org.gbif.kvs.codec.ValueFormat;
 import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
 import org.gbif.kvs.hbase.Command;
 import org.gbif.kvs.hbase.HBaseStore;
+import org.gbif.kvs.metrics.MeterRegistries;
 import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.species.NameMatchQuery;
 import org.gbif.rest.client.species.NameMatchService;
 import org.gbif.rest.client.species.NameUsageMatch;
 import org.gbif.rest.client.species.retrofit.NameMatchServiceSyncClient;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -31,13 +41,6 @@ public class NameUsageMatchKVStoreFactory {
 
   private static final Logger LOG = LoggerFactory.getLogger(NameUsageMatchKVStoreFactory.class);
 
-  // Used to store and retrieve JSON values stored in HBase
-  private static final ObjectMapper MAPPER = new ObjectMapper();
-
-  static {
-    MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-  }
-
   /** Hidden constructor. */
   private NameUsageMatchKVStoreFactory() {
     // DO NOTHING
@@ -62,11 +65,24 @@ public class NameUsageMatchKVStoreFactory {
    * @return a Result to NameUsageMatch mapping function
    */
   public static Function<Result, NameUsageMatch> resultMapper(byte[] columnFamily, byte[] columnQualifier) {
+    return resultMapper(columnFamily, columnQualifier, ValueFormat.JSON.codec(NameUsageMatch.class));
+  }
+
+  /**
+   * Returns a function that maps HBase results into NameUsageMatch values using a codec.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param columnQualifier HBase column qualifier in which values are stored
+   * @param valueCodec codec of the stored values
+   * @return a Result to NameUsageMatch mapping function
+   */
+  public static Function<Result, NameUsageMatch> resultMapper(byte[] columnFamily, byte[] columnQualifier,
+                                                              ValueCodec<NameUsageMatch> valueCodec) {
     return result ->  {
         try {
            byte[] value = result.getValue(columnFamily, columnQualifier);
            if(Objects.nonNull(value)) {
-            return MAPPER.readValue(value, NameUsageMatch.class);
+            return valueCodec.decode(value);
            }
            return null;
         } catch (Exception ex) {
@@ -84,11 +100,24 @@ public class NameUsageMatchKVStoreFactory {
    * @return a mapper from a key NameUsageMatch responses into HBase Puts
    */
   public static BiFunction<byte[], NameUsageMatch, Put> valueMutator(byte[] columnFamily, byte[] jsonColumnQualifier) {
+    return valueMutator(columnFamily, jsonColumnQualifier, ValueFormat.JSON.codec(NameUsageMatch.class));
+  }
+
+  /**
+   * Creates a mutator function that encodes values using a codec.
+   *
+   * @param columnFamily HBase column in which values are stored
+   * @param valueColumnQualifier HBase column qualifier in which values are stored
+   * @param valueCodec codec of the stored values
+   * @return a mapper from a key and NameUsageMatch into HBase Puts
+   */
+  public static BiFunction<byte[], NameUsageMatch, Put> valueMutator(byte[] columnFamily, byte[] valueColumnQualifier,
+                                                                     ValueCodec<NameUsageMatch> valueCodec) {
     return (key, nameUsageMatch) -> {
       try {
         if (Objects.nonNull(nameUsageMatch) ) {
           Put put = new Put(key);
-          put.addColumn(columnFamily, jsonColumnQualifier, MAPPER.writeValueAsBytes(nameUsageMatch));
+          put.addColumn(columnFamily, valueColumnQualifier, valueCodec.encode(nameUsageMatch));
           return put;
         }
         return null;
@@ -98,8 +127,134 @@ public class NameUsageMatchKVStoreFactory {
     };
   }
 
+  /**
+   * Performs a name match of a request.
+   * @param nameMatchService name match service client
+   * @param request name match request
+   * @return the name match response
+   */
+  private static NameUsageMatch match(NameMatchService nameMatchService, SpeciesMatchRequest request) {
+    try {
+      return nameMatchService.match(
+          request.getKingdom(),
+          request.getPhylum(),
+          request.getClazz(),
+          request.getOrder(),
+          request.getFamily(),
+          request.getGenus(),
+          Optional.ofNullable(TaxonParsers.interpretRank(request)).map(Rank::name).orElse(null),
+          TaxonParsers.interpretScientificName(request),
+          false,
+          false);
+    } catch (Exception ex) {
+      throw logAndThrow(ex, "Error contacting the species math service");
+    }
+  }
+
+  /**
+   * Performs an asynchronous name match of a request.
+   * @param nameMatchService name match service client
+   * @param request name match request
+   * @return a future of the name match response
+   */
+  private static CompletableFuture<NameUsageMatch> matchAsync(NameMatchService nameMatchService,
+                                                              SpeciesMatchRequest request) {
+    return nameMatchService.matchAsync(
+        request.getKingdom(),
+        request.getPhylum(),
+        request.getClazz(),
+        request.getOrder(),
+        request.getFamily(),
+        request.getGenus(),
+        Optional.ofNullable(TaxonParsers.interpretRank(request)).map(Rank::name).orElse(null),
+        TaxonParsers.interpretScientificName(request),
+        false,
+        false);
+  }
+
+  /**
+   * Parameters of the name match of a request, the same used by single matches.
+   * @param request name match request
+   * @return the query of the batch name match
+   */
+  private static NameMatchQuery query(SpeciesMatchRequest request) {
+    return new NameMatchQuery(request.getKingdom(),
+                              request.getPhylum(),
+                              request.getClazz(),
+                              request.getOrder(),
+                              request.getFamily(),
+                              request.getGenus(),
+                              Optional.ofNullable(TaxonParsers.interpretRank(request)).map(Rank::name).orElse(null),
+                              TaxonParsers.interpretScientificName(request),
+                              false,
+                              false);
+  }
+
+  /**
+   * Performs the name matches of many requests in a single batch call.
+   * @param nameMatchService name match service client
+   * @param requests name match requests
+   * @return the name match responses by request
+   */
+  private static Map<SpeciesMatchRequest, NameUsageMatch> matchAll(NameMatchService nameMatchService,
+                                                                   Collection<SpeciesMatchRequest> requests) {
+    List<SpeciesMatchRequest> keys = new ArrayList<>(requests);
+    List<NameMatchQuery> queries = new ArrayList<>(keys.size());
+    keys.forEach(request -> queries.add(query(request)));
+    try {
+      List<NameUsageMatch> matches = nameMatchService.matchAll(queries);
+      Map<SpeciesMatchRequest, NameUsageMatch> responses = new HashMap<>();
+      for (int i = 0; i < keys.size(); i++) {
+        responses.put(keys.get(i), matches.get(i));
+      }
+      return responses;
+    } catch (Exception ex) {
+      throw logAndThrow(ex, "Error contacting the species math service");
+    }
+  }
+
+  /**
+   * Loads the name matches of requests from the name match service.
+   *
+   * @param nameMatchService name match service client
+   * @return a function from requests to their name matches
+   */
+  public static Function<SpeciesMatchRequest, NameUsageMatch> loader(NameMatchService nameMatchService) {
+    return request -> match(nameMatchService, request);
+  }
+
+  /**
+   * Loads the name matches of many requests from the name match service in a single batch operation.
+   *
+   * @param nameMatchService name match service client
+   * @return a function from requests to their name matches
+   */
+  public static Function<Collection<SpeciesMatchRequest>, Map<SpeciesMatchRequest, NameUsageMatch>> bulkLoader(NameMatchService nameMatchService) {
+    return requests -> matchAll(nameMatchService, requests);
+  }
+
   public static KeyValueStore<SpeciesMatchRequest, NameUsageMatch> nameUsageMatchKVStore(CachedHBaseKVStoreConfiguration configuration,
                                                                                          ClientConfiguration clientConfiguration) throws IOException {
+    return nameUsageMatchKVStore(configuration, clientConfiguration, null);
+  }
+
+  /**
+   * Creates a new instance of a NameUsageMatch KV store/cache, the store and all its caches publish their metrics to
+   * the same registry.
+   *
+   * @param configuration KV store configuration
+   * @param clientConfiguration Rest client configuration for the NameMatchService client
+   * @param meterRegistry registry of the metrics, the Micrometer global registry is used if it is null
+   * @return a new instance of a NameUsageMatch KV store
+   * @throws IOException if the HBase store or the name match index can't be created
+   */
+  public static KeyValueStore<SpeciesMatchRequest, NameUsageMatch> nameUsageMatchKVStore(CachedHBaseKVStoreConfiguration configuration,
+                                                                                         ClientConfiguration clientConfiguration,
+                                                                                         MeterRegistry meterRegistry) throws IOException {
+    MeterRegistry registry = MeterRegistries.resolve(meterRegistry, null);
+    if (Objects.nonNull(meterRegistry)) {
+      TaxonParsers.bindTo(registry);
+    }
     NameMatchServiceSyncClient nameMatchServiceSyncClient = new NameMatchServiceSyncClient(clientConfiguration);
     Command closeHandler = () -> {
       try {
@@ -109,9 +264,37 @@ public class NameUsageMatchKVStoreFactory {
       }
     };
     KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyValueStore = Objects.nonNull(configuration.getHBaseKVStoreConfiguration())?
-                                                                        hbaseKVStore(configuration, nameMatchServiceSyncClient, closeHandler) : restKVStore(nameMatchServiceSyncClient, closeHandler);
+                                                                        hbaseKVStore(configuration, nameMatchServiceSyncClient, closeHandler, registry) : restKVStore(nameMatchServiceSyncClient, closeHandler);
     if (Objects.nonNull(configuration.getCacheCapacity())) {
-      return KeyValueCache.cache(keyValueStore, configuration.getCacheCapacity(), SpeciesMatchRequest.class, NameUsageMatch.class);
+      keyValueStore = KeyValueCache.cache(keyValueStore, configuration.getCacheCapacity(), SpeciesMatchRequest.class,
+                                          NameUsageMatch.class, registry, storeName(configuration));
+    }
+    return indexed(keyed(keyValueStore, configuration), configuration, registry);
+  }
+
+  /**
+   * Answers exact matches from the name match index if the configuration has one, only the requests not in the index
+   * are looked up in the store.
+   */
+  private static KeyValueStore<SpeciesMatchRequest, NameUsageMatch> indexed(KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyValueStore,
+                                                                            CachedHBaseKVStoreConfiguration configuration,
+                                                                            MeterRegistry registry)
+      throws IOException {
+    if (Objects.nonNull(configuration.getNameMatchIndexPath())) {
+      return new IndexedNameMatchKVStore(NameMatchIndex.read(Paths.get(configuration.getNameMatchIndexPath())),
+                                         keyValueStore, registry, storeName(configuration));
+    }
+    return keyValueStore;
+  }
+
+  /**
+   * Looks up the canonical requests if the configuration uses canonical keys,
+   * the in-memory cache and the HBase table are keyed by the canonical requests.
+   */
+  private static KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyed(KeyValueStore<SpeciesMatchRequest, NameUsageMatch> keyValueStore,
+                                                                          CachedHBaseKVStoreConfiguration configuration) {
+    if (NameMatchKeyMode.CANONICAL == configuration.getNameMatchKeyMode()) {
+      return new CanonicalKeyValueStore<>(keyValueStore);
     }
     return keyValueStore;
   }
@@ -128,39 +311,32 @@ public class NameUsageMatchKVStoreFactory {
 
   private static KeyValueStore<SpeciesMatchRequest, NameUsageMatch> hbaseKVStore(CachedHBaseKVStoreConfiguration configuration,
                                                                                  NameMatchService nameMatchService,
-                                                                                 Command closeHandler) throws IOException {
+                                                                                 Command closeHandler,
+                                                                                 MeterRegistry registry) throws IOException {
     return HBaseStore.<SpeciesMatchRequest, NameUsageMatch, NameUsageMatch>builder()
         .withHBaseStoreConfiguration(configuration.getHBaseKVStoreConfiguration())
+        .withMeterRegistry(registry)
+        .withProjectedQualifiers(configuration.getValueColumnQualifier())
+        .withStoreName(storeName(configuration))
         .withLoaderRetryConfiguration(configuration.getLoaderRetryConfig())
+        .withWriteBehindConfig(configuration.getWriteBehindConfig())
+        .withNegativeCachingConfig(configuration.getNegativeCachingConfig())
         .withResultMapper(
             resultMapper(
                 Bytes.toBytes(
                     configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                Bytes.toBytes(configuration.getValueColumnQualifier())))
+                Bytes.toBytes(configuration.getValueColumnQualifier()),
+                configuration.valueCodec(NameUsageMatch.class)))
         .withValueMapper(Function.identity())
         .withValueMutator(
             valueMutator(
                 Bytes.toBytes(configuration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                Bytes.toBytes(configuration.getValueColumnQualifier())
-            ))
-        .withLoader(
-            request -> {
-              try {
-                return nameMatchService.match(
-                    request.getKingdom(),
-                    request.getPhylum(),
-                    request.getClazz(),
-                    request.getOrder(),
-                    request.getFamily(),
-                    request.getGenus(),
-                    Optional.ofNullable(TaxonParsers.interpretRank(request)).map(Rank::name).orElse(null),
-                    TaxonParsers.interpretScientificName(request),
-                    false,
-                    false);
-              } catch (Exception ex) {
-                throw logAndThrow(ex, "Error contacting the species math service");
-              }
-            })
+                Bytes.toBytes(configuration.getValueColumnQualifier()),
+                configuration.valueCodec(NameUsageMatch.class)))
+        .withLoader(loader(nameMatchService))
+        .withAsyncLoader(request -> matchAsync(nameMatchService, request))
+        .withBulkLoader(bulkLoader(nameMatchService))
+        .withBatchLoaderConfig(configuration.getBatchLoaderConfig())
          .withCloseHandler(closeHandler)
         .build();
   }
@@ -184,21 +360,12 @@ public class NameUsageMatchKVStoreFactory {
 
       @Override
       public NameUsageMatch get(SpeciesMatchRequest key) {
-        try {
-          return nameMatchService.match(
-              key.getKingdom(),
-              key.getPhylum(),
-              key.getClazz(),
-              key.getOrder(),
-              key.getFamily(),
-              key.getGenus(),
-              Optional.ofNullable(TaxonParsers.interpretRank(key)).map(Rank::name).orElse(null),
-              TaxonParsers.interpretScientificName(key),
-              false,
-              false);
-        } catch (Exception ex) {
-          throw logAndThrow(ex, "Error contacting the species math service");
-        }
+        return match(nameMatchService, key);
+      }
+
+      @Override
+      public CompletableFuture<NameUsageMatch> getAsync(SpeciesMatchRequest key) {
+        return matchAsync(nameMatchService, key);
       }
 
       @Override
@@ -207,4 +374,13 @@ public class NameUsageMatchKVStoreFactory {
       }
     };
   }
+
+  /**
+   * Name used to tag the metrics of the store and its caches: the table name and the value column.
+   */
+  private static String storeName(CachedHBaseKVStoreConfiguration configuration) {
+    return Objects.nonNull(configuration.getHBaseKVStoreConfiguration()) ?
+        configuration.getHBaseKVStoreConfiguration().getTableName() + ':' + configuration.getValueColumnQualifier() :
+        NameUsageMatch.class.getSimpleName();
+  }
 }
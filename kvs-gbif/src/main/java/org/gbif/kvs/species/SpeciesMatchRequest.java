@@ -1,23 +1,44 @@
 package org.gbif.kvs.species;
 
+import org.gbif.api.vocabulary.Rank;
 import org.gbif.common.parsers.utils.ClassificationUtils;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.GbifTerm;
-import org.gbif.kvs.hbase.Indexable;
+import org.gbif.kvs.hbase.BinaryIndexable;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableMap;
 
 /**
  * Represents a request to the species name match service.
  * This class is used mostly to efficiently store it as a lookup mechanism for caching.
+ *
+ * A {@link #canonical()} request holds only the parameters sent to the name match service: whitespace normalized
+ * classification, interpreted rank and interpreted scientific name. Its keys and equality ignore case, so requests
+ * that produce the same name match call share their key.
  */
-public class SpeciesMatchRequest implements Serializable, Indexable {
+public class SpeciesMatchRequest implements Serializable, BinaryIndexable {
+
+  private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+  // Number of fields of the binary keys of requests and canonical requests
+  private static final int FIELDS = 13;
+
+  private static final int CANONICAL_FIELDS = 8;
 
   private final String kingdom;
   private final String phylum;
@@ -33,12 +54,19 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
   private final String genericName;
   private final String scientificNameAuthorship;
 
+  // Holds only the parameters sent to the name match service
+  private final boolean canonical;
+
+  // Lazily computed binary key
+  private transient byte[] binaryKey;
+
   /**
    * Full constructor.
    */
   private SpeciesMatchRequest(String kingdom, String phylum, String clazz, String order, String family, String genus,
                               String specificEpithet, String infraspecificEpithet, String rank, String verbatimTaxonRank,
-                              String scientificName, String genericName, String scientificNameAuthorship) {
+                              String scientificName, String genericName, String scientificNameAuthorship,
+                              boolean canonical) {
     this.kingdom = kingdom;
     this.phylum = phylum;
     this.clazz = clazz;
@@ -52,6 +80,45 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
     this.scientificName = scientificName;
     this.genericName = genericName;
     this.scientificNameAuthorship = scientificNameAuthorship;
+    this.canonical = canonical;
+  }
+
+  /**
+   * Creates the canonical request of this request. The rank and scientific name are interpreted with
+   * {@link TaxonParsers}, the other fields not sent to the name match service are dropped.
+   *
+   * @return a canonical request, this instance if it is already canonical
+   */
+  public SpeciesMatchRequest canonical() {
+    if (canonical) {
+      return this;
+    }
+    return new SpeciesMatchRequest(normalize(kingdom), normalize(phylum), normalize(clazz), normalize(order),
+                                   normalize(family), normalize(genus), null, null,
+                                   Optional.ofNullable(TaxonParsers.interpretRank(this)).map(Rank::name).orElse(null),
+                                   null, normalize(TaxonParsers.interpretScientificName(this)), null, null, true);
+  }
+
+  /**
+   * Trims and collapses the whitespaces of a value.
+   *
+   * @return the normalized value, null if it is empty
+   */
+  private static String normalize(String value) {
+    if (Objects.isNull(value)) {
+      return null;
+    }
+    String normalized = WHITESPACES.matcher(value.trim()).replaceAll(" ");
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  /**
+   * Lower case values of the parameters of a canonical request, these define its keys and equality.
+   */
+  private String[] canonicalValues() {
+    return Arrays.stream(new String[]{kingdom, phylum, clazz, order, family, genus, rank, scientificName})
+        .map(value -> Objects.isNull(value) ? null : value.toLowerCase(Locale.ROOT))
+        .toArray(String[]::new);
   }
 
   public String getKingdom() {
@@ -106,13 +173,114 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
     return scientificNameAuthorship;
   }
 
+  public boolean isCanonical() {
+    return canonical;
+  }
+
+  /**
+   * Fields of canonical requests are separated, fields of other requests are concatenated.
+   */
   @Override
   public String getLogicalKey() {
+    if (canonical) {
+      return Arrays.stream(canonicalValues()).map(value -> Objects.isNull(value) ? "" : value)
+          .collect(Collectors.joining("|"));
+    }
     return appendIgnoreNulls(kingdom, phylum, clazz, order, family, genus, specificEpithet,
                             infraspecificEpithet, rank, verbatimTaxonRank, scientificName, genericName,
                             scientificNameAuthorship);
   }
 
+  /**
+   * Size of the binary key.
+   *
+   * @return number of bytes of the binary key
+   */
+  @Override
+  public int getLogicalKeyLength() {
+    return binaryKey().length;
+  }
+
+  /**
+   * Writes the binary key: each field is written as its length, as an unsigned varint, followed by its trimmed value
+   * encoded in UTF-8. Null fields are written as empty values.
+   * Canonical requests write only their 8 parameters in lower case, so their keys never collide with the 13 fields
+   * keys of other requests.
+   *
+   * @param buffer target buffer
+   */
+  @Override
+  public void writeLogicalKey(ByteBuffer buffer) {
+    buffer.put(binaryKey());
+  }
+
+  /**
+   * Computes the binary key once, instances are immutable.
+   */
+  private byte[] binaryKey() {
+    if (Objects.isNull(binaryKey)) {
+      binaryKey = canonical ? lengthPrefixed(canonicalValues()) : lengthPrefixed(kingdom, phylum, clazz, order, family, genus, specificEpithet, infraspecificEpithet,
+                                 rank, verbatimTaxonRank, scientificName, genericName, scientificNameAuthorship);
+    }
+    return binaryKey;
+  }
+
+  private static byte[] lengthPrefixed(String... values) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (String value : values) {
+      byte[] bytes = Objects.isNull(value) ? new byte[0] : value.trim().getBytes(StandardCharsets.UTF_8);
+      int length = bytes.length;
+      while ((length & ~0x7F) != 0) {
+        output.write((length & 0x7F) | 0x80);
+        length >>>= 7;
+      }
+      output.write(length);
+      output.write(bytes, 0, bytes.length);
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Decodes a binary key written by {@link #writeLogicalKey(ByteBuffer)}.
+   *
+   * @param key bytes of the key
+   * @param offset position of the first byte of the binary key, e.g. the length of the salt of a row key
+   * @return the request of the key, canonical if the key is canonical; canonical values are in lower case
+   * @throws IllegalArgumentException if the bytes are not a binary key
+   */
+  public static SpeciesMatchRequest fromLogicalKey(byte[] key, int offset) {
+    List<String> values = new ArrayList<>();
+    int position = offset;
+    while (position < key.length) {
+      int length = 0;
+      int shift = 0;
+      byte next;
+      do {
+        if (position >= key.length || shift > 28) {
+          throw new IllegalArgumentException("Invalid binary key");
+        }
+        next = key[position++];
+        length |= (next & 0x7F) << shift;
+        shift += 7;
+      } while ((next & 0x80) != 0);
+      if (length < 0 || position + length > key.length) {
+        throw new IllegalArgumentException("Invalid binary key");
+      }
+      values.add(length == 0 ? null : new String(key, position, length, StandardCharsets.UTF_8));
+      position += length;
+    }
+    if (values.size() == CANONICAL_FIELDS) {
+      return new SpeciesMatchRequest(values.get(0), values.get(1), values.get(2), values.get(3), values.get(4),
+                                     values.get(5), null, null, values.get(6), null, values.get(7), null, null, true);
+    }
+    if (values.size() == FIELDS) {
+      return new SpeciesMatchRequest(values.get(0), values.get(1), values.get(2), values.get(3), values.get(4),
+                                     values.get(5), values.get(6), values.get(7), values.get(8), values.get(9),
+                                     values.get(10), values.get(11), values.get(12), false);
+    }
+    throw new IllegalArgumentException("Invalid number of fields in binary key: " + values.size());
+  }
+
   private String appendIgnoreNulls(String... values) {
     StringBuilder stringBuilder = new StringBuilder();
     for(String value : values) {
@@ -153,6 +321,9 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     SpeciesMatchRequest that = (SpeciesMatchRequest) o;
+    if (canonical || that.canonical) {
+      return canonical == that.canonical && Arrays.equals(canonicalValues(), that.canonicalValues());
+    }
     return Objects.equals(kingdom, that.kingdom) &&
         Objects.equals(phylum, that.phylum) &&
         Objects.equals(clazz, that.clazz) &&
@@ -170,6 +341,9 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
 
   @Override
   public int hashCode() {
+    if (canonical) {
+      return Arrays.hashCode(canonicalValues());
+    }
     return Objects.hash(kingdom, phylum, clazz, order, family, genus, specificEpithet, infraspecificEpithet,
                         rank, verbatimTaxonRank, scientificName, genericName, scientificNameAuthorship);
   }
@@ -190,6 +364,7 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
         .add("scientificName='" + scientificName + "'")
         .add("genericName='" + genericName + "'")
         .add("scientificNameAuthorship='" + scientificNameAuthorship + "'")
+        .add("canonical=" + canonical)
         .toString();
   }
 
@@ -283,7 +458,7 @@ public class SpeciesMatchRequest implements Serializable, Indexable {
     public SpeciesMatchRequest build() {
       return new SpeciesMatchRequest(kingdom, phylum, clazz, order, family, genus, specificEpithet,
                                      infraspecificEpithet, rank, verbatimRank, scientificName, genericName,
-                                     scientificNameAuthorship);
+                                     scientificNameAuthorship, false);
     }
   }
 }
@@ -4,25 +4,91 @@ import com.google.common.base.Strings;
 import org.gbif.api.model.checklistbank.ParsedName;
 import org.gbif.api.vocabulary.Rank;
 import org.gbif.common.parsers.RankParser;
+import org.gbif.kvs.cache.MemoizedFunction;
 
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 
-/** Converter to create queries for the name match service. */
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Converter to create queries for the name match service.
+ * Parsed ranks and interpreted names are memoized in bounded in-memory caches, their hits are published with the
+ * store tags 'taxonRank' and 'scientificName' to the registries passed to {@link #bindTo(MeterRegistry)}.
+ */
 public class TaxonParsers {
 
   private static final RankParser RANK_PARSER = RankParser.getInstance();
 
+  // Maximum number of memoized rank values, there are a few hundred distinct values in practice
+  private static final long RANK_CACHE_CAPACITY = 10_000L;
+
+  // Maximum number of memoized scientific names
+  private static final long NAME_CACHE_CAPACITY = 100_000L;
+
+  private static final MemoizedFunction<String, Rank> RANKS =
+      new MemoizedFunction<>(rank -> RANK_PARSER.parse(rank).getPayload(), RANK_CACHE_CAPACITY, String.class,
+                             Rank.class, "taxonRank");
+
+  private static final MemoizedFunction<NameParts, String> NAMES =
+      new MemoizedFunction<>(TaxonParsers::assembleScientificName, NAME_CACHE_CAPACITY, NameParts.class,
+                             String.class, "scientificName");
+
+  /**
+   * Fields used to interpret a scientific name, the atomized fields are not used if there is a scientific name.
+   */
+  private static final class NameParts {
+
+    private final String scientificName;
+    private final String authorship;
+    private final String genusOrAbove;
+    private final String specificEpithet;
+    private final String infraspecificEpithet;
+
+    private NameParts(SpeciesMatchRequest request) {
+      scientificName = request.getScientificName();
+      authorship = request.getScientificNameAuthorship();
+      if (Objects.isNull(scientificName)) {
+        genusOrAbove = Strings.isNullOrEmpty(request.getGenericName()) ? request.getGenus() : request.getGenericName();
+        specificEpithet = request.getSpecificEpithet();
+        infraspecificEpithet = request.getInfraspecificEpithet();
+      } else {
+        genusOrAbove = null;
+        specificEpithet = null;
+        infraspecificEpithet = null;
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      NameParts that = (NameParts) o;
+      return Objects.equals(scientificName, that.scientificName) &&
+          Objects.equals(authorship, that.authorship) &&
+          Objects.equals(genusOrAbove, that.genusOrAbove) &&
+          Objects.equals(specificEpithet, that.specificEpithet) &&
+          Objects.equals(infraspecificEpithet, that.infraspecificEpithet);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(scientificName, authorship, genusOrAbove, specificEpithet, infraspecificEpithet);
+    }
+  }
+
   private TaxonParsers() {}
 
   /** @return a type status parser. */
   private static Optional<Rank> parserRank(SpeciesMatchRequest request) {
     Rank rank = null;
     if (!Strings.isNullOrEmpty(request.getRank())) {
-       rank = RANK_PARSER.parse(request.getRank()).getPayload();
+       rank = RANKS.apply(request.getRank());
     }
 
     if (rank == null && !Strings.isNullOrEmpty(request.getVerbatimTaxonRank())) {
-      rank = RANK_PARSER.parse(request.getVerbatimTaxonRank()).getPayload();
+      rank = RANKS.apply(request.getVerbatimTaxonRank());
     }
 
     return Optional.ofNullable(rank);
@@ -51,32 +117,72 @@ public class TaxonParsers {
    * Handle case when the scientific name is null and only given as atomized fields: genus &
    * speciesEpitheton
    */
-  private static String fromGenericName(SpeciesMatchRequest speciesMatchRequest, String authorship) {
+  private static String fromGenericName(NameParts nameParts) {
     ParsedName pn = new ParsedName();
-    pn.setGenusOrAbove(Strings.isNullOrEmpty(speciesMatchRequest.getGenericName()) ? speciesMatchRequest.getGenus() : speciesMatchRequest.getGenericName());
-    pn.setSpecificEpithet(speciesMatchRequest.getSpecificEpithet());
-    pn.setInfraSpecificEpithet(speciesMatchRequest.getInfraspecificEpithet());
-    pn.setAuthorship(authorship);
+    pn.setGenusOrAbove(nameParts.genusOrAbove);
+    pn.setSpecificEpithet(nameParts.specificEpithet);
+    pn.setInfraSpecificEpithet(nameParts.infraspecificEpithet);
+    pn.setAuthorship(nameParts.authorship);
     return pn.canonicalNameComplete();
   }
 
-
+  /**
+   * Interprets the rank of a request, the rank of a canonical request is already interpreted, in lower case if the
+   * request was decoded from its key.
+   */
   public static Rank interpretRank(SpeciesMatchRequest speciesMatchRequest) {
+    if (speciesMatchRequest.isCanonical()) {
+      return Optional.ofNullable(speciesMatchRequest.getRank())
+          .map(rank -> Rank.valueOf(rank.toUpperCase(Locale.ROOT)))
+          .orElse(null);
+    }
     return parserRank(speciesMatchRequest)
             .orElseGet(() -> fromFields(speciesMatchRequest));
   }
 
 
-  /** Assembles the most complete scientific name based on full and individual name parts. */
+  /**
+   * Assembles the most complete scientific name based on full and individual name parts, the name of a canonical
+   * request is already assembled.
+   */
   public static String interpretScientificName(SpeciesMatchRequest speciesMatchRequest) {
+    if (speciesMatchRequest.isCanonical()) {
+      return speciesMatchRequest.getScientificName();
+    }
+    return NAMES.apply(new NameParts(speciesMatchRequest));
+  }
+
+  private static String assembleScientificName(NameParts nameParts) {
+    return Optional.ofNullable(nameParts.scientificName)
+        .map(scientificName -> fromScientificName(scientificName, nameParts.authorship))
+        .orElseGet(() -> fromGenericName(nameParts));
+  }
 
-    String authorship =
-        Optional.ofNullable(speciesMatchRequest.getScientificNameAuthorship())
-            .orElse(null);
+  /**
+   * Publishes the metrics of the memoized ranks and scientific names to a registry, they are not published by default.
+   *
+   * @param registry registry of the store that uses the parsers
+   */
+  public static void bindTo(MeterRegistry registry) {
+    RANKS.bindTo(registry);
+    NAMES.bindTo(registry);
+  }
 
-    return Optional.ofNullable(speciesMatchRequest.getScientificName())
-        .map(scientificName -> fromScientificName(scientificName, authorship))
-        .orElseGet(() -> fromGenericName(speciesMatchRequest, authorship));
+  /**
+   * Share of the rank interpretations answered from memory.
+   *
+   * @return a value between 0 and 1, 0 if there were no lookups
+   */
+  public static double rankHitRate() {
+    return RANKS.hitRate();
   }
 
-}
\ No newline at end of file
+  /**
+   * Share of the scientific name interpretations answered from memory.
+   *
+   * @return a value between 0 and 1, 0 if there were no lookups
+   */
+  public static double nameHitRate() {
+    return NAMES.hitRate();
+  }
+}
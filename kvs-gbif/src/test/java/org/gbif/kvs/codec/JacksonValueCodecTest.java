@@ -0,0 +1,51 @@
+package org.gbif.kvs.codec;
+
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for class {@link JacksonValueCodec}.
+ */
+public class JacksonValueCodecTest {
+
+  private static GeocodeResponse testResponse() {
+    Location location = new Location();
+    location.setId("NLD");
+    location.setType("Political");
+    location.setCountryName("Netherlands");
+    location.setIsoCountryCode2Digit("NL");
+    return new GeocodeResponse(Collections.singletonList(location));
+  }
+
+  /**
+   * Values written in each format are read back.
+   */
+  @Test
+  public void roundTripTest() throws IOException {
+    GeocodeResponse response = testResponse();
+    for (ValueFormat valueFormat : ValueFormat.values()) {
+      ValueCodec<GeocodeResponse> codec = valueFormat.codec(GeocodeResponse.class);
+      Assert.assertEquals(response, codec.decode(codec.encode(response)));
+    }
+  }
+
+  /**
+   * Smile values start with the version byte and are smaller than JSON values, JSON values are still read.
+   */
+  @Test
+  public void legacyJsonTest() throws IOException {
+    GeocodeResponse response = testResponse();
+    byte[] json = ValueFormat.JSON.codec(GeocodeResponse.class).encode(response);
+    ValueCodec<GeocodeResponse> smileCodec = ValueFormat.SMILE.codec(GeocodeResponse.class);
+    byte[] smile = smileCodec.encode(response);
+    Assert.assertEquals(JacksonValueCodec.SMILE_V1, smile[0]);
+    Assert.assertTrue(smile.length < json.length);
+    Assert.assertEquals(response, smileCodec.decode(json));
+  }
+}
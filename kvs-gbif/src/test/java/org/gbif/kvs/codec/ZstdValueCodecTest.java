@@ -0,0 +1,96 @@
+package org.gbif.kvs.codec;
+
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for class {@link ZstdValueCodec}.
+ */
+public class ZstdValueCodecTest {
+
+  private static GeocodeResponse testResponse(int locations) {
+    return new GeocodeResponse(IntStream.range(0, locations).mapToObj(i -> {
+      Location location = new Location();
+      location.setId("NLD" + i);
+      location.setType("Political");
+      location.setSource("http://www.naturalearthdata.com");
+      location.setCountryName("Netherlands");
+      location.setIsoCountryCode2Digit("NL");
+      return location;
+    }).collect(Collectors.toList()));
+  }
+
+  /**
+   * Large values are compressed and read back.
+   */
+  @Test
+  public void compressionTest() throws IOException {
+    GeocodeResponse response = testResponse(20);
+    ValueCodec<GeocodeResponse> jsonCodec = ValueFormat.JSON.codec(GeocodeResponse.class);
+    ValueCodec<GeocodeResponse> codec = new ZstdValueCodec<>(jsonCodec, CompressionConfig.DEFAULT);
+    byte[] compressed = codec.encode(response);
+    Assert.assertEquals(ZstdValueCodec.ZSTD, compressed[0]);
+    Assert.assertTrue(compressed.length < jsonCodec.encode(response).length);
+    Assert.assertEquals(response, codec.decode(compressed));
+  }
+
+  /**
+   * Small values are not compressed and uncompressed values are still read.
+   */
+  @Test
+  public void uncompressedTest() throws IOException {
+    GeocodeResponse smallResponse = testResponse(1);
+    GeocodeResponse largeResponse = testResponse(20);
+    ValueCodec<GeocodeResponse> jsonCodec = ValueFormat.JSON.codec(GeocodeResponse.class);
+    ValueCodec<GeocodeResponse> codec = new ZstdValueCodec<>(jsonCodec, CompressionConfig.DEFAULT);
+    Assert.assertArrayEquals(jsonCodec.encode(smallResponse), codec.encode(smallResponse));
+    Assert.assertEquals(largeResponse, codec.decode(jsonCodec.encode(largeResponse)));
+  }
+
+  /**
+   * Compressed values with a corrupted uncompressed size are rejected before allocating it.
+   */
+  @Test(expected = IOException.class)
+  public void corruptedLengthTest() throws IOException {
+    ValueCodec<GeocodeResponse> codec = new ZstdValueCodec<>(ValueFormat.JSON.codec(GeocodeResponse.class),
+                                                             CompressionConfig.DEFAULT);
+    byte[] compressed = codec.encode(testResponse(20));
+    ByteBuffer.wrap(compressed, 1, Integer.BYTES).putInt(ZstdValueCodec.MAX_UNCOMPRESSED_LENGTH + 1);
+    codec.decode(compressed);
+  }
+
+  /**
+   * Deserialized codecs digest their dictionary again.
+   */
+  @Test
+  public void dictionarySerializationTest() throws Exception {
+    GeocodeResponse response = testResponse(20);
+    ValueCodec<GeocodeResponse> jsonCodec = ValueFormat.JSON.codec(GeocodeResponse.class);
+    // a sample value is used as raw content dictionary
+    byte[] dictionary = jsonCodec.encode(testResponse(5));
+    ValueCodec<GeocodeResponse> codec = new ZstdValueCodec<>(jsonCodec, new CompressionConfig(3, 0, dictionary));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+      objectOut.writeObject(codec);
+    }
+    try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      @SuppressWarnings("unchecked")
+      ValueCodec<GeocodeResponse> deserialized = (ValueCodec<GeocodeResponse>) objectIn.readObject();
+      byte[] compressed = deserialized.encode(response);
+      Assert.assertEquals(ZstdValueCodec.ZSTD_DICT, compressed[0]);
+      Assert.assertEquals(response, codec.decode(compressed));
+    }
+  }
+}
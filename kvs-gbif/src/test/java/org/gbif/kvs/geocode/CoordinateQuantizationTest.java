@@ -0,0 +1,53 @@
+package org.gbif.kvs.geocode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the quantization of coordinates into geocode keys.
+ */
+public class CoordinateQuantizationTest {
+
+  /**
+   * Nearby coordinates share the same key, the query coordinate depends on the policy.
+   */
+  @Test
+  public void quantizeTest() {
+    CoordinateQuantization original = CoordinateQuantization.of(4, CoordinateQuantization.QueryPolicy.ORIGINAL);
+    LatLng first = original.quantize(LatLng.create(12.3456789, 45.12344));
+    LatLng second = original.quantize(LatLng.create(12.34568, 45.1234));
+
+    Assert.assertEquals(first, second);
+    Assert.assertEquals(first.hashCode(), second.hashCode());
+    Assert.assertEquals("12.3457|45.1234", first.getLogicalKey());
+    Assert.assertEquals(LatLng.create(12.3456789, 45.12344), QuantizedLatLng.queryCoordinate(first));
+
+    CoordinateQuantization cellCenter = CoordinateQuantization.of(4, CoordinateQuantization.QueryPolicy.CELL_CENTER);
+    Assert.assertEquals(LatLng.create(12.3457, 45.1234),
+                        QuantizedLatLng.queryCoordinate(cellCenter.quantize(LatLng.create(12.3456789, 45.12344))));
+  }
+
+  /**
+   * -0.0 and 0.0, -180 and 180 produce the same keys.
+   */
+  @Test
+  public void normalizationTest() {
+    CoordinateQuantization quantization = CoordinateQuantization.of(2, CoordinateQuantization.QueryPolicy.ORIGINAL);
+    Assert.assertEquals(quantization.quantize(LatLng.create(0.0, 180.0)).getLogicalKey(),
+                        quantization.quantize(LatLng.create(-0.0, -180.0)).getLogicalKey());
+    Assert.assertEquals(quantization.quantize(LatLng.create(-0.001, 179.999)).getLogicalKey(),
+                        quantization.quantize(LatLng.create(0.001, -179.999)).getLogicalKey());
+    Assert.assertEquals("0.0|-180.0", quantization.quantize(LatLng.create(-0.0, 180.0)).getLogicalKey());
+  }
+
+  /**
+   * Invalid coordinates are not quantized and are their own query coordinate.
+   */
+  @Test
+  public void invalidCoordinateTest() {
+    CoordinateQuantization quantization = CoordinateQuantization.of(2, CoordinateQuantization.QueryPolicy.CELL_CENTER);
+    LatLng invalid = LatLng.create(95.0, 10.0);
+    Assert.assertSame(invalid, quantization.quantize(invalid));
+    Assert.assertSame(invalid, QuantizedLatLng.queryCoordinate(invalid));
+  }
+}
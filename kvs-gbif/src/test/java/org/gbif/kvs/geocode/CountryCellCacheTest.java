@@ -0,0 +1,198 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.KeyValueStore;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the cells learned by the {@link CountryCellCache}.
+ */
+public class CountryCellCacheTest {
+
+  private static final CountryCellCacheConfig CONFIG = new CountryCellCacheConfig(4, 8, 3, 2, 1_000);
+
+  /**
+   * Store with a border along the meridian 10: DK to the west of it, SE to the east of it, no country south of -60.
+   */
+  private static class BorderStore implements KeyValueStore<LatLng, String> {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public String get(LatLng key) {
+      lookups.incrementAndGet();
+      if (key.getLatitude() < -60) {
+        return null;
+      }
+      return key.getLongitude() < 10 ? "DK" : "SE";
+    }
+
+    @Override
+    public void close() {
+      //DO NOTHING
+    }
+  }
+
+  /**
+   * Cells inside a single country are learned and answer later lookups without using the store.
+   */
+  @Test
+  public void singleCountryCellTest() {
+    BorderStore store = new BorderStore();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CountryCellCache cellCache = new CountryCellCache(store, CONFIG, registry, "test", Runnable::run);
+
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.1, 120.1)));
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.2, 120.2)));
+    Assert.assertEquals(1, cellCache.learnedCells());
+
+    int lookups = store.lookups.get();
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.3, 120.3)));
+    Assert.assertEquals(lookups, store.lookups.get());
+    Assert.assertEquals(1d, registry.get("cellLookups").tag("result", "cell").functionCounter().count(), 0d);
+    Assert.assertEquals(2d, registry.get("cellLookups").tag("result", "exact").functionCounter().count(), 0d);
+  }
+
+  /**
+   * Cells that cross the border or have no country fall through to the exact lookup.
+   */
+  @Test
+  public void borderCellTest() {
+    BorderStore store = new BorderStore();
+    CountryCellCache cellCache = new CountryCellCache(store, CONFIG, new SimpleMeterRegistry(), "test", Runnable::run);
+
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals("DK", cellCache.get(LatLng.create(55.0, 9.99)));
+      Assert.assertEquals("SE", cellCache.get(LatLng.create(55.0, 10.01)));
+      Assert.assertNull(cellCache.get(LatLng.create(-70.0, 10.01)));
+    }
+
+    Assert.assertEquals(0, cellCache.learnedCells());
+    int lookups = store.lookups.get();
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.0, 10.01)));
+    Assert.assertNull(cellCache.get(LatLng.create(-70.0, 10.01)));
+    Assert.assertEquals(lookups + 2, store.lookups.get());
+
+    // a finer cell next to the border is learned
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.0, 12.0)));
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.0, 12.1)));
+    Assert.assertEquals(1, cellCache.learnedCells());
+    lookups = store.lookups.get();
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.2, 12.2)));
+    Assert.assertEquals(lookups, store.lookups.get());
+  }
+
+  /**
+   * Store of a country with a 1 x 1 degree enclave between the samples of a 3 x 3 grid of its level 4 cell.
+   */
+  private static class EnclaveStore implements KeyValueStore<LatLng, String> {
+
+    @Override
+    public String get(LatLng key) {
+      boolean inEnclave = key.getLatitude() >= 40.2 && key.getLatitude() <= 41.2
+                          && key.getLongitude() >= 5.2 && key.getLongitude() <= 6.2;
+      return inEnclave ? "SM" : "IT";
+    }
+
+    @Override
+    public void close() {
+      //DO NOTHING
+    }
+  }
+
+  /**
+   * Coarse cells are sampled with the spacing of the finest level, so a cell with an enclave is not learned.
+   */
+  @Test
+  public void enclaveTest() {
+    CountryCellCache cellCache =
+        new CountryCellCache(new EnclaveStore(), CONFIG, new SimpleMeterRegistry(), "test", Runnable::run);
+
+    // lookups in the level 4 cell of the enclave, away from it
+    Assert.assertEquals("IT", cellCache.get(LatLng.create(35.0, 20.0)));
+    Assert.assertEquals("IT", cellCache.get(LatLng.create(35.1, 20.1)));
+    Assert.assertEquals(1, cellCache.learnedCells());
+
+    Assert.assertEquals("SM", cellCache.get(LatLng.create(40.7, 5.7)));
+    Assert.assertEquals("IT", cellCache.get(LatLng.create(35.2, 20.2)));
+  }
+
+  /**
+   * Minimum levels that would need too many samples are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void tooManySamplesTest() {
+    new CountryCellCacheConfig(0, 12, 3, 2, 1_000);
+  }
+
+  /**
+   * Cells are still learned once the maximum number of tracked cells is reached, the least recently used are evicted.
+   */
+  @Test
+  public void trackedCellsEvictionTest() {
+    BorderStore store = new BorderStore();
+    CountryCellCache cellCache = new CountryCellCache(store, new CountryCellCacheConfig(8, 8, 3, 2, 100),
+                                                      new SimpleMeterRegistry(), "test", Runnable::run);
+    // a single lookup in each of 300 cells
+    for (int i = 0; i < 300; i++) {
+      Assert.assertEquals("DK", cellCache.get(LatLng.create(-50.0 + (i / 20), -170.0 + (i % 20) * 2)));
+    }
+    Assert.assertEquals(0, cellCache.learnedCells());
+
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.1, 120.1)));
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.2, 120.2)));
+    Assert.assertEquals(1, cellCache.learnedCells());
+  }
+
+  /**
+   * Cells are not sampled while the sampling executor is busy, their lookups keep using the store.
+   */
+  @Test
+  public void busySamplingTest() {
+    BorderStore store = new BorderStore();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CountryCellCache cellCache = new CountryCellCache(store, CONFIG, registry, "test", runnable -> {
+      throw new RejectedExecutionException("busy");
+    });
+
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.1, 120.1)));
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.2, 120.2)));
+    Assert.assertEquals(0, cellCache.learnedCells());
+    Assert.assertEquals(2, store.lookups.get());
+    Assert.assertEquals("SE", cellCache.get(LatLng.create(55.3, 120.3)));
+    Assert.assertEquals(3, store.lookups.get());
+    Assert.assertEquals(1d, registry.get("droppedCellSamplings").functionCounter().count(), 0d);
+  }
+
+  /**
+   * The default executor samples cells in the background, lookups are answered by the store meanwhile.
+   */
+  @Test
+  public void backgroundSamplingTest() throws Exception {
+    BorderStore store = new BorderStore();
+    try (CountryCellCache cellCache = new CountryCellCache(store, CONFIG, new SimpleMeterRegistry(), "test")) {
+      Assert.assertEquals("SE", cellCache.get(LatLng.create(55.1, 120.1)));
+      Assert.assertEquals("SE", cellCache.get(LatLng.create(55.2, 120.2)));
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (cellCache.learnedCells() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertEquals(1, cellCache.learnedCells());
+    }
+  }
+
+  /**
+   * Coordinates on the edges of the grid belong to valid cells.
+   */
+  @Test
+  public void cellIdTest() {
+    Assert.assertEquals(CountryCellCache.cellId(4, 89.9, 179.9), CountryCellCache.cellId(4, 90.0, 180.0));
+    Assert.assertNotEquals(CountryCellCache.cellId(4, 0.0, 0.0), CountryCellCache.cellId(5, 0.0, 0.0));
+    Assert.assertNotEquals(CountryCellCache.cellId(4, 0.0, 0.0), CountryCellCache.cellId(4, -0.1, 0.0));
+  }
+}
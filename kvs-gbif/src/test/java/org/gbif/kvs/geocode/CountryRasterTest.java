@@ -0,0 +1,88 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the country raster file and the store that uses it.
+ */
+public class CountryRasterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Writes a raster of one cell per degree: DK in the cell north-east of 0,0, SE in the cell north-west of 0,0 and the
+   * rest ambiguous.
+   */
+  private Path writeRaster() throws IOException {
+    byte[] cells = new byte[180 * 360];
+    cells[CountryRaster.cellIndex(1, 0.5, 0.5)] = 1;
+    cells[CountryRaster.cellIndex(1, 0.5, -0.5)] = 2;
+    Path path = folder.newFile("countries.raster").toPath();
+    CountryRaster.write(path, 1, Arrays.asList("DK", "SE"), cells);
+    return path;
+  }
+
+  @Test
+  public void countryCodeTest() throws IOException {
+    try (CountryRaster raster = CountryRaster.open(writeRaster())) {
+      Assert.assertEquals(1, raster.getCellsPerDegree());
+      Assert.assertEquals("DK", raster.countryCode(0.1, 0.9));
+      Assert.assertEquals("SE", raster.countryCode(0.9, -0.1));
+      Assert.assertNull(raster.countryCode(-0.5, 0.5));
+      // edges of the grid
+      Assert.assertNull(raster.countryCode(90.0, 180.0));
+      Assert.assertNull(raster.countryCode(-90.0, -180.0));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void invalidFileTest() throws IOException {
+    CountryRaster.open(folder.newFile("empty.raster").toPath());
+  }
+
+  /**
+   * Only coordinates of ambiguous cells are looked up in the underlying store.
+   */
+  @Test
+  public void rasterStoreTest() throws IOException {
+    AtomicInteger lookups = new AtomicInteger();
+    GeocodeResponse storeResponse = new GeocodeResponse(Collections.emptyList());
+    KeyValueStore<LatLng, GeocodeResponse> store = new KeyValueStore<LatLng, GeocodeResponse>() {
+
+      @Override
+      public GeocodeResponse get(LatLng key) {
+        lookups.incrementAndGet();
+        return storeResponse;
+      }
+
+      @Override
+      public void close() {
+        //DO NOTHING
+      }
+    };
+    try (RasterGeocodeKVStore rasterStore = new RasterGeocodeKVStore(CountryRaster.open(writeRaster()), store,
+                                                                      new SimpleMeterRegistry(), "test")) {
+      GeocodeResponse response = rasterStore.get(LatLng.create(0.5, 0.5));
+      Assert.assertEquals("DK", GeocodeKVStoreFactory.countryCode(response));
+      Assert.assertEquals(0, lookups.get());
+
+      Assert.assertSame(storeResponse, rasterStore.get(LatLng.create(-0.5, 0.5)));
+      Assert.assertEquals(1, lookups.get());
+      Assert.assertEquals(0.5d, rasterStore.rasterShare(), 0d);
+    }
+  }
+}
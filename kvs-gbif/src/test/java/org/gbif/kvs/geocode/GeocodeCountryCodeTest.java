@@ -0,0 +1,60 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.BiFunction;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the preferred country code stored along with the geocode responses.
+ */
+public class GeocodeCountryCodeTest {
+
+  private static final byte[] COLUMN_FAMILY = Bytes.toBytes("v");
+
+  private static final byte[] VALUE_QUALIFIER = Bytes.toBytes("j");
+
+  private static final byte[] COUNTRY_CODE_QUALIFIER = Bytes.toBytes("c");
+
+  private static Location location(String isoCountryCode2Digit) {
+    Location location = new Location();
+    location.setIsoCountryCode2Digit(isoCountryCode2Digit);
+    return location;
+  }
+
+  /**
+   * The first location with a country code is the preferred one.
+   */
+  @Test
+  public void countryCodeTest() {
+    Assert.assertEquals("DK", GeocodeKVStoreFactory.countryCode(
+        new GeocodeResponse(Arrays.asList(location(null), location("DK"), location("SE")))));
+    Assert.assertNull(GeocodeKVStoreFactory.countryCode(new GeocodeResponse(Collections.emptyList())));
+    Assert.assertNull(GeocodeKVStoreFactory.countryCode(new GeocodeResponse()));
+  }
+
+  /**
+   * The country code column is written, empty if the response has no country code.
+   */
+  @Test
+  public void valueMutatorTest() {
+    BiFunction<byte[], GeocodeResponse, Put> mutator =
+        GeocodeKVStoreFactory.valueMutator(COLUMN_FAMILY, VALUE_QUALIFIER, COUNTRY_CODE_QUALIFIER,
+                                           ValueFormat.JSON.codec(GeocodeResponse.class));
+
+    Put put = mutator.apply(Bytes.toBytes("key"), new GeocodeResponse(Collections.singletonList(location("DK"))));
+    Assert.assertTrue(put.has(COLUMN_FAMILY, VALUE_QUALIFIER));
+    Assert.assertTrue(put.has(COLUMN_FAMILY, COUNTRY_CODE_QUALIFIER, Bytes.toBytes("DK")));
+
+    Put emptyPut = mutator.apply(Bytes.toBytes("key"), new GeocodeResponse(Collections.emptyList()));
+    Assert.assertTrue(emptyPut.has(COLUMN_FAMILY, COUNTRY_CODE_QUALIFIER, new byte[0]));
+  }
+}
@@ -1,7 +1,10 @@
 package org.gbif.kvs.geocode;
 
 import org.gbif.kvs.SaltedKeyGenerator;
+import org.gbif.kvs.hbase.KeyFormat;
+import org.gbif.kvs.hbase.RowKeyGenerator;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
@@ -22,6 +25,8 @@ public class LatLngSaltedKeyTest {
   private final static SaltedKeyGenerator SALTED_KEY_GENERATOR = new SaltedKeyGenerator(NUM_OF_BUCKETS,
                                                                                         StandardCharsets.UTF_8);
 
+  private final static RowKeyGenerator BINARY_KEY_GENERATOR = new RowKeyGenerator(NUM_OF_BUCKETS, KeyFormat.BINARY);
+
   private LatLng latLng;
 
 
@@ -49,4 +54,20 @@ public class LatLngSaltedKeyTest {
     int bucket = Character.getNumericValue(new String(SALTED_KEY_GENERATOR.computeKey(latLng.getLogicalKey())).charAt(0));
     Assert.assertTrue("", bucket >= 0 && bucket < NUM_OF_BUCKETS);
   }
+
+  /**
+   * Is the binary row key the bucket followed by the latitude and longitude as doubles.
+   */
+  @Test
+  public void latLngBinaryKeyTest() {
+    byte[] rowKey = BINARY_KEY_GENERATOR.rowKey(latLng);
+    Assert.assertEquals(1 + latLng.getLogicalKeyLength(), rowKey.length);
+    int bucket = Character.getNumericValue(rowKey[0]);
+    Assert.assertTrue(bucket >= 0 && bucket < NUM_OF_BUCKETS);
+    ByteBuffer logicalKey = ByteBuffer.wrap(rowKey, 1, latLng.getLogicalKeyLength());
+    Assert.assertEquals(latLng.getLatitude(), logicalKey.getDouble(), 0);
+    Assert.assertEquals(latLng.getLongitude(), logicalKey.getDouble(), 0);
+    Assert.assertArrayEquals(SALTED_KEY_GENERATOR.computeKey(latLng.getLogicalKey()),
+                             BINARY_KEY_GENERATOR.legacyRowKey(latLng));
+  }
 }
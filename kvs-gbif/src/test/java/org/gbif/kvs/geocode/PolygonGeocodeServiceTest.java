@@ -0,0 +1,90 @@
+package org.gbif.kvs.geocode;
+
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the reverse lookups of the {@link PolygonGeocodeService} on test polygons.
+ */
+public class PolygonGeocodeServiceTest {
+
+  private static PolygonGeocodeService geocodeService;
+
+  private static String resourcePath(String resource) throws URISyntaxException {
+    return Paths.get(PolygonGeocodeServiceTest.class.getResource(resource).toURI()).toString();
+  }
+
+  @BeforeClass
+  public static void setup() throws IOException, URISyntaxException {
+    geocodeService = PolygonGeocodeService.create(
+        PolygonLayer.builder().withType("Political").withSource("test")
+            .withPath(resourcePath("/geocode/countries.geojson")).build(),
+        PolygonLayer.builder().withType("EEZ").withSource("test")
+            .withPath(resourcePath("/geocode/eez.geojson")).build());
+  }
+
+  private static List<String> ids(double latitude, double longitude) {
+    return geocodeService.reverse(latitude, longitude).stream().map(Location::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Point features are skipped.
+   */
+  @Test
+  public void loadTest() {
+    Assert.assertEquals(3, geocodeService.size());
+  }
+
+  /**
+   * Locations are returned in the order of their layers, with the feature properties.
+   */
+  @Test
+  public void reverseTest() {
+    List<Location> locations = new ArrayList<>(geocodeService.reverse(2.0, 2.0));
+    Assert.assertEquals(2, locations.size());
+    Assert.assertEquals("Political", locations.get(0).getType());
+    Assert.assertEquals("Denmark", locations.get(0).getCountryName());
+    Assert.assertEquals("DK", locations.get(0).getIsoCountryCode2Digit());
+    Assert.assertEquals("EEZ", locations.get(1).getType());
+
+    // holes and polygons of multi-polygons
+    Assert.assertEquals("SE", ids(5.0, 5.0).get(0));
+    Assert.assertEquals("SE", ids(5.0, 17.0).get(0));
+    Assert.assertEquals(1, ids(5.0, 17.0).size());
+
+    // coordinates outside all polygons
+    Assert.assertTrue(ids(-40.0, 100.0).isEmpty());
+  }
+
+  /**
+   * Each lookup returns new locations, changing them doesn't change later responses.
+   */
+  @Test
+  public void newLocationsTest() {
+    Location location = geocodeService.reverse(2.0, 2.0).iterator().next();
+    location.setIsoCountryCode2Digit("XX");
+    Location next = geocodeService.reverse(2.0, 2.0).iterator().next();
+    Assert.assertNotSame(location, next);
+    Assert.assertEquals("DK", next.getIsoCountryCode2Digit());
+  }
+
+  /**
+   * Responses of the in-process service have the same preferred country code as the ones of the Geocode service.
+   */
+  @Test
+  public void countryCodeTest() {
+    Assert.assertEquals("DK", GeocodeKVStoreFactory.countryCode(new GeocodeResponse(geocodeService.reverse(-2.0, -2.0))));
+    Assert.assertNull(GeocodeKVStoreFactory.countryCode(new GeocodeResponse(geocodeService.reverse(-40.0, 100.0))));
+  }
+}
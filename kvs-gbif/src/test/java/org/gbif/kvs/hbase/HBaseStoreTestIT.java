@@ -0,0 +1,594 @@
+package org.gbif.kvs.hbase;
+
+import org.gbif.kvs.metrics.CacheMetrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the lookups and writes of {@link HBaseStore} on a HBase mini cluster.
+ * Each test uses its own keys, so they share a single table.
+ */
+public class HBaseStoreTestIT {
+
+  private static final String TABLE_NAME = "store_kv";
+
+  private static final byte[] COLUMN_FAMILY = Bytes.toBytes("v");
+
+  // Qualifier of the values
+  private static final byte[] VALUE_QUALIFIER = Bytes.toBytes("j");
+
+  // Qualifier of other columns of the rows, not read by the stores
+  private static final byte[] OTHER_QUALIFIER = Bytes.toBytes("o");
+
+  private static HBaseTestingUtility utility;
+
+  private static HTable table;
+
+  private static HBaseKVStoreConfiguration configuration;
+
+  /**
+   * Key of the test stores, keys that only differ in their tag have the same logical key but are not equal.
+   */
+  static class TestKey implements Indexable {
+
+    private final String key;
+
+    private final String tag;
+
+    TestKey(String key) {
+      this(key, null);
+    }
+
+    TestKey(String key, String tag) {
+      this.key = key;
+      this.tag = tag;
+    }
+
+    @Override
+    public String getLogicalKey() {
+      return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof TestKey && key.equals(((TestKey) o).key) && Objects.equals(tag, ((TestKey) o).tag);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(key, tag);
+    }
+
+    @Override
+    public String toString() {
+      return key + ":" + tag;
+    }
+  }
+
+  /**
+   * Loader that counts its calls, keys starting with "none" have no value and keys starting with "fail" fail.
+   */
+  static class CountingLoader implements Function<TestKey, String> {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Override
+    public String apply(TestKey key) {
+      loads.incrementAndGet();
+      if (key.getLogicalKey().startsWith("fail")) {
+        throw new IllegalStateException("Failed to load " + key);
+      }
+      return key.getLogicalKey().startsWith("none") ? null : "value of " + key.getLogicalKey();
+    }
+
+    int getLoads() {
+      return loads.get();
+    }
+  }
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    utility = new HBaseTestingUtility();
+    utility.startMiniCluster();
+    configuration = HBaseKVStoreConfiguration.builder()
+        .withTableName(TABLE_NAME)
+        .withColumnFamily(Bytes.toString(COLUMN_FAMILY))
+        .withNumOfKeyBuckets(4)
+        .withHBaseZk("localhost:" + utility.getZkCluster().getClientPort())
+        .build();
+    table = utility.createTable(Bytes.toBytes(TABLE_NAME), COLUMN_FAMILY);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    if (Objects.nonNull(table)) {
+      table.close();
+    }
+    if (Objects.nonNull(utility)) {
+      utility.shutdownMiniCluster();
+    }
+  }
+
+  /**
+   * Qualifiers of the cells of a result, in the order returned by HBase.
+   */
+  private static String qualifiers(Result result) {
+    return Arrays.stream(result.rawCells())
+        .map(cell -> Bytes.toString(CellUtil.cloneQualifier(cell)))
+        .collect(Collectors.joining(","));
+  }
+
+  /**
+   * Builder of a store of String values with negative caching.
+   */
+  private static HBaseStore.Builder<TestKey, String, String> storeBuilder(Function<TestKey, String> loader) {
+    return HBaseStore.<TestKey, String, String>builder()
+        .withHBaseStoreConfiguration(configuration)
+        .withProjectedQualifiers(Bytes.toString(VALUE_QUALIFIER))
+        .withNegativeCachingConfig(NegativeCachingConfig.DEFAULT)
+        .withResultMapper(result -> Bytes.toString(result.getValue(COLUMN_FAMILY, VALUE_QUALIFIER)))
+        .withValueMapper(Function.identity())
+        .withValueMutator((key, value) -> Objects.isNull(value) ? null :
+            new Put(key).addColumn(COLUMN_FAMILY, VALUE_QUALIFIER, Bytes.toBytes(value)))
+        .withLoaderRetryConfiguration(new LoaderRetryConfig(1, 10L, 1.5, 0.5))
+        .withLoader(loader);
+  }
+
+  /**
+   * Builder of a read-only store of the values of {@link #storeBuilder(Function)}.
+   */
+  private static ReadOnlyHBaseStore.Builder<TestKey, String> readOnlyStoreBuilder() {
+    return ReadOnlyHBaseStore.<TestKey, String>builder()
+        .withHBaseStoreConfiguration(configuration)
+        .withProjectedQualifiers(Bytes.toString(VALUE_QUALIFIER))
+        .withResultMapper(result -> Bytes.toString(result.getValue(COLUMN_FAMILY, VALUE_QUALIFIER)));
+  }
+
+  /**
+   * Writes a value into the row of a key, as the indexers do.
+   */
+  private static void putValue(TestKey key, String value) throws IOException {
+    table.put(new Put(RowKeyGenerator.of(configuration).rowKey(key))
+                  .addColumn(COLUMN_FAMILY, VALUE_QUALIFIER, Bytes.toBytes(value)));
+    table.flushCommits();
+  }
+
+  /**
+   * Keys without value are stored as tombstones and a value written later into the same row replaces them.
+   */
+  @Test
+  public void valueReplacesTombstoneTest() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    TestKey key = new TestKey("none-tombstone");
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Assert.assertNull(store.get(key));
+      Assert.assertNull(store.get(key));
+      Assert.assertEquals(1, loader.getLoads());
+
+      putValue(key, "indexed value");
+      Assert.assertEquals("indexed value", store.get(key));
+      Assert.assertEquals("indexed value", store.getAsync(key).join());
+      Assert.assertEquals("indexed value", store.getAll(Collections.singletonList(key)).get(key));
+      Assert.assertEquals(1, loader.getLoads());
+    }
+  }
+
+  /**
+   * A value loaded while another store writes a tombstone for the same key replaces the tombstone.
+   */
+  @Test
+  public void loadedValueReplacesTombstoneTest() throws Exception {
+    TestKey key = new TestKey("none-race");
+    try (HBaseStore<TestKey, String, String> tombstoneStore = storeBuilder(new CountingLoader()).build();
+         HBaseStore<TestKey, String, String> valueStore = storeBuilder(racingKey -> {
+           // the tombstone is written after the Get of the value store missed
+           Assert.assertNull(tombstoneStore.get(racingKey));
+           return "loaded value";
+         }).build()) {
+      Assert.assertEquals("loaded value", valueStore.get(key));
+      Assert.assertEquals("loaded value", tombstoneStore.get(key));
+      Assert.assertEquals("loaded value", valueStore.get(key));
+    }
+  }
+
+  /**
+   * Multi-key lookups return the stored values, load and store the missing ones, map keys without value to null and
+   * skip the keys that fail to load.
+   */
+  @Test
+  public void getAllTest() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    putValue(new TestKey("all-hit-1"), "stored 1");
+    putValue(new TestKey("all-hit-2"), "stored 2");
+    List<TestKey> keys = Arrays.asList(new TestKey("all-hit-1"), new TestKey("all-hit-2"), new TestKey("all-miss"),
+                                       new TestKey("none-all"), new TestKey("fail-all"));
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Map<TestKey, String> values = store.getAll(keys);
+      Assert.assertEquals(4, values.size());
+      Assert.assertEquals("stored 1", values.get(new TestKey("all-hit-1")));
+      Assert.assertEquals("stored 2", values.get(new TestKey("all-hit-2")));
+      Assert.assertEquals("value of all-miss", values.get(new TestKey("all-miss")));
+      Assert.assertTrue(values.containsKey(new TestKey("none-all")));
+      Assert.assertNull(values.get(new TestKey("none-all")));
+      Assert.assertFalse(values.containsKey(new TestKey("fail-all")));
+      Assert.assertEquals(3, loader.getLoads());
+
+      // loaded values and tombstones were stored, only the failed key is loaded again
+      Assert.assertEquals(4, store.getAll(keys).size());
+      Assert.assertEquals(4, loader.getLoads());
+    }
+  }
+
+  /**
+   * Keys with the same logical key are looked up and loaded once and all of them get the value.
+   */
+  @Test
+  public void getAllDuplicateKeysTest() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    putValue(new TestKey("dup-hit"), "stored");
+    List<TestKey> keys = Arrays.asList(new TestKey("dup-hit", "a"), new TestKey("dup-hit", "b"),
+                                       new TestKey("dup-miss", "a"), new TestKey("dup-miss", "b"));
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Map<TestKey, String> values = store.getAll(keys);
+      Assert.assertEquals(4, values.size());
+      Assert.assertEquals("stored", values.get(new TestKey("dup-hit", "b")));
+      Assert.assertEquals("value of dup-miss", values.get(new TestKey("dup-miss", "a")));
+      Assert.assertEquals("value of dup-miss", values.get(new TestKey("dup-miss", "b")));
+      Assert.assertEquals(1, loader.getLoads());
+    }
+  }
+
+  /**
+   * Multi-key lookups of the read-only store map keys not found and tombstones to null.
+   */
+  @Test
+  public void readOnlyGetAllTest() throws Exception {
+    putValue(new TestKey("ro-hit"), "stored");
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(new CountingLoader()).build()) {
+      Assert.assertNull(store.get(new TestKey("none-ro")));
+    }
+    List<TestKey> keys = Arrays.asList(new TestKey("ro-hit", "a"), new TestKey("ro-hit", "b"),
+                                       new TestKey("ro-miss"), new TestKey("none-ro"));
+    try (ReadOnlyHBaseStore<TestKey, String> store = readOnlyStoreBuilder().build()) {
+      Map<TestKey, String> values = store.getAll(keys);
+      Assert.assertEquals(4, values.size());
+      Assert.assertEquals("stored", values.get(new TestKey("ro-hit", "a")));
+      Assert.assertEquals("stored", values.get(new TestKey("ro-hit", "b")));
+      Assert.assertNull(values.get(new TestKey("ro-miss")));
+      Assert.assertNull(values.get(new TestKey("none-ro")));
+    }
+  }
+
+  /**
+   * Loader that blocks until it is released and counts its calls.
+   */
+  static class BlockingLoader implements Function<TestKey, String> {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final CountDownLatch loading = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Override
+    public String apply(TestKey key) {
+      loads.incrementAndGet();
+      loading.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(ex);
+      }
+      return "value of " + key.getLogicalKey();
+    }
+
+    /** Waits until the first load starts. */
+    void awaitLoading() throws InterruptedException {
+      loading.await();
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    int getLoads() {
+      return loads.get();
+    }
+  }
+
+  /**
+   * Single-key, asynchronous and multi-key lookups of a key being loaded by a single-key lookup wait for its load.
+   */
+  @Test
+  public void coalescedGetTest() throws Exception {
+    BlockingLoader loader = new BlockingLoader();
+    TestKey key = new TestKey("coalesced-get");
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Future<String> get = executor.submit(() -> store.get(key));
+      loader.awaitLoading();
+      Future<String> otherGet = executor.submit(() -> store.get(key));
+      Future<Map<TestKey, String>> getAll = executor.submit(() -> store.getAll(Collections.singletonList(key)));
+      CompletableFuture<String> getAsync = store.getAsync(key);
+      // lets the other lookups miss and wait for the load in progress
+      Thread.sleep(1_000);
+      loader.release();
+      Assert.assertEquals("value of coalesced-get", get.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals("value of coalesced-get", otherGet.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals("value of coalesced-get", getAll.get(10, TimeUnit.SECONDS).get(key));
+      Assert.assertEquals("value of coalesced-get", getAsync.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals(1, loader.getLoads());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Single-key and multi-key lookups of a key being loaded by a multi-key lookup wait for its load.
+   */
+  @Test
+  public void coalescedGetAllTest() throws Exception {
+    BlockingLoader loader = new BlockingLoader();
+    TestKey key = new TestKey("coalesced-all");
+    List<TestKey> keys = Arrays.asList(key, new TestKey("coalesced-other"));
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Future<Map<TestKey, String>> getAll = executor.submit(() -> store.getAll(keys));
+      loader.awaitLoading();
+      Future<String> get = executor.submit(() -> store.get(key));
+      Future<Map<TestKey, String>> otherGetAll = executor.submit(() -> store.getAll(keys));
+      Thread.sleep(1_000);
+      loader.release();
+      Assert.assertEquals(2, getAll.get(10, TimeUnit.SECONDS).size());
+      Assert.assertEquals("value of coalesced-all", get.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals("value of coalesced-other",
+                          otherGetAll.get(10, TimeUnit.SECONDS).get(new TestKey("coalesced-other")));
+      Assert.assertEquals(2, loader.getLoads());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Closing a store waits for the asynchronous lookups waiting in a batch and stores their values.
+   */
+  @Test
+  public void closeAwaitsBatchedLookupsTest() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    List<TestKey> keys = Arrays.asList(new TestKey("close-1"), new TestKey("close-2"), new TestKey("none-close"));
+    List<CompletableFuture<String>> lookups = new ArrayList<>();
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader)
+        .withBulkLoader(batch -> batch.stream().collect(HashMap::new, (m, k) -> m.put(k, loader.apply(k)), Map::putAll))
+        // the linger time is longer than the test, only closing the store sends the batch
+        .withBatchLoaderConfig(new BatchLoaderConfig(100, 600_000L))
+        .build()) {
+      keys.forEach(key -> lookups.add(store.getAsync(key)));
+    }
+    lookups.forEach(lookup -> Assert.assertTrue(lookup.isDone()));
+    Assert.assertEquals("value of close-1", lookups.get(0).join());
+    Assert.assertNull(lookups.get(2).join());
+    Assert.assertEquals(3, loader.getLoads());
+
+    // the values and the tombstone were stored before closing the connection
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Assert.assertEquals(3, store.getAll(keys).size());
+      Assert.assertEquals("value of close-2", store.get(new TestKey("close-2")));
+      Assert.assertEquals(3, loader.getLoads());
+    }
+  }
+
+  /**
+   * Closing a read-only store waits for its asynchronous lookups before releasing the connection.
+   */
+  @Test
+  public void readOnlyCloseAwaitsLookupsTest() throws Exception {
+    TestKey key = new TestKey("read-only-close");
+    putValue(key, "stored");
+    List<CompletableFuture<String>> lookups = new ArrayList<>();
+    try (ReadOnlyHBaseStore<TestKey, String> store = readOnlyStoreBuilder().build()) {
+      IntStream.range(0, 100).forEach(i -> lookups.add(store.getAsync(key)));
+    }
+    lookups.forEach(lookup -> {
+      Assert.assertTrue(lookup.isDone());
+      Assert.assertEquals("stored", lookup.join());
+    });
+  }
+
+  /**
+   * Values rejected by a full write-behind queue are written synchronously, closing the store writes the queued ones.
+   */
+  @Test
+  public void writeBehindTest() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    List<TestKey> keys = IntStream.range(0, 50).mapToObj(i -> new TestKey("write-behind-" + i))
+        .collect(Collectors.toList());
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader)
+        .withWriteBehindConfig(new WriteBehindConfig(1, 1_000, 600_000L))
+        .withMeterRegistry(meterRegistry)
+        .build()) {
+      Assert.assertEquals(50, store.getAll(keys).size());
+      double rejected = meterRegistry.get("writeBehindRejected").counter().count();
+      long written = 0;
+      for (TestKey key : keys) {
+        if (table.exists(new Get(RowKeyGenerator.of(configuration).rowKey(key)))) {
+          written++;
+        }
+      }
+      // the values that did not fit in the queue are already in HBase
+      Assert.assertTrue(written >= rejected);
+    }
+
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader).build()) {
+      Assert.assertEquals("value of write-behind-49", store.getAll(keys).get(new TestKey("write-behind-49")));
+      Assert.assertEquals(50, loader.getLoads());
+    }
+  }
+
+  /**
+   * Stores of the same table with different names publish their metrics separately.
+   */
+  @Test
+  public void storeNameTest() throws Exception {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    putValue(new TestKey("named"), "stored");
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(new CountingLoader())
+        .withMeterRegistry(meterRegistry)
+        .withStoreName("store_kv:j")
+        .build();
+         ReadOnlyHBaseStore<TestKey, String> readOnlyStore = readOnlyStoreBuilder()
+             .withMeterRegistry(meterRegistry)
+             .withStoreName("store_kv:read")
+             .build()) {
+      store.get(new TestKey("named"));
+      readOnlyStore.get(new TestKey("named"));
+      readOnlyStore.get(new TestKey("named"));
+      Assert.assertEquals(1, meterRegistry.get("hits").tags("store", "store_kv:j").counter().count(), 0);
+      Assert.assertEquals(2, meterRegistry.get("hits").tags("store", "store_kv:read").counter().count(), 0);
+    }
+  }
+
+  /**
+   * Gets of a store with projected qualifiers only read those qualifiers and the tombstone qualifier.
+   */
+  @Test
+  public void projectedGetTest() throws Exception {
+    TestKey key = new TestKey("projected");
+    table.put(new Put(RowKeyGenerator.of(configuration).rowKey(key))
+                  .addColumn(COLUMN_FAMILY, VALUE_QUALIFIER, Bytes.toBytes("projected value"))
+                  .addColumn(COLUMN_FAMILY, Tombstones.QUALIFIER, new byte[0])
+                  .addColumn(COLUMN_FAMILY, OTHER_QUALIFIER, Bytes.toBytes("other value")));
+    table.flushCommits();
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(new CountingLoader())
+        .withResultMapper(HBaseStoreTestIT::qualifiers)
+        .build()) {
+      Assert.assertEquals("_t,j", store.get(key));
+      Assert.assertEquals("_t,j", store.getAll(Collections.singletonList(key)).get(key));
+    }
+  }
+
+  /**
+   * Values found under the STRING format row key of a BINARY format store are copied to its row key, only the
+   * projected qualifiers are copied.
+   */
+  @Test
+  public void legacyKeyMigrationTest() throws Exception {
+    HBaseKVStoreConfiguration binaryConfiguration = HBaseKVStoreConfiguration.builder()
+        .withTableName(TABLE_NAME)
+        .withColumnFamily(Bytes.toString(COLUMN_FAMILY))
+        .withNumOfKeyBuckets(4)
+        .withHBaseZk("localhost:" + utility.getZkCluster().getClientPort())
+        .withKeyFormat(KeyFormat.BINARY)
+        .withLegacyKeyFallback(true)
+        .build();
+    RowKeyGenerator rowKeyGenerator = RowKeyGenerator.of(binaryConfiguration);
+    // a key whose row keys in both formats are different
+    TestKey key = IntStream.range(0, 100)
+        .mapToObj(i -> new TestKey("legacy-" + i))
+        .filter(testKey -> !Arrays.equals(rowKeyGenerator.rowKey(testKey), rowKeyGenerator.legacyRowKey(testKey)))
+        .findFirst()
+        .orElseThrow(IllegalStateException::new);
+    table.put(new Put(rowKeyGenerator.legacyRowKey(key))
+                  .addColumn(COLUMN_FAMILY, VALUE_QUALIFIER, Bytes.toBytes("legacy value"))
+                  .addColumn(COLUMN_FAMILY, OTHER_QUALIFIER, Bytes.toBytes("other value")));
+    table.flushCommits();
+
+    CountingLoader loader = new CountingLoader();
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(loader)
+        .withHBaseStoreConfiguration(binaryConfiguration)
+        .build()) {
+      Assert.assertEquals("legacy value", store.get(key));
+      Assert.assertEquals(0, loader.getLoads());
+    }
+    Assert.assertEquals("j", qualifiers(table.get(new Get(rowKeyGenerator.rowKey(key)))));
+    Assert.assertEquals("j,o", qualifiers(table.get(new Get(rowKeyGenerator.legacyRowKey(key)))));
+  }
+
+  /**
+   * Stores of the same HBase cluster share a connection, it is closed once all of them are closed, even if a store is
+   * closed more than once.
+   */
+  @Test
+  public void sharedConnectionTest() throws Exception {
+    TestKey key = new TestKey("shared");
+    putValue(key, "shared value");
+    HBaseStore<TestKey, String, String> store = storeBuilder(new CountingLoader()).build();
+    ReadOnlyHBaseStore<TestKey, String> readOnlyStore = readOnlyStoreBuilder().build();
+    Assert.assertEquals(2, HBaseConnections.references(configuration));
+    Connection connection = HBaseConnections.acquire(configuration);
+    HBaseConnections.release(connection);
+
+    store.close();
+    store.close();
+    Assert.assertEquals(1, HBaseConnections.references(configuration));
+    Assert.assertFalse(connection.isClosed());
+    Assert.assertEquals("shared value", readOnlyStore.get(key));
+
+    readOnlyStore.close();
+    readOnlyStore.close();
+    Assert.assertEquals(0, HBaseConnections.references(configuration));
+    Assert.assertTrue(connection.isClosed());
+  }
+
+  /**
+   * Misses not loaded by another caller meanwhile are not looked up again before loading them.
+   */
+  @Test
+  public void uncontendedMissTest() throws Exception {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    try (HBaseStore<TestKey, String, String> store = storeBuilder(new CountingLoader())
+        .withMeterRegistry(meterRegistry)
+        .withStoreName("uncontended")
+        .build()) {
+      Assert.assertEquals("value of uncontended", store.get(new TestKey("uncontended")));
+      Assert.assertEquals(1, getCount(meterRegistry));
+
+      store.getAll(Arrays.asList(new TestKey("uncontended-1"), new TestKey("uncontended-2")));
+      Assert.assertEquals(2, getCount(meterRegistry));
+
+      Assert.assertEquals("value of uncontended-3", store.getAsync(new TestKey("uncontended-3")).join());
+      Assert.assertEquals(3, getCount(meterRegistry));
+    }
+  }
+
+  /**
+   * Number of Gets, single or multi-key, performed by the store "uncontended".
+   */
+  private static long getCount(MeterRegistry meterRegistry) {
+    return meterRegistry.get("stageLatency").tags("store", "uncontended", "stage", CacheMetrics.GET_STAGE).timer()
+        .count();
+  }
+}
@@ -0,0 +1,151 @@
+package org.gbif.kvs.species;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch.MatchType;
+import org.gbif.api.v2.RankedName;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.rest.client.species.NameUsageMatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the {@link NameMatchIndex} and the {@link IndexedNameMatchKVStore} in front of a name match store.
+ */
+public class NameMatchIndexTest {
+
+  private static final SpeciesMatchRequest PUMA = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withScientificName("Puma concolor").withRank("species").build();
+
+  private static final SpeciesMatchRequest PARUS = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withGenus("Parus").withSpecificEpithet("major").build();
+
+  // Homonym matched to different usages
+  private static final SpeciesMatchRequest ORIA = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withScientificName("Oria").withRank("genus").build();
+
+  private static final SpeciesMatchRequest FUZZY = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withScientificName("Puma concolr").withRank("species").build();
+
+  private static Path indexFile;
+
+  private static NameMatchIndex index;
+
+  private static NameUsageMatch match(int key, String name, Rank rank, MatchType matchType) {
+    RankedName usage = new RankedName();
+    usage.setKey(key);
+    usage.setName(name);
+    usage.setRank(rank);
+    NameUsageMatch match = new NameUsageMatch();
+    match.setUsage(usage);
+    NameUsageMatch.Diagnostics diagnostics = new NameUsageMatch.Diagnostics();
+    diagnostics.setMatchType(matchType);
+    match.setDiagnostics(diagnostics);
+    return match;
+  }
+
+  @BeforeClass
+  public static void setup() throws IOException {
+    indexFile = Files.createTempFile("names", ".index");
+    NameMatchIndex.Writer writer = NameMatchIndex.writer()
+        .add(PUMA, match(2435099, "Puma concolor (Linnaeus, 1771)", Rank.SPECIES, MatchType.EXACT))
+        .add(PARUS, match(9705453, "Parus major Linnaeus, 1758", Rank.SPECIES, MatchType.EXACT))
+        .add(ORIA, match(1, "Oria Huebner, 1821", Rank.GENUS, MatchType.EXACT))
+        .add(ORIA, match(2, "Oria Walker, 1860", Rank.GENUS, MatchType.EXACT))
+        .add(FUZZY, match(2435099, "Puma concolor (Linnaeus, 1771)", Rank.SPECIES, MatchType.FUZZY));
+    Assert.assertEquals(1, writer.ambiguousKeys());
+    Assert.assertEquals(2, writer.write(indexFile));
+    index = NameMatchIndex.read(indexFile);
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    Files.deleteIfExists(indexFile);
+  }
+
+  /**
+   * Exact matches are found with the canonical key of any equivalent request.
+   */
+  @Test
+  public void exactMatchTest() throws IOException {
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(Integer.valueOf(2435099), index.get(PUMA).getUsage().getKey());
+    SpeciesMatchRequest variant = SpeciesMatchRequest.builder()
+        .withKingdom("ANIMALIA").withGenus("Puma").withSpecificEpithet("concolor").withVerbatimRank("Species").build();
+    Assert.assertEquals(Integer.valueOf(2435099), index.get(variant).getUsage().getKey());
+    Assert.assertEquals(Integer.valueOf(9705453), index.get(PARUS).getUsage().getKey());
+  }
+
+  /**
+   * Fuzzy, ambiguous and incomplete requests are not in the index.
+   */
+  @Test
+  public void missingMatchTest() throws IOException {
+    Assert.assertNull(index.get(FUZZY));
+    Assert.assertNull(index.get(ORIA));
+    Assert.assertNull(index.get(SpeciesMatchRequest.builder().withScientificName("Puma concolor").build()));
+    Assert.assertNull(index.get(SpeciesMatchRequest.builder()
+                                    .withKingdom("Plantae").withScientificName("Puma concolor").withRank("species")
+                                    .build()));
+  }
+
+  /**
+   * Only the requests not in the index reach the underlying store.
+   */
+  @Test
+  public void indexedStoreTest() {
+    List<SpeciesMatchRequest> lookups = new ArrayList<>();
+    IndexedNameMatchKVStore store = new IndexedNameMatchKVStore(index,
+        new KeyValueStore<SpeciesMatchRequest, NameUsageMatch>() {
+
+          @Override
+          public NameUsageMatch get(SpeciesMatchRequest key) {
+            lookups.add(key);
+            return match(0, key.getScientificName(), Rank.SPECIES, MatchType.FUZZY);
+          }
+
+          @Override
+          public CompletableFuture<NameUsageMatch> getAsync(SpeciesMatchRequest key) {
+            return CompletableFuture.completedFuture(get(key));
+          }
+
+          @Override
+          public void close() {
+            // DO NOTHING
+          }
+        }, new SimpleMeterRegistry(), "nameUsage");
+
+    Map<SpeciesMatchRequest, NameUsageMatch> values = store.getAll(Arrays.asList(PUMA, PARUS, ORIA, FUZZY));
+    Assert.assertEquals(4, values.size());
+    Assert.assertEquals(Arrays.asList(ORIA, FUZZY), lookups);
+    Assert.assertEquals(0.5d, store.indexShare(), 0.0001d);
+  }
+
+  /**
+   * Requests are decoded from their binary keys, including salted row keys.
+   */
+  @Test
+  public void fromLogicalKeyTest() {
+    for (SpeciesMatchRequest request : Arrays.asList(PARUS, PUMA.canonical())) {
+      ByteBuffer buffer = ByteBuffer.allocate(request.getLogicalKeyLength() + 2);
+      buffer.put((byte) '0').put((byte) '7');
+      request.writeLogicalKey(buffer);
+      SpeciesMatchRequest decoded = SpeciesMatchRequest.fromLogicalKey(buffer.array(), 2);
+      Assert.assertEquals(request, decoded);
+      Assert.assertEquals(NameMatchIndex.key(request), NameMatchIndex.key(decoded));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package org.gbif.kvs.species;
+
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.kvs.KeyValueStore;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the keys of canonical {@link SpeciesMatchRequest}s.
+ */
+public class SpeciesMatchRequestCanonicalTest {
+
+  private static final SpeciesMatchRequest PUMA = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withGenus("Puma").withScientificName("Puma concolor").withRank("species").build();
+
+  private static final SpeciesMatchRequest PUMA_CASE_AND_SPACES = SpeciesMatchRequest.builder()
+      .withKingdom("ANIMALIA ").withGenus("puma").withScientificName(" puma   concolor").withRank("SPECIES").build();
+
+  private static final SpeciesMatchRequest PUMA_SPLIT_EPITHET = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withGenus("Puma").withSpecificEpithet("concolor").withVerbatimRank("sp.").build();
+
+  private static final SpeciesMatchRequest PUMA_UNUSED_FIELDS = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withGenus("Puma").withScientificName("Puma concolor").withRank("species")
+      .withVerbatimRank("Species").withGenericName("Puma").build();
+
+  private static final SpeciesMatchRequest PUMA_AUTHORSHIP = SpeciesMatchRequest.builder()
+      .withKingdom("Animalia").withGenus("Puma").withScientificName("Puma concolor").withRank("species")
+      .withScientificNameAuthorship("(Linnaeus, 1771)").build();
+
+  private static byte[] binaryKey(SpeciesMatchRequest request) {
+    ByteBuffer buffer = ByteBuffer.allocate(request.getLogicalKeyLength());
+    request.writeLogicalKey(buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Requests that produce the same name match call have the same canonical key.
+   */
+  @Test
+  public void equivalentRequestsTest() {
+    for (SpeciesMatchRequest request : Arrays.asList(PUMA_CASE_AND_SPACES, PUMA_SPLIT_EPITHET, PUMA_UNUSED_FIELDS)) {
+      Assert.assertNotEquals(PUMA, request);
+      Assert.assertEquals(PUMA.canonical(), request.canonical());
+      Assert.assertEquals(PUMA.canonical().hashCode(), request.canonical().hashCode());
+      Assert.assertEquals(PUMA.canonical().getLogicalKey(), request.canonical().getLogicalKey());
+      Assert.assertArrayEquals(binaryKey(PUMA.canonical()), binaryKey(request.canonical()));
+    }
+  }
+
+  /**
+   * The authorship is sent to the name match service within the scientific name.
+   */
+  @Test
+  public void differentRequestsTest() {
+    Assert.assertNotEquals(PUMA.canonical(), PUMA_AUTHORSHIP.canonical());
+    Assert.assertNotEquals(PUMA.canonical().getLogicalKey(), PUMA_AUTHORSHIP.canonical().getLogicalKey());
+  }
+
+  /**
+   * Canonical requests send the same parameters as the requests they come from.
+   */
+  @Test
+  public void sameParametersTest() {
+    SpeciesMatchRequest canonical = PUMA_AUTHORSHIP.canonical();
+    Assert.assertTrue(canonical.isCanonical());
+    Assert.assertSame(canonical, canonical.canonical());
+    Assert.assertEquals(TaxonParsers.interpretRank(PUMA_AUTHORSHIP), TaxonParsers.interpretRank(canonical));
+    Assert.assertEquals(TaxonParsers.interpretScientificName(PUMA_AUTHORSHIP),
+                        TaxonParsers.interpretScientificName(canonical));
+    Assert.assertEquals(PUMA_AUTHORSHIP.getKingdom(), canonical.getKingdom());
+    Assert.assertEquals(PUMA_AUTHORSHIP.getGenus(), canonical.getGenus());
+  }
+
+  /**
+   * Canonical requests decoded from their keys have lower case values and the same interpreted rank.
+   */
+  @Test
+  public void decodedRankTest() {
+    SpeciesMatchRequest decoded = SpeciesMatchRequest.fromLogicalKey(binaryKey(PUMA.canonical()), 0);
+    Assert.assertTrue(decoded.isCanonical());
+    Assert.assertEquals("species", decoded.getRank());
+    Assert.assertEquals(Rank.SPECIES, TaxonParsers.interpretRank(decoded));
+  }
+
+  /**
+   * Canonical keys don't collide with the keys of the rows of raw requests.
+   */
+  @Test
+  public void rawKeysTest() {
+    Assert.assertNotEquals(PUMA, PUMA.canonical());
+    Assert.assertFalse(Arrays.equals(binaryKey(PUMA), binaryKey(PUMA.canonical())));
+  }
+
+  /**
+   * Hit rate of the keys of a sample of requests, the sample holds 5 requests of 2 name match calls.
+   */
+  @Test
+  public void sampleHitRateTest() {
+    List<SpeciesMatchRequest> sample =
+        Arrays.asList(PUMA, PUMA_CASE_AND_SPACES, PUMA_SPLIT_EPITHET, PUMA_UNUSED_FIELDS, PUMA_AUTHORSHIP);
+    Assert.assertEquals(5, sample.stream().map(NameMatchKeyMode.RAW::key).distinct().count());
+    Assert.assertEquals(2, sample.stream().map(NameMatchKeyMode.CANONICAL::key).distinct().count());
+  }
+
+  /**
+   * Each canonical request is looked up once in the underlying store.
+   */
+  @Test
+  public void canonicalStoreTest() {
+    List<SpeciesMatchRequest> lookups = new ArrayList<>();
+    KeyValueStore<SpeciesMatchRequest, String> store = new CanonicalKeyValueStore<>(
+        new KeyValueStore<SpeciesMatchRequest, String>() {
+
+          @Override
+          public String get(SpeciesMatchRequest key) {
+            lookups.add(key);
+            return key.getScientificName();
+          }
+
+          @Override
+          public CompletableFuture<String> getAsync(SpeciesMatchRequest key) {
+            return CompletableFuture.completedFuture(get(key));
+          }
+
+          @Override
+          public void close() {
+            // DO NOTHING
+          }
+        });
+    Map<SpeciesMatchRequest, String> values =
+        store.getAll(Arrays.asList(PUMA, PUMA_CASE_AND_SPACES, PUMA_SPLIT_EPITHET, PUMA_AUTHORSHIP));
+    Assert.assertEquals(4, values.size());
+    Assert.assertEquals("Puma concolor", values.get(PUMA_CASE_AND_SPACES));
+    Assert.assertEquals(2, lookups.size());
+    Assert.assertTrue(lookups.stream().allMatch(SpeciesMatchRequest::isCanonical));
+    Assert.assertEquals(2, lookups.stream().map(SpeciesMatchRequest::getLogicalKey).collect(Collectors.toSet()).size());
+  }
+}
@@ -0,0 +1,53 @@
+package org.gbif.kvs.species;
+
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the memoized interpretations of {@link TaxonParsers}.
+ */
+public class TaxonParsersTest {
+
+  /**
+   * Repeated interpretations return the same results and are answered from memory.
+   */
+  @Test
+  public void memoizedInterpretationTest() {
+    SpeciesMatchRequest request = SpeciesMatchRequest.builder()
+        .withGenus("Parus").withSpecificEpithet("major").withVerbatimRank("Species").build();
+    IntStream.range(0, 10).forEach(i -> {
+      Assert.assertEquals(Rank.SPECIES, TaxonParsers.interpretRank(request));
+      Assert.assertEquals("Parus major", TaxonParsers.interpretScientificName(request));
+    });
+    Assert.assertTrue(TaxonParsers.rankHitRate() > 0d);
+    Assert.assertTrue(TaxonParsers.nameHitRate() > 0d);
+  }
+
+  /**
+   * The atomized fields are not used when there is a scientific name, the authorship is.
+   */
+  @Test
+  public void scientificNameTest() {
+    SpeciesMatchRequest.Builder builder = SpeciesMatchRequest.builder().withScientificName("Puma concolor");
+    Assert.assertEquals("Puma concolor", TaxonParsers.interpretScientificName(builder.build()));
+    Assert.assertEquals("Puma concolor",
+                        TaxonParsers.interpretScientificName(builder.withGenus("Felis").withSpecificEpithet("x").build()));
+    Assert.assertEquals("Puma concolor (Linnaeus, 1771)",
+                        TaxonParsers.interpretScientificName(
+                            builder.withScientificNameAuthorship("(Linnaeus, 1771)").build()));
+  }
+
+  /**
+   * Values that can't be parsed are memoized as null ranks.
+   */
+  @Test
+  public void unknownRankTest() {
+    SpeciesMatchRequest request = SpeciesMatchRequest.builder().withRank("not a rank").build();
+    Assert.assertNull(TaxonParsers.interpretRank(request));
+    Assert.assertNull(TaxonParsers.interpretRank(request));
+  }
+}
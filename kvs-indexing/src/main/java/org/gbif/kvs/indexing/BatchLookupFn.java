@@ -0,0 +1,135 @@
+package org.gbif.kvs.indexing;
+
+import org.gbif.kvs.hbase.BatchLoaderConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks up the values of keys in batches and outputs the Puts that store them.
+ * Keys are looked up in batch calls of the batch size, partial batches are sent when their first key has waited the
+ * linger time and at the end of each bundle. The keys of a failed batch are looked up one by one.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public abstract class BatchLookupFn<K, V> extends DoFn<K, Mutation> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchLookupFn.class);
+
+  // Name of the lookup, used in the logs
+  private final String lookupName;
+
+  private final BatchLoaderConfig batchLoaderConfig;
+
+  // Keys waiting for the next batch
+  private transient List<K> batch;
+
+  // Time at which the first key of the batch was added
+  private transient long batchStart;
+
+  /**
+   * Creates an instance.
+   *
+   * @param lookupName name of the lookup, used in the logs
+   * @param batchLoaderConfig batch size and linger time of the lookups
+   */
+  protected BatchLookupFn(String lookupName, BatchLoaderConfig batchLoaderConfig) {
+    this.lookupName = lookupName;
+    this.batchLoaderConfig = batchLoaderConfig;
+  }
+
+  /**
+   * Looks up the values of many keys in a single call.
+   *
+   * @param keys keys to look up
+   * @return the values found by key
+   */
+  protected abstract Map<K, V> bulkLoad(Collection<K> keys);
+
+  /**
+   * Looks up the value of a single key.
+   *
+   * @param key key to look up
+   * @return the value, null if it is not found
+   */
+  protected abstract V load(K key);
+
+  /**
+   * Creates the Put that stores the value of a key.
+   *
+   * @param key looked up key
+   * @param value value of the key
+   * @return a new Put, null if the value is not stored
+   */
+  protected abstract Put mutation(K key, V value);
+
+  @StartBundle
+  public void startBundle() {
+    batch = new ArrayList<>(batchLoaderConfig.getBatchSize());
+  }
+
+  @ProcessElement
+  public void processElement(ProcessContext context) {
+    if (batch.isEmpty()) {
+      batchStart = System.currentTimeMillis();
+    }
+    batch.add(context.element());
+    if (batch.size() >= batchLoaderConfig.getBatchSize()
+        || System.currentTimeMillis() - batchStart >= batchLoaderConfig.getLingerMillis()) {
+      lookup(context::output);
+    }
+  }
+
+  @FinishBundle
+  public void finishBundle(FinishBundleContext context) {
+    lookup(mutation -> context.output(mutation, GlobalWindow.INSTANCE.maxTimestamp(), GlobalWindow.INSTANCE));
+  }
+
+  /**
+   * Looks up the batch in a single call and outputs the Puts of the values, if the batch call fails the keys are
+   * looked up one by one.
+   */
+  private void lookup(Consumer<Mutation> output) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      bulkLoad(batch).forEach((key, value) -> output(key, value, output));
+    } catch (Exception ex) {
+      LOG.warn("Error performing the {} of {} keys, looking them up one by one", lookupName, batch.size(), ex);
+      batch.forEach(key -> {
+        try {
+          output(key, load(key), output);
+        } catch (Exception lookupEx) {
+          LOG.error("Error performing the {} of {}", lookupName, key, lookupEx);
+        }
+      });
+    } finally {
+      batch.clear();
+    }
+  }
+
+  /**
+   * Outputs the Put of a value, if there is one.
+   */
+  private void output(K key, V value, Consumer<Mutation> output) {
+    if (Objects.nonNull(value)) {
+      Put put = mutation(key, value);
+      if (Objects.nonNull(put)) {
+        output.accept(put);
+      }
+    }
+  }
+}
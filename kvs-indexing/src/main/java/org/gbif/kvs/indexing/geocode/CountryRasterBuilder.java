@@ -0,0 +1,155 @@
+package org.gbif.kvs.indexing.geocode;
+
+import org.gbif.kvs.geocode.CountryRaster;
+import org.gbif.kvs.geocode.GeocodeKVStoreFactory;
+import org.gbif.kvs.indexing.options.ConfigurationMapper;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.GeocodeService;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a {@link CountryRaster} file by sampling a geocode source.
+ *
+ * Each cell is sampled in a grid of samplesPerSide x samplesPerSide points that includes its corners, the samples of the
+ * edges are shared by adjacent cells. Cells whose samples all resolve to the same country hold that country, the rest
+ * are ambiguous. The geocode source is the in-process polygons if polygon layers are set, the Geocode service otherwise.
+ */
+public class CountryRasterBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CountryRasterBuilder.class);
+
+  // Cells per degree of latitude and longitude
+  private final int cellsPerDegree;
+
+  // Intervals between samples per side of each cell
+  private final int intervals;
+
+  private final GeocodeService geocodeService;
+
+  // Country indexes by ISO code, in the order they are found
+  private final Map<String, Integer> countryIndexes = new HashMap<>();
+
+  /**
+   * Creates a builder of rasters.
+   *
+   * @param geocodeService geocode source to sample
+   * @param cellsPerDegree cells per degree of latitude and longitude
+   * @param samplesPerSide samples per side of each cell, corners included
+   */
+  public CountryRasterBuilder(GeocodeService geocodeService, int cellsPerDegree, int samplesPerSide) {
+    if (samplesPerSide < 2) {
+      throw new IllegalArgumentException("At least the corners of cells must be sampled");
+    }
+    this.geocodeService = geocodeService;
+    this.cellsPerDegree = cellsPerDegree;
+    this.intervals = samplesPerSide - 1;
+  }
+
+  public static void main(String[] args) throws IOException {
+    CountryRasterOptions options =
+        PipelineOptionsFactory.fromArgs(args).withValidation().as(CountryRasterOptions.class);
+    try (GeocodeService geocodeService =
+             ReverseGeocodeIndexer.geocodeService(ReverseGeocodeIndexer.polygonLayers(options.getPolygonLayers()),
+                                                  ConfigurationMapper.clientConfiguration(options))) {
+      new CountryRasterBuilder(geocodeService, options.getCellsPerDegree(), options.getSamplesPerSide())
+          .build(options.getRasterFile());
+    }
+  }
+
+  /**
+   * Samples the geocode source and writes the raster file.
+   *
+   * @param rasterFile path of the raster file
+   * @throws IOException if the file can't be written
+   */
+  public void build(String rasterFile) throws IOException {
+    int rows = 180 * cellsPerDegree;
+    int columns = 360 * cellsPerDegree;
+    byte[] cells = new byte[rows * columns];
+    long ambiguous = 0;
+    String[] northLine = sampleLine(0);
+    for (int row = 0; row < rows; row++) {
+      String[][] lines = new String[intervals + 1][];
+      lines[0] = northLine;
+      for (int line = 1; line <= intervals; line++) {
+        lines[line] = sampleLine(row * intervals + line);
+      }
+      for (int column = 0; column < columns; column++) {
+        byte cell = cell(lines, column);
+        cells[row * columns + column] = cell;
+        if (cell == CountryRaster.AMBIGUOUS) {
+          ambiguous++;
+        }
+      }
+      northLine = lines[intervals];
+      if ((row + 1) % cellsPerDegree == 0) {
+        LOG.info("Sampled {} of {} rows", row + 1, rows);
+      }
+    }
+    String[] countryCodes = new String[countryIndexes.size()];
+    countryIndexes.forEach((countryCode, index) -> countryCodes[index] = countryCode);
+    CountryRaster.write(Paths.get(rasterFile), cellsPerDegree, Arrays.asList(countryCodes), cells);
+    LOG.info("Raster of {} countries written into {}, {} of {} cells are ambiguous ({}%)", countryCodes.length,
+             rasterFile, ambiguous, cells.length, String.format("%.2f", 100d * ambiguous / cells.length));
+  }
+
+  /**
+   * Value of a cell from the sample lines that cross it.
+   */
+  private byte cell(String[][] lines, int column) {
+    String countryCode = lines[0][column * intervals];
+    if (Objects.isNull(countryCode)) {
+      return CountryRaster.AMBIGUOUS;
+    }
+    for (String[] line : lines) {
+      for (int sample = column * intervals; sample <= (column + 1) * intervals; sample++) {
+        if (!countryCode.equals(line[sample])) {
+          return CountryRaster.AMBIGUOUS;
+        }
+      }
+    }
+    Integer index = countryIndexes.get(countryCode);
+    if (Objects.isNull(index)) {
+      if (countryIndexes.size() == CountryRaster.MAX_COUNTRIES) {
+        LOG.warn("Country {} exceeds the maximum number of countries, its cells are ambiguous", countryCode);
+        return CountryRaster.AMBIGUOUS;
+      }
+      index = countryIndexes.size();
+      countryIndexes.put(countryCode, index);
+    }
+    return (byte) (index + 1);
+  }
+
+  /**
+   * Looks up, in parallel, the country codes of a line of samples from west to east.
+   *
+   * @param line number of the line from north to south
+   * @return the country codes of the samples, null for samples without country
+   */
+  private String[] sampleLine(int line) {
+    double latitude = 90d - (double) line / (cellsPerDegree * intervals);
+    int samples = 360 * cellsPerDegree * intervals + 1;
+    return IntStream.range(0, samples)
+        .parallel()
+        .mapToObj(sample -> countryCode(latitude, -180d + (double) sample / (cellsPerDegree * intervals)))
+        .toArray(String[]::new);
+  }
+
+  /**
+   * Preferred country code of a sample.
+   */
+  private String countryCode(double latitude, double longitude) {
+    return GeocodeKVStoreFactory.countryCode(new GeocodeResponse(geocodeService.reverse(latitude, longitude)));
+  }
+}
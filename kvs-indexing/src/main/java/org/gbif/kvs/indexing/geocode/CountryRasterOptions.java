@@ -0,0 +1,27 @@
+package org.gbif.kvs.indexing.geocode;
+
+import org.apache.beam.sdk.options.Default;
+import org.apache.beam.sdk.options.Description;
+import org.apache.beam.sdk.options.Validation;
+
+/** Options of the country raster build step. */
+public interface CountryRasterOptions extends GeocodeIndexingOptions {
+
+  @Description("Raster cells per degree of latitude and longitude")
+  @Default.Integer(10)
+  int getCellsPerDegree();
+
+  void setCellsPerDegree(int cellsPerDegree);
+
+  @Description("Samples per side of each cell, corners included")
+  @Default.Integer(3)
+  int getSamplesPerSide();
+
+  void setSamplesPerSide(int samplesPerSide);
+
+  @Description("Path of the raster file to write")
+  @Validation.Required
+  String getRasterFile();
+
+  void setRasterFile(String rasterFile);
+}
@@ -1,5 +1,6 @@
 package org.gbif.kvs.indexing.geocode;
 
+import org.gbif.kvs.geocode.CoordinateQuantization;
 import org.gbif.kvs.indexing.options.HBaseIndexingOptions;
 
 import org.apache.beam.sdk.options.Default;
@@ -19,4 +20,33 @@ public interface GeocodeIndexingOptions extends HBaseIndexingOptions {
   String getJsonColumnQualifier();
 
   void setJsonColumnQualifier(String jsonColumnQualifier);
+
+  @Description("Decimal places to which coordinates are rounded to compute keys, coordinates are not rounded if it is not set")
+  Integer getKeyDecimalPlaces();
+
+  void setKeyDecimalPlaces(Integer keyDecimalPlaces);
+
+  @Description("Coordinate sent to the geocode service for rounded keys: ORIGINAL or CELL_CENTER")
+  @Default.Enum("ORIGINAL")
+  CoordinateQuantization.QueryPolicy getQueryPolicy();
+
+  void setQueryPolicy(CoordinateQuantization.QueryPolicy queryPolicy);
+
+  @Description("Comma separated list of type=path GeoJSON polygon layers, e.g. Political=/data/countries.geojson."
+               + " If set, lookups are answered in-process from the polygons instead of the Geocode service")
+  String getPolygonLayers();
+
+  void setPolygonLayers(String polygonLayers);
+
+  @Description("Maximum number of coordinates sent to the geocode service per batch call")
+  @Default.Integer(100)
+  Integer getLookupBatchSize();
+
+  void setLookupBatchSize(Integer lookupBatchSize);
+
+  @Description("Maximum milliseconds a coordinate waits for other coordinates before its batch is sent to the geocode service")
+  @Default.Long(1000)
+  Long getLookupLingerMillis();
+
+  void setLookupLingerMillis(Long lookupLingerMillis);
 }
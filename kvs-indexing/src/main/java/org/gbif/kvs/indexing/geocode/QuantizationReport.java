@@ -0,0 +1,129 @@
+package org.gbif.kvs.indexing.geocode;
+
+import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
+import org.gbif.kvs.geocode.CoordinateQuantization;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.kvs.indexing.options.ConfigurationMapper;
+
+import java.util.Arrays;
+
+import org.apache.beam.runners.spark.SparkRunner;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.PipelineResult;
+import org.apache.beam.sdk.io.hbase.HBaseIO;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Count;
+import org.apache.beam.sdk.transforms.Distinct;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Apache Beam Pipeline that reports the trade-off between the precision of quantized geocode keys and the hit rate
+ * of the geocode store on the coordinates of the occurrence table.
+ * For each number of decimal places it logs the number of distinct keys, the hit rate of a store that holds all of
+ * them (1 - distinct keys / coordinates) and the maximum distance between a coordinate and its cell center.
+ */
+public class QuantizationReport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QuantizationReport.class);
+
+  // Length of a degree of latitude, and of longitude at the equator, in meters
+  private static final double METERS_PER_DEGREE = 111_320d;
+
+  public static void main(String[] args) {
+    QuantizationReportOptions options =
+        PipelineOptionsFactory.fromArgs(args).withValidation().as(QuantizationReportOptions.class);
+    run(options);
+  }
+
+  /**
+   * Runs the report pipeline. 1. Reads all valid coordinates from the occurrence table. 2. Counts the coordinates and
+   * their distinct raw keys. 3. Counts the distinct quantized keys of each number of decimal places.
+   *
+   * @param options report options
+   */
+  private static void run(QuantizationReportOptions options) {
+
+    Pipeline pipeline = Pipeline.create(options);
+    options.setRunner(SparkRunner.class);
+
+    CachedHBaseKVStoreConfiguration storeConfiguration = CachedHBaseKVStoreConfiguration.builder()
+        .withHBaseKVStoreConfiguration(ConfigurationMapper.hbaseKVStoreConfiguration(options))
+        .build();
+    Configuration hBaseConfiguration = storeConfiguration.getHBaseKVStoreConfiguration().hbaseConfig();
+
+    // Valid coordinates of the occurrence table
+    PCollection<LatLng> coordinates =
+        pipeline
+            .apply(HBaseIO.read().withConfiguration(hBaseConfiguration).withTableId(options.getSourceTable()))
+            .apply(
+                ParDo.of(
+                    new DoFn<Result, LatLng>() {
+
+                      @ProcessElement
+                      public void processElement(ProcessContext context) {
+                        LatLng latLng = OccurrenceHBaseBuilder.toLatLng(context.element());
+                        if (latLng.isValid()) {
+                          context.output(latLng);
+                        }
+                      }
+                    }));
+
+    PCollectionView<Long> total = coordinates.apply("CountCoordinates", Count.globally()).apply(View.asSingleton());
+
+    report(coordinates, total, "raw", null);
+    Arrays.stream(options.getReportDecimalPlaces().split(","))
+        .map(String::trim)
+        .map(Integer::valueOf)
+        .forEach(decimalPlaces -> report(coordinates, total, decimalPlaces + "dp",
+                                         CoordinateQuantization.of(decimalPlaces, options.getQueryPolicy())));
+
+    // Run and wait
+    PipelineResult result = pipeline.run(options);
+    result.waitUntilFinish();
+  }
+
+  /**
+   * Counts the distinct keys of a quantization and logs its report line.
+   *
+   * @param coordinates coordinates to evaluate
+   * @param total number of coordinates
+   * @param name name of the evaluated quantization
+   * @param quantization quantization to evaluate, null to evaluate raw coordinates
+   */
+  private static void report(PCollection<LatLng> coordinates, PCollectionView<Long> total, String name,
+                             CoordinateQuantization quantization) {
+    coordinates
+        .apply("Keys-" + name,
+               MapElements.into(TypeDescriptors.strings())
+                   .via(latLng -> quantization == null ? latLng.getLogicalKey() :
+                       quantization.quantize(latLng).getLogicalKey()))
+        .apply("DistinctKeys-" + name, Distinct.create())
+        .apply("CountKeys-" + name, Count.globally())
+        .apply("Report-" + name,
+               ParDo.of(
+                   new DoFn<Long, Void>() {
+
+                     @ProcessElement
+                     public void processElement(ProcessContext context) {
+                       long coordinatesCount = context.sideInput(total);
+                       long keys = context.element();
+                       double hitRate = coordinatesCount == 0 ? 0d : 1d - (double) keys / coordinatesCount;
+                       double maxErrorMeters = quantization == null ? 0d :
+                           Math.sqrt(2d) * quantization.maxErrorDegrees() * METERS_PER_DEGREE;
+                       LOG.info("Quantization {}: coordinates {}, distinct keys {}, hit rate {}, max error {} m",
+                                name, coordinatesCount, keys, String.format("%.4f", hitRate),
+                                String.format("%.1f", maxErrorMeters));
+                     }
+                   }).withSideInputs(total));
+  }
+}
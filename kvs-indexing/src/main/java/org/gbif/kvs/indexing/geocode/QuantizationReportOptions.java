@@ -0,0 +1,14 @@
+package org.gbif.kvs.indexing.geocode;
+
+import org.apache.beam.sdk.options.Default;
+import org.apache.beam.sdk.options.Description;
+
+/** Apache Beam options of the coordinate quantization report. */
+public interface QuantizationReportOptions extends GeocodeIndexingOptions {
+
+  @Description("Comma separated list of the decimal places to evaluate")
+  @Default.String("1,2,3,4,5")
+  String getReportDecimalPlaces();
+
+  void setReportDecimalPlaces(String reportDecimalPlaces);
+}
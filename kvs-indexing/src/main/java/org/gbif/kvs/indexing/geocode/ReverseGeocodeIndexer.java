@@ -1,17 +1,31 @@
 package org.gbif.kvs.indexing.geocode;
 
-import org.gbif.kvs.SaltedKeyGenerator;
 import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
 import org.gbif.kvs.geocode.GeocodeKVStoreFactory;
+import org.gbif.kvs.geocode.CoordinateQuantization;
 import org.gbif.kvs.geocode.LatLng;
+import org.gbif.kvs.geocode.PolygonGeocodeService;
+import org.gbif.kvs.geocode.PolygonLayer;
+import org.gbif.kvs.hbase.BatchLoaderConfig;
+import org.gbif.kvs.hbase.RowKeyGenerator;
+import org.gbif.kvs.indexing.BatchLookupFn;
 import org.gbif.kvs.indexing.options.ConfigurationMapper;
 import org.gbif.rest.client.configuration.ClientConfiguration;
 import org.gbif.rest.client.geocode.GeocodeResponse;
 import org.gbif.rest.client.geocode.GeocodeService;
 import org.gbif.rest.client.geocode.retrofit.GeocodeServiceSyncClient;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.beam.runners.spark.SparkRunner;
 import org.apache.beam.sdk.Pipeline;
@@ -24,18 +38,13 @@ import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /** Apache Beam Pipeline that indexes Geocode country lookup responses in a HBase KV table. */
 public class ReverseGeocodeIndexer {
 
-  private static final Logger LOG = LoggerFactory.getLogger(ReverseGeocodeIndexer.class);
-
   public static void main(String[] args) {
     GeocodeIndexingOptions options =
         PipelineOptionsFactory.fromArgs(args).withValidation().as(GeocodeIndexingOptions.class);
@@ -52,13 +61,68 @@ public class ReverseGeocodeIndexer {
     return CachedHBaseKVStoreConfiguration.builder()
             .withHBaseKVStoreConfiguration(ConfigurationMapper.hbaseKVStoreConfiguration(options))
             .withValueColumnQualifier(options.getJsonColumnQualifier())
+            .withCountryCodeColumnQualifier(options.getCountryCodeColumnQualifier())
+            .withCoordinateQuantization(coordinateQuantization(options))
+            .withValueFormat(options.getValueFormat())
+            .withBatchLoaderConfig(new BatchLoaderConfig(options.getLookupBatchSize(), options.getLookupLingerMillis()))
             .build();
   }
 
+  /**
+   * Creates the quantization of coordinates from the pipeline options.
+   *
+   * @param options pipeline options
+   * @return the coordinate quantization, null if the key decimal places are not set
+   */
+  static CoordinateQuantization coordinateQuantization(GeocodeIndexingOptions options) {
+    return Optional.ofNullable(options.getKeyDecimalPlaces())
+        .map(decimalPlaces -> CoordinateQuantization.of(decimalPlaces, options.getQueryPolicy()))
+        .orElse(null);
+  }
+
+  /**
+   * Parses the polygon layers of the pipeline options.
+   *
+   * @param polygonLayers comma separated list of type=path layers
+   * @return the polygon layers, null if there are none
+   */
+  static List<PolygonLayer> polygonLayers(String polygonLayers) {
+    if (Objects.isNull(polygonLayers) || polygonLayers.trim().isEmpty()) {
+      return null;
+    }
+    return Arrays.stream(polygonLayers.split(","))
+        .map(String::trim)
+        .map(layer -> {
+          String[] typeAndPath = layer.split("=", 2);
+          if (typeAndPath.length != 2) {
+            throw new IllegalArgumentException("Polygon layers must be defined as type=path: " + layer);
+          }
+          return PolygonLayer.builder()
+              .withType(typeAndPath[0])
+              .withSource(Paths.get(typeAndPath[1]).getFileName().toString())
+              .withPath(typeAndPath[1])
+              .build();
+        })
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Creates the geocode service used by the lookups: the in-process polygons if there are layers, the Geocode
+   * service client otherwise.
+   */
+  static GeocodeService geocodeService(List<PolygonLayer> polygonLayers,
+                                       ClientConfiguration clientConfiguration) throws IOException {
+    return Objects.isNull(polygonLayers) ? new GeocodeServiceSyncClient(clientConfiguration) :
+        new PolygonGeocodeService(polygonLayers);
+  }
+
   /**
    * Runs the indexing beam pipeline. 1. Reads all latitude and longitude from the occurrence table.
    * 2. Selects only distinct coordinates 3. Store the Geocode country lookup in table with the KV
-   * format: latitude+longitude -> isoCountryCode2Digit.
+   * format: latitude+longitude -> isoCountryCode2Digit. If the keys are quantized, a single coordinate per cell is
+   * looked up. Coordinates are looked up in batch calls of the lookup batch size, partial batches are sent when their
+   * first coordinate has waited the linger time and at the end of each bundle. The coordinates of a failed batch are
+   * looked up one by one.
    *
    * @param options beam HBase indexing options
    */
@@ -73,6 +137,7 @@ public class ReverseGeocodeIndexer {
     // Config
     CachedHBaseKVStoreConfiguration storeConfiguration = geocodeKVStoreConfiguration(options);
     ClientConfiguration geocodeClientConfiguration = ConfigurationMapper.clientConfiguration(options);
+    List<PolygonLayer> polygonLayers = polygonLayers(options.getPolygonLayers());
     Configuration hBaseConfiguration = storeConfiguration.getHBaseKVStoreConfiguration().hbaseConfig();
 
     // Reade the occurrence table
@@ -86,11 +151,13 @@ public class ReverseGeocodeIndexer {
                 ParDo.of(
                     new DoFn<Result, LatLng>() {
 
+                      private final CoordinateQuantization quantization = storeConfiguration.getCoordinateQuantization();
+
                       @ProcessElement
                       public void processElement(ProcessContext context) {
                         LatLng latLng = OccurrenceHBaseBuilder.toLatLng(context.element());
                         if (latLng.isValid()) {
-                          context.output(latLng);
+                          context.output(Objects.isNull(quantization) ? latLng : quantization.quantize(latLng));
                         }
                       }
                       // Selects distinct values
@@ -103,38 +170,47 @@ public class ReverseGeocodeIndexer {
     distinctCoordinates
         .apply(
             ParDo.of(
-                new DoFn<LatLng, Mutation>() {
+                new BatchLookupFn<LatLng, GeocodeResponse>("Geocode lookup",
+                                                           storeConfiguration.getBatchLoaderConfig()) {
 
-                  private final SaltedKeyGenerator keyGenerator =
-                      new SaltedKeyGenerator(
-                          storeConfiguration.getHBaseKVStoreConfiguration().getNumOfKeyBuckets());
+                  private final RowKeyGenerator keyGenerator =
+                      RowKeyGenerator.of(storeConfiguration.getHBaseKVStoreConfiguration());
 
                   private transient GeocodeService geocodeService;
 
+                  private transient Function<LatLng, GeocodeResponse> loader;
+
+                  private transient Function<Collection<LatLng>, Map<LatLng, GeocodeResponse>> bulkLoader;
+
                   private transient BiFunction<byte[], GeocodeResponse, Put> valueMutator;
 
                   @Setup
-                  public void start() {
-                    geocodeService = new GeocodeServiceSyncClient(geocodeClientConfiguration);
+                  public void start() throws IOException {
+                    geocodeService = geocodeService(polygonLayers, geocodeClientConfiguration);
+                    loader = GeocodeKVStoreFactory.loader(geocodeService);
+                    bulkLoader = GeocodeKVStoreFactory.bulkLoader(geocodeService);
                     valueMutator =
                         GeocodeKVStoreFactory.valueMutator(
                             Bytes.toBytes(storeConfiguration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                            Bytes.toBytes(storeConfiguration.getValueColumnQualifier()));
+                            Bytes.toBytes(storeConfiguration.getValueColumnQualifier()),
+                            Optional.ofNullable(storeConfiguration.getCountryCodeColumnQualifier())
+                                .map(Bytes::toBytes).orElse(null),
+                            storeConfiguration.valueCodec(GeocodeResponse.class));
+                  }
+
+                  @Override
+                  protected Map<LatLng, GeocodeResponse> bulkLoad(Collection<LatLng> keys) {
+                    return bulkLoader.apply(keys);
+                  }
+
+                  @Override
+                  protected GeocodeResponse load(LatLng key) {
+                    return loader.apply(key);
                   }
 
-                  @ProcessElement
-                  public void processElement(ProcessContext context) {
-                    try {
-                      LatLng latLng = context.element();
-                      Optional.ofNullable(geocodeService.reverse(latLng.getLatitude(), latLng.getLongitude()))
-                              .ifPresent( locations -> {
-                                  GeocodeResponse response = new GeocodeResponse(geocodeService.reverse(latLng.getLatitude(), latLng.getLongitude()));
-                                  byte[] saltedKey = keyGenerator.computeKey(latLng.getLogicalKey());
-                                  context.output(valueMutator.apply(saltedKey, response));
-                              });
-                    } catch (Exception ex) {
-                      LOG.error("Error performing Geocode lookup", ex);
-                    }
+                  @Override
+                  protected Put mutation(LatLng key, GeocodeResponse response) {
+                    return valueMutator.apply(keyGenerator.rowKey(key), response);
                   }
                 }))
         .apply(// Write to HBase
@@ -23,6 +23,7 @@ public class ConfigurationMapper {
             .withColumnFamily(options.getKVColumnFamily())
             .withHBaseZk(options.getHbaseZk())
             .withNumOfKeyBuckets(options.getSaltedKeyBuckets())
+            .withKeyFormat(options.getKeyFormat())
             .build();
   }
 
@@ -1,5 +1,8 @@
 package org.gbif.kvs.indexing.options;
 
+import org.gbif.kvs.codec.ValueFormat;
+import org.gbif.kvs.hbase.KeyFormat;
+
 import org.apache.beam.sdk.options.Default;
 import org.apache.beam.sdk.options.Description;
 import org.apache.beam.sdk.options.PipelineOptions;
@@ -38,6 +41,18 @@ public interface HBaseIndexingOptions extends PipelineOptions {
 
   void setSaltedKeyBuckets(int saltedKeyBuckets);
 
+  @Description("Format of the row keys: STRING or BINARY")
+  @Default.Enum("STRING")
+  KeyFormat getKeyFormat();
+
+  void setKeyFormat(KeyFormat keyFormat);
+
+  @Description("Format of the stored values: JSON or SMILE")
+  @Default.Enum("JSON")
+  ValueFormat getValueFormat();
+
+  void setValueFormat(ValueFormat valueFormat);
+
   @Description("GBIF API connection time-out")
   long getApiTimeOut();
 
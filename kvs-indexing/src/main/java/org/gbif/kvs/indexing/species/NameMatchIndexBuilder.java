@@ -0,0 +1,96 @@
+package org.gbif.kvs.indexing.species;
+
+import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
+import org.gbif.kvs.hbase.KeyFormat;
+import org.gbif.kvs.hbase.RowKeyGenerator;
+import org.gbif.kvs.species.NameMatchIndex;
+import org.gbif.kvs.species.NameUsageMatchKVStoreFactory;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+import org.gbif.rest.client.species.NameUsageMatch;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a {@link NameMatchIndex} file from the exact matches stored in the name usage KV table.
+ * The requests are decoded from the row keys, so the table must use {@link KeyFormat#BINARY} keys; raw and canonical
+ * rows are both read.
+ */
+public class NameMatchIndexBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NameMatchIndexBuilder.class);
+
+  // Rows read between progress logs
+  private static final int LOG_INTERVAL = 1_000_000;
+
+  /**
+   * Private constructor of main class.
+   */
+  private NameMatchIndexBuilder() {
+    //DO NOTHING
+  }
+
+  public static void main(String[] args) throws IOException {
+    NameMatchIndexOptions options =
+        PipelineOptionsFactory.fromArgs(args).withValidation().as(NameMatchIndexOptions.class);
+    build(NameUsageMatchIndexer.nameUsageMatchKVConfiguration(options), options.getIndexFile());
+  }
+
+  /**
+   * Scans the name usage KV table and writes the index file.
+   *
+   * @param storeConfiguration configuration of the name usage KV table
+   * @param indexFile path of the index file
+   * @throws IOException if the table can't be read or the file can't be written
+   */
+  public static void build(CachedHBaseKVStoreConfiguration storeConfiguration, String indexFile) throws IOException {
+    KeyFormat keyFormat = storeConfiguration.getHBaseKVStoreConfiguration().getKeyFormat();
+    if (keyFormat != KeyFormat.BINARY) {
+      throw new IllegalArgumentException("Table " + storeConfiguration.getHBaseKVStoreConfiguration().getTableName()
+                                         + " is configured with " + keyFormat + " row keys, the name match index can"
+                                         + " only be built from a table with BINARY row keys");
+    }
+    int prefixLength = RowKeyGenerator.of(storeConfiguration.getHBaseKVStoreConfiguration()).getPrefixLength();
+    byte[] columnFamily = Bytes.toBytes(storeConfiguration.getHBaseKVStoreConfiguration().getColumnFamily());
+    byte[] valueColumnQualifier = Bytes.toBytes(storeConfiguration.getValueColumnQualifier());
+    Function<Result, NameUsageMatch> resultMapper =
+        NameUsageMatchKVStoreFactory.resultMapper(columnFamily, valueColumnQualifier,
+                                                  storeConfiguration.valueCodec(NameUsageMatch.class));
+    NameMatchIndex.Writer writer = NameMatchIndex.writer();
+    long rows = 0;
+    long invalidRows = 0;
+    try (Connection connection =
+             ConnectionFactory.createConnection(storeConfiguration.getHBaseKVStoreConfiguration().hbaseConfig());
+         Table table = connection.getTable(
+             TableName.valueOf(storeConfiguration.getHBaseKVStoreConfiguration().getTableName()));
+         ResultScanner scanner = table.getScanner(new Scan().addColumn(columnFamily, valueColumnQualifier))) {
+      for (Result result : scanner) {
+        rows++;
+        try {
+          writer.add(SpeciesMatchRequest.fromLogicalKey(result.getRow(), prefixLength), resultMapper.apply(result));
+        } catch (IllegalArgumentException ex) {
+          invalidRows++;
+        }
+        if (rows % LOG_INTERVAL == 0) {
+          LOG.info("Read {} rows", rows);
+        }
+      }
+    }
+    int matches = writer.write(Paths.get(indexFile));
+    LOG.info("Index of {} exact matches written into {} from {} rows, {} ambiguous keys, {} invalid row keys", matches,
+             indexFile, rows, writer.ambiguousKeys(), invalidRows);
+  }
+}
@@ -0,0 +1,14 @@
+package org.gbif.kvs.indexing.species;
+
+import org.apache.beam.sdk.options.Description;
+import org.apache.beam.sdk.options.Validation;
+
+/** Options of the exact name match index build step, the name usage KV table is read. */
+public interface NameMatchIndexOptions extends NameUsageMatchIndexingOptions {
+
+  @Description("Path of the name match index file to write")
+  @Validation.Required
+  String getIndexFile();
+
+  void setIndexFile(String indexFile);
+}
@@ -0,0 +1,106 @@
+package org.gbif.kvs.indexing.species;
+
+import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
+import org.gbif.kvs.indexing.options.ConfigurationMapper;
+import org.gbif.kvs.species.NameMatchKeyMode;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+
+import org.apache.beam.runners.spark.SparkRunner;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.PipelineResult;
+import org.apache.beam.sdk.io.hbase.HBaseIO;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Count;
+import org.apache.beam.sdk.transforms.Distinct;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TypeDescriptor;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Apache Beam Pipeline that reports the hit rate of the name usage match store with each key mode on the requests of
+ * the occurrence table.
+ * For each mode it logs the number of distinct keys, i.e. of rows and name match calls, and the hit rate of a store
+ * that holds all of them (1 - distinct keys / requests).
+ */
+public class NameMatchKeyReport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NameMatchKeyReport.class);
+
+  public static void main(String[] args) {
+    NameUsageMatchIndexingOptions options =
+        PipelineOptionsFactory.fromArgs(args).withValidation().as(NameUsageMatchIndexingOptions.class);
+    run(options);
+  }
+
+  /**
+   * Runs the report pipeline. 1. Reads all name match requests from the occurrence table. 2. Counts the requests.
+   * 3. Counts the distinct keys of each key mode.
+   *
+   * @param options indexing options, the key mode is ignored
+   */
+  private static void run(NameUsageMatchIndexingOptions options) {
+
+    Pipeline pipeline = Pipeline.create(options);
+    options.setRunner(SparkRunner.class);
+
+    CachedHBaseKVStoreConfiguration storeConfiguration = CachedHBaseKVStoreConfiguration.builder()
+        .withHBaseKVStoreConfiguration(ConfigurationMapper.hbaseKVStoreConfiguration(options))
+        .build();
+    Configuration hBaseConfiguration = storeConfiguration.getHBaseKVStoreConfiguration().hbaseConfig();
+
+    // Name match requests of the occurrence table
+    PCollection<SpeciesMatchRequest> requests =
+        pipeline
+            .apply(HBaseIO.read().withConfiguration(hBaseConfiguration).withTableId(options.getSourceTable()))
+            .apply(MapElements.into(TypeDescriptor.of(SpeciesMatchRequest.class))
+                       .via(OccurrenceToNameUsageRequestHBaseBuilder::toSpeciesMatchRequest));
+
+    PCollectionView<Long> total = requests.apply("CountRequests", Count.globally()).apply(View.asSingleton());
+
+    for (NameMatchKeyMode keyMode : NameMatchKeyMode.values()) {
+      report(requests, total, keyMode);
+    }
+
+    // Run and wait
+    PipelineResult result = pipeline.run(options);
+    result.waitUntilFinish();
+  }
+
+  /**
+   * Counts the distinct keys of a key mode and logs its report line.
+   *
+   * @param requests requests to evaluate
+   * @param total number of requests
+   * @param keyMode key mode to evaluate
+   */
+  private static void report(PCollection<SpeciesMatchRequest> requests, PCollectionView<Long> total,
+                             NameMatchKeyMode keyMode) {
+    String name = keyMode.name();
+    requests
+        .apply("Keys-" + name,
+               MapElements.into(TypeDescriptors.strings()).via(request -> keyMode.key(request).getLogicalKey()))
+        .apply("DistinctKeys-" + name, Distinct.create())
+        .apply("CountKeys-" + name, Count.globally())
+        .apply("Report-" + name,
+               ParDo.of(
+                   new DoFn<Long, Void>() {
+
+                     @ProcessElement
+                     public void processElement(ProcessContext context) {
+                       long requestsCount = context.sideInput(total);
+                       long keys = context.element();
+                       double hitRate = requestsCount == 0 ? 0d : 1d - (double) keys / requestsCount;
+                       LOG.info("Key mode {}: requests {}, distinct keys {}, hit rate {}",
+                                name, requestsCount, keys, String.format("%.4f", hitRate));
+                     }
+                   }).withSideInputs(total));
+  }
+}
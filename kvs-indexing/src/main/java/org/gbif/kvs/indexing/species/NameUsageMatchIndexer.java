@@ -1,20 +1,22 @@
 package org.gbif.kvs.indexing.species;
 
-import org.gbif.api.vocabulary.Rank;
-import org.gbif.kvs.SaltedKeyGenerator;
 import org.gbif.kvs.conf.CachedHBaseKVStoreConfiguration;
+import org.gbif.kvs.hbase.BatchLoaderConfig;
+import org.gbif.kvs.hbase.RowKeyGenerator;
+import org.gbif.kvs.indexing.BatchLookupFn;
 import org.gbif.kvs.indexing.options.ConfigurationMapper;
+import org.gbif.kvs.species.NameMatchKeyMode;
 import org.gbif.kvs.species.NameUsageMatchKVStoreFactory;
 import org.gbif.kvs.species.SpeciesMatchRequest;
-import org.gbif.kvs.species.TaxonParsers;
 import org.gbif.rest.client.configuration.ClientConfiguration;
 import org.gbif.rest.client.species.NameMatchService;
 import org.gbif.rest.client.species.NameUsageMatch;
 import org.gbif.rest.client.species.retrofit.NameMatchServiceSyncClient;
 
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.apache.beam.runners.spark.SparkRunner;
 import org.apache.beam.sdk.Pipeline;
@@ -27,18 +29,13 @@ import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /** Apache Beam Pipeline that indexes Taxonomic NameUsage matches in a HBase KV table. */
 public class NameUsageMatchIndexer {
 
-  private static final Logger LOG = LoggerFactory.getLogger(NameUsageMatchIndexer.class);
-
   public static void main(String[] args) {
     NameUsageMatchIndexingOptions options =
         PipelineOptionsFactory.fromArgs(args).withValidation().as(NameUsageMatchIndexingOptions.class);
@@ -51,10 +48,13 @@ public class NameUsageMatchIndexer {
    * @param options pipeline options
    * @return a new instance of CachedHBaseKVStoreConfiguration
    */
-  private static CachedHBaseKVStoreConfiguration nameUsageMatchKVConfiguration(NameUsageMatchIndexingOptions options) {
+  static CachedHBaseKVStoreConfiguration nameUsageMatchKVConfiguration(NameUsageMatchIndexingOptions options) {
     return CachedHBaseKVStoreConfiguration.builder()
             .withHBaseKVStoreConfiguration(ConfigurationMapper.hbaseKVStoreConfiguration(options))
             .withValueColumnQualifier(options.getJsonColumnQualifier())
+            .withValueFormat(options.getValueFormat())
+            .withNameMatchKeyMode(options.getKeyMode())
+            .withBatchLoaderConfig(new BatchLoaderConfig(options.getLookupBatchSize(), options.getLookupLingerMillis()))
             .build();
   }
 
@@ -64,6 +64,8 @@ public class NameUsageMatchIndexer {
    * 2. Selects only distinct coordinates
    * 3. Store the Geocode country lookup in table with the KV
    * format: latitude+longitude -> isoCountryCode2Digit.
+   * Requests are matched in batch calls of the lookup batch size, partial batches are sent when their first request
+   * has waited the linger time and at the end of each bundle. The requests of a failed batch are matched one by one.
    *
    * @param options beam HBase indexing options
    */
@@ -79,12 +81,13 @@ public class NameUsageMatchIndexer {
     CachedHBaseKVStoreConfiguration storeConfiguration = nameUsageMatchKVConfiguration(options);
     ClientConfiguration nameMatchClientConfiguration = ConfigurationMapper.clientConfiguration(options);
     Configuration hBaseConfiguration = storeConfiguration.getHBaseKVStoreConfiguration().hbaseConfig();
+    NameMatchKeyMode keyMode = storeConfiguration.getNameMatchKeyMode();
 
     // Reade the occurrence table
     PCollection<Result> inputRecords =
         pipeline.apply(
             HBaseIO.read().withConfiguration(hBaseConfiguration).withTableId(sourceTable));
-    // Select distinct coordinates
+    // Select distinct requests, canonical requests if canonical keys are used
     PCollection<SpeciesMatchRequest> distinctCoordinates =
         inputRecords
             .apply(
@@ -94,7 +97,7 @@ public class NameUsageMatchIndexer {
                       @ProcessElement
                       public void processElement(ProcessContext context) {
                         SpeciesMatchRequest speciesMatchRequest = OccurrenceToNameUsageRequestHBaseBuilder.toSpeciesMatchRequest(context.element());
-                        context.output(speciesMatchRequest);
+                        context.output(keyMode.key(speciesMatchRequest));
 
                       }
                       // Selects distinct values
@@ -107,46 +110,45 @@ public class NameUsageMatchIndexer {
     distinctCoordinates
         .apply(
             ParDo.of(
-                new DoFn<SpeciesMatchRequest, Mutation>() {
+                new BatchLookupFn<SpeciesMatchRequest, NameUsageMatch>("name match",
+                                                                       storeConfiguration.getBatchLoaderConfig()) {
 
-                  private final SaltedKeyGenerator keyGenerator =
-                      new SaltedKeyGenerator(
-                          storeConfiguration.getHBaseKVStoreConfiguration().getNumOfKeyBuckets());
+                  private final RowKeyGenerator keyGenerator =
+                      RowKeyGenerator.of(storeConfiguration.getHBaseKVStoreConfiguration());
 
                   private transient NameMatchService nameMatchService;
 
+                  private transient Function<SpeciesMatchRequest, NameUsageMatch> loader;
+
+                  private transient Function<Collection<SpeciesMatchRequest>, Map<SpeciesMatchRequest, NameUsageMatch>> bulkLoader;
+
                   private transient BiFunction<byte[], NameUsageMatch, Put> valueMutator;
 
                   @Setup
                   public void start() {
                     nameMatchService = new NameMatchServiceSyncClient(nameMatchClientConfiguration);
+                    loader = NameUsageMatchKVStoreFactory.loader(nameMatchService);
+                    bulkLoader = NameUsageMatchKVStoreFactory.bulkLoader(nameMatchService);
                     valueMutator =
                         NameUsageMatchKVStoreFactory.valueMutator(
                             Bytes.toBytes(storeConfiguration.getHBaseKVStoreConfiguration().getColumnFamily()),
-                            Bytes.toBytes(storeConfiguration.getValueColumnQualifier()));
+                            Bytes.toBytes(storeConfiguration.getValueColumnQualifier()),
+                            storeConfiguration.valueCodec(NameUsageMatch.class));
                   }
 
-                  @ProcessElement
-                  public void processElement(ProcessContext context) {
-                    try {
-                      SpeciesMatchRequest request = context.element();
-                      NameUsageMatch nameUsageMatch = nameMatchService.match(request.getKingdom(),
-                          request.getPhylum(),
-                          request.getClazz(),
-                          request.getOrder(),
-                          request.getFamily(),
-                          request.getGenus(),
-                          Optional.ofNullable(TaxonParsers.interpretRank(request)).map(Rank::name).orElse(null),
-                          TaxonParsers.interpretScientificName(request),
-                          false,
-                          false);
-                      if (Objects.nonNull(nameUsageMatch)) {
-                        byte[] saltedKey = keyGenerator.computeKey(request.getLogicalKey());
-                        context.output(valueMutator.apply(saltedKey, nameUsageMatch));
-                      }
-                    } catch (Exception ex) {
-                      LOG.error("Error performing Geocode lookup", ex);
-                    }
+                  @Override
+                  protected Map<SpeciesMatchRequest, NameUsageMatch> bulkLoad(Collection<SpeciesMatchRequest> requests) {
+                    return bulkLoader.apply(requests);
+                  }
+
+                  @Override
+                  protected NameUsageMatch load(SpeciesMatchRequest request) {
+                    return loader.apply(request);
+                  }
+
+                  @Override
+                  protected Put mutation(SpeciesMatchRequest request, NameUsageMatch nameUsageMatch) {
+                    return valueMutator.apply(keyGenerator.rowKey(request), nameUsageMatch);
                   }
                 }))
         .apply(// Write to HBase
@@ -1,6 +1,7 @@
 package org.gbif.kvs.indexing.species;
 
 import org.gbif.kvs.indexing.options.HBaseIndexingOptions;
+import org.gbif.kvs.species.NameMatchKeyMode;
 
 import org.apache.beam.sdk.options.Default;
 import org.apache.beam.sdk.options.Description;
@@ -13,4 +14,22 @@ public interface NameUsageMatchIndexingOptions extends HBaseIndexingOptions {
   String getJsonColumnQualifier();
 
   void setJsonColumnQualifier(String jsonColumnQualifier);
+
+  @Description("Keys of the indexed matches, CANONICAL keys only hold the parameters sent to the name match service")
+  @Default.Enum("RAW")
+  NameMatchKeyMode getKeyMode();
+
+  void setKeyMode(NameMatchKeyMode keyMode);
+
+  @Description("Maximum number of requests sent to the name match service per batch call")
+  @Default.Integer(100)
+  Integer getLookupBatchSize();
+
+  void setLookupBatchSize(Integer lookupBatchSize);
+
+  @Description("Maximum milliseconds a request waits for other requests before its batch is sent to the name match service")
+  @Default.Long(1000)
+  Long getLookupLingerMillis();
+
+  void setLookupLingerMillis(Long lookupLingerMillis);
 }
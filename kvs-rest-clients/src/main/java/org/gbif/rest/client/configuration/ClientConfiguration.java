@@ -11,10 +11,13 @@ public class ClientConfiguration implements Serializable {
 
   private final Long fileCacheMaxSizeMb;
 
-  private ClientConfiguration(String baseApiUrl, long timeOut, long fileCacheMaxSizeMb) {
+  private final Integer maxConcurrentRequests;
+
+  private ClientConfiguration(String baseApiUrl, long timeOut, long fileCacheMaxSizeMb, int maxConcurrentRequests) {
     this.baseApiUrl = baseApiUrl;
     this.timeOut = timeOut;
     this.fileCacheMaxSizeMb = fileCacheMaxSizeMb;
+    this.maxConcurrentRequests = maxConcurrentRequests;
   }
 
   public String getBaseApiUrl() {
@@ -29,6 +32,13 @@ public class ClientConfiguration implements Serializable {
     return fileCacheMaxSizeMb;
   }
 
+  /**
+   * Maximum number of asynchronous requests executed concurrently.
+   */
+  public Integer getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -40,12 +50,13 @@ public class ClientConfiguration implements Serializable {
     ClientConfiguration that = (ClientConfiguration) o;
     return Objects.equals(timeOut, that.timeOut)
         && Objects.equals(fileCacheMaxSizeMb, that.fileCacheMaxSizeMb)
+        && Objects.equals(maxConcurrentRequests, that.maxConcurrentRequests)
         && Objects.equals(baseApiUrl, that.baseApiUrl);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(baseApiUrl, timeOut, fileCacheMaxSizeMb);
+    return Objects.hash(baseApiUrl, timeOut, fileCacheMaxSizeMb, maxConcurrentRequests);
   }
 
   /**
@@ -61,6 +72,7 @@ public class ClientConfiguration implements Serializable {
     private String baseApiUrl;
     private Long timeOut = 60L;
     private Long fileCacheMaxSizeMb = 64L;
+    private Integer maxConcurrentRequests = 64;
 
     /**
      * Hidden constructor to force use the containing class builder() method.
@@ -85,8 +97,13 @@ public class ClientConfiguration implements Serializable {
       return this;
     }
 
+    public Builder withMaxConcurrentRequests(Integer maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
     public ClientConfiguration build() {
-      return new ClientConfiguration(baseApiUrl, timeOut, fileCacheMaxSizeMb);
+      return new ClientConfiguration(baseApiUrl, timeOut, fileCacheMaxSizeMb, maxConcurrentRequests);
     }
   }
 }
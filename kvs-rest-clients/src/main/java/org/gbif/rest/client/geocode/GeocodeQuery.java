@@ -0,0 +1,74 @@
+package org.gbif.rest.client.geocode;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Coordinate of a single reverse lookup, used by the batch operations of {@link GeocodeService}.
+ */
+public class GeocodeQuery implements Serializable {
+
+  @JsonProperty("lat")
+  private Double latitude;
+
+  @JsonProperty("lng")
+  private Double longitude;
+
+  public GeocodeQuery() {
+    //DO NOTHING
+  }
+
+  /**
+   * Full constructor.
+   * @param latitude decimal latitude
+   * @param longitude decimal longitude
+   */
+  public GeocodeQuery(Double latitude, Double longitude) {
+    this.latitude = latitude;
+    this.longitude = longitude;
+  }
+
+  public Double getLatitude() {
+    return latitude;
+  }
+
+  public void setLatitude(Double latitude) {
+    this.latitude = latitude;
+  }
+
+  public Double getLongitude() {
+    return longitude;
+  }
+
+  public void setLongitude(Double longitude) {
+    this.longitude = longitude;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GeocodeQuery that = (GeocodeQuery) o;
+    return Objects.equals(latitude, that.latitude) && Objects.equals(longitude, that.longitude);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(latitude, longitude);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", GeocodeQuery.class.getSimpleName() + "[", "]")
+        .add("latitude=" + latitude)
+        .add("longitude=" + longitude)
+        .toString();
+  }
+}
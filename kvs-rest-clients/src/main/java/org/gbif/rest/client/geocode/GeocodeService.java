@@ -1,7 +1,10 @@
 package org.gbif.rest.client.geocode;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GBIF Geocode Service client.
@@ -16,4 +19,35 @@ public interface GeocodeService extends Closeable {
    * @return a list of proposed locations, an empty collections if no proposals were found
    */
   Collection<Location> reverse(Double latitude, Double longitude);
+
+  /**
+   * Asynchronously gets the list of proposed geo-locations of coordinate.
+   * The default implementation performs a blocking {@link #reverse(Double, Double)} in the calling thread.
+   * @param latitude decimal latitude
+   * @param longitude decimal longitude
+   * @return a future of the list of proposed locations
+   */
+  default CompletableFuture<Collection<Location>> reverseAsync(Double latitude, Double longitude) {
+    CompletableFuture<Collection<Location>> future = new CompletableFuture<>();
+    try {
+      future.complete(reverse(latitude, longitude));
+    } catch (Exception ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Gets the proposed geo-locations of many coordinates in a single operation.
+   * The default implementation performs a blocking {@link #reverse(Double, Double)} per coordinate in the calling thread.
+   * @param queries coordinates to look up
+   * @return the proposed locations of each coordinate, in the order of the queries
+   */
+  default List<Collection<Location>> reverseAll(List<GeocodeQuery> queries) {
+    List<Collection<Location>> locations = new ArrayList<>(queries.size());
+    for (GeocodeQuery query : queries) {
+      locations.add(reverse(query.getLatitude(), query.getLongitude()));
+    }
+    return locations;
+  }
 }
@@ -1,11 +1,15 @@
 package org.gbif.rest.client.geocode.retrofit;
 
+import org.gbif.rest.client.geocode.GeocodeQuery;
 import org.gbif.rest.client.geocode.Location;
 
 import java.util.Collection;
+import java.util.List;
 
 import retrofit2.Call;
+import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.POST;
 import retrofit2.http.Query;
 
 /**
@@ -22,4 +26,12 @@ interface GeocodeRetrofitService {
    */
   @GET("/v1/geocode/reverse")
   Call<Collection<Location>> reverse(@Query("lat") Double latitude, @Query("lng") Double longitude);
+
+  /**
+   * Builds an executable call to the batch reverse geocode service.
+   * @param queries coordinates to look up
+   * @return a executable call to the Geocode service
+   */
+  @POST("/v1/geocode/reverse/batch")
+  Call<List<Collection<Location>>> reverseAll(@Body List<GeocodeQuery> queries);
 }
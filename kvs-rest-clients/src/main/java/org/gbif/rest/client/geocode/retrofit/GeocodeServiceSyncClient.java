@@ -2,6 +2,8 @@ package org.gbif.rest.client.geocode.retrofit;
 
 import okhttp3.OkHttpClient;
 import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.geocode.GeocodeQuery;
+import org.gbif.rest.client.retrofit.BatchCall;
 import org.gbif.rest.client.retrofit.RetrofitClientFactory;
 import org.gbif.rest.client.geocode.Location;
 import org.gbif.rest.client.geocode.GeocodeService;
@@ -12,9 +14,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
+import static org.gbif.rest.client.retrofit.AsyncCall.asyncCall;
 import static org.gbif.rest.client.retrofit.SyncCall.syncCall;
 
 /**
@@ -26,6 +31,9 @@ public class GeocodeServiceSyncClient implements GeocodeService {
   //Retrofit internal client
   private final GeocodeRetrofitService retrofitService;
 
+  //Batch calls of the reverseAll endpoint
+  private final BatchCall<GeocodeQuery, Collection<Location>> batchCall;
+
   private final OkHttpClient okHttpClient;
 
   /**
@@ -37,6 +45,8 @@ public class GeocodeServiceSyncClient implements GeocodeService {
     retrofitService = RetrofitClientFactory.createRetrofitClient(okHttpClient,
                                                                 clientConfiguration.getBaseApiUrl(),
                                                                 GeocodeRetrofitService.class);
+    batchCall = new BatchCall<>("reverse geocode", retrofitService::reverseAll,
+                                query -> reverseAsync(query.getLatitude(), query.getLongitude()));
   }
 
   /**
@@ -50,6 +60,28 @@ public class GeocodeServiceSyncClient implements GeocodeService {
     return syncCall(retrofitService.reverse(latitude, longitude));
   }
 
+  /**
+   * Performs an asynchronous call to the Geocode service, the call is enqueued in the OkHttp dispatcher.
+   * @param latitude decimal latitude
+   * @param longitude decimal longitude
+   * @return a future of the collection of proposed locations
+   */
+  @Override
+  public CompletableFuture<Collection<Location>> reverseAsync(Double latitude, Double longitude) {
+    return asyncCall(retrofitService.reverse(latitude, longitude));
+  }
+
+  /**
+   * Looks up the coordinates in batch calls of up to 1000 coordinates. If the service doesn't have the batch endpoint,
+   * this and later batches are looked up using concurrent single calls.
+   * @param queries coordinates to look up
+   * @return the collections of proposed locations, in the order of the queries
+   */
+  @Override
+  public List<Collection<Location>> reverseAll(List<GeocodeQuery> queries) {
+    return batchCall.callAll(queries);
+  }
+
   @Override
   public void close() throws IOException {
     if (Objects.nonNull(okHttpClient) && Objects.nonNull(okHttpClient.cache())
@@ -0,0 +1,53 @@
+package org.gbif.rest.client.retrofit;
+
+
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Utility class to perform asynchronous call on Retrofit services.
+ */
+public class AsyncCall {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncCall.class);
+
+  /**
+   * Private constructor.
+   */
+  private AsyncCall() {
+    //DO NOTHING
+  }
+
+  /**
+   * Enqueues a {@link Call} instance in the OkHttp dispatcher, no thread is blocked while the call is in-flight.
+   * @param call to be executed
+   * @param <T> content of the response object
+   * @return a future of the content of the response, completes with an {@link HttpException} in case of error
+   */
+  public static <T> CompletableFuture<T> asyncCall(Call<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    call.enqueue(new Callback<T>() {
+      @Override
+      public void onResponse(Call<T> call, Response<T> response) {
+        if (response.isSuccessful() && response.body() != null) {
+          future.complete(response.body());
+        } else {
+          LOG.error("Service responded with an error {}", response);
+          future.completeExceptionally(new HttpException(response)); // Propagates the failed response
+        }
+      }
+
+      @Override
+      public void onFailure(Call<T> call, Throwable throwable) {
+        future.completeExceptionally(new RestClientException("Error executing call", throwable));
+      }
+    });
+    return future;
+  }
+}
@@ -0,0 +1,127 @@
+package org.gbif.rest.client.retrofit;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Performs batch calls on Retrofit services, splitting the queries in batches of a maximum size.
+ * If the service doesn't have the batch endpoint, this and later batches are performed using concurrent single calls.
+ *
+ * @param <Q> type of the queries
+ * @param <R> type of the results
+ */
+public class BatchCall<Q, R> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchCall.class);
+
+  // Default maximum number of queries per batch call
+  public static final int MAX_BATCH_SIZE = 1_000;
+
+  // Name of the batch endpoint, used in the logs
+  private final String endpointName;
+
+  // Maximum number of queries per batch call
+  private final int maxBatchSize;
+
+  // Creates the batch call of a list of queries
+  private final Function<List<Q>, Call<List<R>>> batchCall;
+
+  // Performs the asynchronous single call of a query
+  private final Function<Q, CompletableFuture<R>> singleCall;
+
+  // Is the batch endpoint available, it is assumed to be until the service responds that it doesn't exist
+  private volatile boolean batchSupported = true;
+
+  /**
+   * Creates an instance that performs batch calls of up to {@link #MAX_BATCH_SIZE} queries.
+   * @param endpointName name of the batch endpoint, used in the logs
+   * @param batchCall creates the batch call of a list of queries
+   * @param singleCall performs the asynchronous single call of a query
+   */
+  public BatchCall(String endpointName, Function<List<Q>, Call<List<R>>> batchCall,
+                   Function<Q, CompletableFuture<R>> singleCall) {
+    this(endpointName, MAX_BATCH_SIZE, batchCall, singleCall);
+  }
+
+  /**
+   * Creates an instance.
+   * @param endpointName name of the batch endpoint, used in the logs
+   * @param maxBatchSize maximum number of queries per batch call
+   * @param batchCall creates the batch call of a list of queries
+   * @param singleCall performs the asynchronous single call of a query
+   */
+  public BatchCall(String endpointName, int maxBatchSize, Function<List<Q>, Call<List<R>>> batchCall,
+                   Function<Q, CompletableFuture<R>> singleCall) {
+    this.endpointName = endpointName;
+    this.maxBatchSize = maxBatchSize;
+    this.batchCall = batchCall;
+    this.singleCall = singleCall;
+  }
+
+  /**
+   * Performs the calls of a list of queries.
+   * @param queries queries to call
+   * @return the results, in the order of the queries
+   */
+  public List<R> callAll(List<Q> queries) {
+    List<R> results = new ArrayList<>(queries.size());
+    for (int from = 0; from < queries.size(); from += maxBatchSize) {
+      results.addAll(callBatch(queries.subList(from, Math.min(queries.size(), from + maxBatchSize))));
+    }
+    return results;
+  }
+
+  /**
+   * Performs a batch of queries in a single call, or in concurrent single calls if the batch endpoint doesn't exist.
+   */
+  private List<R> callBatch(List<Q> queries) {
+    if (batchSupported) {
+      try {
+        Response<List<R>> response = batchCall.apply(queries).execute();
+        if (response.isSuccessful() && Objects.nonNull(response.body())) {
+          if (response.body().size() != queries.size()) {
+            throw new RestClientException("Batch response has " + response.body().size() + " results of "
+                                          + queries.size() + " queries");
+          }
+          return response.body();
+        }
+        if (!SyncCall.isMissingEndpoint(response.code())) {
+          LOG.error("Service responded with an error {}", response);
+          throw new HttpException(response); // Propagates the failed response
+        }
+        LOG.warn("Batch {} endpoint not available, falling back to single calls: {}", endpointName, response);
+        batchSupported = false;
+      } catch (IOException ex) {
+        throw new RestClientException("Error executing call", ex);
+      }
+    }
+    return joinAll(queries.stream().map(singleCall).collect(Collectors.toList()));
+  }
+
+  /**
+   * Waits for a list of asynchronous calls, the exception of the first failed call is thrown unwrapped.
+   */
+  private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+    try {
+      return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+}
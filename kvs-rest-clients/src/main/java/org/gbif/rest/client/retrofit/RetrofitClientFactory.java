@@ -8,6 +8,7 @@ import java.nio.file.Files;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,12 @@ public final class RetrofitClientFactory {
 
     clientBuilder.cache(createCache(config.getFileCacheMaxSizeMb()));
 
+    // all the requests go to the same host, the default dispatcher only allows 5 concurrent calls per host
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(config.getMaxConcurrentRequests());
+    dispatcher.setMaxRequestsPerHost(config.getMaxConcurrentRequests());
+    clientBuilder.dispatcher(dispatcher);
+
     // create the client and return it
     return clientBuilder.build();
   }
@@ -41,4 +41,13 @@ public class SyncCall {
       throw new RestClientException("Error executing call", ex);
     }
   }
+
+  /**
+   * Is a response code of an endpoint that the service doesn't have.
+   * @param code HTTP response code
+   * @return true for 404, 405 and 501 responses
+   */
+  public static boolean isMissingEndpoint(int code) {
+    return code == 404 || code == 405 || code == 501;
+  }
 }
@@ -0,0 +1,172 @@
+package org.gbif.rest.client.species;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Parameters of a single name match, used by the batch operations of {@link NameMatchService}.
+ * See {@link NameMatchService#match(String, String, String, String, String, String, String, String, boolean, boolean)}
+ * for the meaning of each parameter.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NameMatchQuery implements Serializable {
+
+  private String kingdom;
+  private String phylum;
+  @JsonProperty("class")
+  private String clazz;
+  private String order;
+  private String family;
+  private String genus;
+  private String rank;
+  private String name;
+  private boolean verbose;
+  private boolean strict;
+
+  public NameMatchQuery() {
+    //DO NOTHING
+  }
+
+  /**
+   * Full constructor.
+   */
+  public NameMatchQuery(String kingdom, String phylum, String clazz, String order, String family, String genus,
+                        String rank, String name, boolean verbose, boolean strict) {
+    this.kingdom = kingdom;
+    this.phylum = phylum;
+    this.clazz = clazz;
+    this.order = order;
+    this.family = family;
+    this.genus = genus;
+    this.rank = rank;
+    this.name = name;
+    this.verbose = verbose;
+    this.strict = strict;
+  }
+
+  public String getKingdom() {
+    return kingdom;
+  }
+
+  public void setKingdom(String kingdom) {
+    this.kingdom = kingdom;
+  }
+
+  public String getPhylum() {
+    return phylum;
+  }
+
+  public void setPhylum(String phylum) {
+    this.phylum = phylum;
+  }
+
+  public String getClazz() {
+    return clazz;
+  }
+
+  public void setClazz(String clazz) {
+    this.clazz = clazz;
+  }
+
+  public String getOrder() {
+    return order;
+  }
+
+  public void setOrder(String order) {
+    this.order = order;
+  }
+
+  public String getFamily() {
+    return family;
+  }
+
+  public void setFamily(String family) {
+    this.family = family;
+  }
+
+  public String getGenus() {
+    return genus;
+  }
+
+  public void setGenus(String genus) {
+    this.genus = genus;
+  }
+
+  public String getRank() {
+    return rank;
+  }
+
+  public void setRank(String rank) {
+    this.rank = rank;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public boolean isVerbose() {
+    return verbose;
+  }
+
+  public void setVerbose(boolean verbose) {
+    this.verbose = verbose;
+  }
+
+  public boolean isStrict() {
+    return strict;
+  }
+
+  public void setStrict(boolean strict) {
+    this.strict = strict;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    NameMatchQuery that = (NameMatchQuery) o;
+    return verbose == that.verbose &&
+        strict == that.strict &&
+        Objects.equals(kingdom, that.kingdom) &&
+        Objects.equals(phylum, that.phylum) &&
+        Objects.equals(clazz, that.clazz) &&
+        Objects.equals(order, that.order) &&
+        Objects.equals(family, that.family) &&
+        Objects.equals(genus, that.genus) &&
+        Objects.equals(rank, that.rank) &&
+        Objects.equals(name, that.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(kingdom, phylum, clazz, order, family, genus, rank, name, verbose, strict);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", NameMatchQuery.class.getSimpleName() + "[", "]")
+        .add("kingdom='" + kingdom + "'")
+        .add("phylum='" + phylum + "'")
+        .add("clazz='" + clazz + "'")
+        .add("order='" + order + "'")
+        .add("family='" + family + "'")
+        .add("genus='" + genus + "'")
+        .add("rank='" + rank + "'")
+        .add("name='" + name + "'")
+        .add("verbose=" + verbose)
+        .add("strict=" + strict)
+        .toString();
+  }
+}
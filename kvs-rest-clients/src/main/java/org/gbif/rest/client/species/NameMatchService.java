@@ -2,6 +2,9 @@ package org.gbif.rest.client.species;
 
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GBIF Backbone name match service.
@@ -27,4 +30,36 @@ public interface NameMatchService extends Closeable {
   NameUsageMatch match(String kingdom,String phylum, String clazz, String order, String family, String genus,
                        String rank, String name, boolean verbose, boolean strict);
 
+  /**
+   * Asynchronous version of {@link #match(String, String, String, String, String, String, String, String, boolean, boolean)}.
+   * The default implementation performs a blocking match in the calling thread.
+   * @return a future of a possible null name match
+   */
+  default CompletableFuture<NameUsageMatch> matchAsync(String kingdom, String phylum, String clazz, String order,
+                                                       String family, String genus, String rank, String name,
+                                                       boolean verbose, boolean strict) {
+    CompletableFuture<NameUsageMatch> future = new CompletableFuture<>();
+    try {
+      future.complete(match(kingdom, phylum, clazz, order, family, genus, rank, name, verbose, strict));
+    } catch (Exception ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+  /**
+   * Matches many names in a single operation.
+   * The default implementation performs a blocking match per query in the calling thread.
+   * @param queries parameters of each match
+   * @return the possible null matches, in the order of the queries
+   */
+  default List<NameUsageMatch> matchAll(List<NameMatchQuery> queries) {
+    List<NameUsageMatch> matches = new ArrayList<>(queries.size());
+    for (NameMatchQuery query : queries) {
+      matches.add(match(query.getKingdom(), query.getPhylum(), query.getClazz(), query.getOrder(), query.getFamily(),
+                        query.getGenus(), query.getRank(), query.getName(), query.isVerbose(), query.isStrict()));
+    }
+    return matches;
+  }
+
 }
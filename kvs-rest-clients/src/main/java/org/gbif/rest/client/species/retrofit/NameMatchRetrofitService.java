@@ -1,9 +1,14 @@
 package org.gbif.rest.client.species.retrofit;
 
+import org.gbif.rest.client.species.NameMatchQuery;
 import org.gbif.rest.client.species.NameUsageMatch;
 
+import java.util.List;
+
 import retrofit2.Call;
+import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.POST;
 import retrofit2.http.Query;
 
 /**
@@ -19,4 +24,10 @@ public interface NameMatchRetrofitService {
                               @Query("class") String clazz, @Query("order") String order, @Query("family") String family,
                               @Query("genus") String genus, @Query("rank") String rank, @Query("name") String name,
                               @Query("verbose") boolean verbose, @Query("strict") boolean strict);
+
+  /**
+   * See {@link org.gbif.rest.client.species.NameMatchService#matchAll(List)}
+   */
+  @POST("/v1/species/match2/batch")
+  Call<List<NameUsageMatch>> matchAll(@Body List<NameMatchQuery> queries);
 }
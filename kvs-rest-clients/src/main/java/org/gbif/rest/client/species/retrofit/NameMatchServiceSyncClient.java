@@ -2,7 +2,9 @@ package org.gbif.rest.client.species.retrofit;
 
 import okhttp3.OkHttpClient;
 import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.retrofit.BatchCall;
 import org.gbif.rest.client.retrofit.RetrofitClientFactory;
+import org.gbif.rest.client.species.NameMatchQuery;
 import org.gbif.rest.client.species.NameMatchService;
 import org.gbif.rest.client.species.NameUsageMatch;
 
@@ -12,9 +14,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
+import static org.gbif.rest.client.retrofit.AsyncCall.asyncCall;
 import static org.gbif.rest.client.retrofit.SyncCall.syncCall;
 
 /**
@@ -25,6 +30,9 @@ public class NameMatchServiceSyncClient implements NameMatchService {
   //Wrapped service
   private final NameMatchRetrofitService nameMatchRetrofitService;
 
+  //Batch calls of the matchAll endpoint
+  private final BatchCall<NameMatchQuery, NameUsageMatch> batchCall;
+
   private final OkHttpClient okHttpClient;
 
 
@@ -37,6 +45,11 @@ public class NameMatchServiceSyncClient implements NameMatchService {
     nameMatchRetrofitService = RetrofitClientFactory.createRetrofitClient(okHttpClient,
                                                                           clientConfiguration.getBaseApiUrl(),
                                                                           NameMatchRetrofitService.class);
+    batchCall = new BatchCall<>("name match", nameMatchRetrofitService::matchAll,
+                                query -> matchAsync(query.getKingdom(), query.getPhylum(), query.getClazz(),
+                                                    query.getOrder(), query.getFamily(), query.getGenus(),
+                                                    query.getRank(), query.getName(), query.isVerbose(),
+                                                    query.isStrict()));
   }
 
   /**
@@ -49,6 +62,27 @@ public class NameMatchServiceSyncClient implements NameMatchService {
                                                    strict));
   }
 
+  /**
+   * See {@link NameMatchService#matchAsync(String, String, String, String, String, String, String, String, boolean, boolean)}
+   */
+  @Override
+  public CompletableFuture<NameUsageMatch> matchAsync(String kingdom, String phylum, String clazz, String order,
+                                                      String family, String genus, String rank, String name,
+                                                      boolean verbose, boolean strict) {
+    return asyncCall(nameMatchRetrofitService.match(kingdom, phylum, clazz, order, family, genus, rank, name, verbose,
+                                                    strict));
+  }
+
+  /**
+   * Matches the queries in batch calls of up to 1000 queries. If the service doesn't have the batch endpoint, this and
+   * later batches are matched using concurrent single calls.
+   * See {@link NameMatchService#matchAll(List)}
+   */
+  @Override
+  public List<NameUsageMatch> matchAll(List<NameMatchQuery> queries) {
+    return batchCall.callAll(queries);
+  }
+
   @Override
   public void close() throws IOException {
     if (Objects.nonNull(okHttpClient) && Objects.nonNull(okHttpClient.cache())
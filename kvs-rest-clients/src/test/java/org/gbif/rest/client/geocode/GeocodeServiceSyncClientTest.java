@@ -0,0 +1,88 @@
+package org.gbif.rest.client.geocode;
+
+import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.geocode.retrofit.GeocodeServiceSyncClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the batch reverse lookups of {@link GeocodeServiceSyncClient} against a stub server, the batching and the
+ * fallback to single calls are tested by BatchCallTest.
+ */
+public class GeocodeServiceSyncClientTest {
+
+  private static final List<GeocodeQuery> QUERIES = Arrays.asList(new GeocodeQuery(56.0, 10.0),
+                                                                  new GeocodeQuery(-40.0, 100.0),
+                                                                  new GeocodeQuery(40.0, -4.0));
+
+  private MockWebServer server;
+
+  private GeocodeServiceSyncClient client;
+
+  /**
+   * Stub of the geocode service batch endpoint, coordinates with a positive latitude are in a country named after
+   * their longitude.
+   */
+  @Before
+  public void start() throws IOException {
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        if (!request.getPath().startsWith("/v1/geocode/reverse/batch")) {
+          return new MockResponse().setResponseCode(404);
+        }
+        String body = request.getBody().readUtf8();
+        return new MockResponse().setBody(QUERIES.stream()
+                                              .filter(query -> body.contains("\"lng\":" + query.getLongitude()))
+                                              .map(query -> locations(query.getLatitude(), query.getLongitude()))
+                                              .collect(Collectors.joining(",", "[", "]")));
+      }
+    });
+    server.start();
+    client = new GeocodeServiceSyncClient(ClientConfiguration.builder()
+                                            .withBaseApiUrl(server.url("/").toString())
+                                            .withTimeOut(10L)
+                                            .build());
+  }
+
+  private static String locations(Double latitude, Double longitude) {
+    return latitude < 0 ? "[]" :
+        "[{\"id\":\"" + longitude + "\",\"type\":\"Political\",\"source\":\"test\",\"isoCountryCode2Digit\":\"XX\"}]";
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    server.shutdown();
+  }
+
+  private static List<String> ids(List<Collection<Location>> locations) {
+    return locations.stream()
+        .map(coordinateLocations -> coordinateLocations.stream().map(Location::getId).collect(Collectors.joining()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * All the coordinates are sent in a single call, coordinates without locations have empty results.
+   */
+  @Test
+  public void batchTest() throws Exception {
+    Assert.assertEquals(Arrays.asList("10.0", "", "-4.0"), ids(client.reverseAll(QUERIES)));
+    Assert.assertEquals(1, server.getRequestCount());
+    Assert.assertEquals("POST", server.takeRequest().getMethod());
+  }
+}
@@ -0,0 +1,135 @@
+package org.gbif.rest.client.retrofit;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.POST;
+
+/**
+ * Tests the batches and the fallback to single calls of {@link BatchCall} against a stub server.
+ */
+public class BatchCallTest {
+
+  private static final List<Integer> QUERIES = Arrays.asList(1, 2, 3);
+
+  private static final List<Integer> RESULTS = Arrays.asList(2, 4, 6);
+
+  /** Batch endpoint of the stub, it doubles the queries. */
+  private interface DoublingService {
+
+    @POST("batch")
+    Call<List<Integer>> doubleAll(@Body List<Integer> queries);
+  }
+
+  private MockWebServer server;
+
+  private DoublingService service;
+
+  // Number of single calls performed
+  private final AtomicInteger singleCalls = new AtomicInteger();
+
+  /**
+   * Starts a stub that responds to batch calls with the given code, successful responses have the doubled queries.
+   */
+  private void start(int responseCode) throws IOException {
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        if (responseCode != 200) {
+          return new MockResponse().setResponseCode(responseCode);
+        }
+        String body = request.getBody().readUtf8();
+        return new MockResponse().setBody(Arrays.stream(body.substring(1, body.length() - 1).split(","))
+                                              .map(query -> String.valueOf(2 * Integer.parseInt(query.trim())))
+                                              .collect(Collectors.joining(",", "[", "]")));
+      }
+    });
+    server.start();
+    service = new Retrofit.Builder()
+        .baseUrl(server.url("/"))
+        .addConverterFactory(JacksonConverterFactory.create())
+        .build()
+        .create(DoublingService.class);
+  }
+
+  private BatchCall<Integer, Integer> batchCall(int maxBatchSize) {
+    return new BatchCall<>("doubling", maxBatchSize, service::doubleAll, query -> {
+      singleCalls.incrementAndGet();
+      return CompletableFuture.completedFuture(2 * query);
+    });
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  /**
+   * Queries are sent in batches of the maximum size, results keep the order of the queries.
+   */
+  @Test
+  public void batchTest() throws Exception {
+    start(200);
+    Assert.assertEquals(RESULTS, batchCall(2).callAll(QUERIES));
+    Assert.assertEquals(2, server.getRequestCount());
+    Assert.assertEquals("[1,2]", server.takeRequest().getBody().readUtf8());
+    Assert.assertEquals("[3]", server.takeRequest().getBody().readUtf8());
+    Assert.assertEquals(0, singleCalls.get());
+  }
+
+  /**
+   * Without the batch endpoint the queries are sent in single calls, and the endpoint is not tried again.
+   */
+  @Test
+  public void fallbackTest() throws Exception {
+    start(404);
+    BatchCall<Integer, Integer> batchCall = batchCall(2);
+    Assert.assertEquals(RESULTS, batchCall.callAll(QUERIES));
+    Assert.assertEquals(1, server.getRequestCount());
+    Assert.assertEquals(3, singleCalls.get());
+    Assert.assertEquals(Arrays.asList(8), batchCall.callAll(Arrays.asList(4)));
+    Assert.assertEquals(1, server.getRequestCount());
+    Assert.assertEquals(4, singleCalls.get());
+  }
+
+  /**
+   * Errors other than a missing endpoint are propagated without falling back to single calls.
+   */
+  @Test(expected = HttpException.class)
+  public void errorTest() throws Exception {
+    start(500);
+    try {
+      batchCall(2).callAll(QUERIES);
+    } finally {
+      Assert.assertEquals(0, singleCalls.get());
+    }
+  }
+
+  /**
+   * The exception of a failed single call is thrown unwrapped.
+   */
+  @Test(expected = RestClientException.class)
+  public void singleCallErrorTest() throws Exception {
+    start(404);
+    CompletableFuture<Integer> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RestClientException("Single call failed"));
+    new BatchCall<Integer, Integer>("doubling", 2, service::doubleAll, query -> failed).callAll(QUERIES);
+  }
+}
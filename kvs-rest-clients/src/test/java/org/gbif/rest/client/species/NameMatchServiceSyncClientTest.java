@@ -0,0 +1,86 @@
+package org.gbif.rest.client.species;
+
+import org.gbif.rest.client.configuration.ClientConfiguration;
+import org.gbif.rest.client.species.retrofit.NameMatchServiceSyncClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the batch name matches of {@link NameMatchServiceSyncClient} against a stub server, the batching and the
+ * fallback to single calls are tested by BatchCallTest.
+ */
+public class NameMatchServiceSyncClientTest {
+
+  private static final List<NameMatchQuery> QUERIES = Arrays.asList(
+      new NameMatchQuery("Animalia", null, "Aves", null, null, "Parus", "SPECIES", "Parus major", false, false),
+      new NameMatchQuery("Animalia", null, null, null, null, null, "SPECIES", "Puma concolor", false, false));
+
+  private MockWebServer server;
+
+  private NameMatchServiceSyncClient client;
+
+  /**
+   * Stub of the name match service batch endpoint, each match has the name of its query as usage name.
+   */
+  @Before
+  public void start() throws IOException {
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        if (!request.getPath().startsWith("/v1/species/match2/batch")) {
+          return new MockResponse().setResponseCode(404);
+        }
+        String body = request.getBody().readUtf8();
+        return new MockResponse().setBody(QUERIES.stream()
+                                              .filter(query -> body.contains(query.getName()))
+                                              .map(query -> match(query.getName()))
+                                              .collect(Collectors.joining(",", "[", "]")));
+      }
+    });
+    server.start();
+    client = new NameMatchServiceSyncClient(ClientConfiguration.builder()
+                                              .withBaseApiUrl(server.url("/").toString())
+                                              .withTimeOut(10L)
+                                              .build());
+  }
+
+  private static String match(String name) {
+    return "{\"usage\":{\"key\":1,\"name\":\"" + name + "\",\"rank\":\"SPECIES\"},"
+           + "\"diagnostics\":{\"matchType\":\"EXACT\",\"confidence\":99}}";
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    client.close();
+    server.shutdown();
+  }
+
+  private static List<String> names(List<NameUsageMatch> matches) {
+    return matches.stream().map(match -> match.getUsage().getName()).collect(Collectors.toList());
+  }
+
+  /**
+   * All the queries are sent in a single call.
+   */
+  @Test
+  public void batchTest() throws Exception {
+    Assert.assertEquals(Arrays.asList("Parus major", "Puma concolor"), names(client.matchAll(QUERIES)));
+    Assert.assertEquals(1, server.getRequestCount());
+    RecordedRequest request = server.takeRequest();
+    Assert.assertEquals("POST", request.getMethod());
+    Assert.assertTrue(request.getBody().readUtf8().contains("\"class\":\"Aves\""));
+  }
+}